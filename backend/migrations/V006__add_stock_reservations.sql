@@ -0,0 +1,26 @@
+-- Soft stock reservations created at validation and consumed at fill time.
+-- quantity_reserved on inventory_items is maintained from flushed in-memory deltas.
+
+ALTER TABLE inventory_schema.inventory_items ADD COLUMN IF NOT EXISTS quantity_reserved DECIMAL(10,2) NOT NULL DEFAULT 0;
+
+-- version is now used for optimistic locking, so it must never be null
+UPDATE inventory_schema.inventory_items SET version = 1 WHERE version IS NULL;
+ALTER TABLE inventory_schema.inventory_items ALTER COLUMN version SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS inventory_schema.stock_reservations (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    inventory_item_id UUID NOT NULL REFERENCES inventory_schema.inventory_items(id),
+    quantity DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'active',
+    reference_type VARCHAR(50),
+    reference_id UUID,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    consumed_at TIMESTAMP WITH TIME ZONE,
+    released_at TIMESTAMP WITH TIME ZONE,
+    reserved_by UUID REFERENCES user_schema.users(id),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_inventory_item_id ON inventory_schema.stock_reservations(inventory_item_id);
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_reference ON inventory_schema.stock_reservations(reference_type, reference_id);
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_active_expiry ON inventory_schema.stock_reservations(expires_at) WHERE status = 'active';
@@ -0,0 +1,23 @@
+-- Snapshots of the inventory projection rebuilt from inventory_transactions.
+-- A snapshot holds item totals (batch_id IS NULL) and per-batch balances as of a point in time,
+-- so point-in-time queries only replay transactions recorded after the snapshot.
+
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_snapshots (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    as_of TIMESTAMP WITH TIME ZONE NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_snapshot_balances (
+    snapshot_id UUID NOT NULL REFERENCES inventory_schema.inventory_snapshots(id) ON DELETE CASCADE,
+    inventory_item_id UUID NOT NULL,
+    batch_id UUID,
+    quantity DECIMAL(14,2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_snapshots_as_of ON inventory_schema.inventory_snapshots(as_of);
+CREATE INDEX IF NOT EXISTS idx_inventory_snapshot_balances_snapshot_id ON inventory_schema.inventory_snapshot_balances(snapshot_id);
+
+-- Replay streams transactions in (transaction_date, id) order
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_date_id ON inventory_schema.inventory_transactions(transaction_date, id);
@@ -0,0 +1,7 @@
+-- Support for automatically drafted purchase orders
+
+CREATE SEQUENCE IF NOT EXISTS inventory_schema.purchase_order_number_seq START WITH 1;
+
+-- Open-order and last-supplier lookups per inventory item
+CREATE INDEX IF NOT EXISTS idx_purchase_order_items_inventory_item_id ON inventory_schema.purchase_order_items(inventory_item_id);
+CREATE INDEX IF NOT EXISTS idx_purchase_order_items_purchase_order_id ON inventory_schema.purchase_order_items(purchase_order_id);
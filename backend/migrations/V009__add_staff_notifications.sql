@@ -0,0 +1,9 @@
+-- Staff alerts (e.g. expiring stock) are not addressed to a patient
+
+ALTER TABLE notification_schema.notifications ALTER COLUMN patient_id DROP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_reference ON notification_schema.notifications(reference_type, reference_id);
+
+-- Expiry calendar load and FEFO lookups only need batches with stock left
+CREATE INDEX IF NOT EXISTS idx_inventory_batches_remaining ON inventory_schema.inventory_batches(inventory_item_id, expiration_date)
+    WHERE quantity_remaining > 0;
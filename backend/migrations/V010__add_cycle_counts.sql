@@ -0,0 +1,26 @@
+-- Cycle counts: expected quantities are snapshotted when the count starts
+
+CREATE TABLE IF NOT EXISTS inventory_schema.cycle_counts (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    status VARCHAR(20) NOT NULL DEFAULT 'open',
+    bin_location_prefix VARCHAR(50),
+    item_count INTEGER NOT NULL DEFAULT 0,
+    adjustment_count INTEGER,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_by UUID REFERENCES user_schema.users(id),
+    posted_at TIMESTAMP WITH TIME ZONE,
+    posted_by UUID REFERENCES user_schema.users(id)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_schema.cycle_count_lines (
+    cycle_count_id UUID NOT NULL REFERENCES inventory_schema.cycle_counts(id) ON DELETE CASCADE,
+    inventory_item_id UUID NOT NULL REFERENCES inventory_schema.inventory_items(id),
+    ndc_code VARCHAR(11) NOT NULL,
+    quantity_expected DECIMAL(10,2) NOT NULL,
+    quantity_counted DECIMAL(10,2),
+    counted_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (cycle_count_id, inventory_item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_cycle_count_lines_ndc ON inventory_schema.cycle_count_lines(cycle_count_id, ndc_code);
+CREATE INDEX IF NOT EXISTS idx_stock_adjustments_inventory_item_id ON inventory_schema.stock_adjustments(inventory_item_id);
@@ -0,0 +1,31 @@
+-- Inventory valuation materialized per item and kept current from inventory_transactions.
+-- fifo_value is the cost of the batches still on hand; average_cost is the moving weighted
+-- average of receipt costs.
+
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_valuations (
+    inventory_item_id UUID PRIMARY KEY REFERENCES inventory_schema.inventory_items(id),
+    therapeutic_class VARCHAR(100),
+    quantity DECIMAL(14,2) NOT NULL,
+    average_cost DECIMAL(14,4) NOT NULL,
+    fifo_value DECIMAL(16,2) NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Position of the last transaction folded into inventory_valuations (single row)
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_valuation_cursor (
+    id SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    transaction_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    transaction_id UUID NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_valuation_snapshots (
+    period_end DATE NOT NULL,
+    inventory_item_id UUID NOT NULL,
+    therapeutic_class VARCHAR(100),
+    quantity DECIMAL(14,2) NOT NULL,
+    average_cost DECIMAL(14,4) NOT NULL,
+    fifo_value DECIMAL(16,2) NOT NULL,
+    PRIMARY KEY (period_end, inventory_item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_batch_id ON inventory_schema.inventory_transactions(batch_id);
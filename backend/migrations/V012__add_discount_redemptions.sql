@@ -0,0 +1,23 @@
+-- Discount redemptions: per-patient usage counters and a redemption log
+
+CREATE TABLE IF NOT EXISTS billing_schema.discount_patient_usage (
+    discount_id UUID NOT NULL REFERENCES billing_schema.discounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL,
+    times_used INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (discount_id, patient_id)
+);
+
+CREATE TABLE IF NOT EXISTS billing_schema.discount_redemptions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    discount_id UUID NOT NULL REFERENCES billing_schema.discounts(id),
+    patient_id UUID NOT NULL,
+    invoice_id UUID REFERENCES billing_schema.invoices(id),
+    discount_amount DECIMAL(10,2) NOT NULL,
+    redeemed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    redeemed_by UUID REFERENCES user_schema.users(id),
+    reversed_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_discount_redemptions_discount_id ON billing_schema.discount_redemptions(discount_id);
+CREATE INDEX IF NOT EXISTS idx_discount_redemptions_invoice_id ON billing_schema.discount_redemptions(invoice_id);
+CREATE INDEX IF NOT EXISTS idx_discounts_active_expiration ON billing_schema.discounts(expiration_date) WHERE is_active = true;
@@ -0,0 +1,11 @@
+-- Invoices are generated from filled prescriptions, one invoice per prescription
+
+CREATE SEQUENCE IF NOT EXISTS billing_schema.invoice_number_seq START WITH 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_invoices_prescription_id
+    ON billing_schema.invoices(prescription_id);
+
+DROP INDEX IF EXISTS billing_schema.idx_invoices_prescription_id;
+
+CREATE INDEX IF NOT EXISTS idx_invoice_items_invoice_id
+    ON billing_schema.invoice_items(invoice_id);
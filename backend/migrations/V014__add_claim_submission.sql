@@ -0,0 +1,10 @@
+-- Claims are created as pending and submitted to payers in batches
+
+CREATE SEQUENCE IF NOT EXISTS billing_schema.claim_number_seq START WITH 1;
+
+ALTER TABLE billing_schema.insurance_claims
+    ADD COLUMN IF NOT EXISTS submission_attempts INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_insurance_claims_pending
+    ON billing_schema.insurance_claims(patient_insurance_id)
+    WHERE status IN ('pending', 'submitted');
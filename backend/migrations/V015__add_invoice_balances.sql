@@ -0,0 +1,39 @@
+-- Outstanding balance of every invoice, maintained by payment posting
+
+CREATE SEQUENCE IF NOT EXISTS billing_schema.payment_number_seq START WITH 1;
+
+CREATE TABLE IF NOT EXISTS billing_schema.invoice_balances (
+    invoice_id UUID PRIMARY KEY REFERENCES billing_schema.invoices(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL,
+    invoice_date DATE NOT NULL,
+    due_date DATE,
+    total_amount DECIMAL(10,2) NOT NULL,
+    paid_amount DECIMAL(10,2) NOT NULL DEFAULT 0,
+    outstanding_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    last_payment_date DATE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_balances_open
+    ON billing_schema.invoice_balances(invoice_date)
+    WHERE outstanding_amount > 0;
+
+CREATE INDEX IF NOT EXISTS idx_invoice_balances_patient_id
+    ON billing_schema.invoice_balances(patient_id);
+
+-- Remittance lines are posted at most once per invoice
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payments_invoice_transaction
+    ON billing_schema.payments(invoice_id, transaction_id)
+    WHERE transaction_id IS NOT NULL;
+
+INSERT INTO billing_schema.invoice_balances (invoice_id, patient_id, invoice_date, due_date, total_amount,
+                                             paid_amount, outstanding_amount, status, last_payment_date)
+SELECT i.id, i.patient_id, i.invoice_date, i.due_date, i.total_amount, COALESCE(p.paid, 0),
+       CASE WHEN i.status = 'cancelled' THEN 0 ELSE i.total_amount - COALESCE(p.paid, 0) END,
+       i.status, p.last_payment_date
+FROM billing_schema.invoices i
+LEFT JOIN (SELECT invoice_id, SUM(amount) AS paid, MAX(payment_date) AS last_payment_date
+           FROM billing_schema.payments WHERE status = 'completed'
+           GROUP BY invoice_id) p ON p.invoice_id = i.id
+ON CONFLICT (invoice_id) DO NOTHING;
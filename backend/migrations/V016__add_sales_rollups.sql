@@ -0,0 +1,19 @@
+-- Sales pre-aggregated per hour, day and month, by payer type and therapeutic class.
+-- Rows with an empty therapeutic class hold invoice totals; the others hold medication lines only.
+
+ALTER TABLE billing_schema.invoices ADD COLUMN IF NOT EXISTS payer_type VARCHAR(50);
+
+CREATE TABLE IF NOT EXISTS billing_schema.sales_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    payer_type VARCHAR(50) NOT NULL,
+    therapeutic_class VARCHAR(100) NOT NULL,
+    invoice_count INTEGER NOT NULL DEFAULT 0,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    quantity DECIMAL(14,2) NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    copay_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    insurance_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    discount_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, payer_type, therapeutic_class)
+);
@@ -0,0 +1,100 @@
+-- Normalized patient search index: trigram and phonetic name keys, DOB and phone digits.
+-- Kept in step with patients by trigger, so every write path updates it.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS fuzzystrmatch;
+
+CREATE TABLE IF NOT EXISTS patient_schema.patient_search_index (
+    patient_id UUID PRIMARY KEY REFERENCES patient_schema.patients(id) ON DELETE CASCADE,
+    last_name_key VARCHAR(100) NOT NULL,
+    first_name_key VARCHAR(100) NOT NULL,
+    full_name_key VARCHAR(201) NOT NULL,
+    last_name_phonetic VARCHAR(20),
+    first_name_phonetic VARCHAR(20),
+    date_of_birth DATE NOT NULL,
+    phone_digits VARCHAR(20) NOT NULL,
+    phone_secondary_digits VARCHAR(20),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_search_last_name_trgm
+    ON patient_schema.patient_search_index USING gin (last_name_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_search_first_name_trgm
+    ON patient_schema.patient_search_index USING gin (first_name_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_search_full_name_trgm
+    ON patient_schema.patient_search_index USING gin (full_name_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_search_last_name_phonetic
+    ON patient_schema.patient_search_index(last_name_phonetic);
+CREATE INDEX IF NOT EXISTS idx_patient_search_first_name_phonetic
+    ON patient_schema.patient_search_index(first_name_phonetic);
+CREATE INDEX IF NOT EXISTS idx_patient_search_dob
+    ON patient_schema.patient_search_index(date_of_birth);
+CREATE INDEX IF NOT EXISTS idx_patient_search_phone_trgm
+    ON patient_schema.patient_search_index USING gin (phone_digits gin_trgm_ops, phone_secondary_digits gin_trgm_ops);
+
+-- Lower case letters only, so "O'Brien" and "obrien" share a key
+CREATE OR REPLACE FUNCTION patient_schema.name_key(name TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT lower(regexp_replace(coalesce(name, ''), '[^[:alpha:]]', '', 'g')) $$;
+
+CREATE OR REPLACE FUNCTION patient_schema.refresh_patient_search() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF NOT coalesce(NEW.is_active, true) OR NEW.deleted_at IS NOT NULL THEN
+        DELETE FROM patient_schema.patient_search_index WHERE patient_id = NEW.id;
+        RETURN NULL;
+    END IF;
+    INSERT INTO patient_schema.patient_search_index (patient_id, last_name_key, first_name_key, full_name_key,
+                                                     last_name_phonetic, first_name_phonetic, date_of_birth,
+                                                     phone_digits, phone_secondary_digits, updated_at)
+    VALUES (NEW.id,
+            patient_schema.name_key(NEW.last_name),
+            patient_schema.name_key(NEW.first_name),
+            patient_schema.name_key(NEW.first_name) || ' ' || patient_schema.name_key(NEW.last_name),
+            nullif(dmetaphone(patient_schema.name_key(NEW.last_name)), ''),
+            nullif(dmetaphone(patient_schema.name_key(NEW.first_name)), ''),
+            NEW.date_of_birth,
+            regexp_replace(NEW.phone_primary, '[^0-9]', '', 'g'),
+            nullif(regexp_replace(coalesce(NEW.phone_secondary, ''), '[^0-9]', '', 'g'), ''),
+            CURRENT_TIMESTAMP)
+    ON CONFLICT (patient_id) DO UPDATE SET
+        last_name_key = EXCLUDED.last_name_key,
+        first_name_key = EXCLUDED.first_name_key,
+        full_name_key = EXCLUDED.full_name_key,
+        last_name_phonetic = EXCLUDED.last_name_phonetic,
+        first_name_phonetic = EXCLUDED.first_name_phonetic,
+        date_of_birth = EXCLUDED.date_of_birth,
+        phone_digits = EXCLUDED.phone_digits,
+        phone_secondary_digits = EXCLUDED.phone_secondary_digits,
+        updated_at = EXCLUDED.updated_at;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_patients_search_insert ON patient_schema.patients;
+CREATE TRIGGER trg_patients_search_insert
+    AFTER INSERT ON patient_schema.patients
+    FOR EACH ROW EXECUTE FUNCTION patient_schema.refresh_patient_search();
+
+DROP TRIGGER IF EXISTS trg_patients_search_update ON patient_schema.patients;
+CREATE TRIGGER trg_patients_search_update
+    AFTER UPDATE OF first_name, last_name, date_of_birth, phone_primary, phone_secondary, is_active, deleted_at
+    ON patient_schema.patients
+    FOR EACH ROW EXECUTE FUNCTION patient_schema.refresh_patient_search();
+
+INSERT INTO patient_schema.patient_search_index (patient_id, last_name_key, first_name_key, full_name_key,
+                                                 last_name_phonetic, first_name_phonetic, date_of_birth,
+                                                 phone_digits, phone_secondary_digits)
+SELECT id,
+       patient_schema.name_key(last_name),
+       patient_schema.name_key(first_name),
+       patient_schema.name_key(first_name) || ' ' || patient_schema.name_key(last_name),
+       nullif(dmetaphone(patient_schema.name_key(last_name)), ''),
+       nullif(dmetaphone(patient_schema.name_key(first_name)), ''),
+       date_of_birth,
+       regexp_replace(phone_primary, '[^0-9]', '', 'g'),
+       nullif(regexp_replace(coalesce(phone_secondary, ''), '[^0-9]', '', 'g'), '')
+FROM patient_schema.patients
+WHERE coalesce(is_active, true) AND deleted_at IS NULL
+ON CONFLICT (patient_id) DO NOTHING;
@@ -0,0 +1,68 @@
+-- Per-patient medication history read model, one row per original fill or refill.
+-- Maintained from prescription fill and refill events; rows are immutable once written.
+
+CREATE TABLE IF NOT EXISTS patient_schema.medication_history (
+    -- prescription item id for the original fill, prescription refill id for a refill
+    fill_id UUID PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    filled_date DATE NOT NULL,
+    run_out_date DATE NOT NULL,
+    prescription_id UUID NOT NULL,
+    prescription_number VARCHAR(20) NOT NULL,
+    prescription_item_id UUID,
+    refill_number INTEGER NOT NULL,
+    refills_remaining INTEGER,
+    medication_id UUID,
+    ndc_code VARCHAR(11),
+    medication_name VARCHAR(255) NOT NULL,
+    generic_name VARCHAR(255),
+    strength VARCHAR(50),
+    dosage_form VARCHAR(50),
+    therapeutic_class VARCHAR(100),
+    quantity DECIMAL(10,2) NOT NULL,
+    quantity_unit VARCHAR(20),
+    days_supply INTEGER NOT NULL,
+    sig TEXT,
+    prescriber_name VARCHAR(255),
+    prescriber_npi VARCHAR(10),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_medication_history_patient_filled
+    ON patient_schema.medication_history(patient_id, filled_date DESC, fill_id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_medication_history_patient_run_out
+    ON patient_schema.medication_history(patient_id, run_out_date);
+
+INSERT INTO patient_schema.medication_history (fill_id, patient_id, filled_date, run_out_date, prescription_id,
+                                               prescription_number, prescription_item_id, refill_number,
+                                               refills_remaining, medication_id, ndc_code, medication_name,
+                                               generic_name, strength, dosage_form, therapeutic_class, quantity,
+                                               quantity_unit, days_supply, sig, prescriber_name, prescriber_npi)
+SELECT pi.id, p.patient_id, COALESCE(p.dispensed_at, p.filled_at)::date,
+       COALESCE(p.dispensed_at, p.filled_at)::date + pi.days_supply, p.id, p.prescription_number, pi.id, 0,
+       pi.refills_authorized, m.id, COALESCE(pi.dispensed_ndc, m.ndc_code),
+       COALESCE(m.drug_name, pi.written_medication_name), m.generic_name, m.strength, m.dosage_form,
+       m.therapeutic_class, pi.dispensed_quantity, pi.quantity_unit, pi.days_supply, pi.sig, p.prescriber_name,
+       p.prescriber_npi
+FROM prescription_schema.prescription_items pi
+JOIN prescription_schema.prescriptions p ON p.id = pi.prescription_id
+LEFT JOIN prescription_schema.medications m ON m.id = COALESCE(pi.dispensed_medication_id, pi.medication_id)
+WHERE pi.dispensed_quantity IS NOT NULL AND COALESCE(p.dispensed_at, p.filled_at) IS NOT NULL
+ON CONFLICT (fill_id) DO NOTHING;
+
+INSERT INTO patient_schema.medication_history (fill_id, patient_id, filled_date, run_out_date, prescription_id,
+                                               prescription_number, prescription_item_id, refill_number,
+                                               refills_remaining, medication_id, ndc_code, medication_name,
+                                               generic_name, strength, dosage_form, therapeutic_class, quantity,
+                                               quantity_unit, days_supply, sig, prescriber_name, prescriber_npi)
+SELECT r.id, p.patient_id, r.filled_date, r.filled_date + r.days_supply, p.id, p.prescription_number,
+       r.prescription_item_id, r.refill_number, GREATEST(pi.refills_authorized - r.refill_number, 0), m.id,
+       r.ndc_code, COALESCE(m.drug_name, pi.written_medication_name, r.ndc_code), m.generic_name, m.strength,
+       m.dosage_form, m.therapeutic_class, r.quantity_dispensed, pi.quantity_unit, r.days_supply, pi.sig,
+       p.prescriber_name, p.prescriber_npi
+FROM prescription_schema.prescription_refills r
+JOIN prescription_schema.prescriptions p ON p.id = r.prescription_id
+LEFT JOIN prescription_schema.prescription_items pi ON pi.id = r.prescription_item_id
+LEFT JOIN prescription_schema.medications m ON m.ndc_code = r.ndc_code
+ON CONFLICT (fill_id) DO NOTHING;
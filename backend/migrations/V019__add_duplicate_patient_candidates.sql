@@ -0,0 +1,27 @@
+-- Possible duplicate patient registrations found by the nightly detection run, awaiting review
+
+CREATE TABLE IF NOT EXISTS patient_schema.duplicate_candidates (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    -- ordered pair, so a pair is stored once whichever way it was found
+    patient_id_1 UUID NOT NULL REFERENCES patient_schema.patients(id) ON DELETE CASCADE,
+    patient_id_2 UUID NOT NULL REFERENCES patient_schema.patients(id) ON DELETE CASCADE,
+    score DECIMAL(5,4) NOT NULL,
+    name_score DECIMAL(5,4) NOT NULL,
+    dob_score DECIMAL(5,4) NOT NULL,
+    phone_score DECIMAL(5,4) NOT NULL,
+    address_score DECIMAL(5,4) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending',
+    detected_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    last_seen_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    reviewed_at TIMESTAMP WITH TIME ZONE,
+    reviewed_by UUID REFERENCES user_schema.users(id),
+    CHECK (patient_id_1 < patient_id_2),
+    UNIQUE (patient_id_1, patient_id_2)
+);
+
+CREATE INDEX IF NOT EXISTS idx_duplicate_candidates_pending
+    ON patient_schema.duplicate_candidates(score DESC)
+    WHERE status = 'pending';
+
+CREATE INDEX IF NOT EXISTS idx_duplicate_candidates_patient_id_2
+    ON patient_schema.duplicate_candidates(patient_id_2);
@@ -0,0 +1,11 @@
+-- Dispatch state: when a pending notification is due next and until when a sending node holds it
+
+ALTER TABLE notification_schema.notifications
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_due ON notification_schema.notifications(next_attempt_at)
+    WHERE status = 'pending';
+
+CREATE INDEX IF NOT EXISTS idx_notifications_claimed ON notification_schema.notifications(claimed_until)
+    WHERE status = 'sending';
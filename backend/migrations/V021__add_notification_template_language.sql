@@ -0,0 +1,10 @@
+-- Templates come in one variant per language; the name alone is no longer unique
+
+ALTER TABLE notification_schema.notification_templates
+    ADD COLUMN IF NOT EXISTS language VARCHAR(10) NOT NULL DEFAULT 'en';
+
+ALTER TABLE notification_schema.notification_templates
+    DROP CONSTRAINT IF EXISTS notification_templates_template_name_key;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_notification_templates_name_language
+    ON notification_schema.notification_templates(template_name, language);
@@ -0,0 +1,25 @@
+-- Patient notifications wait here for a short window, so several for the same patient,
+-- notification type and reference type go out as one message
+
+CREATE TABLE IF NOT EXISTS notification_schema.coalescing_notifications (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    patient_id UUID NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    reference_type VARCHAR(50) NOT NULL,
+    reference_id UUID,
+    template_id UUID REFERENCES notification_schema.notification_templates(id),
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    message TEXT NOT NULL,
+    item_label VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    release_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_coalescing_notifications_key
+    ON notification_schema.coalescing_notifications(patient_id, notification_type, reference_type);
+CREATE INDEX IF NOT EXISTS idx_coalescing_notifications_release
+    ON notification_schema.coalescing_notifications(release_at);
+
+-- References of all messages merged into a notification; reference_id keeps the first one
+ALTER TABLE notification_schema.notifications ADD COLUMN IF NOT EXISTS coalesced_reference_ids UUID[];
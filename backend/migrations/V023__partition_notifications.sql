@@ -0,0 +1,84 @@
+-- Notifications are partitioned by month of created_at. Partitions are created ahead by the
+-- notification retention job through create_notification_partition, and partitions past the
+-- retention period are archived to files and dropped. The primary key has to include the
+-- partition key.
+
+ALTER TABLE notification_schema.notifications RENAME TO notifications_unpartitioned;
+
+CREATE TABLE notification_schema.notifications (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    patient_id UUID,
+    template_id UUID REFERENCES notification_schema.notification_templates(id),
+    notification_type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    message TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending',
+    sent_at TIMESTAMP WITH TIME ZONE,
+    delivered_at TIMESTAMP WITH TIME ZONE,
+    external_id VARCHAR(255),
+    error_message TEXT,
+    retry_count INTEGER DEFAULT 0,
+    max_retries INTEGER DEFAULT 3,
+    reference_type VARCHAR(50),
+    reference_id UUID,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_until TIMESTAMP WITH TIME ZONE,
+    coalesced_reference_ids UUID[],
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside all monthly partitions, so an insert never fails; it stays empty while
+-- partitions are created ahead
+CREATE TABLE notification_schema.notifications_default
+    PARTITION OF notification_schema.notifications DEFAULT;
+
+CREATE OR REPLACE FUNCTION notification_schema.create_notification_partition(month DATE) RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', month)::date;
+    partition_name TEXT := 'notifications_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass('notification_schema.' || partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE notification_schema.%I PARTITION OF notification_schema.notifications '
+                           'FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, (month_start + INTERVAL '1 month')::date);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    first_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(min(created_at), CURRENT_TIMESTAMP))::date
+    INTO first_month
+    FROM notification_schema.notifications_unpartitioned;
+
+    WHILE first_month <= (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::date LOOP
+        PERFORM notification_schema.create_notification_partition(first_month);
+        first_month := (first_month + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO notification_schema.notifications (id, patient_id, template_id, notification_type, recipient, subject,
+                                               message, status, sent_at, delivered_at, external_id, error_message,
+                                               retry_count, max_retries, reference_type, reference_id, created_at,
+                                               next_attempt_at, claimed_until, coalesced_reference_ids)
+SELECT id, patient_id, template_id, notification_type, recipient, subject, message, status, sent_at, delivered_at,
+       external_id, error_message, retry_count, max_retries, reference_type, reference_id,
+       COALESCE(created_at, CURRENT_TIMESTAMP), next_attempt_at, claimed_until, coalesced_reference_ids
+FROM notification_schema.notifications_unpartitioned;
+
+DROP TABLE notification_schema.notifications_unpartitioned;
+
+-- The status and created_at indexes are not recreated: dispatch uses the partial indexes and
+-- time ranges are served by partition pruning
+CREATE INDEX IF NOT EXISTS idx_notifications_patient_id ON notification_schema.notifications(patient_id);
+CREATE INDEX IF NOT EXISTS idx_notifications_reference ON notification_schema.notifications(reference_type, reference_id);
+CREATE INDEX IF NOT EXISTS idx_notifications_due ON notification_schema.notifications(next_attempt_at)
+    WHERE status = 'pending';
+CREATE INDEX IF NOT EXISTS idx_notifications_claimed ON notification_schema.notifications(claimed_until)
+    WHERE status = 'sending';
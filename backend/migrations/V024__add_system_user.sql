@@ -0,0 +1,8 @@
+-- Inactive built-in user recorded as created_by/performed_by for work done by scheduled tasks.
+-- It cannot log in: it is inactive and its password hash matches no password.
+
+INSERT INTO user_schema.users (id, username, email, password_hash, first_name, last_name, role,
+                               user_type, is_active, is_email_verified)
+VALUES ('00000000-0000-0000-0000-000000000001', 'system', 'system@medhelp.local', '!', 'System', 'Process', 'SYSTEM',
+        'INTERNAL', false, true)
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,14 @@
+-- Cycle count variances above the approval threshold wait for a second person before stock changes.
+-- status: pending_approval -> applied | rejected; existing adjustments were applied when recorded.
+
+ALTER TABLE inventory_schema.stock_adjustments ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'applied';
+ALTER TABLE inventory_schema.stock_adjustments ADD COLUMN IF NOT EXISTS cycle_count_id UUID REFERENCES inventory_schema.cycle_counts(id);
+ALTER TABLE inventory_schema.stock_adjustments ADD COLUMN IF NOT EXISTS rejected_by UUID REFERENCES user_schema.users(id);
+ALTER TABLE inventory_schema.stock_adjustments ADD COLUMN IF NOT EXISTS rejected_at TIMESTAMP WITH TIME ZONE;
+
+-- Cycle count adjustments were recorded as approved by the person who counted; nobody approved them
+UPDATE inventory_schema.stock_adjustments SET approved_by = NULL, approved_at = NULL
+WHERE adjustment_type = 'cycle_count' AND requires_approval = false AND approved_by = performed_by;
+
+CREATE INDEX IF NOT EXISTS idx_stock_adjustments_pending_approval ON inventory_schema.stock_adjustments(created_at)
+    WHERE status = 'pending_approval';
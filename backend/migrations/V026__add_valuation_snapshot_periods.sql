@@ -0,0 +1,12 @@
+-- One row per stored month-end snapshot, so a month with no snapshot can be told apart
+-- from a snapshot of an empty inventory.
+
+CREATE TABLE IF NOT EXISTS inventory_schema.inventory_valuation_snapshot_periods (
+    period_end DATE PRIMARY KEY,
+    item_count INTEGER NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO inventory_schema.inventory_valuation_snapshot_periods (period_end, item_count)
+SELECT period_end, COUNT(*) FROM inventory_schema.inventory_valuation_snapshots GROUP BY period_end
+ON CONFLICT (period_end) DO NOTHING;
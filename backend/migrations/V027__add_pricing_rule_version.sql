@@ -0,0 +1,23 @@
+-- Counter bumped by every write to pricing_rules, whatever path made it. Each node polls it
+-- and recompiles its in-memory rule set when it moved.
+
+CREATE TABLE IF NOT EXISTS billing_schema.pricing_rule_version (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO billing_schema.pricing_rule_version (id, version) VALUES (1, 1) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION billing_schema.bump_pricing_rule_version() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE billing_schema.pricing_rule_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_pricing_rules_version ON billing_schema.pricing_rules;
+CREATE TRIGGER trg_pricing_rules_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON billing_schema.pricing_rules
+    FOR EACH STATEMENT EXECUTE FUNCTION billing_schema.bump_pricing_rule_version();
@@ -0,0 +1,7 @@
+-- Name words shorter than three letters are matched by prefix only (LIKE 'ab%'), which the
+-- trigram indexes cannot narrow down; B-tree pattern indexes serve those prefixes.
+
+CREATE INDEX IF NOT EXISTS idx_patient_search_last_name_prefix
+    ON patient_schema.patient_search_index(last_name_key text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_search_first_name_prefix
+    ON patient_schema.patient_search_index(first_name_key text_pattern_ops);
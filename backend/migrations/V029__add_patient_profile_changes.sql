@@ -0,0 +1,67 @@
+-- Patients whose profile changed, whatever path made the write. Every node polls the rows of
+-- transactions that have finished since its last poll and evicts those patients from its
+-- profile cache. Rows are keyed by the writing transaction id so a poll never skips a
+-- transaction that commits after a later one.
+
+CREATE TABLE IF NOT EXISTS patient_schema.patient_profile_changes (
+    id BIGSERIAL PRIMARY KEY,
+    txid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    patient_id UUID NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_profile_changes_txid
+    ON patient_schema.patient_profile_changes(txid);
+CREATE INDEX IF NOT EXISTS idx_patient_profile_changes_changed_at
+    ON patient_schema.patient_profile_changes(changed_at);
+
+-- TG_ARGV[0] names the column holding the patient id; one row per patient per statement
+CREATE OR REPLACE FUNCTION patient_schema.record_patient_profile_changes() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    changed TEXT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        changed := format('SELECT %1$I FROM new_rows', TG_ARGV[0]);
+    ELSIF TG_OP = 'DELETE' THEN
+        changed := format('SELECT %1$I FROM old_rows', TG_ARGV[0]);
+    ELSE
+        changed := format('SELECT %1$I FROM new_rows UNION SELECT %1$I FROM old_rows', TG_ARGV[0]);
+    END IF;
+    EXECUTE 'INSERT INTO patient_schema.patient_profile_changes (patient_id) ' ||
+            'SELECT DISTINCT c.patient_id FROM (' || changed || ') AS c(patient_id) ' ||
+            'WHERE c.patient_id IS NOT NULL';
+    RETURN NULL;
+END;
+$$;
+
+DO
+$$
+DECLARE
+    t RECORD;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES ('patients', 'id'),
+                                   ('patient_allergies', 'patient_id'),
+                                   ('patient_conditions', 'patient_id'),
+                                   ('patient_insurance', 'patient_id'),
+                                   ('patient_prescribers', 'patient_id')) AS v(table_name, column_name)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS trg_%1$s_profile_insert ON patient_schema.%1$I', t.table_name);
+        EXECUTE format('CREATE TRIGGER trg_%1$s_profile_insert AFTER INSERT ON patient_schema.%1$I ' ||
+                       'REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT ' ||
+                       'EXECUTE FUNCTION patient_schema.record_patient_profile_changes(%2$L)',
+                       t.table_name, t.column_name);
+        EXECUTE format('DROP TRIGGER IF EXISTS trg_%1$s_profile_update ON patient_schema.%1$I', t.table_name);
+        EXECUTE format('CREATE TRIGGER trg_%1$s_profile_update AFTER UPDATE ON patient_schema.%1$I ' ||
+                       'REFERENCING NEW TABLE AS new_rows OLD TABLE AS old_rows FOR EACH STATEMENT ' ||
+                       'EXECUTE FUNCTION patient_schema.record_patient_profile_changes(%2$L)',
+                       t.table_name, t.column_name);
+        EXECUTE format('DROP TRIGGER IF EXISTS trg_%1$s_profile_delete ON patient_schema.%1$I', t.table_name);
+        EXECUTE format('CREATE TRIGGER trg_%1$s_profile_delete AFTER DELETE ON patient_schema.%1$I ' ||
+                       'REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT ' ||
+                       'EXECUTE FUNCTION patient_schema.record_patient_profile_changes(%2$L)',
+                       t.table_name, t.column_name);
+    END LOOP;
+END;
+$$;
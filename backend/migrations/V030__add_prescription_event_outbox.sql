@@ -0,0 +1,49 @@
+-- Prescription events waiting to be published. Triggers add a row when a prescription is
+-- dispensed and when a refill is recorded, whatever path made the write; one node at a time
+-- claims rows, publishes the events and deletes the rows in the same transaction.
+
+CREATE TABLE IF NOT EXISTS prescription_schema.prescription_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(20) NOT NULL,
+    -- prescription id for a fill, prescription refill id for a refill
+    reference_id UUID NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION prescription_schema.enqueue_prescription_filled() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO prescription_schema.prescription_event_outbox (event_type, reference_id) VALUES ('filled', NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION prescription_schema.enqueue_prescription_refilled() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO prescription_schema.prescription_event_outbox (event_type, reference_id) VALUES ('refilled', NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+-- A prescription counts as filled once it has a dispensed or filled time, as everywhere else
+DROP TRIGGER IF EXISTS trg_prescriptions_filled_insert ON prescription_schema.prescriptions;
+CREATE TRIGGER trg_prescriptions_filled_insert
+    AFTER INSERT ON prescription_schema.prescriptions
+    FOR EACH ROW
+    WHEN (COALESCE(NEW.dispensed_at, NEW.filled_at) IS NOT NULL)
+    EXECUTE FUNCTION prescription_schema.enqueue_prescription_filled();
+
+DROP TRIGGER IF EXISTS trg_prescriptions_filled_update ON prescription_schema.prescriptions;
+CREATE TRIGGER trg_prescriptions_filled_update
+    AFTER UPDATE OF dispensed_at, filled_at ON prescription_schema.prescriptions
+    FOR EACH ROW
+    WHEN (COALESCE(OLD.dispensed_at, OLD.filled_at) IS NULL AND COALESCE(NEW.dispensed_at, NEW.filled_at) IS NOT NULL)
+    EXECUTE FUNCTION prescription_schema.enqueue_prescription_filled();
+
+DROP TRIGGER IF EXISTS trg_prescription_refills_refilled ON prescription_schema.prescription_refills;
+CREATE TRIGGER trg_prescription_refills_refilled
+    AFTER INSERT ON prescription_schema.prescription_refills
+    FOR EACH ROW EXECUTE FUNCTION prescription_schema.enqueue_prescription_refilled();
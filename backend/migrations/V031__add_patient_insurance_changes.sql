@@ -0,0 +1,26 @@
+-- Flag profile changes made to insurance, so the change feed can also tell eligibility
+-- caches to drop the patient.
+
+ALTER TABLE patient_schema.patient_profile_changes
+    ADD COLUMN IF NOT EXISTS insurance_changed BOOLEAN NOT NULL DEFAULT false;
+
+CREATE OR REPLACE FUNCTION patient_schema.record_patient_profile_changes() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    changed TEXT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        changed := format('SELECT %1$I FROM new_rows', TG_ARGV[0]);
+    ELSIF TG_OP = 'DELETE' THEN
+        changed := format('SELECT %1$I FROM old_rows', TG_ARGV[0]);
+    ELSE
+        changed := format('SELECT %1$I FROM new_rows UNION SELECT %1$I FROM old_rows', TG_ARGV[0]);
+    END IF;
+    EXECUTE 'INSERT INTO patient_schema.patient_profile_changes (patient_id, insurance_changed) ' ||
+            'SELECT DISTINCT c.patient_id, $1 FROM (' || changed || ') AS c(patient_id) ' ||
+            'WHERE c.patient_id IS NOT NULL'
+        USING TG_TABLE_NAME = 'patient_insurance';
+    RETURN NULL;
+END;
+$$;
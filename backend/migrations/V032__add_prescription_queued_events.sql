@@ -0,0 +1,18 @@
+-- A prescription enters the fill queue when it is recorded without having been filled yet;
+-- the queued event lets eligibility be checked before the fill needs it.
+
+CREATE OR REPLACE FUNCTION prescription_schema.enqueue_prescription_queued() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO prescription_schema.prescription_event_outbox (event_type, reference_id) VALUES ('queued', NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_prescriptions_queued ON prescription_schema.prescriptions;
+CREATE TRIGGER trg_prescriptions_queued
+    AFTER INSERT ON prescription_schema.prescriptions
+    FOR EACH ROW
+    WHEN (COALESCE(NEW.dispensed_at, NEW.filled_at) IS NULL)
+    EXECUTE FUNCTION prescription_schema.enqueue_prescription_queued();
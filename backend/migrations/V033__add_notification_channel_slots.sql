@@ -0,0 +1,7 @@
+-- Shared send schedule per notification channel. Every dispatching node reserves its next
+-- block of send slots here, so the nodes together stay under the provider's rate limit.
+
+CREATE TABLE IF NOT EXISTS notification_schema.notification_channel_slots (
+    channel VARCHAR(20) PRIMARY KEY,
+    next_free_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
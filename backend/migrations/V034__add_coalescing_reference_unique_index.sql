@@ -0,0 +1,14 @@
+-- A reference waits at most once per group. Staging relied on a check that concurrent
+-- inserts could both pass; the unique index makes the second one a no-op instead. Messages
+-- without a reference are never treated as duplicates.
+
+DELETE FROM notification_schema.coalescing_notifications c
+USING notification_schema.coalescing_notifications d
+WHERE c.patient_id = d.patient_id
+  AND c.notification_type = d.notification_type
+  AND c.reference_type = d.reference_type
+  AND c.reference_id = d.reference_id
+  AND (c.created_at, c.id) > (d.created_at, d.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_coalescing_notifications_reference
+    ON notification_schema.coalescing_notifications(patient_id, notification_type, reference_type, reference_id);
@@ -0,0 +1,8 @@
+-- Every patient notification names its patient again. V009 dropped NOT NULL on patient_id for
+-- the staff expiry alerts, which are addressed to the pharmacy rather than a patient, and V023
+-- carried that over to the partitioned table; the check allows a missing patient for those
+-- alerts only.
+
+ALTER TABLE notification_schema.notifications
+    ADD CONSTRAINT chk_notifications_patient
+        CHECK (patient_id IS NOT NULL OR reference_type IS NOT DISTINCT FROM 'inventory_expiry');
@@ -0,0 +1,15 @@
+-- Stock ledger changes made on the ledger-owning node, written in the same transaction as the
+-- reservation, fill, receipt or adjustment they belong to. The owner applies committed rows to
+-- inventory_items and deletes them in one transaction, so a change that committed is never lost
+-- to a crash before the flush; a node taking over ownership applies what the last owner left.
+
+CREATE TABLE IF NOT EXISTS inventory_schema.stock_ledger_journal (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_item_id UUID NOT NULL REFERENCES inventory_schema.inventory_items(id),
+    on_hand_delta DECIMAL(10,2) NOT NULL,
+    reserved_delta DECIMAL(10,2) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_ledger_journal_item
+    ON inventory_schema.stock_ledger_journal(inventory_item_id);
@@ -0,0 +1,6 @@
+-- An invoice balance never goes below zero; payment posting compares the outstanding amount
+-- under a row lock, and the check turns any path that gets this wrong into an error instead of
+-- an overpaid invoice.
+
+ALTER TABLE billing_schema.invoice_balances
+    ADD CONSTRAINT chk_invoice_balances_outstanding CHECK (outstanding_amount >= 0);
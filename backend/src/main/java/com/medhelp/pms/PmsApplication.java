@@ -2,9 +2,13 @@ package com.medhelp.pms;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @org.springframework.data.jpa.repository.config.EnableJpaAuditing
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class PmsApplication {
 
 	public static void main(String[] args) {
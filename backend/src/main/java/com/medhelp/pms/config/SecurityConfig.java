@@ -5,6 +5,7 @@ import com.medhelp.pms.shared.infrastructure.security.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -51,7 +52,29 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/users/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/inventory/cycle-counts/adjustments/**").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST")
                         .requestMatchers("/prescriptions/**").hasAnyRole("PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/patients/transfer/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/pricing-rules").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers(HttpMethod.PUT, "/pricing-rules/*").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers(HttpMethod.DELETE, "/pricing-rules/*").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/invoices/generate").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/insurance-claims/submissions").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/payments/remittances", "/payments/*/refund").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/payments").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/reports/sales/rebuild").hasRole("ADMIN")
+                        .requestMatchers("/notifications/dispatch").hasRole("ADMIN")
+                        .requestMatchers("/notifications/retention").hasRole("ADMIN")
+                        .requestMatchers("/purchase-orders/**").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/inventory/forecast/run").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/patients/search").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/patients/profiles", "/patients/*/profile")
+                                .hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/patients/*/medication-history/rebuild").hasAnyRole("ADMIN", "PHARMACIST")
+                        .requestMatchers("/patients/*/medication-history")
+                                .hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
+                        .requestMatchers("/patients/duplicates/**").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST")
+                        .requestMatchers("/patients/*/eligibility").hasAnyRole("ADMIN", "MANAGER", "PHARMACIST", "TECHNICIAN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -19,6 +19,8 @@ public interface AuthRepository extends JpaRepository<User, UUID> {
 
     boolean existsByEmail(String email);
 
+    long countByIdNot(UUID id);
+
     @Query("SELECT u FROM User u WHERE  u.username = :usernameOrEmail OR u.email = :usernameOrEmail")
     Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
 
@@ -3,6 +3,7 @@ package com.medhelp.pms.modules.auth_module.infrastructure.seeding;
 import com.medhelp.pms.modules.auth_module.domain.entities.User;
 import com.medhelp.pms.modules.auth_module.domain.repositories.AuthRepository;
 import com.medhelp.pms.modules.auth_module.domain.value_objects.UserType;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -21,7 +22,8 @@ public class DataSeeder implements CommandLineRunner {
     @Override
     @Transactional
     public void run(String... args) {
-        if (authRepository.count() == 0) {
+        // The system user is created by a migration and does not count as seeded data
+        if (authRepository.countByIdNot(SecurityUtils.SYSTEM_USER_ID) == 0) {
             log.info("Database is empty, seeding initial data...");
             seedAdminUser();
         }
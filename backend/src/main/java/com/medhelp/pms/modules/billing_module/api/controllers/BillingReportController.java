@@ -0,0 +1,44 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.AgingReportDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.SalesReportDto;
+import com.medhelp.pms.modules.billing_module.domain.services.PaymentPostingService;
+import com.medhelp.pms.modules.billing_module.domain.services.SalesRollupService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+public class BillingReportController {
+    private final PaymentPostingService paymentPostingService;
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/ar-aging")
+    @Operation(summary = "Get AR Aging", description = "Outstanding invoice balances by days since the invoice date (0-30, 31-60, 61-90, 91-120, 121+)")
+    public ResponseEntity<ApiResponse<AgingReportDto>> getAgingReport(@RequestParam(required = false) LocalDate asOf) {
+        return ResponseEntity.ok(ApiResponse.success(paymentPostingService.getAgingReport(asOf)));
+    }
+
+    @GetMapping("/sales")
+    @Operation(summary = "Get Sales", description = "Sales between two days (inclusive) from the sales rollups, in hour, day or month buckets or as totals, optionally grouped by payer or therapeutic class")
+    public ResponseEntity<ApiResponse<SalesReportDto>> getSales(
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            @RequestParam(required = false) String interval,
+            @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getSalesReport(from, to, interval, groupBy)));
+    }
+
+    @PostMapping("/sales/rebuild")
+    @Operation(summary = "Rebuild Sales Rollups", description = "Recompute the sales rollups of the months touching the range from the invoices")
+    public ResponseEntity<ApiResponse<Void>> rebuildSales(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        salesRollupService.rebuild(from, to);
+        return ResponseEntity.ok(ApiResponse.success(null, "Sales rollups rebuilt"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.DiscountQuoteDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.DiscountRedemptionDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.RedeemDiscountRequest;
+import com.medhelp.pms.modules.billing_module.domain.services.DiscountService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/discounts")
+@RequiredArgsConstructor
+public class DiscountController {
+    private final DiscountService discountService;
+
+    @GetMapping
+    @Operation(summary = "Active Discounts", description = "Get discount codes that can be redeemed today")
+    public ResponseEntity<ApiResponse<List<DiscountQuoteDto>>> getActiveCodes() {
+        return ResponseEntity.ok(ApiResponse.success(discountService.getActiveCodes()));
+    }
+
+    @PostMapping("/{code}/quote")
+    @Operation(summary = "Quote Discount", description = "Check a code against the checkout lines without using it")
+    public ResponseEntity<ApiResponse<DiscountQuoteDto>> quote(@PathVariable String code,
+                                                               @RequestBody RedeemDiscountRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(discountService.quote(code, request)));
+    }
+
+    @PostMapping("/{code}/redeem")
+    @Operation(summary = "Redeem Discount", description = "Use a discount code for a patient's checkout")
+    public ResponseEntity<ApiResponse<DiscountRedemptionDto>> redeem(@PathVariable String code,
+                                                                     @RequestBody RedeemDiscountRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(discountService.redeem(code, request), "Discount redeemed"));
+    }
+
+    @PostMapping("/redemptions/{redemptionId}/reverse")
+    @Operation(summary = "Reverse Redemption", description = "Give a redeemed use of a discount code back")
+    public ResponseEntity<ApiResponse<Void>> reverse(@PathVariable UUID redemptionId) {
+        discountService.reverse(redemptionId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Redemption reversed"));
+    }
+}
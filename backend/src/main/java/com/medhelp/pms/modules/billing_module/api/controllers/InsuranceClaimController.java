@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.ClaimRunDto;
+import com.medhelp.pms.modules.billing_module.domain.services.ClaimSubmissionService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/insurance-claims")
+@RequiredArgsConstructor
+public class InsuranceClaimController {
+    private final ClaimSubmissionService claimSubmissionService;
+
+    @PostMapping("/submissions")
+    @Operation(summary = "Run Claim Submission",
+            description = "Create claims for open invoices of insured patients and submit all pending claims to payers")
+    public ResponseEntity<ApiResponse<ClaimRunDto>> submit() {
+        return ResponseEntity.ok(ApiResponse.success(claimSubmissionService.submitClaims(), "Claim run completed"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.GenerateInvoicesRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceBalanceDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceGenerationDto;
+import com.medhelp.pms.modules.billing_module.domain.services.InvoiceGenerationService;
+import com.medhelp.pms.modules.billing_module.domain.services.PaymentPostingService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/invoices")
+@RequiredArgsConstructor
+public class InvoiceController {
+    private final InvoiceGenerationService invoiceGenerationService;
+    private final PaymentPostingService paymentPostingService;
+
+    @GetMapping("/{invoiceId}/balance")
+    @Operation(summary = "Get Invoice Balance", description = "Paid and outstanding amount of an invoice")
+    public ResponseEntity<ApiResponse<InvoiceBalanceDto>> getBalance(@PathVariable UUID invoiceId) {
+        return ResponseEntity.ok(ApiResponse.success(paymentPostingService.getBalance(invoiceId)));
+    }
+
+    @PostMapping("/generate")
+    @Operation(summary = "Generate Invoices",
+            description = "Invoice the given filled prescriptions, or every filled prescription without an invoice")
+    public ResponseEntity<ApiResponse<InvoiceGenerationDto>> generate(
+            @RequestBody(required = false) GenerateInvoicesRequest request) {
+        InvoiceGenerationDto result = invoiceGenerationService.generateFor(
+                request != null ? request.getPrescriptionIds() : null);
+        return ResponseEntity.ok(ApiResponse.success(result, "Invoices generated"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceBalanceDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PaymentDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PostPaymentRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.RemittanceRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.RemittanceResultDto;
+import com.medhelp.pms.modules.billing_module.domain.services.PaymentPostingService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/payments")
+@RequiredArgsConstructor
+public class PaymentController {
+    private final PaymentPostingService paymentPostingService;
+
+    @PostMapping
+    @Operation(summary = "Post Payment", description = "Record a payment against an invoice and update its balance")
+    public ResponseEntity<ApiResponse<PaymentDto>> post(@RequestBody PostPaymentRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(paymentPostingService.post(request), "Payment posted"));
+    }
+
+    @PostMapping("/remittances")
+    @Operation(summary = "Post Remittance", description = "Post all lines of a payer remittance; lines already posted are skipped")
+    public ResponseEntity<ApiResponse<RemittanceResultDto>> postRemittance(@RequestBody RemittanceRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(paymentPostingService.postRemittance(request), "Remittance posted"));
+    }
+
+    @PostMapping("/{paymentId}/refund")
+    @Operation(summary = "Refund Payment", description = "Refund a completed payment and give its amount back to the invoice balance")
+    public ResponseEntity<ApiResponse<InvoiceBalanceDto>> refund(@PathVariable UUID paymentId) {
+        return ResponseEntity.ok(ApiResponse.success(paymentPostingService.refund(paymentId), "Payment refunded"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.medhelp.pms.modules.billing_module.api.controllers;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.PriceLineRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricedLineDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricingRuleDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricingRuleRequest;
+import com.medhelp.pms.modules.billing_module.domain.services.PricingRuleService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/pricing-rules")
+@RequiredArgsConstructor
+public class PricingRuleController {
+    private final PricingRuleService pricingRuleService;
+
+    @GetMapping
+    @Operation(summary = "List Pricing Rules", description = "Get active pricing rules, highest priority first")
+    public ResponseEntity<ApiResponse<List<PricingRuleDto>>> getActiveRules() {
+        return ResponseEntity.ok(ApiResponse.success(pricingRuleService.getActiveRules()));
+    }
+
+    @PostMapping
+    @Operation(summary = "Create Pricing Rule", description = "Create a pricing rule; its conditions are validated by compiling them")
+    public ResponseEntity<ApiResponse<PricingRuleDto>> create(@RequestBody PricingRuleRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(pricingRuleService.create(request), "Pricing rule created"));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update Pricing Rule", description = "Replace the conditions and pricing of a rule")
+    public ResponseEntity<ApiResponse<PricingRuleDto>> update(@PathVariable UUID id,
+                                                              @RequestBody PricingRuleRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(pricingRuleService.update(id, request), "Pricing rule updated"));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Deactivate Pricing Rule", description = "Stop applying a pricing rule")
+    public ResponseEntity<ApiResponse<Void>> deactivate(@PathVariable UUID id) {
+        pricingRuleService.deactivate(id);
+        return ResponseEntity.ok(ApiResponse.success(null, "Pricing rule deactivated"));
+    }
+
+    @PostMapping("/evaluate")
+    @Operation(summary = "Evaluate Pricing", description = "Price a single line against the active rules")
+    public ResponseEntity<ApiResponse<PricedLineDto>> evaluate(@RequestBody PriceLineRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(pricingRuleService.price(request)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingBucketDto {
+    private String label;
+    private int fromDays;
+    private Integer toDays;
+    private int invoiceCount;
+    private BigDecimal amount;
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingReportDto {
+    private LocalDate asOf;
+    private int invoiceCount;
+    private BigDecimal totalOutstanding;
+    private List<AgingBucketDto> buckets;
+}
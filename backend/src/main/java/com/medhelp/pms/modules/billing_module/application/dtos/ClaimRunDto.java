@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimRunDto {
+    private int created;
+    private int submitted;
+    private int approved;
+    private int partiallyApproved;
+    private int rejected;
+    private int undelivered;
+    private int failed;
+    private int payers;
+    private int batches;
+    private long elapsedMs;
+}
@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountLineRequest {
+    private UUID medicationId;
+    private String ndcCode;
+    private String therapeuticClass;
+    private BigDecimal amount;
+}
@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiscountQuoteDto {
+    private String code;
+    private String description;
+    private String discountType;
+    private BigDecimal discountValue;
+    private Boolean eligible;
+    private BigDecimal eligibleSubtotal;
+    private BigDecimal discountAmount;
+    private String reason;
+}
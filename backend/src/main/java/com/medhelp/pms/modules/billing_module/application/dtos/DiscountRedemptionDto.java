@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountRedemptionDto {
+    private UUID redemptionId;
+    private String code;
+    private BigDecimal discountAmount;
+    private LocalDateTime redeemedAt;
+}
@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBalanceDto {
+    private UUID invoiceId;
+    private UUID patientId;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal outstandingAmount;
+    private String status;
+    private LocalDate lastPaymentDate;
+}
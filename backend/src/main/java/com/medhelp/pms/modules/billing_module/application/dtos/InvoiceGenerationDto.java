@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceGenerationDto {
+    private int requested;
+    private int created;
+    private int alreadyInvoiced;
+    private List<UUID> skippedPrescriptionIds;
+}
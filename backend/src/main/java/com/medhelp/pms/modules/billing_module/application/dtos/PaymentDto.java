@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDto {
+    private UUID paymentId;
+    private UUID invoiceId;
+    private LocalDate paymentDate;
+    private String paymentMethod;
+    private BigDecimal amount;
+    private InvoiceBalanceDto balance;
+}
@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPaymentRequest {
+    private UUID invoiceId;
+    private LocalDate paymentDate;
+    private String paymentMethod;
+    private BigDecimal amount;
+    private String transactionId;
+    private String cardLastFour;
+    private String checkNumber;
+    private String notes;
+}
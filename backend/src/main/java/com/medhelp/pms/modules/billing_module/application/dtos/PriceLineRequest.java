@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceLineRequest {
+    private String ndcCode;
+    private UUID medicationId;
+    private String therapeuticClass;
+    private String payerType;
+    private BigDecimal quantity;
+    private BigDecimal usualPrice;
+    private BigDecimal averageWholesalePrice;
+    private LocalDate serviceDate;
+}
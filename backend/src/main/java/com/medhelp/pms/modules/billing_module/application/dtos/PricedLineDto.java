@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricedLineDto {
+    private UUID pricingRuleId;
+    private String ruleName;
+    private String pricingMethod;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,28 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingRuleDto {
+    private UUID id;
+    private String ruleName;
+    private String ruleType;
+    private Map<String, Object> conditions;
+    private String pricingMethod;
+    private BigDecimal pricingValue;
+    private Integer priority;
+    private LocalDate effectiveDate;
+    private LocalDate expirationDate;
+    private Boolean isActive;
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedeemDiscountRequest {
+    private UUID patientId;
+    private UUID invoiceId;
+    private List<DiscountLineRequest> lines;
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemittanceLineRequest {
+    private UUID invoiceId;
+    private String invoiceNumber;
+    private BigDecimal amount;
+    private String transactionId;
+    private String notes;
+}
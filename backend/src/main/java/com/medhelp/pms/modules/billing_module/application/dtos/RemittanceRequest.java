@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemittanceRequest {
+    private String paymentMethod;
+    private LocalDate paymentDate;
+    private List<RemittanceLineRequest> lines;
+}
@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemittanceResultDto {
+    private int lines;
+    private int posted;
+    private int duplicates;
+    private BigDecimal postedAmount;
+    private List<String> unknownInvoices;
+    private List<String> overpaidInvoices;
+}
@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDto {
+    private LocalDate from;
+    private LocalDate to;
+    private String interval;
+    private String groupBy;
+    /**
+     * Rollup granularities the range was read from, coarsest first
+     */
+    private List<String> granularities;
+    private SalesRowDto totals;
+    private List<SalesRowDto> rows;
+}
@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.billing_module.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesRowDto {
+    private LocalDateTime bucketStart;
+    private String group;
+    private int invoiceCount;
+    private int itemCount;
+    private BigDecimal quantity;
+    private BigDecimal revenue;
+    private BigDecimal copayAmount;
+    private BigDecimal insuranceAmount;
+    private BigDecimal discountAmount;
+}
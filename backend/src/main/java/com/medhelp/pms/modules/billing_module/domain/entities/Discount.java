@@ -61,6 +61,10 @@ public class Discount {
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> applicableMedications;
 
+    @NotNull
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+
     @NotNull
     @Column(name = "expiration_date", nullable = false)
     private LocalDate expirationDate;
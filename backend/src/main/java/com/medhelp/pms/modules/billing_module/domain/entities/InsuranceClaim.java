@@ -77,6 +77,11 @@ public class InsuranceClaim {
     @Column(name = "notes", length = Integer.MAX_VALUE)
     private String notes;
 
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "submission_attempts", nullable = false)
+    private Integer submissionAttempts;
+
     @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at")
     private LocalDateTime createdAt;
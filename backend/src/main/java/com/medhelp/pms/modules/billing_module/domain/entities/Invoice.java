@@ -76,6 +76,10 @@ public class Invoice {
     @Column(name = "notes", length = Integer.MAX_VALUE)
     private String notes;
 
+    @Size(max = 50)
+    @Column(name = "payer_type", length = 50)
+    private String payerType;
+
     @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at")
     private LocalDateTime createdAt;
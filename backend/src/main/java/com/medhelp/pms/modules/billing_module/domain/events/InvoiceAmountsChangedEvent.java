@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.billing_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that changed how invoices are split between payer and patient,
+ * or that granted or took back a discount on them; amounts are differences, not new values.
+ */
+@Getter
+@AllArgsConstructor
+public class InvoiceAmountsChangedEvent {
+    private final List<AmountChange> changes;
+
+    @Getter
+    @AllArgsConstructor
+    public static class AmountChange {
+        private final UUID invoiceId;
+        private final BigDecimal copayChange;
+        private final BigDecimal insurancePaymentChange;
+        private final BigDecimal discountChange;
+    }
+}
@@ -0,0 +1,41 @@
+package com.medhelp.pms.modules.billing_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that inserted a batch of invoices.
+ */
+@Getter
+@AllArgsConstructor
+public class InvoicesGeneratedEvent {
+    private final List<GeneratedInvoice> invoices;
+
+    @Getter
+    @AllArgsConstructor
+    public static class GeneratedInvoice {
+        private final UUID invoiceId;
+        private final LocalDateTime createdAt;
+        private final String payerType;
+        private final BigDecimal totalAmount;
+        private final BigDecimal patientCopay;
+        private final BigDecimal insurancePayment;
+        private final List<SoldItem> items;
+    }
+
+    /**
+     * Medication line of a generated invoice
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SoldItem {
+        private final String therapeuticClass;
+        private final BigDecimal quantity;
+        private final BigDecimal totalPrice;
+    }
+}
@@ -0,0 +1,15 @@
+package com.medhelp.pms.modules.billing_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when a pricing rule was created, changed or deactivated.
+ */
+@Getter
+@AllArgsConstructor
+public class PricingRulesChangedEvent {
+    private final UUID pricingRuleId;
+}
@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.billing_module.domain.repositories;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.Discount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DiscountRepository extends JpaRepository<Discount, UUID> {
+
+    @Query("SELECT d FROM Discount d WHERE d.isActive = true AND d.expirationDate >= :date")
+    List<Discount> findActiveNotExpiredOn(@Param("date") LocalDate date);
+}
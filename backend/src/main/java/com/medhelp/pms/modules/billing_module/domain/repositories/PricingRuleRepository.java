@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.billing_module.domain.repositories;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, UUID> {
+
+    @Query("SELECT r FROM PricingRule r WHERE r.isActive = true " +
+            "AND (r.expirationDate IS NULL OR r.expirationDate >= :date)")
+    List<PricingRule> findActiveNotExpiredOn(@Param("date") LocalDate date);
+
+    List<PricingRule> findByIsActiveTrueOrderByPriorityDesc();
+
+    /**
+     * Counter bumped by a trigger on every write to pricing_rules
+     */
+    @Query(value = "SELECT version FROM billing_schema.pricing_rule_version WHERE id = 1", nativeQuery = true)
+    long findRulesVersion();
+}
@@ -0,0 +1,344 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.ClaimRunDto;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent.AmountChange;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.AdjudicationResult;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimStatus;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimSubmission;
+import com.medhelp.pms.modules.billing_module.infrastructure.adjudication.ClaimAdjudicator;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.ClaimJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.ClaimJdbcRepository.InvoiceShare;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Submits insurance claims to payers in claim runs.
+ * <p>
+ * A run creates pending claims for open invoices of insured patients, takes the pending
+ * claims with one UPDATE, groups them by payer (BIN/PCN) and submits the batches
+ * concurrently, each payer limited to a number of batches per second and in flight.
+ * Responses are written back with batched statements once all batches finished; claims a
+ * payer did not answer go back to pending for the next run, until they used up their
+ * attempts and fail for someone to follow up by hand.
+ * <p>
+ * Claims are created under a transaction advisory lock, so runs on several nodes create
+ * them one after the other and never bill a prescription twice.
+ * <p>
+ * Without a ClaimAdjudicator bean no run starts: claims are never marked submitted when
+ * nothing can deliver them.
+ */
+@Service
+@Slf4j
+public class ClaimSubmissionService {
+
+    private static final Set<ClaimStatus> ADJUDICATED =
+            Set.of(ClaimStatus.APPROVED, ClaimStatus.PARTIALLY_APPROVED, ClaimStatus.REJECTED);
+    private static final String CLAIM_LOCK_NAMESPACE = "billing.claims";
+
+    private final ClaimJdbcRepository claimJdbcRepository;
+    private final ClaimAdjudicator claimAdjudicator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${billing.claims.payer-batch-size:100}")
+    private int payerBatchSize;
+
+    @Value("${billing.claims.concurrency:16}")
+    private int concurrency;
+
+    @Value("${billing.claims.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${billing.claims.run-timeout-minutes:30}")
+    private long runTimeoutMinutes;
+
+    @Value("${billing.claims.batches-per-second:5}")
+    private double batchesPerSecond;
+
+    @Value("${billing.claims.max-in-flight-per-payer:4}")
+    private int maxInFlightPerPayer;
+
+    /**
+     * Batches per second of individual payers, e.g. "610014=20,004336/ADV=2"
+     */
+    @Value("${billing.claims.payer-rate-limits:}")
+    private String payerRateLimits;
+
+    @Value("${billing.claims.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${billing.claims.max-per-run:20000}")
+    private int maxPerRun;
+
+    @Value("${billing.claims.stale-minutes:60}")
+    private long staleMinutes;
+
+    @Value("${billing.claims.batch-size:500}")
+    private int batchSize;
+
+    public ClaimSubmissionService(ClaimJdbcRepository claimJdbcRepository,
+                                  ObjectProvider<ClaimAdjudicator> claimAdjudicator,
+                                  ApplicationEventPublisher eventPublisher, AdvisoryLocks advisoryLocks,
+                                  PlatformTransactionManager transactionManager) {
+        this.claimJdbcRepository = claimJdbcRepository;
+        this.claimAdjudicator = claimAdjudicator.getIfAvailable();
+        this.eventPublisher = eventPublisher;
+        this.advisoryLocks = advisoryLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * End-of-day claim run (scheduled task)
+     */
+    @Scheduled(cron = "${billing.claims.submission-cron:0 0 21 * * *}")
+    public void submitScheduled() {
+        if (claimAdjudicator == null) {
+            log.error("Skipping scheduled claim run, no claim adjudicator is configured");
+            return;
+        }
+        if (running.get()) {
+            log.info("Skipping scheduled claim run, a run is already in progress");
+            return;
+        }
+        submitClaims();
+    }
+
+    public ClaimRunDto submitClaims() {
+        if (claimAdjudicator == null) {
+            throw new BusinessException("CLAIM_ADJUDICATOR_UNAVAILABLE",
+                    "No claim adjudicator is configured, claims cannot be submitted");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException("CLAIM_RUN_IN_PROGRESS", "A claim run is already in progress");
+        }
+        try {
+            return run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ClaimRunDto run() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleMinutes);
+        Integer created = transactionTemplate.execute(tx -> {
+            // Held to commit, so the next run's existence check sees the claims created here
+            advisoryLocks.lockForTransaction(CLAIM_LOCK_NAMESPACE, "create");
+            return claimJdbcRepository.createPendingClaims(today);
+        });
+        List<String> failed = new ArrayList<>(transactionTemplate.execute(tx ->
+                claimJdbcRepository.failExhausted(staleBefore, maxAttempts)));
+        int exhausted = failed.size();
+        List<ClaimSubmission> claims = transactionTemplate.execute(tx -> claimJdbcRepository.markSubmitted(
+                today, staleBefore, maxAttempts, maxPerRun));
+
+        Map<String, List<ClaimSubmission>> byPayer = new LinkedHashMap<>();
+        for (ClaimSubmission claim : claims) {
+            byPayer.computeIfAbsent(claim.getPayerKey(), key -> new ArrayList<>()).add(claim);
+        }
+        List<PayerBatch> batches = interleave(byPayer);
+
+        List<AdjudicationResult> results = new ArrayList<>(claims.size());
+        if (!batches.isEmpty()) {
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(runTimeoutMinutes);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, batches.size()));
+            try {
+                List<CompletableFuture<List<AdjudicationResult>>> futures = new ArrayList<>(batches.size());
+                for (PayerBatch batch : batches) {
+                    futures.add(CompletableFuture.supplyAsync(() -> submit(batch, deadline), executor));
+                }
+                futures.forEach(future -> results.addAll(future.join()));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Map<UUID, ClaimSubmission> submitted = new HashMap<>();
+        claims.forEach(claim -> submitted.put(claim.getClaimId(), claim));
+        List<AdjudicationResult> adjudicated = new ArrayList<>();
+        List<AdjudicationResult> approved = new ArrayList<>();
+        for (AdjudicationResult result : results) {
+            if (ADJUDICATED.contains(result.getStatus()) && submitted.remove(result.getClaimId()) != null) {
+                adjudicated.add(result);
+                if (result.getStatus() != ClaimStatus.REJECTED) {
+                    approved.add(result);
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            claimJdbcRepository.applyResults(adjudicated, today, batchSize);
+            publishShareChanges(approved);
+            claimJdbcRepository.applyToInvoices(approved, batchSize);
+            failed.addAll(claimJdbcRepository.release(submitted.keySet(), maxAttempts));
+        });
+        int undelivered = submitted.size() - (failed.size() - exhausted);
+        if (!failed.isEmpty()) {
+            log.error("{} claims failed after {} submission attempts without a payer response: {}", failed.size(),
+                    maxAttempts, failed);
+        }
+
+        ClaimRunDto run = ClaimRunDto.builder()
+                .created(created != null ? created : 0)
+                .submitted(claims.size())
+                .approved(count(adjudicated, ClaimStatus.APPROVED))
+                .partiallyApproved(count(adjudicated, ClaimStatus.PARTIALLY_APPROVED))
+                .rejected(count(adjudicated, ClaimStatus.REJECTED))
+                .undelivered(undelivered)
+                .failed(failed.size())
+                .payers(byPayer.size())
+                .batches(batches.size())
+                .elapsedMs((System.nanoTime() - started) / 1_000_000)
+                .build();
+        log.info("Claim run: {} submitted to {} payers in {} batches, {} approved, {} partially approved, " +
+                        "{} rejected, {} undelivered, {} failed in {} ms", run.getSubmitted(), run.getPayers(),
+                run.getBatches(), run.getApproved(), run.getPartiallyApproved(), run.getRejected(),
+                run.getUndelivered(), run.getFailed(), run.getElapsedMs());
+        return run;
+    }
+
+    /**
+     * Publish how approved claims move amounts of their invoices from the patient to the payer
+     */
+    private void publishShareChanges(List<AdjudicationResult> approved) {
+        if (approved.isEmpty()) {
+            return;
+        }
+        Map<UUID, InvoiceShare> shares = claimJdbcRepository.findInvoiceShares(
+                approved.stream().map(AdjudicationResult::getClaimId).toList());
+        List<AmountChange> changes = new ArrayList<>(shares.size());
+        for (AdjudicationResult result : approved) {
+            InvoiceShare share = shares.get(result.getClaimId());
+            if (share != null) {
+                changes.add(new AmountChange(share.getInvoiceId(),
+                        result.getPatientResponsibility().subtract(share.getPatientCopay()),
+                        result.getApprovedAmount().subtract(share.getInsurancePayment()), BigDecimal.ZERO));
+            }
+        }
+        eventPublisher.publishEvent(new InvoiceAmountsChangedEvent(changes));
+    }
+
+    /**
+     * Send one batch once its payer has a free slot; failures and timeouts return no results
+     */
+    private List<AdjudicationResult> submit(PayerBatch batch, long deadline) {
+        try {
+            if (!batch.limiter.acquire(deadline - System.nanoTime())) {
+                log.warn("Claim run ended before {} claims for payer {} could be sent", batch.claims.size(),
+                        batch.payerKey);
+                return List.of();
+            }
+            try {
+                return claimAdjudicator.adjudicate(batch.payerKey, batch.claims, Duration.ofMillis(timeoutMs));
+            } finally {
+                batch.limiter.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (RuntimeException e) {
+            log.warn("Submitting {} claims to payer {} failed: {}", batch.claims.size(), batch.payerKey,
+                    e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Split each payer's claims into batches and order them round-robin across payers,
+     * so a throttled payer does not hold up the workers while other payers wait
+     */
+    private List<PayerBatch> interleave(Map<String, List<ClaimSubmission>> byPayer) {
+        Map<String, Double> rates = parseRateLimits();
+        List<List<PayerBatch>> perPayer = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, List<ClaimSubmission>> entry : byPayer.entrySet()) {
+            String payerKey = entry.getKey();
+            List<ClaimSubmission> claims = entry.getValue();
+            String bin = claims.get(0).getBinNumber();
+            double rate = rates.getOrDefault(payerKey, rates.getOrDefault(bin, batchesPerSecond));
+            PayerRateLimiter limiter = new PayerRateLimiter(rate, maxInFlightPerPayer);
+            List<PayerBatch> batches = new ArrayList<>();
+            for (int from = 0; from < claims.size(); from += payerBatchSize) {
+                batches.add(new PayerBatch(payerKey,
+                        claims.subList(from, Math.min(from + payerBatchSize, claims.size())), limiter));
+            }
+            perPayer.add(batches);
+            total += batches.size();
+        }
+
+        List<PayerBatch> ordered = new ArrayList<>();
+        for (int round = 0; ordered.size() < total; round++) {
+            for (List<PayerBatch> batches : perPayer) {
+                if (round < batches.size()) {
+                    ordered.add(batches.get(round));
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private Map<String, Double> parseRateLimits() {
+        Map<String, Double> rates = new HashMap<>();
+        if (payerRateLimits == null || payerRateLimits.isBlank()) {
+            return rates;
+        }
+        for (String entry : payerRateLimits.split(",")) {
+            String[] parts = entry.split("=");
+            double rate = parts.length == 2 ? parseRate(parts[1]) : 0;
+            if (rate > 0) {
+                rates.put(parts[0].trim(), rate);
+            } else {
+                log.warn("Ignoring invalid payer rate limit '{}'", entry);
+            }
+        }
+        return rates;
+    }
+
+    private static double parseRate(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int count(List<AdjudicationResult> results, ClaimStatus status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+
+    @AllArgsConstructor
+    private static class PayerBatch {
+        private final String payerKey;
+        private final List<ClaimSubmission> claims;
+        private final PayerRateLimiter limiter;
+    }
+}
@@ -0,0 +1,80 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingMethod;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A pricing rule with its JSON conditions compiled into a predicate over typed line fields.
+ */
+@Getter
+public class CompiledPricingRule {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final UUID id;
+    private final String name;
+    private final int priority;
+    private final int sequence;
+    private final long effectiveDay;
+    private final long expirationDay;
+    private final PricingMethod method;
+    private final BigDecimal value;
+    private final LinePredicate condition;
+
+    // Attributes the rule can be indexed by; null when the rule does not constrain them
+    private final Set<String> ndcCodes;
+    private final Set<String> therapeuticClasses;
+    private final Set<String> payerTypes;
+
+    CompiledPricingRule(UUID id, String name, int priority, int sequence, long effectiveDay, long expirationDay,
+                        PricingMethod method, BigDecimal value, LinePredicate condition, Set<String> ndcCodes,
+                        Set<String> therapeuticClasses, Set<String> payerTypes) {
+        this.id = id;
+        this.name = name;
+        this.priority = priority;
+        this.sequence = sequence;
+        this.effectiveDay = effectiveDay;
+        this.expirationDay = expirationDay;
+        this.method = method;
+        this.value = value;
+        this.condition = condition;
+        this.ndcCodes = ndcCodes;
+        this.therapeuticClasses = therapeuticClasses;
+        this.payerTypes = payerTypes;
+    }
+
+    public boolean appliesTo(PricingLine line, long serviceDay) {
+        return serviceDay >= effectiveDay && serviceDay <= expirationDay && condition.test(line);
+    }
+
+    /**
+     * Whether this rule wins over another one that also matches
+     */
+    public boolean outranks(CompiledPricingRule other) {
+        return priority > other.priority || (priority == other.priority && sequence < other.sequence);
+    }
+
+    public BigDecimal unitPrice(PricingLine line) {
+        BigDecimal price = switch (method) {
+            case FIXED_PRICE -> value;
+            case PERCENTAGE_DISCOUNT -> percentageOff(line.getUsualPrice());
+            case AWP_MINUS_PERCENTAGE -> percentageOff(line.getAverageWholesalePrice());
+        };
+        return price.max(BigDecimal.ZERO).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal percentageOff(BigDecimal base) {
+        return base.multiply(HUNDRED.subtract(value)).divide(HUNDRED, 4, RoundingMode.HALF_UP);
+    }
+
+    @FunctionalInterface
+    public interface LinePredicate {
+        boolean test(PricingLine line);
+    }
+}
@@ -0,0 +1,134 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.Discount;
+import com.medhelp.pms.modules.billing_module.domain.repositories.DiscountRepository;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ActiveDiscount;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active discount codes by code, with applicable medications parsed once per refresh.
+ * <p>
+ * Codes found used up are remembered until the next refresh, so a promotion that ran out
+ * is rejected without touching its row again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountCatalog {
+
+    private final DiscountRepository discountRepository;
+
+    private volatile Map<String, ActiveDiscount> byCode = Map.of();
+    private final Set<UUID> exhausted = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Reload active codes (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${billing.discounts.refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<String, ActiveDiscount> codes = new HashMap<>();
+        int skipped = 0;
+        for (Discount discount : discountRepository.findActiveNotExpiredOn(LocalDate.now())) {
+            DiscountType type = DiscountType.fromCode(discount.getDiscountType()).orElse(null);
+            if (type == null) {
+                skipped++;
+                log.warn("Skipping discount {} with unknown type {}", discount.getCode(), discount.getDiscountType());
+                continue;
+            }
+            codes.put(key(discount.getCode()), toActive(discount, type));
+        }
+        byCode = Map.copyOf(codes);
+        exhausted.clear();
+        log.info("Discount catalog loaded: {} active codes ({} skipped)", codes.size(), skipped);
+    }
+
+    public ActiveDiscount find(String code) {
+        return code != null ? byCode.get(key(code)) : null;
+    }
+
+    public Collection<ActiveDiscount> all() {
+        return byCode.values();
+    }
+
+    public boolean isExhausted(UUID discountId) {
+        return exhausted.contains(discountId);
+    }
+
+    public void markExhausted(UUID discountId) {
+        exhausted.add(discountId);
+    }
+
+    public void markAvailable(UUID discountId) {
+        exhausted.remove(discountId);
+    }
+
+    private static ActiveDiscount toActive(Discount discount, DiscountType type) {
+        Map<String, Object> applicable = discount.getApplicableMedications() != null
+                ? discount.getApplicableMedications() : Map.of();
+        Set<UUID> medicationIds = new HashSet<>();
+        for (String id : strings(applicable.get("medication_ids"))) {
+            try {
+                medicationIds.add(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid medication id {} on discount {}", id, discount.getCode());
+            }
+        }
+        Set<String> therapeuticClasses = new HashSet<>();
+        for (String name : strings(applicable.get("therapeutic_classes"))) {
+            therapeuticClasses.add(name.toLowerCase(Locale.ROOT));
+        }
+
+        return ActiveDiscount.builder()
+                .id(discount.getId())
+                .code(discount.getCode())
+                .description(discount.getDescription())
+                .type(type)
+                .value(discount.getDiscountValue())
+                .maxUses(discount.getMaxUses())
+                .maxUsesPerPatient(discount.getMaxUsesPerPatient())
+                .minimumPurchaseAmount(discount.getMinimumPurchaseAmount())
+                .effectiveDate(discount.getEffectiveDate())
+                .expirationDate(discount.getExpirationDate())
+                .medicationIds(Set.copyOf(medicationIds))
+                .ndcCodes(Set.copyOf(strings(applicable.get("ndc_codes"))))
+                .therapeuticClasses(Set.copyOf(therapeuticClasses))
+                .build();
+    }
+
+    private static List<String> strings(Object value) {
+        if (!(value instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .filter(String.class::isInstance)
+                .map(item -> ((String) item).trim())
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private static String key(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
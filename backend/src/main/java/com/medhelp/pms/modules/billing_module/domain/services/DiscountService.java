@@ -0,0 +1,241 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.DiscountLineRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.DiscountQuoteDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.DiscountRedemptionDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.RedeemDiscountRequest;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent.AmountChange;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ActiveDiscount;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountRedemption;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.DiscountJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.DiscountJdbcRepository.ReversedRedemption;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Validates and redeems discount codes.
+ * <p>
+ * Eligibility is checked against the in-memory catalog. Redeeming counts the use with two
+ * conditional updates, the per-patient counter first and the shared discounts row last, so
+ * the row every checkout of a promotion touches is locked only for the end of the transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscountService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final DiscountCatalog discountCatalog;
+    private final DiscountJdbcRepository discountJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public List<DiscountQuoteDto> getActiveCodes() {
+        LocalDate today = LocalDate.now();
+        List<DiscountQuoteDto> codes = new ArrayList<>();
+        for (ActiveDiscount discount : discountCatalog.all()) {
+            if (discount.isValidOn(today) && !discountCatalog.isExhausted(discount.getId())) {
+                codes.add(DiscountQuoteDto.builder()
+                        .code(discount.getCode())
+                        .description(discount.getDescription())
+                        .discountType(discount.getType().getCode())
+                        .discountValue(discount.getValue())
+                        .build());
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Discount a code would give on the lines, without using it
+     */
+    @Transactional(readOnly = true)
+    public DiscountQuoteDto quote(String code, RedeemDiscountRequest request) {
+        ActiveDiscount discount = discountCatalog.find(code);
+        String problem = discount == null ? "Discount code is not valid" : null;
+        List<DiscountLine> lines = toLines(request);
+        BigDecimal amount = BigDecimal.ZERO;
+        if (problem == null) {
+            problem = checkEligibility(discount, lines);
+        }
+        if (problem == null && request.getPatientId() != null && discount.getMaxUsesPerPatient() != null
+                && discountJdbcRepository.findPatientUsage(discount.getId(), request.getPatientId())
+                >= discount.getMaxUsesPerPatient()) {
+            problem = "Discount code was already used the maximum number of times by this patient";
+        }
+        if (problem == null) {
+            amount = discountAmount(discount, lines);
+        }
+        return DiscountQuoteDto.builder()
+                .code(discount != null ? discount.getCode() : code)
+                .description(discount != null ? discount.getDescription() : null)
+                .discountType(discount != null ? discount.getType().getCode() : null)
+                .discountValue(discount != null ? discount.getValue() : null)
+                .eligible(problem == null)
+                .eligibleSubtotal(discount != null ? eligibleSubtotal(discount, lines) : BigDecimal.ZERO)
+                .discountAmount(amount)
+                .reason(problem)
+                .build();
+    }
+
+    /**
+     * Redeem a code from a checkout
+     */
+    @Transactional
+    public DiscountRedemptionDto redeem(String code, RedeemDiscountRequest request) {
+        if (request.getPatientId() == null) {
+            throw new ValidationException("patientId", "Patient is required to redeem a discount", null);
+        }
+        DiscountRedemption redemption = redeem(code, request.getPatientId(), request.getInvoiceId(),
+                toLines(request));
+        return DiscountRedemptionDto.builder()
+                .redemptionId(redemption.getId())
+                .code(redemption.getCode())
+                .discountAmount(redemption.getDiscountAmount())
+                .redeemedAt(redemption.getRedeemedAt())
+                .build();
+    }
+
+    /**
+     * Count one use of the code for the patient and record the redemption; must run inside a transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public DiscountRedemption redeem(String code, UUID patientId, UUID invoiceId, List<DiscountLine> lines) {
+        ActiveDiscount discount = discountCatalog.find(code);
+        if (discount == null) {
+            throw new BusinessException("DISCOUNT_INVALID", "Discount code is not valid");
+        }
+        String problem = checkEligibility(discount, lines);
+        if (problem != null) {
+            throw new BusinessException("DISCOUNT_NOT_APPLICABLE", problem);
+        }
+        BigDecimal amount = discountAmount(discount, lines);
+
+        int perPatient = discount.getMaxUsesPerPatient() != null ? discount.getMaxUsesPerPatient() : Integer.MAX_VALUE;
+        if (!discountJdbcRepository.incrementPatientUsage(discount.getId(), patientId, perPatient)) {
+            throw new BusinessException("DISCOUNT_PATIENT_LIMIT",
+                    "Discount code was already used the maximum number of times by this patient");
+        }
+        UUID redemptionId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        discountJdbcRepository.insertRedemption(redemptionId, discount.getId(), patientId, invoiceId, amount,
+                SecurityUtils.getCurrentUserId(), now);
+        if (!discountJdbcRepository.incrementUsage(discount.getId())) {
+            discountCatalog.markExhausted(discount.getId());
+            throw new BusinessException("DISCOUNT_USED_UP", "Discount code has been used up");
+        }
+
+        if (invoiceId != null) {
+            eventPublisher.publishEvent(new InvoiceAmountsChangedEvent(List.of(
+                    new AmountChange(invoiceId, BigDecimal.ZERO, BigDecimal.ZERO, amount))));
+        }
+        log.debug("Redeemed discount {} for patient {}: {}", discount.getCode(), patientId, amount);
+        return new DiscountRedemption(redemptionId, discount.getId(), discount.getCode(), amount, now);
+    }
+
+    /**
+     * Give a redeemed use back, e.g. when the invoice is voided
+     */
+    @Transactional
+    public void reverse(UUID redemptionId) {
+        ReversedRedemption reversed = discountJdbcRepository.reverseRedemption(redemptionId)
+                .orElseThrow(() -> new EntityNotFoundException("DiscountRedemption", redemptionId.toString()));
+        discountJdbcRepository.decrementUsage(reversed.getDiscountId(), reversed.getPatientId());
+        if (reversed.getInvoiceId() != null) {
+            eventPublisher.publishEvent(new InvoiceAmountsChangedEvent(List.of(new AmountChange(
+                    reversed.getInvoiceId(), BigDecimal.ZERO, BigDecimal.ZERO, reversed.getDiscountAmount().negate()))));
+        }
+        TransactionCallbacks.afterCommit(() -> discountCatalog.markAvailable(reversed.getDiscountId()));
+        log.info("Reversed discount redemption {}", redemptionId);
+    }
+
+    private String checkEligibility(ActiveDiscount discount, List<DiscountLine> lines) {
+        if (!discount.isValidOn(LocalDate.now())) {
+            return "Discount code is not valid today";
+        }
+        if (discountCatalog.isExhausted(discount.getId())) {
+            return "Discount code has been used up";
+        }
+        BigDecimal eligible = eligibleSubtotal(discount, lines);
+        if (eligible.signum() <= 0) {
+            return "Discount code does not apply to any item";
+        }
+        if (discount.getMinimumPurchaseAmount() != null
+                && total(lines).compareTo(discount.getMinimumPurchaseAmount()) < 0) {
+            return "Purchase is below the minimum of " + discount.getMinimumPurchaseAmount();
+        }
+        return null;
+    }
+
+    private BigDecimal discountAmount(ActiveDiscount discount, List<DiscountLine> lines) {
+        BigDecimal eligible = eligibleSubtotal(discount, lines);
+        BigDecimal amount = switch (discount.getType()) {
+            case PERCENTAGE -> eligible.multiply(discount.getValue()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            case FIXED_AMOUNT -> discount.getValue();
+            case FREE_ITEM -> cheapestEligibleLine(discount, lines);
+        };
+        return amount.min(eligible).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal eligibleSubtotal(ActiveDiscount discount, List<DiscountLine> lines) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (DiscountLine line : lines) {
+            if (line.getAmount() != null && discount.appliesTo(line)) {
+                subtotal = subtotal.add(line.getAmount());
+            }
+        }
+        return subtotal;
+    }
+
+    private static BigDecimal cheapestEligibleLine(ActiveDiscount discount, List<DiscountLine> lines) {
+        BigDecimal cheapest = null;
+        for (DiscountLine line : lines) {
+            if (line.getAmount() != null && discount.appliesTo(line)
+                    && (cheapest == null || line.getAmount().compareTo(cheapest) < 0)) {
+                cheapest = line.getAmount();
+            }
+        }
+        return cheapest != null ? cheapest : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal total(List<DiscountLine> lines) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (DiscountLine line : lines) {
+            if (line.getAmount() != null) {
+                total = total.add(line.getAmount());
+            }
+        }
+        return total;
+    }
+
+    private static List<DiscountLine> toLines(RedeemDiscountRequest request) {
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            throw new ValidationException("lines", "At least one line is required", null);
+        }
+        List<DiscountLine> lines = new ArrayList<>(request.getLines().size());
+        for (DiscountLineRequest line : request.getLines()) {
+            lines.add(new DiscountLine(line.getMedicationId(), line.getNdcCode(), line.getTherapeuticClass(),
+                    line.getAmount()));
+        }
+        return lines;
+    }
+}
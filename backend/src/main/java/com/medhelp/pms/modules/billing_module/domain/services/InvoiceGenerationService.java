@@ -0,0 +1,333 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceGenerationDto;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.GeneratedInvoice;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.SoldItem;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricedLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.MedicationPrice;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoice;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoiceItem;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent.FilledItem;
+import com.medhelp.pms.modules.prescription_module.domain.services.PrescriptionFillService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Generates one invoice per filled prescription.
+ * <p>
+ * Fills arrive through the event publication registry after the dispensing transaction
+ * committed and are invoiced on a background thread; a publication whose listener failed
+ * stays incomplete and is delivered again on restart. Fills are priced through the pricing
+ * engine and written in batches, with one lookup per batch for medications, payer types
+ * and existing invoices, so backfilling thousands of fills costs a handful of statements.
+ */
+@Service
+@Slf4j
+public class InvoiceGenerationService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final String MEDICATION_ITEM = "medication";
+    private static final String DISPENSING_FEE_ITEM = "dispensing_fee";
+
+    private final InvoiceJdbcRepository invoiceJdbcRepository;
+    private final PrescriptionFillService prescriptionFillService;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${billing.invoices.batch-size:500}")
+    private int batchSize;
+
+    @Value("${billing.invoices.due-days:30}")
+    private int dueDays;
+
+    @Value("${billing.invoices.cost-markup-percent:25}")
+    private BigDecimal costMarkupPercent;
+
+    @Value("${billing.invoices.dispensing-fee:0}")
+    private BigDecimal dispensingFee;
+
+    public InvoiceGenerationService(InvoiceJdbcRepository invoiceJdbcRepository,
+                                    PrescriptionFillService prescriptionFillService, PricingEngine pricingEngine,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.invoiceJdbcRepository = invoiceJdbcRepository;
+        this.prescriptionFillService = prescriptionFillService;
+        this.pricingEngine = pricingEngine;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @ApplicationModuleListener
+    public void onPrescriptionFilled(PrescriptionFilledEvent event) {
+        InvoiceGenerationDto result = generate(List.of(event));
+        if (!result.getSkippedPrescriptionIds().isEmpty()) {
+            log.warn("Prescription {} was filled but could not be invoiced", event.getPrescriptionNumber());
+        }
+    }
+
+    /**
+     * Invoice the given filled prescriptions, or every filled prescription without an invoice
+     */
+    public InvoiceGenerationDto generateFor(Collection<UUID> prescriptionIds) {
+        InvoiceGenerationDto total = result(0, 0, 0, new ArrayList<>());
+        if (prescriptionIds != null && !prescriptionIds.isEmpty()) {
+            List<UUID> ids = new ArrayList<>(new HashSet<>(prescriptionIds));
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                add(total, generateChunk(ids.subList(from, Math.min(from + batchSize, ids.size()))));
+            }
+            return total;
+        }
+
+        UUID after = new UUID(0L, 0L);
+        List<UUID> chunk;
+        while (!(chunk = invoiceJdbcRepository.findUninvoicedFilledPrescriptions(after, batchSize)).isEmpty()) {
+            add(total, generateChunk(chunk));
+            after = chunk.get(chunk.size() - 1);
+        }
+        return total;
+    }
+
+    private InvoiceGenerationDto generateChunk(List<UUID> prescriptionIds) {
+        return transactionTemplate.execute(tx -> {
+            List<PrescriptionFilledEvent> fills = prescriptionFillService.findFills(prescriptionIds);
+            InvoiceGenerationDto result = generate(fills);
+            // Prescriptions that are not filled or have nothing dispensed have no fill to invoice
+            Set<UUID> found = new HashSet<>();
+            fills.forEach(fill -> found.add(fill.getPrescriptionId()));
+            prescriptionIds.stream().filter(id -> !found.contains(id)).forEach(result.getSkippedPrescriptionIds()::add);
+            result.setRequested(prescriptionIds.size());
+            return result;
+        });
+    }
+
+    /**
+     * Price and insert invoices for the fills; must run inside a transaction
+     */
+    InvoiceGenerationDto generate(List<PrescriptionFilledEvent> fills) {
+        long started = System.nanoTime();
+        Map<UUID, PrescriptionFilledEvent> byPrescription = new LinkedHashMap<>();
+        for (PrescriptionFilledEvent fill : fills) {
+            byPrescription.putIfAbsent(fill.getPrescriptionId(), fill);
+        }
+        List<UUID> skipped = new ArrayList<>();
+        if (byPrescription.isEmpty()) {
+            return result(fills.size(), 0, 0, skipped);
+        }
+
+        Set<UUID> invoiced = invoiceJdbcRepository.findInvoicedPrescriptions(byPrescription.keySet());
+        byPrescription.keySet().removeAll(invoiced);
+
+        Set<String> ndcCodes = new HashSet<>();
+        Set<UUID> patientIds = new HashSet<>();
+        for (PrescriptionFilledEvent fill : byPrescription.values()) {
+            patientIds.add(fill.getPatientId());
+            for (FilledItem item : items(fill)) {
+                if (item.getDispensedNdc() != null) {
+                    ndcCodes.add(item.getDispensedNdc());
+                }
+            }
+        }
+        Map<String, MedicationPrice> prices = ndcCodes.isEmpty()
+                ? Map.of() : invoiceJdbcRepository.findMedicationPrices(ndcCodes);
+        Map<UUID, String> payerTypes = patientIds.isEmpty()
+                ? Map.of() : invoiceJdbcRepository.findPayerTypes(patientIds, LocalDate.now());
+
+        List<PrescriptionFilledEvent> billable = new ArrayList<>();
+        List<String> billablePayerTypes = new ArrayList<>();
+        List<List<NewInvoiceItemDraft>> drafts = new ArrayList<>();
+        for (PrescriptionFilledEvent fill : byPrescription.values()) {
+            List<NewInvoiceItemDraft> lines = price(fill, prices, payerTypes.get(fill.getPatientId()));
+            if (lines == null) {
+                skipped.add(fill.getPrescriptionId());
+            } else {
+                billable.add(fill);
+                billablePayerTypes.add(payerTypes.get(fill.getPatientId()));
+                drafts.add(lines);
+            }
+        }
+        if (billable.isEmpty()) {
+            return result(fills.size(), 0, invoiced.size(), skipped);
+        }
+
+        List<String> numbers = invoiceJdbcRepository.nextInvoiceNumbers(billable.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<NewInvoice> invoices = new ArrayList<>(billable.size());
+        List<GeneratedInvoice> generated = new ArrayList<>(billable.size());
+        for (int i = 0; i < billable.size(); i++) {
+            NewInvoice invoice = toInvoice(billable.get(i), numbers.get(i), billablePayerTypes.get(i), drafts.get(i),
+                    now);
+            invoices.add(invoice);
+            generated.add(toGenerated(invoice, drafts.get(i)));
+        }
+        Set<UUID> inserted = invoiceJdbcRepository.insertInvoices(invoices, batchSize);
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(new InvoicesGeneratedEvent(generated.stream()
+                    .filter(invoice -> inserted.contains(invoice.getInvoiceId()))
+                    .toList()));
+        }
+
+        // Conflicts are fills another writer invoiced after the lookup above
+        int conflicts = invoices.size() - inserted.size();
+        log.info("Generated {} invoices in {} ms ({} already invoiced, {} skipped)", inserted.size(),
+                (System.nanoTime() - started) / 1_000_000, invoiced.size() + conflicts, skipped.size());
+        return result(fills.size(), inserted.size(), invoiced.size() + conflicts, skipped);
+    }
+
+    /**
+     * Priced lines of a fill, or null if any dispensed item cannot be priced
+     */
+    private List<NewInvoiceItemDraft> price(PrescriptionFilledEvent fill, Map<String, MedicationPrice> prices,
+                                            String payerType) {
+        List<FilledItem> items = items(fill);
+        if (items.isEmpty()) {
+            log.warn("Prescription {} has no dispensed items to invoice", fill.getPrescriptionNumber());
+            return null;
+        }
+        LocalDate serviceDate = fill.getDispensedAt() != null ? fill.getDispensedAt().toLocalDate() : LocalDate.now();
+        List<NewInvoiceItemDraft> lines = new ArrayList<>(items.size() + 1);
+        for (FilledItem item : items) {
+            MedicationPrice medication = item.getDispensedNdc() != null ? prices.get(item.getDispensedNdc()) : null;
+            BigDecimal usualPrice = medication != null ? usualPrice(medication) : null;
+            if (usualPrice == null || item.getDispensedQuantity() == null) {
+                log.warn("Cannot price NDC {} dispensed on prescription {}", item.getDispensedNdc(),
+                        fill.getPrescriptionNumber());
+                return null;
+            }
+            PricedLine priced = pricingEngine.price(PricingLine.builder()
+                    .ndcCode(medication.getNdcCode())
+                    .medicationId(medication.getMedicationId())
+                    .therapeuticClass(medication.getTherapeuticClass())
+                    .payerType(payerType)
+                    .quantity(item.getDispensedQuantity())
+                    .usualPrice(usualPrice)
+                    .averageWholesalePrice(medication.getAverageWholesalePrice())
+                    .serviceDate(serviceDate)
+                    .build());
+            if (priced.getUnitPrice() == null) {
+                return null;
+            }
+            lines.add(new NewInvoiceItemDraft(item.getPrescriptionItemId(), MEDICATION_ITEM,
+                    medication.getDescription(), item.getDispensedQuantity(), priced.getUnitPrice(),
+                    medication.getNdcCode(), medication.getTherapeuticClass()));
+        }
+        if (dispensingFee.signum() > 0) {
+            lines.add(new NewInvoiceItemDraft(null, DISPENSING_FEE_ITEM, "Dispensing fee", BigDecimal.ONE,
+                    dispensingFee, null, null));
+        }
+        return lines;
+    }
+
+    /**
+     * Average wholesale price, or the acquisition cost plus the configured markup
+     */
+    private BigDecimal usualPrice(MedicationPrice medication) {
+        if (medication.getAverageWholesalePrice() != null) {
+            return medication.getAverageWholesalePrice();
+        }
+        if (medication.getUnitCost() == null) {
+            return null;
+        }
+        return medication.getUnitCost().multiply(HUNDRED.add(costMarkupPercent))
+                .divide(HUNDRED, 4, RoundingMode.HALF_UP);
+    }
+
+    private NewInvoice toInvoice(PrescriptionFilledEvent fill, String invoiceNumber, String payerType,
+                                 List<NewInvoiceItemDraft> lines, LocalDateTime now) {
+        UUID invoiceId = UUID.randomUUID();
+        LocalDate invoiceDate = fill.getDispensedAt() != null ? fill.getDispensedAt().toLocalDate() : now.toLocalDate();
+        BigDecimal total = BigDecimal.ZERO;
+        List<NewInvoiceItem> items = new ArrayList<>(lines.size());
+        for (NewInvoiceItemDraft line : lines) {
+            BigDecimal lineTotal = line.unitPrice.multiply(line.quantity).setScale(2, RoundingMode.HALF_UP);
+            total = total.add(lineTotal);
+            items.add(new NewInvoiceItem(invoiceId, line.prescriptionItemId, line.itemType, line.description,
+                    line.quantity, line.unitPrice.setScale(4, RoundingMode.HALF_UP), lineTotal, line.ndcCode));
+        }
+        return new NewInvoice(invoiceId, invoiceNumber, fill.getPrescriptionId(), fill.getPatientId(), invoiceDate,
+                invoiceDate.plusDays(dueDays), total, patientCopay(total, payerType), payerType, now,
+                fill.getDispensedBy(), items);
+    }
+
+    /**
+     * Share the patient owes before adjudication: all of it when paying cash, nothing yet
+     * when a payer covers the fill, since claim adjudication sets the copay
+     */
+    static BigDecimal patientCopay(BigDecimal total, String payerType) {
+        return payerType == null ? total : BigDecimal.ZERO;
+    }
+
+    private static GeneratedInvoice toGenerated(NewInvoice invoice, List<NewInvoiceItemDraft> lines) {
+        List<SoldItem> sold = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            NewInvoiceItemDraft line = lines.get(i);
+            if (MEDICATION_ITEM.equals(line.itemType)) {
+                sold.add(new SoldItem(line.therapeuticClass, line.quantity, invoice.getItems().get(i).getTotalPrice()));
+            }
+        }
+        return new GeneratedInvoice(invoice.getId(), invoice.getCreatedAt(), invoice.getPayerType(),
+                invoice.getTotal(), invoice.getPatientCopay(), BigDecimal.ZERO, sold);
+    }
+
+    private static List<FilledItem> items(PrescriptionFilledEvent fill) {
+        if (fill.getItems() == null) {
+            return List.of();
+        }
+        return fill.getItems().stream()
+                .filter(item -> item.getDispensedQuantity() == null || item.getDispensedQuantity().signum() > 0)
+                .toList();
+    }
+
+    private static InvoiceGenerationDto result(int requested, int created, int alreadyInvoiced, List<UUID> skipped) {
+        return InvoiceGenerationDto.builder()
+                .requested(requested)
+                .created(created)
+                .alreadyInvoiced(alreadyInvoiced)
+                .skippedPrescriptionIds(skipped)
+                .build();
+    }
+
+    private static void add(InvoiceGenerationDto total, InvoiceGenerationDto result) {
+        total.setRequested(total.getRequested() + result.getRequested());
+        total.setCreated(total.getCreated() + result.getCreated());
+        total.setAlreadyInvoiced(total.getAlreadyInvoiced() + result.getAlreadyInvoiced());
+        total.getSkippedPrescriptionIds().addAll(result.getSkippedPrescriptionIds());
+    }
+
+    /**
+     * Priced line before the invoice it belongs to has an id
+     */
+    @AllArgsConstructor
+    private static class NewInvoiceItemDraft {
+        private final UUID prescriptionItemId;
+        private final String itemType;
+        private final String description;
+        private final BigDecimal quantity;
+        private final BigDecimal unitPrice;
+        private final String ndcCode;
+        private final String therapeuticClass;
+    }
+}
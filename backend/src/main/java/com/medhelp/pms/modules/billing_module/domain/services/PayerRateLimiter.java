@@ -0,0 +1,54 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the calls made to one payer: at most a number of batches per second and
+ * a number of batches in flight at the same time.
+ */
+class PayerRateLimiter {
+
+    private final long intervalNanos;
+    private final Semaphore inFlight;
+    private long nextFreeNanos = System.nanoTime();
+
+    PayerRateLimiter(double batchesPerSecond, int maxInFlight) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / batchesPerSecond);
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Wait for a free slot
+     *
+     * @return false if no slot became free within the timeout
+     */
+    boolean acquire(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        if (!inFlight.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            if (slot > deadline) {
+                inFlight.release();
+                return false;
+            }
+            nextFreeNanos = slot + intervalNanos;
+            wait = slot - now;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            inFlight.release();
+            throw e;
+        }
+        return true;
+    }
+
+    void release() {
+        inFlight.release();
+    }
+}
@@ -0,0 +1,257 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.AgingBucketDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.AgingReportDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceBalanceDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PaymentDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PostPaymentRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.RemittanceLineRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.RemittanceRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.RemittanceResultDto;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceBalance;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceStatus;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PaymentMethod;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.PaymentJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.PaymentJdbcRepository.AgingRow;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.PaymentJdbcRepository.NewPayment;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Posts and refunds payments against the invoice balance projection, and reports aging from it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentPostingService {
+
+    /**
+     * Last day of each aging bucket; the last bucket is open-ended
+     */
+    private static final int[] AGING_BUCKET_ENDS = {30, 60, 90, 120};
+
+    private final PaymentJdbcRepository paymentJdbcRepository;
+
+    @Value("${billing.payments.batch-size:500}")
+    private int batchSize;
+
+    @Transactional
+    public PaymentDto post(PostPaymentRequest request) {
+        if (request.getInvoiceId() == null) {
+            throw new ValidationException("invoiceId", "Invoice is required", null);
+        }
+        requirePositive(request.getAmount());
+        String method = PaymentMethod.fromCode(request.getPaymentMethod()).getCode();
+        InvoiceBalance balance = paymentJdbcRepository.findBalance(request.getInvoiceId())
+                .orElseThrow(() -> new EntityNotFoundException("Invoice", request.getInvoiceId().toString()));
+        if (InvoiceStatus.CANCELLED.getCode().equals(balance.getStatus())) {
+            throw new BusinessException("INVOICE_CANCELLED", "Payments cannot be posted to a cancelled invoice");
+        }
+        requireWithinBalance(request.getAmount(), balance.getOutstandingAmount());
+
+        LocalDate paymentDate = request.getPaymentDate() != null ? request.getPaymentDate() : LocalDate.now();
+        UUID paymentId = UUID.randomUUID();
+        Set<UUID> posted = paymentJdbcRepository.postPayments(List.of(new NewPayment(paymentId,
+                request.getInvoiceId(), paymentDate, method, request.getAmount(), request.getTransactionId(),
+                request.getCardLastFour(), request.getCheckNumber(), request.getNotes())),
+                SecurityUtils.getCurrentUserId(), batchSize);
+        if (posted.isEmpty()) {
+            // Checked again under the balance row lock: a concurrent post of the same transaction
+            // or of another payment got there first
+            if (request.getTransactionId() != null && !paymentJdbcRepository
+                    .findPostedTransactions(List.of(request.getInvoiceId()), List.of(request.getTransactionId()))
+                    .isEmpty()) {
+                throw new BusinessException("PAYMENT_DUPLICATE", "Transaction " + request.getTransactionId()
+                        + " was already posted to this invoice");
+            }
+            throw new BusinessException("PAYMENT_EXCEEDS_BALANCE",
+                    "Payment is larger than the outstanding amount of the invoice");
+        }
+
+        log.info("Posted payment of {} to invoice {}", request.getAmount(), request.getInvoiceId());
+        return PaymentDto.builder()
+                .paymentId(paymentId)
+                .invoiceId(request.getInvoiceId())
+                .paymentDate(paymentDate)
+                .paymentMethod(method)
+                .amount(request.getAmount())
+                .balance(getBalance(request.getInvoiceId()))
+                .build();
+    }
+
+    /**
+     * Post the lines of a remittance in batches; lines whose transaction was already posted are skipped,
+     * so a file can be posted again after a failure
+     */
+    @Transactional
+    public RemittanceResultDto postRemittance(RemittanceRequest request) {
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            throw new ValidationException("lines", "At least one line is required", null);
+        }
+        String method = request.getPaymentMethod() != null
+                ? PaymentMethod.fromCode(request.getPaymentMethod()).getCode() : PaymentMethod.INSURANCE.getCode();
+        LocalDate paymentDate = request.getPaymentDate() != null ? request.getPaymentDate() : LocalDate.now();
+
+        Set<String> invoiceNumbers = new HashSet<>();
+        for (RemittanceLineRequest line : request.getLines()) {
+            requirePositive(line.getAmount());
+            if (line.getTransactionId() == null || line.getTransactionId().isBlank()) {
+                throw new ValidationException("transactionId", "Every remittance line needs a transaction id", null);
+            }
+            if (line.getInvoiceId() == null && line.getInvoiceNumber() == null) {
+                throw new ValidationException("invoiceNumber", "Every remittance line needs an invoice", null);
+            }
+            if (line.getInvoiceId() == null) {
+                invoiceNumbers.add(line.getInvoiceNumber());
+            }
+        }
+        Map<String, UUID> idsByNumber = invoiceNumbers.isEmpty()
+                ? Map.of() : paymentJdbcRepository.findInvoiceIds(invoiceNumbers);
+
+        List<UUID> invoiceIds = new ArrayList<>();
+        List<String> transactionIds = new ArrayList<>();
+        for (RemittanceLineRequest line : request.getLines()) {
+            UUID invoiceId = line.getInvoiceId() != null ? line.getInvoiceId() : idsByNumber.get(line.getInvoiceNumber());
+            if (invoiceId != null) {
+                invoiceIds.add(invoiceId);
+                transactionIds.add(line.getTransactionId());
+            }
+        }
+        Set<UUID> known = invoiceIds.isEmpty() ? Set.of() : paymentJdbcRepository.findBalanceIds(invoiceIds);
+        Set<String> posted = paymentJdbcRepository.findPostedTransactions(invoiceIds, transactionIds);
+
+        List<NewPayment> payments = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        int duplicates = 0;
+        for (RemittanceLineRequest line : request.getLines()) {
+            UUID invoiceId = line.getInvoiceId() != null ? line.getInvoiceId() : idsByNumber.get(line.getInvoiceNumber());
+            if (invoiceId == null || !known.contains(invoiceId)) {
+                unknown.add(line.getInvoiceNumber() != null ? line.getInvoiceNumber() : String.valueOf(invoiceId));
+                continue;
+            }
+            if (!posted.add(PaymentJdbcRepository.transactionKey(invoiceId, line.getTransactionId()))) {
+                duplicates++;
+                continue;
+            }
+            payments.add(new NewPayment(UUID.randomUUID(), invoiceId, paymentDate, method, line.getAmount(),
+                    line.getTransactionId(), null, null, line.getNotes()));
+            references.add(line.getInvoiceNumber() != null ? line.getInvoiceNumber() : invoiceId.toString());
+        }
+        Set<UUID> postedIds = paymentJdbcRepository.postPayments(payments, SecurityUtils.getCurrentUserId(),
+                batchSize);
+
+        // Lines the insert skipped exceeded what their invoice still had outstanding
+        BigDecimal postedAmount = BigDecimal.ZERO;
+        List<String> overpaid = new ArrayList<>();
+        for (int i = 0; i < payments.size(); i++) {
+            NewPayment payment = payments.get(i);
+            if (postedIds.contains(payment.getId())) {
+                postedAmount = postedAmount.add(payment.getAmount());
+            } else {
+                overpaid.add(references.get(i));
+            }
+        }
+
+        log.info("Posted remittance: {} of {} lines, {} duplicates, {} unknown invoices, {} overpayments",
+                postedIds.size(), request.getLines().size(), duplicates, unknown.size(), overpaid.size());
+        return RemittanceResultDto.builder()
+                .lines(request.getLines().size())
+                .posted(postedIds.size())
+                .duplicates(duplicates)
+                .postedAmount(postedAmount)
+                .unknownInvoices(unknown)
+                .overpaidInvoices(overpaid)
+                .build();
+    }
+
+    @Transactional
+    public InvoiceBalanceDto refund(UUID paymentId) {
+        UUID invoiceId = paymentJdbcRepository.refundPayment(paymentId)
+                .orElseThrow(() -> new BusinessException("PAYMENT_NOT_REFUNDABLE",
+                        "Payment does not exist or is not a completed payment"));
+        log.info("Refunded payment {} of invoice {}", paymentId, invoiceId);
+        return getBalance(invoiceId);
+    }
+
+    @Transactional(readOnly = true)
+    public InvoiceBalanceDto getBalance(UUID invoiceId) {
+        InvoiceBalance balance = paymentJdbcRepository.findBalance(invoiceId)
+                .orElseThrow(() -> new EntityNotFoundException("Invoice", invoiceId.toString()));
+        return InvoiceBalanceDto.builder()
+                .invoiceId(balance.getInvoiceId())
+                .patientId(balance.getPatientId())
+                .invoiceDate(balance.getInvoiceDate())
+                .dueDate(balance.getDueDate())
+                .totalAmount(balance.getTotalAmount())
+                .paidAmount(balance.getPaidAmount())
+                .outstandingAmount(balance.getOutstandingAmount())
+                .status(balance.getStatus())
+                .lastPaymentDate(balance.getLastPaymentDate())
+                .build();
+    }
+
+    /**
+     * Open balances by days since the invoice date
+     */
+    @Transactional(readOnly = true)
+    public AgingReportDto getAgingReport(LocalDate asOf) {
+        LocalDate day = asOf != null ? asOf : LocalDate.now();
+        List<AgingBucketDto> buckets = new ArrayList<>(AGING_BUCKET_ENDS.length + 1);
+        for (int i = 0; i <= AGING_BUCKET_ENDS.length; i++) {
+            int from = i == 0 ? 0 : AGING_BUCKET_ENDS[i - 1] + 1;
+            Integer to = i < AGING_BUCKET_ENDS.length ? AGING_BUCKET_ENDS[i] : null;
+            buckets.add(AgingBucketDto.builder()
+                    .label(to != null ? from + "-" + to : from + "+")
+                    .fromDays(from)
+                    .toDays(to)
+                    .amount(BigDecimal.ZERO)
+                    .build());
+        }
+
+        int invoiceCount = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        for (AgingRow row : paymentJdbcRepository.findAging(day, AGING_BUCKET_ENDS)) {
+            AgingBucketDto bucket = buckets.get(row.getBucket());
+            bucket.setInvoiceCount(row.getInvoiceCount());
+            bucket.setAmount(row.getAmount());
+            invoiceCount += row.getInvoiceCount();
+            total = total.add(row.getAmount());
+        }
+        return AgingReportDto.builder()
+                .asOf(day)
+                .invoiceCount(invoiceCount)
+                .totalOutstanding(total)
+                .buckets(buckets)
+                .build();
+    }
+
+    private static void requireWithinBalance(BigDecimal amount, BigDecimal outstanding) {
+        if (amount.compareTo(outstanding) > 0) {
+            throw new ValidationException("amount", "Amount exceeds the outstanding amount of " + outstanding,
+                    amount);
+        }
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new ValidationException("amount", "Amount must be greater than zero", amount);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import com.medhelp.pms.modules.billing_module.domain.events.PricingRulesChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.repositories.PricingRuleRepository;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricedLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prices invoice lines against the active pricing rules.
+ * <p>
+ * Rules are compiled into a {@link PricingRuleSet} once and swapped in as a whole whenever
+ * they change, so pricing never reads the JSON conditions and never sees a half-built set.
+ * <p>
+ * A change committed on this node recompiles right away. Other nodes notice it by polling
+ * the rules version, which a trigger bumps on every write to pricing_rules, so they serve
+ * stale prices for at most one poll interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricingEngine {
+
+    private final PricingRuleRepository pricingRuleRepository;
+
+    private volatile PricingRuleSet rules = PricingRuleSet.EMPTY;
+    private volatile long compiledVersion = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        recompile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        recompile();
+    }
+
+    /**
+     * Recompile when rules changed through another node or outside the application (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${billing.pricing.version-poll-ms:5000}")
+    public void recompileIfChanged() {
+        if (pricingRuleRepository.findRulesVersion() != compiledVersion) {
+            recompile();
+        }
+    }
+
+    /**
+     * Recompile so rules that expired drop out of the set (scheduled task)
+     */
+    @Scheduled(cron = "${billing.pricing.recompile-cron:0 5 0 * * *}")
+    public void recompileScheduled() {
+        recompile();
+    }
+
+    /**
+     * Compile all active, unexpired rules and replace the current set
+     */
+    public synchronized void recompile() {
+        long started = System.nanoTime();
+        // Read before the rules, so a change committed while compiling triggers another pass
+        long version = pricingRuleRepository.findRulesVersion();
+        List<PricingRule> active = new ArrayList<>(pricingRuleRepository.findActiveNotExpiredOn(LocalDate.now()));
+        // Among rules of equal priority the most recently effective one wins
+        active.sort(Comparator.comparing(PricingRule::getEffectiveDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(PricingRule::getId));
+
+        List<CompiledPricingRule> compiled = new ArrayList<>(active.size());
+        int rejected = 0;
+        for (PricingRule rule : active) {
+            try {
+                compiled.add(PricingRuleCompiler.compile(rule, compiled.size()));
+            } catch (ValidationException e) {
+                rejected++;
+                log.warn("Skipping pricing rule {} ({}): {}", rule.getId(), rule.getRuleName(), e.getMessage());
+            }
+        }
+        rules = new PricingRuleSet(compiled);
+        compiledVersion = version;
+
+        log.info("Compiled {} pricing rules (version {}) in {} ms ({} skipped)", compiled.size(), version,
+                (System.nanoTime() - started) / 1_000_000, rejected);
+    }
+
+    /**
+     * Unit price of a line from the highest-priority matching rule, or its usual price
+     */
+    public PricedLine price(PricingLine line) {
+        LocalDate serviceDate = line.getServiceDate() != null ? line.getServiceDate() : LocalDate.now();
+        CompiledPricingRule rule = rules.match(line, serviceDate.toEpochDay());
+        if (rule == null) {
+            BigDecimal usual = line.getUsualPrice() != null
+                    ? line.getUsualPrice().setScale(4, RoundingMode.HALF_UP) : null;
+            return new PricedLine(null, null, null, usual);
+        }
+        return new PricedLine(rule.getId(), rule.getName(), rule.getMethod().getCode(), rule.unitPrice(line));
+    }
+
+    public int ruleCount() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,215 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import com.medhelp.pms.modules.billing_module.domain.services.CompiledPricingRule.LinePredicate;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingMethod;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compiles the JSON conditions of a pricing rule into a typed predicate.
+ * <p>
+ * Supported conditions, all of which must hold:
+ * <ul>
+ *     <li>{@code ndc_code} / {@code ndc_codes}: NDC or list of NDCs</li>
+ *     <li>{@code medication_id} / {@code medication_ids}: medication id or list of ids</li>
+ *     <li>{@code therapeutic_class} / {@code therapeutic_classes}: class or list of classes</li>
+ *     <li>{@code insurance_type} / {@code payer_type}: payer type or list of them; "cash" matches lines without insurance</li>
+ *     <li>{@code min_quantity}, {@code max_quantity}: inclusive quantity range</li>
+ *     <li>{@code any_of}: list of condition objects of which at least one must hold</li>
+ * </ul>
+ * Any other key is rejected, so a rule never matches more lines than its author intended.
+ */
+public final class PricingRuleCompiler {
+
+    public static final String CASH_PAYER = "cash";
+
+    private PricingRuleCompiler() {
+    }
+
+    /**
+     * @param sequence rank among rules of equal priority, lower wins
+     */
+    public static CompiledPricingRule compile(PricingRule rule, int sequence) {
+        PricingMethod method = PricingMethod.fromCode(rule.getPricingMethod());
+        if (rule.getPricingValue() == null || rule.getPricingValue().signum() < 0) {
+            throw new ValidationException("pricingValue", "Pricing value must not be negative", rule.getPricingValue());
+        }
+        if (rule.getEffectiveDate() == null) {
+            throw new ValidationException("effectiveDate", "Effective date is required", null);
+        }
+
+        Conditions conditions = compileConditions(rule.getConditions() != null ? rule.getConditions() : Map.of());
+        List<LinePredicate> predicates = conditions.predicates;
+        // Percentage methods need a base price on the line; without one the rule does not apply
+        if (method == PricingMethod.PERCENTAGE_DISCOUNT) {
+            predicates.add(line -> line.getUsualPrice() != null);
+        } else if (method == PricingMethod.AWP_MINUS_PERCENTAGE) {
+            predicates.add(line -> line.getAverageWholesalePrice() != null);
+        }
+
+        return new CompiledPricingRule(rule.getId(), rule.getRuleName(),
+                rule.getPriority() != null ? rule.getPriority() : 0, sequence,
+                rule.getEffectiveDate().toEpochDay(),
+                rule.getExpirationDate() != null ? rule.getExpirationDate().toEpochDay() : Long.MAX_VALUE,
+                method, rule.getPricingValue(), all(predicates),
+                conditions.ndcCodes, conditions.therapeuticClasses, conditions.payerTypes);
+    }
+
+    /**
+     * Payer type of a line as used for matching and indexing
+     */
+    public static String payerKey(String payerType) {
+        return payerType != null && !payerType.isBlank() ? normalize(payerType) : CASH_PAYER;
+    }
+
+    public static String classKey(String therapeuticClass) {
+        return therapeuticClass != null ? normalize(therapeuticClass) : null;
+    }
+
+    private static Conditions compileConditions(Map<String, Object> source) {
+        Conditions conditions = new Conditions();
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            switch (key) {
+                case "ndc_code", "ndc_codes" -> {
+                    Set<String> codes = strings(key, value, false);
+                    conditions.ndcCodes = codes;
+                    conditions.predicates.add(line -> line.getNdcCode() != null && codes.contains(line.getNdcCode()));
+                }
+                case "medication_id", "medication_ids" -> {
+                    Set<UUID> ids = new HashSet<>();
+                    for (String id : strings(key, value, false)) {
+                        ids.add(uuid(key, id));
+                    }
+                    conditions.predicates.add(line -> line.getMedicationId() != null
+                            && ids.contains(line.getMedicationId()));
+                }
+                case "therapeutic_class", "therapeutic_classes" -> {
+                    Set<String> classes = strings(key, value, true);
+                    conditions.therapeuticClasses = classes;
+                    conditions.predicates.add(line -> line.getTherapeuticClass() != null
+                            && classes.contains(classKey(line.getTherapeuticClass())));
+                }
+                case "insurance_type", "payer_type" -> {
+                    Set<String> payers = strings(key, value, true);
+                    conditions.payerTypes = payers;
+                    conditions.predicates.add(line -> payers.contains(payerKey(line.getPayerType())));
+                }
+                case "min_quantity" -> {
+                    BigDecimal min = decimal(key, value);
+                    conditions.predicates.add(line -> line.getQuantity() != null
+                            && line.getQuantity().compareTo(min) >= 0);
+                }
+                case "max_quantity" -> {
+                    BigDecimal max = decimal(key, value);
+                    conditions.predicates.add(line -> line.getQuantity() != null
+                            && line.getQuantity().compareTo(max) <= 0);
+                }
+                case "any_of" -> {
+                    if (!(value instanceof Collection<?> alternatives) || alternatives.isEmpty()) {
+                        throw new ValidationException("conditions", "any_of must be a non-empty list", value);
+                    }
+                    List<LinePredicate> options = new ArrayList<>(alternatives.size());
+                    for (Object alternative : alternatives) {
+                        if (!(alternative instanceof Map<?, ?> map)) {
+                            throw new ValidationException("conditions", "any_of entries must be objects", alternative);
+                        }
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> nested = (Map<String, Object>) map;
+                        options.add(all(compileConditions(nested).predicates));
+                    }
+                    conditions.predicates.add(any(options));
+                }
+                default -> throw new ValidationException("conditions",
+                        "Unsupported pricing rule condition '" + key + "'", key);
+            }
+        }
+        return conditions;
+    }
+
+    private static LinePredicate all(List<LinePredicate> predicates) {
+        if (predicates.isEmpty()) {
+            return line -> true;
+        }
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        LinePredicate[] terms = predicates.toArray(new LinePredicate[0]);
+        return line -> {
+            for (LinePredicate term : terms) {
+                if (!term.test(line)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static LinePredicate any(List<LinePredicate> predicates) {
+        LinePredicate[] terms = predicates.toArray(new LinePredicate[0]);
+        return line -> {
+            for (LinePredicate term : terms) {
+                if (term.test(line)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Set<String> strings(String key, Object value, boolean caseInsensitive) {
+        Collection<?> values = value instanceof Collection<?> collection ? collection : List.of(value);
+        Set<String> result = new HashSet<>();
+        for (Object item : values) {
+            if (!(item instanceof String text) || text.isBlank()) {
+                throw new ValidationException("conditions", key + " must be a string or a list of strings", value);
+            }
+            result.add(caseInsensitive ? normalize(text) : text.trim());
+        }
+        if (result.isEmpty()) {
+            throw new ValidationException("conditions", key + " must not be empty", value);
+        }
+        return Set.copyOf(result);
+    }
+
+    private static UUID uuid(String key, String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("conditions", key + " must contain UUIDs", value);
+        }
+    }
+
+    private static BigDecimal decimal(String key, Object value) {
+        if (value instanceof Number || value instanceof String) {
+            try {
+                return new BigDecimal(value.toString());
+            } catch (NumberFormatException e) {
+                // rejected below
+            }
+        }
+        throw new ValidationException("conditions", key + " must be a number", value);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Conditions {
+        private final List<LinePredicate> predicates = new ArrayList<>();
+        private Set<String> ndcCodes;
+        private Set<String> therapeuticClasses;
+        private Set<String> payerTypes;
+    }
+}
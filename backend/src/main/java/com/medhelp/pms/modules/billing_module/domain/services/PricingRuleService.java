@@ -0,0 +1,154 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.auth_module.domain.repositories.AuthRepository;
+import com.medhelp.pms.modules.billing_module.application.dtos.PriceLineRequest;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricedLineDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricingRuleDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.PricingRuleRequest;
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import com.medhelp.pms.modules.billing_module.domain.events.PricingRulesChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.repositories.PricingRuleRepository;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricedLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingMethod;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains pricing rules; every change triggers a recompile of the pricing engine after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricingRuleService {
+
+    private final PricingRuleRepository pricingRuleRepository;
+    private final AuthRepository authRepository;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<PricingRuleDto> getActiveRules() {
+        return pricingRuleRepository.findByIsActiveTrueOrderByPriorityDesc().stream().map(this::toDto).toList();
+    }
+
+    @Transactional
+    public PricingRuleDto create(PricingRuleRequest request) {
+        PricingRule rule = new PricingRule();
+        apply(rule, request);
+        rule.setIsActive(true);
+        rule.setCreatedAt(LocalDateTime.now());
+        UUID userId = SecurityUtils.getCurrentUserId();
+        if (userId != null) {
+            rule.setCreatedBy(authRepository.getReferenceById(userId));
+        }
+        rule = pricingRuleRepository.save(rule);
+
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(rule.getId()));
+        log.info("Created pricing rule {} ({})", rule.getId(), rule.getRuleName());
+        return toDto(rule);
+    }
+
+    @Transactional
+    public PricingRuleDto update(UUID pricingRuleId, PricingRuleRequest request) {
+        PricingRule rule = find(pricingRuleId);
+        apply(rule, request);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(pricingRuleId));
+        return toDto(rule);
+    }
+
+    @Transactional
+    public void deactivate(UUID pricingRuleId) {
+        PricingRule rule = find(pricingRuleId);
+        rule.setIsActive(false);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(pricingRuleId));
+        log.info("Deactivated pricing rule {} ({})", pricingRuleId, rule.getRuleName());
+    }
+
+    /**
+     * Price a single line the way invoices are priced
+     */
+    public PricedLineDto price(PriceLineRequest request) {
+        PricedLine priced = pricingEngine.price(PricingLine.builder()
+                .ndcCode(request.getNdcCode())
+                .medicationId(request.getMedicationId())
+                .therapeuticClass(request.getTherapeuticClass())
+                .payerType(request.getPayerType())
+                .quantity(request.getQuantity())
+                .usualPrice(request.getUsualPrice())
+                .averageWholesalePrice(request.getAverageWholesalePrice())
+                .serviceDate(request.getServiceDate())
+                .build());
+        BigDecimal quantity = request.getQuantity() != null ? request.getQuantity() : BigDecimal.ONE;
+        return PricedLineDto.builder()
+                .pricingRuleId(priced.getRuleId())
+                .ruleName(priced.getRuleName())
+                .pricingMethod(priced.getPricingMethod())
+                .unitPrice(priced.getUnitPrice())
+                .totalPrice(priced.getUnitPrice() != null
+                        ? priced.getUnitPrice().multiply(quantity).setScale(2, RoundingMode.HALF_UP) : null)
+                .build();
+    }
+
+    private PricingRule find(UUID pricingRuleId) {
+        return pricingRuleRepository.findById(pricingRuleId)
+                .orElseThrow(() -> new EntityNotFoundException("PricingRule", pricingRuleId.toString()));
+    }
+
+    /**
+     * Copy the request onto the rule and compile it, so invalid conditions are rejected up front
+     */
+    private void apply(PricingRule rule, PricingRuleRequest request) {
+        if (request.getRuleName() == null || request.getRuleName().isBlank()) {
+            throw new ValidationException("ruleName", "Rule name is required", request.getRuleName());
+        }
+        if (request.getRuleType() == null || request.getRuleType().isBlank()) {
+            throw new ValidationException("ruleType", "Rule type is required", request.getRuleType());
+        }
+        LocalDate effectiveDate = request.getEffectiveDate() != null ? request.getEffectiveDate() : LocalDate.now();
+        if (request.getExpirationDate() != null && request.getExpirationDate().isBefore(effectiveDate)) {
+            throw new ValidationException("expirationDate", "Expiration date is before the effective date",
+                    request.getExpirationDate());
+        }
+
+        rule.setRuleName(request.getRuleName().trim());
+        rule.setRuleType(request.getRuleType().trim());
+        rule.setConditions(request.getConditions() != null ? request.getConditions() : new HashMap<>());
+        rule.setPricingMethod(PricingMethod.fromCode(request.getPricingMethod()).getCode());
+        rule.setPricingValue(request.getPricingValue());
+        rule.setPriority(request.getPriority() != null ? request.getPriority() : 0);
+        rule.setEffectiveDate(effectiveDate);
+        rule.setExpirationDate(request.getExpirationDate());
+
+        PricingRuleCompiler.compile(rule, 0);
+    }
+
+    private PricingRuleDto toDto(PricingRule rule) {
+        return PricingRuleDto.builder()
+                .id(rule.getId())
+                .ruleName(rule.getRuleName())
+                .ruleType(rule.getRuleType())
+                .conditions(rule.getConditions())
+                .pricingMethod(rule.getPricingMethod())
+                .pricingValue(rule.getPricingValue())
+                .priority(rule.getPriority())
+                .effectiveDate(rule.getEffectiveDate())
+                .expirationDate(rule.getExpirationDate())
+                .isActive(rule.getIsActive())
+                .build();
+    }
+}
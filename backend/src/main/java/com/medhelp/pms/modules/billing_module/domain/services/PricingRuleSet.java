@@ -0,0 +1,105 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of compiled pricing rules indexed by the most selective attribute they constrain.
+ * <p>
+ * A rule restricted to NDCs is only listed under those NDCs, else under its therapeutic
+ * classes, else under its payer types; rules constraining none of these are checked for
+ * every line. Every list is ordered by precedence, so pricing a line walks at most four
+ * short lists and stops at the first match that cannot be outranked.
+ */
+public class PricingRuleSet {
+
+    private static final CompiledPricingRule[] NONE = new CompiledPricingRule[0];
+    private static final Comparator<CompiledPricingRule> PRECEDENCE =
+            Comparator.comparingInt(CompiledPricingRule::getPriority).reversed()
+                    .thenComparingInt(CompiledPricingRule::getSequence);
+
+    public static final PricingRuleSet EMPTY = new PricingRuleSet(List.of());
+
+    private final Map<String, CompiledPricingRule[]> byNdc;
+    private final Map<String, CompiledPricingRule[]> byTherapeuticClass;
+    private final Map<String, CompiledPricingRule[]> byPayerType;
+    private final CompiledPricingRule[] unindexed;
+    private final int size;
+
+    public PricingRuleSet(List<CompiledPricingRule> rules) {
+        Map<String, List<CompiledPricingRule>> ndc = new HashMap<>();
+        Map<String, List<CompiledPricingRule>> therapeuticClass = new HashMap<>();
+        Map<String, List<CompiledPricingRule>> payerType = new HashMap<>();
+        List<CompiledPricingRule> rest = new ArrayList<>();
+        for (CompiledPricingRule rule : rules) {
+            if (rule.getNdcCodes() != null) {
+                rule.getNdcCodes().forEach(code -> ndc.computeIfAbsent(code, key -> new ArrayList<>()).add(rule));
+            } else if (rule.getTherapeuticClasses() != null) {
+                rule.getTherapeuticClasses().forEach(name ->
+                        therapeuticClass.computeIfAbsent(name, key -> new ArrayList<>()).add(rule));
+            } else if (rule.getPayerTypes() != null) {
+                rule.getPayerTypes().forEach(type ->
+                        payerType.computeIfAbsent(type, key -> new ArrayList<>()).add(rule));
+            } else {
+                rest.add(rule);
+            }
+        }
+        this.byNdc = sorted(ndc);
+        this.byTherapeuticClass = sorted(therapeuticClass);
+        this.byPayerType = sorted(payerType);
+        this.unindexed = sorted(rest);
+        this.size = rules.size();
+    }
+
+    /**
+     * Highest-precedence rule matching the line, or null
+     */
+    public CompiledPricingRule match(PricingLine line, long serviceDay) {
+        CompiledPricingRule best = null;
+        if (line.getNdcCode() != null) {
+            best = firstMatch(byNdc.getOrDefault(line.getNdcCode(), NONE), line, serviceDay, best);
+        }
+        if (line.getTherapeuticClass() != null) {
+            best = firstMatch(byTherapeuticClass.getOrDefault(
+                    PricingRuleCompiler.classKey(line.getTherapeuticClass()), NONE), line, serviceDay, best);
+        }
+        best = firstMatch(byPayerType.getOrDefault(
+                PricingRuleCompiler.payerKey(line.getPayerType()), NONE), line, serviceDay, best);
+        return firstMatch(unindexed, line, serviceDay, best);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static CompiledPricingRule firstMatch(CompiledPricingRule[] rules, PricingLine line, long serviceDay,
+                                                  CompiledPricingRule best) {
+        for (CompiledPricingRule rule : rules) {
+            if (best != null && !rule.outranks(best)) {
+                return best;
+            }
+            if (rule.appliesTo(line, serviceDay)) {
+                return rule;
+            }
+        }
+        return best;
+    }
+
+    private static Map<String, CompiledPricingRule[]> sorted(Map<String, List<CompiledPricingRule>> index) {
+        Map<String, CompiledPricingRule[]> result = new HashMap<>(index.size() * 2);
+        index.forEach((key, rules) -> result.put(key, sorted(rules)));
+        return result;
+    }
+
+    private static CompiledPricingRule[] sorted(List<CompiledPricingRule> rules) {
+        CompiledPricingRule[] array = rules.toArray(NONE);
+        Arrays.sort(array, PRECEDENCE);
+        return array;
+    }
+}
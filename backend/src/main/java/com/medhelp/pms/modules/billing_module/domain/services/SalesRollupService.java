@@ -0,0 +1,250 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.SalesReportDto;
+import com.medhelp.pms.modules.billing_module.application.dtos.SalesRowDto;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent.AmountChange;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.GeneratedInvoice;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.SoldItem;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.SalesGranularity;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository.InvoiceKey;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository.RollupDelta;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository.SalesRow;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository.Segment;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maintains hourly, daily and monthly sales rollups and answers sales reports from them.
+ * <p>
+ * Billing events are folded into the rollups inside the transaction that published them,
+ * so a rollup never counts an invoice that was rolled back. A report range is split into
+ * whole months, whole days and remaining hours, each read from the coarsest rollup that
+ * covers it exactly, so a year-to-date total reads about a dozen month rows per group.
+ * <p>
+ * Buckets are hours, days and months in billing.sales.time-zone (the JVM zone when blank),
+ * for events and rebuilds alike. A rebuild holds the exclusive rollup lock while it deletes
+ * and recomputes a range; event folding holds it shared, so a rebuild waits for the billing
+ * transactions that already counted into the rollups and later ones wait for the rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private static final String GROUP_PAYER = "payer";
+    private static final String GROUP_CLASS = "class";
+    private static final String ROLLUP_LOCK_NAMESPACE = "billing.sales-rollups";
+    private static final String ROLLUP_LOCK_KEY = "rollups";
+
+    private final SalesRollupJdbcRepository salesRollupJdbcRepository;
+    private final AdvisoryLocks advisoryLocks;
+
+    @Value("${billing.sales.batch-size:500}")
+    private int batchSize;
+
+    @Value("${billing.sales.time-zone:}")
+    private String timeZone;
+
+    @EventListener
+    public void onInvoicesGenerated(InvoicesGeneratedEvent event) {
+        ZoneId zone = zone();
+        Map<String, RollupDelta> deltas = new TreeMap<>();
+        for (GeneratedInvoice invoice : event.getInvoices()) {
+            String payerType = payerKey(invoice.getPayerType());
+            // Invoices record their creation time in the JVM zone
+            LocalDateTime createdAt = invoice.getCreatedAt().atZone(ZoneId.systemDefault())
+                    .withZoneSameInstant(zone).toLocalDateTime();
+            for (SalesGranularity granularity : SalesGranularity.values()) {
+                delta(deltas, granularity, createdAt, payerType, SalesRollupJdbcRepository.ALL_CLASSES)
+                        .addInvoice(invoice.getTotalAmount(), invoice.getPatientCopay(), invoice.getInsurancePayment());
+                for (SoldItem item : invoice.getItems()) {
+                    String therapeuticClass = item.getTherapeuticClass() != null
+                            ? item.getTherapeuticClass() : SalesRollupJdbcRepository.UNCLASSIFIED;
+                    delta(deltas, granularity, createdAt, payerType, therapeuticClass)
+                            .addItem(item.getQuantity(), item.getTotalPrice());
+                }
+            }
+        }
+        increment(deltas);
+    }
+
+    @EventListener
+    public void onInvoiceAmountsChanged(InvoiceAmountsChangedEvent event) {
+        if (event.getChanges().isEmpty()) {
+            return;
+        }
+        Map<UUID, InvoiceKey> invoices = salesRollupJdbcRepository.findInvoiceKeys(
+                event.getChanges().stream().map(AmountChange::getInvoiceId).toList(), zone());
+        Map<String, RollupDelta> deltas = new TreeMap<>();
+        for (AmountChange change : event.getChanges()) {
+            InvoiceKey invoice = invoices.get(change.getInvoiceId());
+            if (invoice == null) {
+                continue;
+            }
+            for (SalesGranularity granularity : SalesGranularity.values()) {
+                delta(deltas, granularity, invoice.getCreatedAt(), payerKey(invoice.getPayerType()),
+                        SalesRollupJdbcRepository.ALL_CLASSES)
+                        .addChange(change.getCopayChange(), change.getInsurancePaymentChange(),
+                                change.getDiscountChange());
+            }
+        }
+        increment(deltas);
+    }
+
+    private void increment(Map<String, RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        advisoryLocks.lockSharedForTransaction(ROLLUP_LOCK_NAMESPACE, ROLLUP_LOCK_KEY);
+        salesRollupJdbcRepository.increment(deltas.values(), batchSize);
+    }
+
+    /**
+     * Sales between two days (inclusive)
+     *
+     * @param interval hour, day or month buckets, or none for totals only
+     * @param groupBy  payer, class or none; grouping by class reports medication lines only
+     */
+    @Transactional(readOnly = true)
+    public SalesReportDto getSalesReport(LocalDate from, LocalDate to, String interval, String groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfYear(1);
+        if (start.isAfter(end)) {
+            throw new ValidationException("from", "Start date is after the end date", from);
+        }
+        SalesGranularity bucket = interval == null || interval.isBlank() || "none".equalsIgnoreCase(interval)
+                ? null : SalesGranularity.fromCode(interval);
+        String group = groupBy != null ? groupBy.toLowerCase(Locale.ROOT) : "none";
+        String dimension = switch (group) {
+            case GROUP_PAYER -> "payer_type";
+            case GROUP_CLASS -> "therapeutic_class";
+            case "none" -> null;
+            default -> throw new ValidationException("groupBy", "Unknown grouping", groupBy);
+        };
+
+        List<Segment> segments = new ArrayList<>();
+        split(start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                bucket != null ? bucket : SalesGranularity.MONTH, segments);
+        Set<String> granularities = new LinkedHashSet<>();
+        for (int i = SalesGranularity.values().length - 1; i >= 0; i--) {
+            SalesGranularity granularity = SalesGranularity.values()[i];
+            if (segments.stream().anyMatch(segment -> segment.getGranularity() == granularity)) {
+                granularities.add(granularity.getCode());
+            }
+        }
+
+        List<SalesRowDto> rows = new ArrayList<>();
+        SalesRowDto totals = SalesRowDto.builder()
+                .quantity(BigDecimal.ZERO).revenue(BigDecimal.ZERO).copayAmount(BigDecimal.ZERO)
+                .insuranceAmount(BigDecimal.ZERO).discountAmount(BigDecimal.ZERO)
+                .build();
+        for (SalesRow row : salesRollupJdbcRepository.sum(segments, bucket, dimension, GROUP_CLASS.equals(group))) {
+            rows.add(SalesRowDto.builder()
+                    .bucketStart(row.getBucketStart())
+                    .group(row.getGroup())
+                    .invoiceCount(row.getInvoiceCount())
+                    .itemCount(row.getItemCount())
+                    .quantity(row.getQuantity())
+                    .revenue(row.getRevenue())
+                    .copayAmount(row.getCopayAmount())
+                    .insuranceAmount(row.getInsuranceAmount())
+                    .discountAmount(row.getDiscountAmount())
+                    .build());
+            totals.setInvoiceCount(totals.getInvoiceCount() + row.getInvoiceCount());
+            totals.setItemCount(totals.getItemCount() + row.getItemCount());
+            totals.setQuantity(totals.getQuantity().add(row.getQuantity()));
+            totals.setRevenue(totals.getRevenue().add(row.getRevenue()));
+            totals.setCopayAmount(totals.getCopayAmount().add(row.getCopayAmount()));
+            totals.setInsuranceAmount(totals.getInsuranceAmount().add(row.getInsuranceAmount()));
+            totals.setDiscountAmount(totals.getDiscountAmount().add(row.getDiscountAmount()));
+        }
+
+        return SalesReportDto.builder()
+                .from(start)
+                .to(end)
+                .interval(bucket != null ? bucket.getCode() : "none")
+                .groupBy(group)
+                .granularities(new ArrayList<>(granularities))
+                .totals(totals)
+                .rows(rows)
+                .build();
+    }
+
+    /**
+     * Recompute the rollups of the months touching the range from the invoices
+     */
+    @Transactional
+    public void rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new ValidationException("from", "A valid date range is required", from);
+        }
+        LocalDateTime start = from.withDayOfMonth(1).atStartOfDay();
+        LocalDateTime end = to.withDayOfMonth(1).plusMonths(1).atStartOfDay();
+        long started = System.nanoTime();
+        advisoryLocks.lockForTransaction(ROLLUP_LOCK_NAMESPACE, ROLLUP_LOCK_KEY);
+        salesRollupJdbcRepository.rebuild(start, end, zone());
+        log.info("Rebuilt sales rollups from {} to {} in {} ms", start.toLocalDate(), end.toLocalDate(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Cover [from, to) with whole buckets, using the coarsest granularity up to the given one for each part
+     */
+    private static void split(LocalDateTime from, LocalDateTime to, SalesGranularity coarsest, List<Segment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (coarsest == SalesGranularity.HOUR) {
+            segments.add(new Segment(SalesGranularity.HOUR, from, to));
+            return;
+        }
+        SalesGranularity finer = SalesGranularity.values()[coarsest.ordinal() - 1];
+        LocalDateTime start = coarsest.ceil(from);
+        LocalDateTime end = coarsest.truncate(to);
+        if (!start.isBefore(end)) {
+            split(from, to, finer, segments);
+            return;
+        }
+        split(from, start, finer, segments);
+        segments.add(new Segment(coarsest, start, end));
+        split(end, to, finer, segments);
+    }
+
+    private static RollupDelta delta(Map<String, RollupDelta> deltas, SalesGranularity granularity,
+                                     LocalDateTime time, String payerType, String therapeuticClass) {
+        LocalDateTime bucketStart = granularity.truncate(time);
+        // Sorted keys make concurrent transactions lock rollup rows in the same order
+        String key = granularity.ordinal() + "|" + bucketStart + "|" + payerType + "|" + therapeuticClass;
+        return deltas.computeIfAbsent(key, k -> new RollupDelta(granularity, bucketStart, payerType, therapeuticClass));
+    }
+
+    private ZoneId zone() {
+        return timeZone == null || timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+    }
+
+    private static String payerKey(String payerType) {
+        return payerType != null ? payerType : SalesRollupJdbcRepository.CASH;
+    }
+}
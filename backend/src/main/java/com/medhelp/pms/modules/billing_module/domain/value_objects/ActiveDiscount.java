@@ -0,0 +1,49 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Active discount code with its applicable medications parsed into hash sets.
+ * <p>
+ * When all three sets are empty the discount applies to every line.
+ */
+@Getter
+@Builder
+public class ActiveDiscount {
+    private final UUID id;
+    private final String code;
+    private final String description;
+    private final DiscountType type;
+    private final BigDecimal value;
+    private final Integer maxUses;
+    private final Integer maxUsesPerPatient;
+    private final BigDecimal minimumPurchaseAmount;
+    private final LocalDate effectiveDate;
+    private final LocalDate expirationDate;
+    private final Set<UUID> medicationIds;
+    private final Set<String> ndcCodes;
+    private final Set<String> therapeuticClasses;
+
+    public boolean isValidOn(LocalDate date) {
+        return !date.isBefore(effectiveDate) && !date.isAfter(expirationDate);
+    }
+
+    public boolean appliesToAllLines() {
+        return medicationIds.isEmpty() && ndcCodes.isEmpty() && therapeuticClasses.isEmpty();
+    }
+
+    public boolean appliesTo(DiscountLine line) {
+        return appliesToAllLines()
+                || (line.getMedicationId() != null && medicationIds.contains(line.getMedicationId()))
+                || (line.getNdcCode() != null && ndcCodes.contains(line.getNdcCode()))
+                || (line.getTherapeuticClass() != null
+                && therapeuticClasses.contains(line.getTherapeuticClass().trim().toLowerCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payer response to one submitted claim
+ */
+@Getter
+@Builder
+public class AdjudicationResult {
+    private final UUID claimId;
+    private final ClaimStatus status;
+    private final BigDecimal approvedAmount;
+    private final BigDecimal patientResponsibility;
+    private final String rejectionCode;
+    private final String rejectionReason;
+    private final String externalClaimId;
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+public enum ClaimStatus {
+    PENDING("pending"),
+    SUBMITTED("submitted"),
+    APPROVED("approved"),
+    PARTIALLY_APPROVED("partially_approved"),
+    REJECTED("rejected"),
+    APPEALED("appealed"),
+    FAILED("failed");
+
+    private final String code;
+
+    ClaimStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,28 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Claim as sent to the payer identified by its BIN and PCN
+ */
+@Getter
+@AllArgsConstructor
+public class ClaimSubmission {
+    private final UUID claimId;
+    private final String claimNumber;
+    private final UUID prescriptionId;
+    private final String binNumber;
+    private final String pcnNumber;
+    private final String groupNumber;
+    private final String policyNumber;
+    private final String insuranceType;
+    private final BigDecimal submittedAmount;
+
+    public String getPayerKey() {
+        return binNumber + "/" + (pcnNumber != null ? pcnNumber : "");
+    }
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One priced line a discount code may apply to.
+ */
+@Getter
+@AllArgsConstructor
+public class DiscountLine {
+    private final UUID medicationId;
+    private final String ndcCode;
+    private final String therapeuticClass;
+    private final BigDecimal amount;
+}
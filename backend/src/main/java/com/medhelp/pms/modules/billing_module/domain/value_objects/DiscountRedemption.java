@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class DiscountRedemption {
+    private final UUID id;
+    private final UUID discountId;
+    private final String code;
+    private final BigDecimal discountAmount;
+    private final LocalDateTime redeemedAt;
+}
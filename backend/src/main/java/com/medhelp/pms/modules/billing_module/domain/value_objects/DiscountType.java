@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum DiscountType {
+    PERCENTAGE("percentage"),
+    FIXED_AMOUNT("fixed_amount"),
+    FREE_ITEM("free_item");
+
+    private final String code;
+
+    DiscountType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static Optional<DiscountType> fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(type -> type.code.equalsIgnoreCase(code))
+                .findFirst();
+    }
+}
@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class InvoiceBalance {
+    private final UUID invoiceId;
+    private final UUID patientId;
+    private final LocalDate invoiceDate;
+    private final LocalDate dueDate;
+    private final BigDecimal totalAmount;
+    private final BigDecimal paidAmount;
+    private final BigDecimal outstandingAmount;
+    private final String status;
+    private final LocalDate lastPaymentDate;
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+public enum InvoiceStatus {
+    PENDING("pending"),
+    PARTIALLY_PAID("partially_paid"),
+    PAID("paid"),
+    OVERDUE("overdue"),
+    CANCELLED("cancelled");
+
+    private final String code;
+
+    InvoiceStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
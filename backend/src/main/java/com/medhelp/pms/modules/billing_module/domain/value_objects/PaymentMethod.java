@@ -0,0 +1,30 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.util.Arrays;
+
+public enum PaymentMethod {
+    CASH("cash"),
+    CREDIT_CARD("credit_card"),
+    DEBIT_CARD("debit_card"),
+    CHECK("check"),
+    INSURANCE("insurance");
+
+    private final String code;
+
+    PaymentMethod(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static PaymentMethod fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(method -> method.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("paymentMethod", "Unknown payment method", code));
+    }
+}
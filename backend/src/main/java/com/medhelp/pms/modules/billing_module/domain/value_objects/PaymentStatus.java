@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+public enum PaymentStatus {
+    PENDING("pending"),
+    COMPLETED("completed"),
+    FAILED("failed"),
+    REFUNDED("refunded");
+
+    private final String code;
+
+    PaymentStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Unit price of a line and the pricing rule that produced it; ruleId is null for the usual price.
+ */
+@Getter
+@AllArgsConstructor
+public class PricedLine {
+    private final UUID ruleId;
+    private final String ruleName;
+    private final String pricingMethod;
+    private final BigDecimal unitPrice;
+}
@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One invoice line as seen by the pricing rules.
+ */
+@Getter
+@Builder
+public class PricingLine {
+    private final String ndcCode;
+    private final UUID medicationId;
+    private final String therapeuticClass;
+    private final String payerType;
+    private final BigDecimal quantity;
+    private final BigDecimal usualPrice;
+    private final BigDecimal averageWholesalePrice;
+    private final LocalDate serviceDate;
+}
@@ -0,0 +1,28 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.util.Arrays;
+
+public enum PricingMethod {
+    FIXED_PRICE("fixed_price"),
+    PERCENTAGE_DISCOUNT("percentage_discount"),
+    AWP_MINUS_PERCENTAGE("awp_minus_percentage");
+
+    private final String code;
+
+    PricingMethod(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static PricingMethod fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(method -> method.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("pricingMethod", "Unknown pricing method", code));
+    }
+}
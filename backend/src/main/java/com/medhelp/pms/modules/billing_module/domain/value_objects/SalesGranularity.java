@@ -0,0 +1,57 @@
+package com.medhelp.pms.modules.billing_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Bucket size of sales rollups, finest first; codes double as PostgreSQL date_trunc fields
+ */
+public enum SalesGranularity {
+    HOUR("hour"),
+    DAY("day"),
+    MONTH("month");
+
+    private final String code;
+
+    SalesGranularity(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Start of the first bucket at or after the time
+     */
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime start = truncate(time);
+        return start.equals(time) ? start : next(start);
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+
+    public static SalesGranularity fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("interval", "Unknown interval", code));
+    }
+}
@@ -0,0 +1,17 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.adjudication;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.AdjudicationResult;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimSubmission;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface ClaimAdjudicator {
+
+    /**
+     * Submit claims that all go to the same payer and return one result per claim.
+     * Implementations give up after the timeout; claims missing from the result are
+     * treated as not delivered and submitted again by a later run.
+     */
+    List<AdjudicationResult> adjudicate(String payerKey, List<ClaimSubmission> claims, Duration timeout);
+}
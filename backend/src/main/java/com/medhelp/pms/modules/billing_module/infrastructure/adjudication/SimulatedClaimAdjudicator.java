@@ -0,0 +1,108 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.adjudication;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.AdjudicationResult;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimStatus;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimSubmission;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Local stand-in for payer switches, used until a real one is connected and for load tests.
+ * <p>
+ * It invents approvals, so it is only registered when billing.claims.simulator.enabled is
+ * set; without it and without a real adjudicator, claim runs refuse to start.
+ * <p>
+ * The outcome of a claim depends only on its claim number, so a run can be repeated with the
+ * same results; response time is a fixed latency per batch plus a per-claim cost.
+ */
+@Service
+@ConditionalOnProperty(name = "billing.claims.simulator.enabled", havingValue = "true")
+@Slf4j
+public class SimulatedClaimAdjudicator implements ClaimAdjudicator {
+
+    private static final String[][] REJECTIONS = {
+            {"70", "Product/Service Not Covered"},
+            {"75", "Prior Authorization Required"},
+            {"76", "Plan Limitations Exceeded"},
+            {"79", "Refill Too Soon"},
+            {"MR", "Product Not On Formulary"}
+    };
+
+    @Value("${billing.claims.simulator.batch-latency-ms:200}")
+    private long batchLatencyMs;
+
+    @Value("${billing.claims.simulator.claim-latency-ms:2}")
+    private long claimLatencyMs;
+
+    @Value("${billing.claims.simulator.approval-rate:0.85}")
+    private double approvalRate;
+
+    @Value("${billing.claims.simulator.partial-approval-rate:0.05}")
+    private double partialApprovalRate;
+
+    @Value("${billing.claims.simulator.copay:10.00}")
+    private BigDecimal copay;
+
+    @Override
+    public List<AdjudicationResult> adjudicate(String payerKey, List<ClaimSubmission> claims, Duration timeout) {
+        long latencyMs = batchLatencyMs + claimLatencyMs * claims.size();
+        try {
+            Thread.sleep(Math.min(latencyMs, timeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        if (latencyMs > timeout.toMillis()) {
+            log.warn("Simulated payer {} timed out on {} claims", payerKey, claims.size());
+            return List.of();
+        }
+
+        List<AdjudicationResult> results = new ArrayList<>(claims.size());
+        for (ClaimSubmission claim : claims) {
+            results.add(adjudicate(claim));
+        }
+        log.debug("Simulated adjudication of {} claims for payer {}", claims.size(), payerKey);
+        return results;
+    }
+
+    private AdjudicationResult adjudicate(ClaimSubmission claim) {
+        SplittableRandom random = new SplittableRandom(claim.getClaimNumber().hashCode());
+        double outcome = random.nextDouble();
+        AdjudicationResult.AdjudicationResultBuilder result = AdjudicationResult.builder()
+                .claimId(claim.getClaimId())
+                .externalClaimId("SIM-" + claim.getClaimNumber());
+        BigDecimal submitted = claim.getSubmittedAmount();
+
+        if (outcome < approvalRate) {
+            BigDecimal patientPays = copay.min(submitted);
+            return result.status(ClaimStatus.APPROVED)
+                    .approvedAmount(submitted.subtract(patientPays))
+                    .patientResponsibility(patientPays)
+                    .build();
+        }
+        if (outcome < approvalRate + partialApprovalRate) {
+            BigDecimal approved = submitted.multiply(BigDecimal.valueOf(0.5 + random.nextDouble() * 0.4))
+                    .setScale(2, RoundingMode.HALF_UP);
+            return result.status(ClaimStatus.PARTIALLY_APPROVED)
+                    .approvedAmount(approved)
+                    .patientResponsibility(submitted.subtract(approved))
+                    .build();
+        }
+        String[] rejection = REJECTIONS[random.nextInt(REJECTIONS.length)];
+        return result.status(ClaimStatus.REJECTED)
+                .approvedAmount(BigDecimal.ZERO)
+                .patientResponsibility(submitted)
+                .rejectionCode(rejection[0])
+                .rejectionReason(rejection[1])
+                .build();
+    }
+}
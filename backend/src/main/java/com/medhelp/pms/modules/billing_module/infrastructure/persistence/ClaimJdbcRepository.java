@@ -0,0 +1,193 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.AdjudicationResult;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimStatus;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimSubmission;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Set-based claim writes used by claim runs; every status change is one statement per batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClaimJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Create a pending claim for every open invoice of an insured patient that has no claim yet.
+     * The existence check does not see uncommitted claims, so concurrent callers must be
+     * serialized (see ClaimSubmissionService).
+     *
+     * @return number of claims created
+     */
+    public int createPendingClaims(LocalDate today) {
+        return jdbcTemplate.update(
+                "INSERT INTO billing_schema.insurance_claims (claim_number, prescription_id, patient_insurance_id, " +
+                        "submission_date, submitted_amount, status) " +
+                        "SELECT 'CLM' || lpad(nextval('billing_schema.claim_number_seq')::text, 8, '0'), " +
+                        "i.prescription_id, cov.id, ?, i.total_amount, ? " +
+                        "FROM billing_schema.invoices i " +
+                        "JOIN LATERAL (SELECT pi.id FROM patient_schema.patient_insurance pi " +
+                        "  WHERE pi.patient_id = i.patient_id AND pi.is_active = true AND pi.bin_number IS NOT NULL " +
+                        "  AND pi.effective_date <= ? AND (pi.expiration_date IS NULL OR pi.expiration_date >= ?) " +
+                        "  ORDER BY pi.effective_date DESC LIMIT 1) cov ON true " +
+                        "WHERE i.status = ? AND i.total_amount > 0 " +
+                        "AND NOT EXISTS (SELECT 1 FROM billing_schema.insurance_claims c " +
+                        "  WHERE c.prescription_id = i.prescription_id)",
+                Date.valueOf(today), ClaimStatus.PENDING.getCode(), Date.valueOf(today), Date.valueOf(today),
+                InvoiceStatus.PENDING.getCode());
+    }
+
+    /**
+     * Take up to limit pending claims, and submitted ones that never got a response, for submission.
+     * Rows locked by a concurrent run are skipped.
+     */
+    public List<ClaimSubmission> markSubmitted(LocalDate submissionDate, LocalDateTime staleBefore, int maxAttempts,
+                                               int limit) {
+        return jdbcTemplate.query(
+                "UPDATE billing_schema.insurance_claims c SET status = ?, submission_date = ?, " +
+                        "submission_attempts = c.submission_attempts + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM patient_schema.patient_insurance pi " +
+                        "WHERE pi.id = c.patient_insurance_id AND c.id IN (" +
+                        "  SELECT id FROM billing_schema.insurance_claims " +
+                        "  WHERE (status = ? OR (status = ? AND response_date IS NULL AND updated_at < ?)) " +
+                        "  AND submission_attempts < ? ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING c.id, c.claim_number, c.prescription_id, pi.bin_number, pi.pcn_number, " +
+                        "pi.group_number, pi.policy_number, pi.insurance_type, c.submitted_amount",
+                (rs, rowNum) -> new ClaimSubmission(rs.getObject(1, UUID.class), rs.getString(2),
+                        rs.getObject(3, UUID.class), rs.getString(4), rs.getString(5), rs.getString(6),
+                        rs.getString(7), rs.getString(8), rs.getBigDecimal(9)),
+                ClaimStatus.SUBMITTED.getCode(), Date.valueOf(submissionDate), ClaimStatus.PENDING.getCode(),
+                ClaimStatus.SUBMITTED.getCode(), Timestamp.valueOf(staleBefore), maxAttempts, limit);
+    }
+
+    /**
+     * Record payer responses on the claims
+     */
+    public void applyResults(List<AdjudicationResult> results, LocalDate responseDate, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE billing_schema.insurance_claims SET status = ?, approved_amount = ?, " +
+                        "patient_responsibility = ?, rejection_code = ?, rejection_reason = ?, " +
+                        "external_claim_id = ?, response_date = ?, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ? AND status = ?",
+                results, batchSize, (ps, result) -> {
+                    ps.setString(1, result.getStatus().getCode());
+                    ps.setBigDecimal(2, result.getApprovedAmount());
+                    ps.setBigDecimal(3, result.getPatientResponsibility());
+                    ps.setString(4, result.getRejectionCode());
+                    ps.setString(5, result.getRejectionReason());
+                    ps.setString(6, result.getExternalClaimId());
+                    ps.setDate(7, Date.valueOf(responseDate));
+                    ps.setObject(8, result.getClaimId());
+                    ps.setString(9, ClaimStatus.SUBMITTED.getCode());
+                });
+    }
+
+    /**
+     * Current payer and patient share of the open invoices of the given claims, by claim
+     */
+    public Map<UUID, InvoiceShare> findInvoiceShares(Collection<UUID> claimIds) {
+        Map<UUID, InvoiceShare> shares = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT c.id, i.id, i.patient_copay, COALESCE(i.insurance_payment, 0) " +
+                        "FROM billing_schema.insurance_claims c " +
+                        "JOIN billing_schema.invoices i ON i.prescription_id = c.prescription_id " +
+                        "WHERE c.id IN (:ids) AND i.status = :pending",
+                new MapSqlParameterSource()
+                        .addValue("ids", claimIds)
+                        .addValue("pending", InvoiceStatus.PENDING.getCode()),
+                rs -> {
+                    shares.put(rs.getObject(1, UUID.class), new InvoiceShare(rs.getObject(2, UUID.class),
+                            rs.getBigDecimal(3), rs.getBigDecimal(4)));
+                });
+        return shares;
+    }
+
+    /**
+     * Split the invoices of approved claims into the insurance payment and the patient's copay
+     */
+    public void applyToInvoices(List<AdjudicationResult> approved, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE billing_schema.invoices i SET insurance_payment = ?, patient_copay = ?, " +
+                        "updated_at = CURRENT_TIMESTAMP " +
+                        "FROM billing_schema.insurance_claims c " +
+                        "WHERE c.id = ? AND i.prescription_id = c.prescription_id AND i.status = ?",
+                approved, batchSize, (ps, result) -> {
+                    ps.setBigDecimal(1, result.getApprovedAmount());
+                    ps.setBigDecimal(2, result.getPatientResponsibility());
+                    ps.setObject(3, result.getClaimId());
+                    ps.setString(4, InvoiceStatus.PENDING.getCode());
+                });
+    }
+
+    /**
+     * Put claims that were not delivered back in the queue, or fail them once they used up
+     * their attempts
+     *
+     * @return claim numbers of the claims that failed
+     */
+    public List<String> release(Collection<UUID> claimIds, int maxAttempts) {
+        if (claimIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "UPDATE billing_schema.insurance_claims SET " +
+                        "status = CASE WHEN submission_attempts >= ? THEN ? ELSE ? END, " +
+                        "updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ANY(?) AND status = ? RETURNING claim_number, status",
+                ps -> {
+                    ps.setInt(1, maxAttempts);
+                    ps.setString(2, ClaimStatus.FAILED.getCode());
+                    ps.setString(3, ClaimStatus.PENDING.getCode());
+                    ps.setArray(4, ps.getConnection().createArrayOf("uuid", claimIds.toArray()));
+                    ps.setString(5, ClaimStatus.SUBMITTED.getCode());
+                },
+                (rs, rowNum) -> ClaimStatus.FAILED.getCode().equals(rs.getString(2)) ? rs.getString(1) : null)
+                .stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Fail claims that used up their attempts without a response, e.g. because the run that
+     * submitted them last crashed before releasing them
+     *
+     * @return claim numbers of the claims that failed
+     */
+    public List<String> failExhausted(LocalDateTime staleBefore, int maxAttempts) {
+        return jdbcTemplate.queryForList(
+                "UPDATE billing_schema.insurance_claims SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE submission_attempts >= ? " +
+                        "AND (status = ? OR (status = ? AND response_date IS NULL AND updated_at < ?)) " +
+                        "RETURNING claim_number",
+                String.class, ClaimStatus.FAILED.getCode(), maxAttempts, ClaimStatus.PENDING.getCode(),
+                ClaimStatus.SUBMITTED.getCode(), Timestamp.valueOf(staleBefore));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class InvoiceShare {
+        private final UUID invoiceId;
+        private final BigDecimal patientCopay;
+        private final BigDecimal insurancePayment;
+    }
+}
@@ -0,0 +1,105 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Usage counters of discount codes, each changed with a single conditional statement.
+ * <p>
+ * The limit check and the increment happen in the same UPDATE, so concurrent checkouts
+ * can never push a code past its limits and no row is read before it is written.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiscountJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count one use by a patient unless the patient reached the limit
+     *
+     * @return false if the patient already used the code maxUsesPerPatient times
+     */
+    public boolean incrementPatientUsage(UUID discountId, UUID patientId, int maxUsesPerPatient) {
+        return jdbcTemplate.update(
+                "INSERT INTO billing_schema.discount_patient_usage (discount_id, patient_id, times_used) " +
+                        "SELECT ?, ?, 1 WHERE ? > 0 " +
+                        "ON CONFLICT (discount_id, patient_id) DO UPDATE " +
+                        "SET times_used = discount_patient_usage.times_used + 1 " +
+                        "WHERE discount_patient_usage.times_used < ?",
+                discountId, patientId, maxUsesPerPatient, maxUsesPerPatient) > 0;
+    }
+
+    /**
+     * Count one use of the code unless it is inactive or used up
+     *
+     * @return false if the code reached max_uses or was deactivated
+     */
+    public boolean incrementUsage(UUID discountId) {
+        return jdbcTemplate.update(
+                "UPDATE billing_schema.discounts SET times_used = COALESCE(times_used, 0) + 1 " +
+                        "WHERE id = ? AND is_active = true " +
+                        "AND (max_uses IS NULL OR COALESCE(times_used, 0) < max_uses)",
+                discountId) > 0;
+    }
+
+    public void decrementUsage(UUID discountId, UUID patientId) {
+        jdbcTemplate.update(
+                "UPDATE billing_schema.discounts SET times_used = GREATEST(COALESCE(times_used, 0) - 1, 0) " +
+                        "WHERE id = ?",
+                discountId);
+        jdbcTemplate.update(
+                "UPDATE billing_schema.discount_patient_usage SET times_used = GREATEST(times_used - 1, 0) " +
+                        "WHERE discount_id = ? AND patient_id = ?",
+                discountId, patientId);
+    }
+
+    public int findPatientUsage(UUID discountId, UUID patientId) {
+        return jdbcTemplate.query(
+                "SELECT times_used FROM billing_schema.discount_patient_usage " +
+                        "WHERE discount_id = ? AND patient_id = ?",
+                (rs, rowNum) -> rs.getInt(1), discountId, patientId).stream().findFirst().orElse(0);
+    }
+
+    public void insertRedemption(UUID id, UUID discountId, UUID patientId, UUID invoiceId, BigDecimal amount,
+                                 UUID redeemedBy, LocalDateTime redeemedAt) {
+        jdbcTemplate.update(
+                "INSERT INTO billing_schema.discount_redemptions " +
+                        "(id, discount_id, patient_id, invoice_id, discount_amount, redeemed_at, redeemed_by) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, discountId, patientId, invoiceId, amount, Timestamp.valueOf(redeemedAt), redeemedBy);
+    }
+
+    /**
+     * Mark a redemption reversed if it is not already
+     *
+     * @return the reversed redemption, or empty if it does not exist or was reversed before
+     */
+    public Optional<ReversedRedemption> reverseRedemption(UUID redemptionId) {
+        return jdbcTemplate.query(
+                "UPDATE billing_schema.discount_redemptions SET reversed_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ? AND reversed_at IS NULL RETURNING discount_id, patient_id, discount_amount, invoice_id",
+                (rs, rowNum) -> new ReversedRedemption(redemptionId, rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class), rs.getBigDecimal(3), rs.getObject(4, UUID.class)),
+                redemptionId).stream().findFirst();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ReversedRedemption {
+        private final UUID id;
+        private final UUID discountId;
+        private final UUID patientId;
+        private final BigDecimal discountAmount;
+        private final UUID invoiceId;
+    }
+}
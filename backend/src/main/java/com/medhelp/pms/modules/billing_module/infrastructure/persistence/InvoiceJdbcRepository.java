@@ -0,0 +1,257 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based reads and batched writes used to generate invoices from filled prescriptions.
+ * <p>
+ * Invoices are inserted with ON CONFLICT on the prescription, so a fill delivered twice
+ * produces one invoice; balances and items are only inserted for invoices the same batch
+ * actually created.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InvoiceJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Prescriptions among the given ones that already have an invoice
+     */
+    public Set<UUID> findInvoicedPrescriptions(Collection<UUID> prescriptionIds) {
+        Set<UUID> invoiced = new HashSet<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT prescription_id FROM billing_schema.invoices WHERE prescription_id IN (:ids)",
+                new MapSqlParameterSource("ids", prescriptionIds),
+                rs -> {
+                    invoiced.add(rs.getObject(1, UUID.class));
+                });
+        return invoiced;
+    }
+
+    /**
+     * Filled prescriptions without an invoice, in id order after the given one
+     */
+    public List<UUID> findUninvoicedFilledPrescriptions(UUID after, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT p.id FROM prescription_schema.prescriptions p " +
+                        "WHERE COALESCE(p.dispensed_at, p.filled_at) IS NOT NULL AND p.id > ? " +
+                        "AND NOT EXISTS (SELECT 1 FROM billing_schema.invoices i WHERE i.prescription_id = p.id) " +
+                        "ORDER BY p.id LIMIT ?",
+                UUID.class, after, limit);
+    }
+
+    /**
+     * Name, therapeutic class and price basis of the medications with the given NDCs
+     */
+    public Map<String, MedicationPrice> findMedicationPrices(Collection<String> ndcCodes) {
+        Map<String, MedicationPrice> prices = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT DISTINCT ON (m.ndc_code) m.ndc_code, m.id, " +
+                        "TRIM(m.drug_name || ' ' || COALESCE(m.strength, '')), m.therapeutic_class, " +
+                        "ii.unit_cost, ii.average_wholesale_price " +
+                        "FROM prescription_schema.medications m " +
+                        "LEFT JOIN inventory_schema.inventory_items ii " +
+                        "ON ii.ndc_code = m.ndc_code AND ii.is_active = true " +
+                        "WHERE m.ndc_code IN (:ndcCodes) " +
+                        "ORDER BY m.ndc_code, ii.average_wholesale_price IS NULL, ii.updated_at DESC",
+                new MapSqlParameterSource("ndcCodes", ndcCodes),
+                rs -> {
+                    prices.put(rs.getString(1), new MedicationPrice(rs.getObject(2, UUID.class), rs.getString(1),
+                            rs.getString(3), rs.getString(4), rs.getBigDecimal(5), rs.getBigDecimal(6)));
+                });
+        return prices;
+    }
+
+    /**
+     * Insurance type of each patient's current coverage; patients paying cash are absent
+     */
+    public Map<UUID, String> findPayerTypes(Collection<UUID> patientIds, LocalDate onDate) {
+        Map<UUID, String> payerTypes = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT DISTINCT ON (patient_id) patient_id, insurance_type " +
+                        "FROM patient_schema.patient_insurance " +
+                        "WHERE patient_id IN (:patientIds) AND is_active = true AND insurance_type IS NOT NULL " +
+                        "AND effective_date <= :onDate AND (expiration_date IS NULL OR expiration_date >= :onDate) " +
+                        "ORDER BY patient_id, effective_date DESC",
+                new MapSqlParameterSource()
+                        .addValue("patientIds", patientIds)
+                        .addValue("onDate", Date.valueOf(onDate)),
+                rs -> {
+                    payerTypes.put(rs.getObject(1, UUID.class), rs.getString(2));
+                });
+        return payerTypes;
+    }
+
+    /**
+     * Reserve a block of invoice numbers in one round trip
+     */
+    public List<String> nextInvoiceNumbers(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT 'INV' || lpad(nextval('billing_schema.invoice_number_seq')::text, 8, '0') " +
+                        "FROM generate_series(1, ?)",
+                String.class, count);
+    }
+
+    /**
+     * Insert invoices, their balances and items; prescriptions already invoiced are skipped.
+     * <p>
+     * Invoices go in as multi-row inserts over arrays so that RETURNING reports which rows
+     * the ON CONFLICT clause let through; balances and items are only written for those.
+     *
+     * @return ids of the invoices actually inserted
+     */
+    public Set<UUID> insertInvoices(List<NewInvoice> invoices, int batchSize) {
+        Set<UUID> inserted = new HashSet<>();
+        for (int from = 0; from < invoices.size(); from += batchSize) {
+            inserted.addAll(insertInvoiceRows(invoices.subList(from, Math.min(from + batchSize, invoices.size()))));
+        }
+        if (inserted.isEmpty()) {
+            return inserted;
+        }
+
+        jdbcTemplate.update(
+                "INSERT INTO billing_schema.invoice_balances (invoice_id, patient_id, invoice_date, due_date, " +
+                        "total_amount, paid_amount, outstanding_amount, status) " +
+                        "SELECT id, patient_id, invoice_date, due_date, total_amount, 0, total_amount, status " +
+                        "FROM billing_schema.invoices WHERE id = ANY(?) " +
+                        "ON CONFLICT (invoice_id) DO NOTHING",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", inserted.toArray())));
+
+        List<NewInvoiceItem> items = new ArrayList<>();
+        invoices.stream().filter(invoice -> inserted.contains(invoice.getId()))
+                .forEach(invoice -> items.addAll(invoice.getItems()));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO billing_schema.invoice_items (invoice_id, prescription_item_id, item_type, description, " +
+                        "quantity, unit_price, total_price, ndc_code) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                items, batchSize, (ps, item) -> {
+                    ps.setObject(1, item.getInvoiceId());
+                    ps.setObject(2, item.getPrescriptionItemId());
+                    ps.setString(3, item.getItemType());
+                    ps.setString(4, item.getDescription());
+                    ps.setBigDecimal(5, item.getQuantity());
+                    ps.setBigDecimal(6, item.getUnitPrice());
+                    ps.setBigDecimal(7, item.getTotalPrice());
+                    ps.setString(8, item.getNdcCode());
+                });
+        return inserted;
+    }
+
+    private List<UUID> insertInvoiceRows(List<NewInvoice> invoices) {
+        int size = invoices.size();
+        Object[] ids = new Object[size];
+        Object[] numbers = new Object[size];
+        Object[] prescriptionIds = new Object[size];
+        Object[] patientIds = new Object[size];
+        Object[] invoiceDates = new Object[size];
+        Object[] dueDates = new Object[size];
+        Object[] totals = new Object[size];
+        Object[] copays = new Object[size];
+        Object[] payerTypes = new Object[size];
+        Object[] createdAts = new Object[size];
+        Object[] createdBys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            NewInvoice invoice = invoices.get(i);
+            ids[i] = invoice.getId();
+            numbers[i] = invoice.getInvoiceNumber();
+            prescriptionIds[i] = invoice.getPrescriptionId();
+            patientIds[i] = invoice.getPatientId();
+            invoiceDates[i] = Date.valueOf(invoice.getInvoiceDate());
+            dueDates[i] = Date.valueOf(invoice.getDueDate());
+            totals[i] = invoice.getTotal();
+            copays[i] = invoice.getPatientCopay();
+            payerTypes[i] = invoice.getPayerType();
+            createdAts[i] = Timestamp.valueOf(invoice.getCreatedAt());
+            createdBys[i] = invoice.getCreatedBy();
+        }
+        return jdbcTemplate.query(
+                "INSERT INTO billing_schema.invoices (id, invoice_number, prescription_id, patient_id, invoice_date, " +
+                        "due_date, subtotal, tax_amount, discount_amount, insurance_payment, patient_copay, " +
+                        "total_amount, status, payer_type, created_at, created_by) " +
+                        "SELECT t.id, t.number, t.prescription_id, t.patient_id, t.invoice_date, t.due_date, t.total, " +
+                        "0, 0, 0, t.copay, t.total, ?, t.payer_type, t.created_at, t.created_by " +
+                        "FROM unnest(?::uuid[], ?::varchar[], ?::uuid[], ?::uuid[], ?::date[], ?::date[], " +
+                        "?::numeric[], ?::numeric[], ?::varchar[], ?::timestamp[], ?::uuid[]) " +
+                        "AS t(id, number, prescription_id, patient_id, invoice_date, due_date, total, copay, " +
+                        "payer_type, created_at, created_by) " +
+                        "ON CONFLICT (prescription_id) DO NOTHING RETURNING id",
+                ps -> {
+                    ps.setString(1, InvoiceStatus.PENDING.getCode());
+                    ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids));
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", numbers));
+                    ps.setArray(4, ps.getConnection().createArrayOf("uuid", prescriptionIds));
+                    ps.setArray(5, ps.getConnection().createArrayOf("uuid", patientIds));
+                    ps.setArray(6, ps.getConnection().createArrayOf("date", invoiceDates));
+                    ps.setArray(7, ps.getConnection().createArrayOf("date", dueDates));
+                    ps.setArray(8, ps.getConnection().createArrayOf("numeric", totals));
+                    ps.setArray(9, ps.getConnection().createArrayOf("numeric", copays));
+                    ps.setArray(10, ps.getConnection().createArrayOf("varchar", payerTypes));
+                    ps.setArray(11, ps.getConnection().createArrayOf("timestamp", createdAts));
+                    ps.setArray(12, ps.getConnection().createArrayOf("uuid", createdBys));
+                },
+                (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MedicationPrice {
+        private final UUID medicationId;
+        private final String ndcCode;
+        private final String description;
+        private final String therapeuticClass;
+        private final BigDecimal unitCost;
+        private final BigDecimal averageWholesalePrice;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class NewInvoice {
+        private final UUID id;
+        private final String invoiceNumber;
+        private final UUID prescriptionId;
+        private final UUID patientId;
+        private final LocalDate invoiceDate;
+        private final LocalDate dueDate;
+        private final BigDecimal total;
+        private final BigDecimal patientCopay;
+        private final String payerType;
+        private final LocalDateTime createdAt;
+        private final UUID createdBy;
+        private final List<NewInvoiceItem> items;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class NewInvoiceItem {
+        private final UUID invoiceId;
+        private final UUID prescriptionItemId;
+        private final String itemType;
+        private final String description;
+        private final BigDecimal quantity;
+        private final BigDecimal unitPrice;
+        private final BigDecimal totalPrice;
+        private final String ndcCode;
+    }
+}
@@ -0,0 +1,241 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceBalance;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceStatus;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Payments and the invoice balance projection.
+ * <p>
+ * Every statement that changes a payment changes the balance of its invoice and the invoice
+ * status in the same statement, so the projection can never disagree with the payments and
+ * reading a balance never sums payments.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PaymentJdbcRepository {
+
+    /**
+     * Invoice status after adding an amount, given as SQL expression %1$s, to the payments of balance b
+     */
+    private static final String BALANCE_STATUS =
+            "CASE WHEN b.status = '" + InvoiceStatus.CANCELLED.getCode() + "' THEN b.status " +
+                    "WHEN b.outstanding_amount - %1$s <= 0 THEN '" + InvoiceStatus.PAID.getCode() + "' " +
+                    "WHEN b.paid_amount + %1$s > 0 THEN '" + InvoiceStatus.PARTIALLY_PAID.getCode() + "' " +
+                    "ELSE '" + InvoiceStatus.PENDING.getCode() + "' END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Optional<InvoiceBalance> findBalance(UUID invoiceId) {
+        return jdbcTemplate.query(
+                "SELECT invoice_id, patient_id, invoice_date, due_date, total_amount, paid_amount, " +
+                        "outstanding_amount, status, last_payment_date " +
+                        "FROM billing_schema.invoice_balances WHERE invoice_id = ?",
+                (rs, rowNum) -> new InvoiceBalance(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                        rs.getDate(3).toLocalDate(), rs.getDate(4) != null ? rs.getDate(4).toLocalDate() : null,
+                        rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getString(8),
+                        rs.getDate(9) != null ? rs.getDate(9).toLocalDate() : null),
+                invoiceId).stream().findFirst();
+    }
+
+    /**
+     * Invoice ids by invoice number
+     */
+    public Map<String, UUID> findInvoiceIds(Collection<String> invoiceNumbers) {
+        Map<String, UUID> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT invoice_number, id FROM billing_schema.invoices WHERE invoice_number IN (:numbers)",
+                new MapSqlParameterSource("numbers", invoiceNumbers),
+                rs -> {
+                    ids.put(rs.getString(1), rs.getObject(2, UUID.class));
+                });
+        return ids;
+    }
+
+    /**
+     * Invoices among the given ones that have a balance
+     */
+    public Set<UUID> findBalanceIds(Collection<UUID> invoiceIds) {
+        Set<UUID> ids = new HashSet<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT invoice_id FROM billing_schema.invoice_balances WHERE invoice_id IN (:ids)",
+                new MapSqlParameterSource("ids", invoiceIds),
+                rs -> {
+                    ids.add(rs.getObject(1, UUID.class));
+                });
+        return ids;
+    }
+
+    /**
+     * Pairs of invoice id and transaction id (same positions in both lists) that are already
+     * posted, as transaction keys; looked up through the unique (invoice_id, transaction_id) index
+     */
+    public Set<String> findPostedTransactions(List<UUID> invoiceIds, List<String> transactionIds) {
+        Set<String> posted = new HashSet<>();
+        if (invoiceIds.isEmpty()) {
+            return posted;
+        }
+        jdbcTemplate.query(
+                "SELECT p.invoice_id, p.transaction_id FROM billing_schema.payments p " +
+                        "JOIN unnest(?::uuid[], ?::varchar[]) AS t(invoice_id, transaction_id) " +
+                        "ON p.invoice_id = t.invoice_id AND p.transaction_id = t.transaction_id",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", invoiceIds.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", transactionIds.toArray()));
+                },
+                rs -> {
+                    posted.add(transactionKey(rs.getObject(1, UUID.class), rs.getString(2)));
+                });
+        return posted;
+    }
+
+    /**
+     * Insert completed payments and apply them to their invoice balances, one statement per payment.
+     * A transaction id already posted to the invoice is skipped, and so is a payment larger than
+     * the invoice's outstanding amount, including the payments before it in the list.
+     * <p>
+     * The balance row is locked before the outstanding amount is compared, so a concurrent post to
+     * the same invoice waits and is compared against the balance the first one left.
+     *
+     * @return ids of the payments that were posted
+     */
+    public Set<UUID> postPayments(List<NewPayment> payments, UUID processedBy, int batchSize) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "WITH posted AS (" +
+                        "  INSERT INTO billing_schema.payments (id, payment_number, invoice_id, patient_id, " +
+                        "  payment_date, payment_method, amount, transaction_id, card_last_four, check_number, " +
+                        "  status, notes, processed_by) " +
+                        "  SELECT ?, 'PAY' || lpad(nextval('billing_schema.payment_number_seq')::text, 8, '0'), " +
+                        "  b.invoice_id, b.patient_id, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+                        "  FROM billing_schema.invoice_balances b " +
+                        "  WHERE b.invoice_id = ? AND b.outstanding_amount >= ? FOR UPDATE OF b " +
+                        "  ON CONFLICT (invoice_id, transaction_id) WHERE transaction_id IS NOT NULL DO NOTHING " +
+                        "  RETURNING invoice_id, amount, payment_date), " +
+                        "balance AS (" +
+                        "  UPDATE billing_schema.invoice_balances b SET " +
+                        "  paid_amount = b.paid_amount + posted.amount, " +
+                        "  outstanding_amount = b.outstanding_amount - posted.amount, " +
+                        "  status = " + String.format(BALANCE_STATUS, "posted.amount") + ", " +
+                        "  last_payment_date = GREATEST(b.last_payment_date, posted.payment_date), " +
+                        "  updated_at = CURRENT_TIMESTAMP " +
+                        "  FROM posted WHERE b.invoice_id = posted.invoice_id RETURNING b.invoice_id, b.status) " +
+                        "UPDATE billing_schema.invoices i SET status = balance.status, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM balance WHERE i.id = balance.invoice_id",
+                payments, batchSize, (ps, payment) -> {
+                    ps.setObject(1, payment.getId());
+                    ps.setDate(2, Date.valueOf(payment.getPaymentDate()));
+                    ps.setString(3, payment.getPaymentMethod());
+                    ps.setBigDecimal(4, payment.getAmount());
+                    ps.setString(5, payment.getTransactionId());
+                    ps.setString(6, payment.getCardLastFour());
+                    ps.setString(7, payment.getCheckNumber());
+                    ps.setString(8, PaymentStatus.COMPLETED.getCode());
+                    ps.setString(9, payment.getNotes());
+                    ps.setObject(10, processedBy);
+                    ps.setObject(11, payment.getInvoiceId());
+                    ps.setBigDecimal(12, payment.getAmount());
+                });
+        Set<UUID> posted = new HashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    posted.add(payments.get(index).getId());
+                }
+                index++;
+            }
+        }
+        return posted;
+    }
+
+    /**
+     * Mark a completed payment refunded and give its amount back to the invoice balance
+     *
+     * @return the invoice of the payment, empty if the payment is not a completed payment
+     */
+    public Optional<UUID> refundPayment(UUID paymentId) {
+        return jdbcTemplate.queryForList(
+                "WITH refunded AS (" +
+                        "  UPDATE billing_schema.payments SET status = ? WHERE id = ? AND status = ? " +
+                        "  RETURNING invoice_id, amount), " +
+                        "balance AS (" +
+                        "  UPDATE billing_schema.invoice_balances b SET " +
+                        "  paid_amount = b.paid_amount - refunded.amount, " +
+                        "  outstanding_amount = b.outstanding_amount + refunded.amount, " +
+                        "  status = " + String.format(BALANCE_STATUS, "(-refunded.amount)") + ", " +
+                        "  updated_at = CURRENT_TIMESTAMP " +
+                        "  FROM refunded WHERE b.invoice_id = refunded.invoice_id RETURNING b.invoice_id, b.status) " +
+                        "UPDATE billing_schema.invoices i SET status = balance.status, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM balance WHERE i.id = balance.invoice_id RETURNING i.id",
+                UUID.class,
+                PaymentStatus.REFUNDED.getCode(), paymentId, PaymentStatus.COMPLETED.getCode())
+                .stream().findFirst();
+    }
+
+    /**
+     * Open balances by age in days since the invoice date, as count and amount per bucket
+     *
+     * @param bucketEnds last day of each bucket but the open-ended last one, ascending
+     */
+    public List<AgingRow> findAging(LocalDate asOf, int[] bucketEnds) {
+        StringBuilder bucket = new StringBuilder("CASE");
+        for (int i = 0; i < bucketEnds.length; i++) {
+            bucket.append(" WHEN age <= ").append(bucketEnds[i]).append(" THEN ").append(i);
+        }
+        bucket.append(" ELSE ").append(bucketEnds.length).append(" END");
+        return jdbcTemplate.query(
+                "SELECT " + bucket + " AS bucket, COUNT(*), SUM(outstanding_amount) " +
+                        "FROM (SELECT CAST(? AS DATE) - invoice_date AS age, outstanding_amount " +
+                        "  FROM billing_schema.invoice_balances " +
+                        "  WHERE outstanding_amount > 0 AND invoice_date <= ? AND status <> ?) open " +
+                        "GROUP BY 1 ORDER BY 1",
+                (rs, rowNum) -> new AgingRow(rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3)),
+                Date.valueOf(asOf), Date.valueOf(asOf), InvoiceStatus.CANCELLED.getCode());
+    }
+
+    public static String transactionKey(UUID invoiceId, String transactionId) {
+        return invoiceId + "|" + transactionId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class NewPayment {
+        private final UUID id;
+        private final UUID invoiceId;
+        private final LocalDate paymentDate;
+        private final String paymentMethod;
+        private final BigDecimal amount;
+        private final String transactionId;
+        private final String cardLastFour;
+        private final String checkNumber;
+        private final String notes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AgingRow {
+        private final int bucket;
+        private final int invoiceCount;
+        private final BigDecimal amount;
+    }
+}
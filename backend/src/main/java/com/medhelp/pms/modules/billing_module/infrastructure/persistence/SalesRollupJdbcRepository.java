@@ -0,0 +1,244 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.domain.value_objects.SalesGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sales rollup rows: batched increments from billing events, range queries across
+ * granularities and rebuilds from the invoices.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupJdbcRepository {
+
+    /**
+     * Therapeutic class of the rows that hold invoice totals
+     */
+    public static final String ALL_CLASSES = "";
+    public static final String UNCLASSIFIED = "unclassified";
+    public static final String CASH = "cash";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Add the deltas to their rollup rows, creating missing rows
+     */
+    public void increment(Collection<RollupDelta> deltas, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO billing_schema.sales_rollups AS r (granularity, bucket_start, payer_type, " +
+                        "therapeutic_class, invoice_count, item_count, quantity, revenue, copay_amount, " +
+                        "insurance_amount, discount_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                        "ON CONFLICT (granularity, bucket_start, payer_type, therapeutic_class) DO UPDATE SET " +
+                        "invoice_count = r.invoice_count + EXCLUDED.invoice_count, " +
+                        "item_count = r.item_count + EXCLUDED.item_count, " +
+                        "quantity = r.quantity + EXCLUDED.quantity, " +
+                        "revenue = r.revenue + EXCLUDED.revenue, " +
+                        "copay_amount = r.copay_amount + EXCLUDED.copay_amount, " +
+                        "insurance_amount = r.insurance_amount + EXCLUDED.insurance_amount, " +
+                        "discount_amount = r.discount_amount + EXCLUDED.discount_amount",
+                deltas, batchSize, (ps, delta) -> {
+                    ps.setString(1, delta.getGranularity().getCode());
+                    ps.setTimestamp(2, Timestamp.valueOf(delta.getBucketStart()));
+                    ps.setString(3, delta.getPayerType());
+                    ps.setString(4, delta.getTherapeuticClass());
+                    ps.setInt(5, delta.getInvoiceCount());
+                    ps.setInt(6, delta.getItemCount());
+                    ps.setBigDecimal(7, delta.getQuantity());
+                    ps.setBigDecimal(8, delta.getRevenue());
+                    ps.setBigDecimal(9, delta.getCopayAmount());
+                    ps.setBigDecimal(10, delta.getInsuranceAmount());
+                    ps.setBigDecimal(11, delta.getDiscountAmount());
+                });
+    }
+
+    /**
+     * Creation time in the given zone and payer type of invoices by invoice id
+     */
+    public Map<UUID, InvoiceKey> findInvoiceKeys(Collection<UUID> invoiceIds, ZoneId zone) {
+        Map<UUID, InvoiceKey> keys = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, created_at AT TIME ZONE :zone, payer_type FROM billing_schema.invoices WHERE id IN (:ids)",
+                new MapSqlParameterSource()
+                        .addValue("ids", invoiceIds)
+                        .addValue("zone", zone.getId()),
+                rs -> {
+                    keys.put(rs.getObject(1, UUID.class),
+                            new InvoiceKey(rs.getTimestamp(2).toLocalDateTime(), rs.getString(3)));
+                });
+        return keys;
+    }
+
+    /**
+     * Sum rollup rows over the segments, grouped by bucket and dimension
+     *
+     * @param interval  bucket of the result rows, or null for one bucket
+     * @param dimension column to group by (payer_type or therapeutic_class), or null
+     * @param byClass   read the per-class rows instead of the invoice total rows
+     */
+    public List<SalesRow> sum(List<Segment> segments, SalesGranularity interval, String dimension, boolean byClass) {
+        StringBuilder where = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (Segment segment : segments) {
+            where.append(where.isEmpty() ? "(" : " OR ")
+                    .append("(granularity = ? AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(segment.getGranularity().getCode());
+            args.add(Timestamp.valueOf(segment.getFrom()));
+            args.add(Timestamp.valueOf(segment.getTo()));
+        }
+        where.append(")");
+        args.add(ALL_CLASSES);
+
+        String bucket = interval != null
+                ? "date_trunc('" + interval.getCode() + "', bucket_start)" : "CAST(NULL AS TIMESTAMP)";
+        String group = dimension != null ? dimension : "CAST(NULL AS VARCHAR)";
+        return jdbcTemplate.query(
+                "SELECT " + bucket + ", " + group + ", SUM(invoice_count), SUM(item_count), SUM(quantity), " +
+                        "SUM(revenue), SUM(copay_amount), SUM(insurance_amount), SUM(discount_amount) " +
+                        "FROM billing_schema.sales_rollups WHERE " + where +
+                        " AND therapeutic_class " + (byClass ? "<>" : "=") + " ? " +
+                        "GROUP BY 1, 2 ORDER BY 1, 2",
+                (rs, rowNum) -> new SalesRow(
+                        rs.getTimestamp(1) != null ? rs.getTimestamp(1).toLocalDateTime() : null,
+                        rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getBigDecimal(5), rs.getBigDecimal(6),
+                        rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getBigDecimal(9)),
+                args.toArray());
+    }
+
+    /**
+     * Recompute every granularity for the range from the invoices, bucketing creation times in the
+     * given zone; the range must start and end on month boundaries
+     */
+    public void rebuild(LocalDateTime from, LocalDateTime to, ZoneId zone) {
+        Timestamp fromInstant = Timestamp.from(from.atZone(zone).toInstant());
+        Timestamp toInstant = Timestamp.from(to.atZone(zone).toInstant());
+        jdbcTemplate.update(
+                "DELETE FROM billing_schema.sales_rollups WHERE bucket_start >= ? AND bucket_start < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        for (SalesGranularity granularity : SalesGranularity.values()) {
+            jdbcTemplate.update(
+                    "INSERT INTO billing_schema.sales_rollups (granularity, bucket_start, payer_type, " +
+                            "therapeutic_class, invoice_count, item_count, quantity, revenue, copay_amount, " +
+                            "insurance_amount, discount_amount) " +
+                            "SELECT ?, date_trunc(?, i.created_at AT TIME ZONE ?), COALESCE(i.payer_type, ?), ?, " +
+                            "COUNT(*), 0, 0, SUM(i.total_amount), SUM(i.patient_copay), " +
+                            "SUM(COALESCE(i.insurance_payment, 0)), SUM(COALESCE(d.discount, 0)) " +
+                            "FROM billing_schema.invoices i " +
+                            "LEFT JOIN (SELECT invoice_id, SUM(discount_amount) AS discount " +
+                            "  FROM billing_schema.discount_redemptions WHERE reversed_at IS NULL " +
+                            "  GROUP BY invoice_id) d ON d.invoice_id = i.id " +
+                            "WHERE i.created_at >= ? AND i.created_at < ? " +
+                            "GROUP BY 2, 3",
+                    granularity.getCode(), granularity.getCode(), zone.getId(), CASH, ALL_CLASSES,
+                    fromInstant, toInstant);
+            jdbcTemplate.update(
+                    "INSERT INTO billing_schema.sales_rollups (granularity, bucket_start, payer_type, " +
+                            "therapeutic_class, invoice_count, item_count, quantity, revenue, copay_amount, " +
+                            "insurance_amount, discount_amount) " +
+                            "SELECT ?, date_trunc(?, i.created_at AT TIME ZONE ?), COALESCE(i.payer_type, ?), " +
+                            "COALESCE(m.therapeutic_class, ?), 0, COUNT(*), SUM(ii.quantity), SUM(ii.total_price), " +
+                            "0, 0, 0 " +
+                            "FROM billing_schema.invoices i " +
+                            "JOIN billing_schema.invoice_items ii ON ii.invoice_id = i.id AND ii.item_type = 'medication' " +
+                            "LEFT JOIN prescription_schema.medications m ON m.ndc_code = ii.ndc_code " +
+                            "WHERE i.created_at >= ? AND i.created_at < ? " +
+                            "GROUP BY 2, 3, 4",
+                    granularity.getCode(), granularity.getCode(), zone.getId(), CASH, UNCLASSIFIED,
+                    fromInstant, toInstant);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class InvoiceKey {
+        private final LocalDateTime createdAt;
+        private final String payerType;
+    }
+
+    /**
+     * Range of buckets of one granularity
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Segment {
+        private final SalesGranularity granularity;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+    }
+
+    /**
+     * Amounts to add to one rollup row
+     */
+    @Getter
+    public static class RollupDelta {
+        private final SalesGranularity granularity;
+        private final LocalDateTime bucketStart;
+        private final String payerType;
+        private final String therapeuticClass;
+        private int invoiceCount;
+        private int itemCount;
+        private BigDecimal quantity = BigDecimal.ZERO;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal copayAmount = BigDecimal.ZERO;
+        private BigDecimal insuranceAmount = BigDecimal.ZERO;
+        private BigDecimal discountAmount = BigDecimal.ZERO;
+
+        public RollupDelta(SalesGranularity granularity, LocalDateTime bucketStart, String payerType,
+                           String therapeuticClass) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.payerType = payerType;
+            this.therapeuticClass = therapeuticClass;
+        }
+
+        public void addInvoice(BigDecimal total, BigDecimal copay, BigDecimal insurance) {
+            invoiceCount++;
+            revenue = revenue.add(total);
+            copayAmount = copayAmount.add(copay);
+            insuranceAmount = insuranceAmount.add(insurance);
+        }
+
+        public void addItem(BigDecimal itemQuantity, BigDecimal totalPrice) {
+            itemCount++;
+            quantity = quantity.add(itemQuantity);
+            revenue = revenue.add(totalPrice);
+        }
+
+        public void addChange(BigDecimal copay, BigDecimal insurance, BigDecimal discount) {
+            copayAmount = copayAmount.add(copay);
+            insuranceAmount = insuranceAmount.add(insurance);
+            discountAmount = discountAmount.add(discount);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SalesRow {
+        private final LocalDateTime bucketStart;
+        private final String group;
+        private final int invoiceCount;
+        private final int itemCount;
+        private final BigDecimal quantity;
+        private final BigDecimal revenue;
+        private final BigDecimal copayAmount;
+        private final BigDecimal insuranceAmount;
+        private final BigDecimal discountAmount;
+    }
+}
@@ -0,0 +1,81 @@
+package com.medhelp.pms.modules.inventory_module.api.controllers;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.CountEntryRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.CountUploadResultDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.CycleCountDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.PendingAdjustmentDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StartCycleCountRequest;
+import com.medhelp.pms.modules.inventory_module.domain.services.CycleCountService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/inventory/cycle-counts")
+@RequiredArgsConstructor
+public class CycleCountController {
+    private final CycleCountService cycleCountService;
+
+    @PostMapping
+    @Operation(summary = "Start Cycle Count", description = "Start a count and snapshot expected quantities")
+    public ResponseEntity<ApiResponse<CycleCountDto>> start(@RequestBody(required = false) StartCycleCountRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.start(request)));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get Cycle Count", description = "Get progress of a cycle count")
+    public ResponseEntity<ApiResponse<CycleCountDto>> getCount(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.getCount(id)));
+    }
+
+    @PostMapping(value = "/{id}/counts", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Record Counts", description = "Record counted quantities by inventory item id or NDC")
+    public ResponseEntity<ApiResponse<CountUploadResultDto>> recordCounts(
+            @PathVariable UUID id, @RequestBody List<CountEntryRequest> entries) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.recordCounts(id, entries)));
+    }
+
+    @PostMapping(value = "/{id}/counts", consumes = "text/csv")
+    @Operation(summary = "Import Counts", description = "Record counted quantities from CSV lines of NDC or item id and quantity")
+    public ResponseEntity<ApiResponse<CountUploadResultDto>> importCounts(@PathVariable UUID id, InputStream csv) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.importCounts(id, csv)));
+    }
+
+    @PostMapping("/{id}/post")
+    @Operation(summary = "Post Cycle Count", description = "Create stock adjustments for every counted variance")
+    public ResponseEntity<ApiResponse<CycleCountDto>> post(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.post(id), "Cycle count posted"));
+    }
+
+    @GetMapping("/adjustments/pending")
+    @Operation(summary = "Pending Adjustments", description = "List cycle count variances waiting for approval")
+    public ResponseEntity<ApiResponse<List<PendingAdjustmentDto>>> getPendingAdjustments(
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.getPendingAdjustments(limit)));
+    }
+
+    @PostMapping("/adjustments/{adjustmentId}/approve")
+    @Operation(summary = "Approve Adjustment", description = "Apply a pending variance to stock")
+    public ResponseEntity<ApiResponse<PendingAdjustmentDto>> approve(@PathVariable UUID adjustmentId) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.approve(adjustmentId), "Adjustment approved"));
+    }
+
+    @PostMapping("/adjustments/{adjustmentId}/reject")
+    @Operation(summary = "Reject Adjustment", description = "Discard a pending variance without changing stock")
+    public ResponseEntity<ApiResponse<PendingAdjustmentDto>> reject(@PathVariable UUID adjustmentId) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.reject(adjustmentId), "Adjustment rejected"));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel Cycle Count", description = "Cancel an open cycle count without adjusting stock")
+    public ResponseEntity<ApiResponse<CycleCountDto>> cancel(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(cycleCountService.cancel(id)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.medhelp.pms.modules.inventory_module.api.controllers;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.DemandForecastRunDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ExpiringBatchDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.LowStockItemDto;
+import com.medhelp.pms.modules.inventory_module.domain.services.DemandForecastService;
+import com.medhelp.pms.modules.inventory_module.domain.services.InventoryExpiryService;
+import com.medhelp.pms.modules.inventory_module.domain.services.ReorderService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/inventory")
+@RequiredArgsConstructor
+public class InventoryController {
+    private final ReorderService reorderService;
+    private final DemandForecastService demandForecastService;
+    private final InventoryExpiryService inventoryExpiryService;
+
+    @GetMapping("/low-stock")
+    @Operation(summary = "Low Stock Items", description = "Get items at or below their reorder point")
+    public ResponseEntity<ApiResponse<List<LowStockItemDto>>> getLowStockItems() {
+        return ResponseEntity.ok(ApiResponse.success(reorderService.getLowStockItems()));
+    }
+
+    @GetMapping("/expiring")
+    @Operation(summary = "Expiring Items", description = "Get batches with stock left that expire within the given number of days")
+    public ResponseEntity<ApiResponse<List<ExpiringBatchDto>>> getExpiringBatches(
+            @RequestParam(defaultValue = "90") int withinDays) {
+        return ResponseEntity.ok(ApiResponse.success(inventoryExpiryService.getExpiringBatches(withinDays)));
+    }
+
+    @PostMapping("/forecast/run")
+    @Operation(summary = "Recompute Reorder Parameters", description = "Recompute EOQ and reorder points from dispensing history")
+    public ResponseEntity<ApiResponse<DemandForecastRunDto>> recomputeReorderParameters() {
+        DemandForecastRunDto run = demandForecastService.recomputeReorderParameters();
+        return ResponseEntity.ok(ApiResponse.success(run, "Reorder parameters recomputed"));
+    }
+}
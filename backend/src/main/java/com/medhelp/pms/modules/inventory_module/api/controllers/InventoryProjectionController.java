@@ -0,0 +1,47 @@
+package com.medhelp.pms.modules.inventory_module.api.controllers;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.InventorySnapshotDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StockDriftDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StockPositionDto;
+import com.medhelp.pms.modules.inventory_module.domain.services.InventoryProjectionService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/inventory/projection")
+@RequiredArgsConstructor
+public class InventoryProjectionController {
+    private final InventoryProjectionService inventoryProjectionService;
+
+    @GetMapping("/stock")
+    @Operation(summary = "Stock As Of", description = "Rebuild stock positions as of a point in time from inventory transactions")
+    public ResponseEntity<ApiResponse<List<StockPositionDto>>> getStockAsOf(
+            @RequestParam("asOf") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @RequestParam(value = "inventoryItemId", required = false) UUID inventoryItemId) {
+        return ResponseEntity.ok(ApiResponse.success(inventoryProjectionService.getStockAsOf(asOf, inventoryItemId)));
+    }
+
+    @GetMapping("/drift")
+    @Operation(summary = "Stock Drift", description = "List items whose quantity on hand differs from their transaction history")
+    public ResponseEntity<ApiResponse<List<StockDriftDto>>> checkDrift() {
+        return ResponseEntity.ok(ApiResponse.success(inventoryProjectionService.checkDrift()));
+    }
+
+    @PostMapping("/snapshots")
+    @Operation(summary = "Create Snapshot", description = "Persist the inventory projection to speed up later replays")
+    public ResponseEntity<ApiResponse<InventorySnapshotDto>> createSnapshot(
+            @RequestParam(value = "asOf", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        InventorySnapshotDto snapshot = inventoryProjectionService.createSnapshot(
+                asOf != null ? asOf : LocalDateTime.now());
+        return ResponseEntity.ok(ApiResponse.success(snapshot, "Inventory snapshot created"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.medhelp.pms.modules.inventory_module.api.controllers;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.InventoryValueReportDto;
+import com.medhelp.pms.modules.inventory_module.domain.services.InventoryValuationService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+public class InventoryReportController {
+    private final InventoryValuationService inventoryValuationService;
+
+    @GetMapping("/inventory-value")
+    @Operation(summary = "Get Inventory Value", description = "Inventory value by therapeutic class using fifo or average cost, currently or as of a month-end snapshot (month=YYYY-MM)")
+    public ResponseEntity<ApiResponse<InventoryValueReportDto>> getInventoryValue(
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) YearMonth month) {
+        return ResponseEntity.ok(ApiResponse.success(inventoryValuationService.getInventoryValue(method, month)));
+    }
+
+    @PostMapping("/inventory-value/snapshots")
+    @Operation(summary = "Create Inventory Value Snapshot", description = "Store the current valuation as the month-end snapshot for the given month (YYYY-MM)")
+    public ResponseEntity<ApiResponse<InventoryValueReportDto>> createSnapshot(@RequestParam YearMonth month) {
+        return ResponseEntity.ok(ApiResponse.success(inventoryValuationService.snapshotMonthEnd(month), "Snapshot stored"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.medhelp.pms.modules.inventory_module.api.controllers;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.PurchaseOrderReceiptDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivePurchaseOrderRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivingScanRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivingSessionDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReorderRunDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.SupplierPriceDto;
+import com.medhelp.pms.modules.inventory_module.domain.services.ReceivingService;
+import com.medhelp.pms.modules.inventory_module.domain.services.ReorderService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/purchase-orders")
+@RequiredArgsConstructor
+public class PurchaseOrderController {
+    private final ReorderService reorderService;
+    private final ReceivingService receivingService;
+
+    @PostMapping("/auto-reorder")
+    @Operation(summary = "Auto Reorder", description = "Draft purchase orders for low-stock items, grouped by supplier")
+    public ResponseEntity<ApiResponse<ReorderRunDto>> draftPurchaseOrders() {
+        return ResponseEntity.ok(ApiResponse.success(reorderService.draftPurchaseOrders()));
+    }
+
+    @GetMapping("/supplier-prices")
+    @Operation(summary = "Compare Supplier Prices", description = "Latest and rolling-average unit price of every supplier for an NDC, cheapest first")
+    public ResponseEntity<ApiResponse<List<SupplierPriceDto>>> getSupplierPrices(@RequestParam String ndcCode) {
+        return ResponseEntity.ok(ApiResponse.success(reorderService.getSupplierPrices(ndcCode)));
+    }
+
+    @PostMapping("/{poId}/receive")
+    @Operation(summary = "Receive Purchase Order", description = "Receive a purchase order in full or in part")
+    public ResponseEntity<ApiResponse<PurchaseOrderReceiptDto>> receive(
+            @PathVariable UUID poId, @RequestBody ReceivePurchaseOrderRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(receivingService.receive(poId, request)));
+    }
+
+    @PostMapping("/{poId}/receiving-sessions")
+    @Operation(summary = "Start Receiving Session", description = "Open a session for scanning a delivery against a purchase order")
+    public ResponseEntity<ApiResponse<ReceivingSessionDto>> startReceivingSession(@PathVariable UUID poId) {
+        return ResponseEntity.ok(ApiResponse.success(receivingService.startSession(poId)));
+    }
+
+    @GetMapping("/{poId}/receiving-sessions/{sessionId}")
+    @Operation(summary = "Get Receiving Session", description = "Get scan and flush totals of a receiving session")
+    public ResponseEntity<ApiResponse<ReceivingSessionDto>> getReceivingSession(
+            @PathVariable UUID poId, @PathVariable UUID sessionId) {
+        return ResponseEntity.ok(ApiResponse.success(receivingService.getSession(poId, sessionId)));
+    }
+
+    @PostMapping("/{poId}/receiving-sessions/{sessionId}/scans")
+    @Operation(summary = "Record Scans", description = "Record barcode scan events in a receiving session")
+    public ResponseEntity<ApiResponse<ReceivingSessionDto>> addScans(
+            @PathVariable UUID poId, @PathVariable UUID sessionId, @RequestBody List<ReceivingScanRequest> scans) {
+        return ResponseEntity.ok(ApiResponse.success(receivingService.addScans(poId, sessionId, scans)));
+    }
+
+    @PostMapping("/{poId}/receiving-sessions/{sessionId}/flush")
+    @Operation(summary = "Flush Receiving Session", description = "Write all pending scans of a receiving session")
+    public ResponseEntity<ApiResponse<ReceivingSessionDto>> flushReceivingSession(
+            @PathVariable UUID poId, @PathVariable UUID sessionId) {
+        return ResponseEntity.ok(ApiResponse.success(receivingService.flushSession(poId, sessionId)));
+    }
+
+    @PostMapping("/{poId}/receiving-sessions/{sessionId}/complete")
+    @Operation(summary = "Complete Receiving Session", description = "Write all pending scans and close the receiving session")
+    public ResponseEntity<ApiResponse<ReceivingSessionDto>> completeReceivingSession(
+            @PathVariable UUID poId, @PathVariable UUID sessionId) {
+        ReceivingSessionDto session = receivingService.completeSession(poId, sessionId);
+        return ResponseEntity.ok(ApiResponse.success(session, "Receiving session completed"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryValueDto {
+    private String category;
+    private BigDecimal value;
+    private int itemCount;
+}
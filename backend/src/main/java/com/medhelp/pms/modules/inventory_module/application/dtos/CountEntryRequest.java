@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountEntryRequest {
+    private UUID inventoryItemId;
+    private String ndcCode;
+    private BigDecimal quantityCounted;
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountUploadResultDto {
+    private int entriesReceived;
+    private int entriesRecorded;
+    private int entriesRejected;
+    private List<String> rejections;
+}
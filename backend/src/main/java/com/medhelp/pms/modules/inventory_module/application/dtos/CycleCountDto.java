@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleCountDto {
+    private UUID id;
+    private String status;
+    private String binLocationPrefix;
+    private int itemCount;
+    private int countedCount;
+    private Integer adjustmentCount;
+    private int pendingApprovalCount;
+    private LocalDateTime startedAt;
+    private LocalDateTime postedAt;
+}
@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandForecastRunDto {
+    private LocalDate historyFrom;
+    private int windowDays;
+    private String method;
+    private int itemsEvaluated;
+    private int itemsUpdated;
+    private int itemsWithoutDemand;
+    private int itemsWithoutCost;
+    private long elapsedMillis;
+}
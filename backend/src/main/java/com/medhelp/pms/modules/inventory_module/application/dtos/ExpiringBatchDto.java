@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiringBatchDto {
+    private UUID inventoryItemId;
+    private UUID batchId;
+    private UUID medicationId;
+    private String ndcCode;
+    private String batchNumber;
+    private LocalDate expirationDate;
+    private long daysUntilExpiry;
+    private BigDecimal quantityRemaining;
+    private String recommendedAction;
+}
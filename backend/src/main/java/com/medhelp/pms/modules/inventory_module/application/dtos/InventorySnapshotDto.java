@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshotDto {
+    private UUID snapshotId;
+    private LocalDateTime asOf;
+    private long transactionCount;
+    private int itemCount;
+    private int batchCount;
+}
@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InventoryValueReportDto {
+    private String method;
+    private LocalDate periodEnd;
+    private BigDecimal totalValue;
+    private int itemCount;
+    private List<CategoryValueDto> byCategory;
+    private ExpiringValueDto expiringValue;
+}
@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockItemDto {
+    private UUID inventoryItemId;
+    private UUID medicationId;
+    private String ndcCode;
+    private BigDecimal quantityOnHand;
+    private BigDecimal quantityReserved;
+    private BigDecimal reorderPoint;
+    private BigDecimal reorderQuantity;
+    private String recommendedAction;
+}
@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingAdjustmentDto {
+    private UUID id;
+    private UUID cycleCountId;
+    private UUID inventoryItemId;
+    private String ndcCode;
+    private BigDecimal quantityExpected;
+    private BigDecimal quantityCounted;
+    private BigDecimal quantityDifference;
+    private String status;
+    private UUID performedBy;
+    private LocalDateTime createdAt;
+}
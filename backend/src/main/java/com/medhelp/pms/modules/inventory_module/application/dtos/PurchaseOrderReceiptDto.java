@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderReceiptDto {
+    private UUID poId;
+    private String status;
+    private LocalDate actualDeliveryDate;
+    private int itemsReceived;
+    private int totalItemsOrdered;
+    private UUID receivedBy;
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiveItemRequest {
+    private UUID poItemId;
+    private BigDecimal quantityReceived;
+    private String batchNumber;
+    private LocalDate expirationDate;
+    private BigDecimal unitCost;
+    private String condition;
+}
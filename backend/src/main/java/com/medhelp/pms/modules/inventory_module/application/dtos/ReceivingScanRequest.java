@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivingScanRequest {
+    private String ndcCode;
+    private String batchNumber;
+    private LocalDate expirationDate;
+    @Builder.Default
+    private BigDecimal quantity = BigDecimal.ONE;
+    private BigDecimal unitCost;
+}
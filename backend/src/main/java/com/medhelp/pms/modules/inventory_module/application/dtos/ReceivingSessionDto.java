@@ -0,0 +1,31 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivingSessionDto {
+    private UUID sessionId;
+    private UUID poId;
+    private String poNumber;
+    private String status;
+    private long scansAccepted;
+    private long scansRejected;
+    private int pendingScans;
+    private int pendingLines;
+    private long linesFlushed;
+    private BigDecimal quantityFlushed;
+    private List<String> rejections;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastActivityAt;
+}
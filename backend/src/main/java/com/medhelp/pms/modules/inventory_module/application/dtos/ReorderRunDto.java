@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderRunDto {
+    private int lowStockItems;
+    private int purchaseOrdersCreated;
+    private int itemsOrdered;
+    private int itemsWithoutSupplier;
+    private int itemsBelowSupplierMinimum;
+    private List<String> poNumbers;
+}
@@ -0,0 +1,15 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartCycleCountRequest {
+    // Restricts the count to bins starting with this prefix; null counts the whole store
+    private String binLocationPrefix;
+}
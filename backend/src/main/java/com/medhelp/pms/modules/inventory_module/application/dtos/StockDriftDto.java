@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDriftDto {
+    private UUID inventoryItemId;
+    private BigDecimal projectedQuantity;
+    private BigDecimal recordedQuantity;
+    private BigDecimal difference;
+}
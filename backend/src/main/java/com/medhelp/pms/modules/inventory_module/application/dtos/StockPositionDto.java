@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockPositionDto {
+    private UUID inventoryItemId;
+    private BigDecimal quantity;
+    private Map<UUID, BigDecimal> batchQuantities;
+    private LocalDateTime asOf;
+}
@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.inventory_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierPriceDto {
+    private UUID supplierId;
+    private String supplierName;
+    private Boolean supplierActive;
+    private BigDecimal latestPrice;
+    private BigDecimal averagePrice;
+    private long observations;
+}
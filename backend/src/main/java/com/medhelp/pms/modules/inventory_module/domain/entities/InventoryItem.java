@@ -1,5 +1,6 @@
 package com.medhelp.pms.modules.inventory_module.domain.entities;
 
+import com.medhelp.pms.modules.inventory_module.domain.services.InventoryItemIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "inventory_items", schema = "inventory_schema")
+@EntityListeners(InventoryItemIndexListener.class)
 public class InventoryItem {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -43,6 +45,11 @@ public class InventoryItem {
     @Column(name = "quantity_on_hand", nullable = false, precision = 10, scale = 2)
     private BigDecimal quantityOnHand;
 
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "quantity_reserved", nullable = false, precision = 10, scale = 2)
+    private BigDecimal quantityReserved;
+
     @Size(max = 20)
     @NotNull
     @Column(name = "quantity_unit", nullable = false, length = 20)
@@ -80,8 +87,9 @@ public class InventoryItem {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
     @ColumnDefault("1")
-    @Column(name = "version")
+    @Column(name = "version", nullable = false)
     private Integer version;
 
 }
\ No newline at end of file
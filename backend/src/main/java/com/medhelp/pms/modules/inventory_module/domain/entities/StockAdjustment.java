@@ -63,6 +63,22 @@ public class StockAdjustment {
     @Column(name = "approved_at")
     private LocalDateTime approvedAt;
 
+    @Size(max = 20)
+    @NotNull
+    @ColumnDefault("'applied'")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "cycle_count_id")
+    private UUID cycleCountId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rejected_by")
+    private User rejectedBy;
+
+    @Column(name = "rejected_at")
+    private LocalDateTime rejectedAt;
+
     @NotNull
     @Column(name = "adjustment_date", nullable = false)
     private LocalDate adjustmentDate;
@@ -0,0 +1,17 @@
+package com.medhelp.pms.modules.inventory_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published when the remaining quantity of an inventory batch changed (received, dispensed, adjusted).
+ */
+@Getter
+@AllArgsConstructor
+public class BatchQuantityChangedEvent {
+    private final UUID inventoryBatchId;
+    private final BigDecimal quantityRemaining;
+}
@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.inventory_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when inventory batches reach an expiry alert threshold; the notification module
+ * sends it to the configured staff recipient.
+ */
+@Getter
+@AllArgsConstructor
+public class ExpiringStockAlertEvent {
+    /**
+     * Same for every run that alerts about the same expiration day and threshold, so the alert is queued once
+     */
+    private final UUID alertId;
+    private final LocalDate expirationDate;
+    private final int daysUntilExpiry;
+    private final String notificationType;
+    private final String recipient;
+    private final String subject;
+    private final String message;
+}
@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.inventory_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published after the stock quantities of an inventory item were written to the database.
+ */
+@Getter
+@AllArgsConstructor
+public class StockLevelChangedEvent {
+    private final UUID inventoryItemId;
+    private final BigDecimal quantityOnHand;
+    private final BigDecimal quantityReserved;
+
+    public BigDecimal getQuantityAvailable() {
+        return quantityOnHand.subtract(quantityReserved);
+    }
+}
@@ -0,0 +1,94 @@
+package com.medhelp.pms.modules.inventory_module.domain.projections;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stock balances per inventory item and per batch, folded from inventory transactions.
+ * <p>
+ * Balances are kept as hundredths of a unit in mutable single-slot arrays so that
+ * replaying millions of transactions does not allocate a boxed value per row.
+ * Not thread-safe; a projection is built by one replay and then only read.
+ */
+public class InventoryProjection {
+
+    private final Map<UUID, long[]> itemBalances = new HashMap<>();
+    private final Map<UUID, long[]> batchBalances = new HashMap<>();
+    private final Map<UUID, UUID> batchItems = new HashMap<>();
+
+    private LocalDateTime asOf;
+    private long transactionCount;
+
+    public InventoryProjection(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+
+    /**
+     * Fold one transaction into the balances
+     */
+    public void apply(UUID inventoryItemId, UUID batchId, long quantityChange) {
+        itemBalances.computeIfAbsent(inventoryItemId, id -> new long[1])[0] += quantityChange;
+        if (batchId != null) {
+            batchBalances.computeIfAbsent(batchId, id -> new long[1])[0] += quantityChange;
+            batchItems.putIfAbsent(batchId, inventoryItemId);
+        }
+        transactionCount++;
+    }
+
+    /**
+     * Seed an item total from a snapshot
+     */
+    public void seedItem(UUID inventoryItemId, long quantity) {
+        itemBalances.put(inventoryItemId, new long[]{quantity});
+    }
+
+    /**
+     * Seed a batch balance from a snapshot
+     */
+    public void seedBatch(UUID inventoryItemId, UUID batchId, long quantity) {
+        batchBalances.put(batchId, new long[]{quantity});
+        batchItems.put(batchId, inventoryItemId);
+    }
+
+    public long itemQuantity(UUID inventoryItemId) {
+        long[] balance = itemBalances.get(inventoryItemId);
+        return balance != null ? balance[0] : 0;
+    }
+
+    public long batchQuantity(UUID batchId) {
+        long[] balance = batchBalances.get(batchId);
+        return balance != null ? balance[0] : 0;
+    }
+
+    public UUID batchItem(UUID batchId) {
+        return batchItems.get(batchId);
+    }
+
+    public Set<UUID> itemIds() {
+        return Collections.unmodifiableSet(itemBalances.keySet());
+    }
+
+    public Set<UUID> batchIds() {
+        return Collections.unmodifiableSet(batchBalances.keySet());
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
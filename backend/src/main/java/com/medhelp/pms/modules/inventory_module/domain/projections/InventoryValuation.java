@@ -0,0 +1,97 @@
+package com.medhelp.pms.modules.inventory_module.domain.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Inventory value per item, with running totals per therapeutic class.
+ * <p>
+ * Replacing an item's valuation moves its old contribution out of the class totals and
+ * the new one in, so reports read the totals directly instead of summing every item.
+ */
+public class InventoryValuation {
+
+    public static final String UNCLASSIFIED = "Unclassified";
+
+    private final Map<UUID, ItemValuation> items = new HashMap<>();
+    private final Map<String, CategoryValue> categories = new HashMap<>();
+
+    public synchronized ItemValuation get(UUID inventoryItemId) {
+        return items.get(inventoryItemId);
+    }
+
+    /**
+     * Replace the valuation of one item and move it between class totals
+     */
+    public synchronized void update(ItemValuation valuation) {
+        ItemValuation previous = items.put(valuation.getInventoryItemId(), valuation);
+        if (previous != null) {
+            category(previous.getCategory()).subtract(previous);
+        }
+        category(valuation.getCategory()).add(valuation);
+    }
+
+    public synchronized int itemCount() {
+        return items.size();
+    }
+
+    /**
+     * Copy of the class totals
+     */
+    public synchronized List<CategoryValue> categories() {
+        List<CategoryValue> copies = new ArrayList<>(categories.size());
+        for (CategoryValue value : categories.values()) {
+            if (value.itemCount > 0) {
+                copies.add(new CategoryValue(value.category, value.itemCount, value.fifoValue, value.averageValue));
+            }
+        }
+        return copies;
+    }
+
+    private CategoryValue category(String category) {
+        return categories.computeIfAbsent(category, name -> new CategoryValue(name, 0, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ItemValuation {
+        private final UUID inventoryItemId;
+        private final String category;
+        private final BigDecimal quantity;
+        private final BigDecimal averageCost;
+        private final BigDecimal fifoValue;
+
+        public BigDecimal getAverageValue() {
+            return quantity.multiply(averageCost).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CategoryValue {
+        private final String category;
+        private int itemCount;
+        private BigDecimal fifoValue;
+        private BigDecimal averageValue;
+
+        private void add(ItemValuation item) {
+            itemCount++;
+            fifoValue = fifoValue.add(item.getFifoValue());
+            averageValue = averageValue.add(item.getAverageValue());
+        }
+
+        private void subtract(ItemValuation item) {
+            itemCount--;
+            fifoValue = fifoValue.subtract(item.getFifoValue());
+            averageValue = averageValue.subtract(item.getAverageValue());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.medhelp.pms.modules.inventory_module.domain.repositories;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventoryItemRepository extends JpaRepository<InventoryItem, UUID> {
+
+    @Query("SELECT i.quantityOnHand AS quantityOnHand, i.quantityReserved AS quantityReserved " +
+            "FROM InventoryItem i WHERE i.id = :id")
+    Optional<StockLevelView> findStockLevelById(@Param("id") UUID id);
+
+    interface StockLevelView {
+        BigDecimal getQuantityOnHand();
+
+        BigDecimal getQuantityReserved();
+    }
+}
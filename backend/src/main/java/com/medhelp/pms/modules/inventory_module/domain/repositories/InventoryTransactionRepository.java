@@ -0,0 +1,11 @@
+package com.medhelp.pms.modules.inventory_module.domain.repositories;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, UUID> {
+}
@@ -0,0 +1,33 @@
+package com.medhelp.pms.modules.inventory_module.domain.repositories;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id = :id")
+    Optional<StockReservation> findByIdForUpdate(@Param("id") UUID id);
+
+    List<StockReservation> findByReferenceTypeAndReferenceIdAndStatus(String referenceType, UUID referenceId,
+                                                                      String status);
+
+    /**
+     * Lock a page of expired active reservations, skipping rows held by an in-flight fill
+     */
+    @Query(value = "SELECT * FROM inventory_schema.stock_reservations " +
+            "WHERE status = 'active' AND expires_at < :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockReservation> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,14 @@
+package com.medhelp.pms.modules.inventory_module.domain.repositories;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.Supplier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SupplierRepository extends JpaRepository<Supplier, UUID> {
+
+    List<Supplier> findByIsActiveTrue();
+}
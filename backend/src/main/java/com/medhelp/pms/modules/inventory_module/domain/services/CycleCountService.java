@@ -0,0 +1,451 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.CountEntryRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.CountUploadResultDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.CycleCountDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.PendingAdjustmentDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StartCycleCountRequest;
+import com.medhelp.pms.modules.inventory_module.domain.events.BatchQuantityChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.AdjustmentStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.CycleCountStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.AdjustmentRecord;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.BatchBalance;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.CountHeader;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.CountVariance;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.CountedQuantity;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.VarianceAllocation;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerFlusher;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ForbiddenException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Wall-to-wall and bin-range cycle counts.
+ * <p>
+ * Expected quantities are snapshotted with one INSERT ... SELECT when the count starts.
+ * Counted quantities are recorded in batches, and posting turns every variance into a
+ * stock adjustment with one batched insert. The variance is applied to the current quantity
+ * on hand through the stock ledger, so stock dispensed while the count was running is not
+ * overwritten.
+ * <p>
+ * Variances larger than the approval threshold are recorded as pending and leave stock
+ * untouched until someone other than the person who posted the count approves them.
+ * Applied variances are spread over the item's batches: shrinkage is taken from the
+ * earliest-expiring batches first, surplus is added to the latest-expiring batch that has
+ * not expired, and anything no batch can absorb stays untracked at item level.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CycleCountService {
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final String ADJUSTMENT_REASON = "Cycle count";
+
+    private final CycleCountJdbcRepository cycleCountRepository;
+    private final StockLedger stockLedger;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.cycle-count.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.cycle-count.approval-threshold:10}")
+    private BigDecimal approvalThreshold;
+
+    /**
+     * Start a count and snapshot expected quantities
+     */
+    @Transactional
+    public CycleCountDto start(StartCycleCountRequest request) {
+        // Expected quantities include journal rows the ledger owner has not applied yet
+        stockLedgerFlusher.flush();
+
+        String prefix = request != null && request.getBinLocationPrefix() != null
+                && !request.getBinLocationPrefix().isBlank() ? request.getBinLocationPrefix().trim() : null;
+        UUID cycleCountId = UUID.randomUUID();
+        int items = cycleCountRepository.createCount(cycleCountId, prefix, SecurityUtils.getCurrentUserId());
+
+        log.info("Started cycle count {} over {} items", cycleCountId, items);
+        return getCount(cycleCountId);
+    }
+
+    @Transactional(readOnly = true)
+    public CycleCountDto getCount(UUID cycleCountId) {
+        CountHeader header = cycleCountRepository.findCount(cycleCountId, false)
+                .orElseThrow(() -> new EntityNotFoundException("CycleCount", cycleCountId.toString()));
+        return toDto(header, cycleCountRepository.countCounted(cycleCountId),
+                cycleCountRepository.countPendingAdjustments(cycleCountId));
+    }
+
+    /**
+     * Record counted quantities sent as JSON
+     */
+    @Transactional
+    public CountUploadResultDto recordCounts(UUID cycleCountId, List<CountEntryRequest> entries) {
+        requireOpen(cycleCountId, false);
+        Upload upload = new Upload(cycleCountId, cycleCountRepository.findItemIdsByNdc(cycleCountId));
+        for (CountEntryRequest entry : entries) {
+            upload.add(entry.getInventoryItemId(), entry.getNdcCode(), entry.getQuantityCounted());
+        }
+        return upload.finish();
+    }
+
+    /**
+     * Record counted quantities from CSV records of "NDC or inventory item id,quantity", streamed in batches
+     */
+    @Transactional
+    public CountUploadResultDto importCounts(UUID cycleCountId, InputStream csv) {
+        requireOpen(cycleCountId, false);
+        Upload upload = new Upload(cycleCountId, cycleCountRepository.findItemIdsByNdc(cycleCountId));
+
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setIgnoreEmptyLines(true)
+                .setIgnoreSurroundingSpaces(true)
+                .build();
+        try (CSVParser parser = CSVParser.parse(new InputStreamReader(csv, StandardCharsets.UTF_8), format)) {
+            for (CSVRecord record : parser) {
+                String identifier = record.get(0);
+                if (identifier.isBlank() && record.size() == 1) {
+                    continue;
+                }
+                BigDecimal quantity = record.size() >= 2 ? parseQuantity(record.get(1)) : null;
+                if (quantity == null && record.getRecordNumber() == 1) {
+                    continue; // header
+                }
+                UUID inventoryItemId = parseUuid(identifier);
+                upload.add(inventoryItemId, inventoryItemId == null ? identifier : null, quantity);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new ValidationException("Malformed CSV: " + e.getMessage());
+        }
+        return upload.finish();
+    }
+
+    /**
+     * Post the count: adjust every counted item whose quantity differs from the snapshot,
+     * leaving variances above the approval threshold pending
+     */
+    @Transactional
+    public CycleCountDto post(UUID cycleCountId) {
+        requireOpen(cycleCountId, true);
+
+        List<CountVariance> applied = new ArrayList<>();
+        List<CountVariance> pending = new ArrayList<>();
+        for (CountVariance variance : cycleCountRepository.findVariances(cycleCountId)) {
+            if (variance.getDifference().abs().compareTo(approvalThreshold) > 0) {
+                pending.add(variance);
+            } else {
+                applied.add(variance);
+            }
+        }
+
+        UUID postedBy = SecurityUtils.getCurrentUserId();
+        LocalDateTime postedAt = LocalDateTime.now();
+        applyVariances(cycleCountId, applied, postedBy, postedAt);
+        cycleCountRepository.insertAdjustments(cycleCountId, applied, AdjustmentStatus.APPLIED, ADJUSTMENT_REASON,
+                postedBy, postedAt, batchSize);
+        cycleCountRepository.insertAdjustments(cycleCountId, pending, AdjustmentStatus.PENDING_APPROVAL,
+                ADJUSTMENT_REASON, postedBy, postedAt, batchSize);
+        cycleCountRepository.markPosted(cycleCountId, applied.size() + pending.size(), postedBy, postedAt);
+
+        log.info("Posted cycle count {} with {} adjustments applied and {} pending approval", cycleCountId,
+                applied.size(), pending.size());
+        return getCount(cycleCountId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PendingAdjustmentDto> getPendingAdjustments(int limit) {
+        List<PendingAdjustmentDto> adjustments = new ArrayList<>();
+        for (AdjustmentRecord record : cycleCountRepository.findPendingAdjustments(limit)) {
+            adjustments.add(toDto(record));
+        }
+        return adjustments;
+    }
+
+    /**
+     * Apply a pending variance to stock; the approver must not be the person who posted the count
+     */
+    @Transactional
+    public PendingAdjustmentDto approve(UUID adjustmentId) {
+        AdjustmentRecord record = requirePending(adjustmentId);
+        UUID approvedBy = SecurityUtils.getCurrentUserId();
+        requireSecondPerson(record, approvedBy);
+
+        LocalDateTime approvedAt = LocalDateTime.now();
+        applyVariances(record.getCycleCountId(), List.of(new CountVariance(record.getId(),
+                record.getInventoryItemId(), record.getQuantityExpected(), record.getQuantityCounted())),
+                approvedBy, approvedAt);
+        cycleCountRepository.markApproved(adjustmentId, approvedBy, approvedAt);
+
+        log.info("Approved cycle count adjustment {} for item {}", adjustmentId, record.getInventoryItemId());
+        return toDto(requireAdjustment(adjustmentId));
+    }
+
+    /**
+     * Discard a pending variance without changing stock
+     */
+    @Transactional
+    public PendingAdjustmentDto reject(UUID adjustmentId) {
+        AdjustmentRecord record = requirePending(adjustmentId);
+        UUID rejectedBy = SecurityUtils.getCurrentUserId();
+        requireSecondPerson(record, rejectedBy);
+
+        cycleCountRepository.markRejected(adjustmentId, rejectedBy, LocalDateTime.now());
+
+        log.info("Rejected cycle count adjustment {} for item {}", adjustmentId, record.getInventoryItemId());
+        return toDto(requireAdjustment(adjustmentId));
+    }
+
+    @Transactional
+    public CycleCountDto cancel(UUID cycleCountId) {
+        requireOpen(cycleCountId, true);
+        cycleCountRepository.markCancelled(cycleCountId);
+        return getCount(cycleCountId);
+    }
+
+    /**
+     * Adjust item stock through the ledger and spread each variance over the item's batches
+     */
+    private void applyVariances(UUID cycleCountId, List<CountVariance> variances, UUID performedBy,
+                                LocalDateTime performedAt) {
+        if (variances.isEmpty()) {
+            return;
+        }
+        List<UUID> itemIds = new ArrayList<>();
+        for (CountVariance variance : variances) {
+            itemIds.add(variance.getInventoryItemId());
+        }
+        Map<UUID, List<BatchBalance>> batches = cycleCountRepository.lockBatches(itemIds);
+
+        LocalDate today = performedAt.toLocalDate();
+        List<VarianceAllocation> allocations = new ArrayList<>();
+        for (CountVariance variance : variances) {
+            StockMovement movement = stockLedger.adjust(variance.getInventoryItemId(), variance.getDifference());
+            variance.assignQuantityBefore(movement.getQuantityBefore());
+            allocations.addAll(allocate(variance.getInventoryItemId(), variance.getDifference(),
+                    movement.getQuantityBefore(), batches.getOrDefault(variance.getInventoryItemId(), List.of()),
+                    today));
+        }
+
+        cycleCountRepository.adjustBatches(allocations, batchSize);
+        cycleCountRepository.insertTransactions(cycleCountId, allocations, ADJUSTMENT_REASON, performedBy,
+                performedAt, batchSize);
+        for (VarianceAllocation allocation : allocations) {
+            if (allocation.getBatchId() != null) {
+                eventPublisher.publishEvent(new BatchQuantityChangedEvent(allocation.getBatchId(),
+                        allocation.getBatchRemainingAfter()));
+            }
+        }
+    }
+
+    /**
+     * Split one item's variance over its batches (ordered by expiration date)
+     *
+     * @return one allocation per batch touched, plus one without a batch for the untracked remainder
+     */
+    static List<VarianceAllocation> allocate(UUID inventoryItemId, BigDecimal difference, BigDecimal quantityBefore,
+                                             List<BatchBalance> batches, LocalDate today) {
+        List<VarianceAllocation> allocations = new ArrayList<>();
+        if (difference.signum() > 0) {
+            BatchBalance target = null;
+            for (BatchBalance batch : batches) {
+                if (!batch.getExpirationDate().isBefore(today)) {
+                    target = batch;
+                }
+            }
+            allocations.add(target == null
+                    ? new VarianceAllocation(inventoryItemId, null, difference, quantityBefore, null)
+                    : new VarianceAllocation(inventoryItemId, target.getBatchId(), difference, quantityBefore,
+                    target.getQuantityRemaining().add(difference)));
+            return allocations;
+        }
+
+        BigDecimal shortfall = difference.negate();
+        BigDecimal running = quantityBefore;
+        for (BatchBalance batch : batches) {
+            if (shortfall.signum() <= 0) {
+                break;
+            }
+            if (batch.getQuantityRemaining().signum() <= 0) {
+                continue;
+            }
+            BigDecimal taken = shortfall.min(batch.getQuantityRemaining());
+            allocations.add(new VarianceAllocation(inventoryItemId, batch.getBatchId(), taken.negate(), running,
+                    batch.getQuantityRemaining().subtract(taken)));
+            running = running.subtract(taken);
+            shortfall = shortfall.subtract(taken);
+        }
+        if (shortfall.signum() > 0) {
+            allocations.add(new VarianceAllocation(inventoryItemId, null, shortfall.negate(), running, null));
+        }
+        return allocations;
+    }
+
+    private AdjustmentRecord requireAdjustment(UUID adjustmentId) {
+        return cycleCountRepository.findAdjustmentForUpdate(adjustmentId)
+                .orElseThrow(() -> new EntityNotFoundException("StockAdjustment", adjustmentId.toString()));
+    }
+
+    private AdjustmentRecord requirePending(UUID adjustmentId) {
+        AdjustmentRecord record = requireAdjustment(adjustmentId);
+        if (!AdjustmentStatus.PENDING_APPROVAL.getCode().equals(record.getStatus())) {
+            throw new BusinessException("ADJUSTMENT_NOT_PENDING", "Adjustment is " + record.getStatus());
+        }
+        return record;
+    }
+
+    private static void requireSecondPerson(AdjustmentRecord record, UUID reviewer) {
+        if (reviewer.equals(record.getPerformedBy())) {
+            throw new ForbiddenException("Cycle count adjustments must be reviewed by someone other than the counter");
+        }
+    }
+
+    private CountHeader requireOpen(UUID cycleCountId, boolean forUpdate) {
+        CountHeader header = cycleCountRepository.findCount(cycleCountId, forUpdate)
+                .orElseThrow(() -> new EntityNotFoundException("CycleCount", cycleCountId.toString()));
+        if (!CycleCountStatus.OPEN.getCode().equals(header.getStatus())) {
+            throw new BusinessException("CYCLE_COUNT_NOT_OPEN", "Cycle count is " + header.getStatus());
+        }
+        return header;
+    }
+
+    private CycleCountDto toDto(CountHeader header, int counted, int pendingApproval) {
+        return CycleCountDto.builder()
+                .id(header.getId())
+                .status(header.getStatus())
+                .binLocationPrefix(header.getBinLocationPrefix())
+                .itemCount(header.getItemCount())
+                .countedCount(counted)
+                .adjustmentCount(header.getAdjustmentCount())
+                .pendingApprovalCount(pendingApproval)
+                .startedAt(header.getStartedAt())
+                .postedAt(header.getPostedAt())
+                .build();
+    }
+
+    private static PendingAdjustmentDto toDto(AdjustmentRecord record) {
+        return PendingAdjustmentDto.builder()
+                .id(record.getId())
+                .cycleCountId(record.getCycleCountId())
+                .inventoryItemId(record.getInventoryItemId())
+                .ndcCode(record.getNdcCode())
+                .quantityExpected(record.getQuantityExpected())
+                .quantityCounted(record.getQuantityCounted())
+                .quantityDifference(record.getQuantityCounted().subtract(record.getQuantityExpected()))
+                .status(record.getStatus())
+                .performedBy(record.getPerformedBy())
+                .createdAt(record.getCreatedAt())
+                .build();
+    }
+
+    private static BigDecimal parseQuantity(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Resolves count entries and writes them in batches of batchSize
+     */
+    private class Upload {
+        private final UUID cycleCountId;
+        private final Map<String, UUID> itemIdsByNdc;
+        private final LocalDateTime countedAt = LocalDateTime.now();
+        private final List<CountedQuantity> pending = new ArrayList<>();
+        private final List<String> rejections = new ArrayList<>();
+        private int received;
+        private int recorded;
+        private int rejected;
+
+        Upload(UUID cycleCountId, Map<String, UUID> itemIdsByNdc) {
+            this.cycleCountId = cycleCountId;
+            this.itemIdsByNdc = itemIdsByNdc;
+        }
+
+        void add(UUID inventoryItemId, String ndcCode, BigDecimal quantity) {
+            received++;
+            UUID itemId = inventoryItemId != null ? inventoryItemId : itemIdsByNdc.get(ndcCode);
+            String identifier = inventoryItemId != null ? inventoryItemId.toString() : ndcCode;
+            if (itemId == null) {
+                reject(identifier + " is not part of this count");
+                return;
+            }
+            if (quantity == null || quantity.signum() < 0) {
+                reject(identifier + " has no valid counted quantity");
+                return;
+            }
+            pending.add(new CountedQuantity(itemId, quantity));
+            if (pending.size() >= batchSize) {
+                write();
+            }
+        }
+
+        CountUploadResultDto finish() {
+            write();
+            return CountUploadResultDto.builder()
+                    .entriesReceived(received)
+                    .entriesRecorded(recorded)
+                    .entriesRejected(rejected)
+                    .rejections(rejections)
+                    .build();
+        }
+
+        private void write() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            int matched = cycleCountRepository.recordCounts(cycleCountId, pending, countedAt, batchSize);
+            if (matched < pending.size()) {
+                // Item ids sent directly that are not part of the count
+                rejected += pending.size() - matched;
+            }
+            recorded += matched;
+            pending.clear();
+        }
+
+        private void reject(String reason) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(reason);
+            }
+        }
+    }
+}
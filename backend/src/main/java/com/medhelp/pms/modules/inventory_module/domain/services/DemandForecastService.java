@@ -0,0 +1,253 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.DemandForecastRunDto;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ForecastMethod;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.DemandForecastJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.DemandForecastJdbcRepository.ItemCost;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recomputes economic order quantities and reorder points from dispensing history.
+ * <p>
+ * Daily dispensed quantities are streamed into one flat {@code double[]} (items x days),
+ * the per-item statistics are computed in parallel with fork-join over item ranges,
+ * and the results are written back with batched updates.
+ * <p>
+ * A run holds a transaction advisory lock, so the nightly job runs on one node only and
+ * a manual run waits for one in progress.
+ */
+@Service
+@Slf4j
+public class DemandForecastService {
+
+    private static final String FORECAST_LOCK_NAMESPACE = "inventory.forecast";
+    private static final String FORECAST_LOCK_KEY = "recompute";
+    private static final int ITEMS_PER_TASK = 256;
+
+    private final DemandForecastJdbcRepository forecastRepository;
+    private final LowStockIndex lowStockIndex;
+    private final AdvisoryLocks advisoryLocks;
+    private final ForecastMethod method;
+
+    @Value("${inventory.forecast.window-days:90}")
+    private int windowDays;
+
+    @Value("${inventory.forecast.moving-average-days:28}")
+    private int movingAverageDays;
+
+    @Value("${inventory.forecast.smoothing-alpha:0.3}")
+    private double smoothingAlpha;
+
+    @Value("${inventory.forecast.lead-time-days:3}")
+    private double leadTimeDays;
+
+    @Value("${inventory.forecast.service-level-z:1.65}")
+    private double serviceLevelZ;
+
+    @Value("${inventory.forecast.ordering-cost:25.00}")
+    private double orderingCost;
+
+    @Value("${inventory.forecast.holding-cost-rate:0.25}")
+    private double holdingCostRate;
+
+    @Value("${inventory.forecast.parallelism:0}")
+    private int parallelism;
+
+    @Value("${inventory.forecast.batch-size:500}")
+    private int batchSize;
+
+    public DemandForecastService(DemandForecastJdbcRepository forecastRepository, LowStockIndex lowStockIndex,
+                                 AdvisoryLocks advisoryLocks,
+                                 @Value("${inventory.forecast.method:ses}") String method) {
+        this.forecastRepository = forecastRepository;
+        this.lowStockIndex = lowStockIndex;
+        this.advisoryLocks = advisoryLocks;
+        // Unknown methods fail at startup instead of silently falling back
+        this.method = ForecastMethod.fromCode(method);
+    }
+
+    /**
+     * Recompute EOQ and reorder point of every active item from the last window of dispensing
+     */
+    @Transactional
+    public DemandForecastRunDto recomputeReorderParameters() {
+        advisoryLocks.lockForTransaction(FORECAST_LOCK_NAMESPACE, FORECAST_LOCK_KEY);
+        long started = System.nanoTime();
+        LocalDate historyFrom = LocalDate.now().minusDays(windowDays);
+
+        List<ItemCost> items = forecastRepository.findActiveItems();
+        int itemCount = items.size();
+        UUID[] itemIds = new UUID[itemCount];
+        double[] unitCosts = new double[itemCount];
+        Map<UUID, Integer> indexById = new HashMap<>(itemCount * 2);
+        for (int i = 0; i < itemCount; i++) {
+            ItemCost item = items.get(i);
+            itemIds[i] = item.getInventoryItemId();
+            unitCosts[i] = item.getUnitCost() != null ? item.getUnitCost().doubleValue() : 0;
+            indexById.put(itemIds[i], i);
+        }
+
+        // Row-major: demand[item * windowDays + day]
+        double[] demand = new double[itemCount * windowDays];
+        forecastRepository.streamDailyDispensed(historyFrom, row -> {
+            Integer index = indexById.get(row.getInventoryItemId());
+            int day = row.getDayIndex();
+            if (index != null && day >= 0 && day < windowDays) {
+                demand[index * windowDays + day] += row.getQuantity();
+            }
+        });
+
+        double[] eoq = new double[itemCount];
+        double[] reorderPoints = new double[itemCount];
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        try {
+            pool.invoke(new ForecastTask(demand, unitCosts, eoq, reorderPoints, 0, itemCount));
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+
+        int updated = 0;
+        int withoutDemand = 0;
+        int withoutCost = 0;
+        Map<UUID, BigDecimal> newReorderPoints = new HashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            if (Double.isNaN(reorderPoints[i])) {
+                withoutDemand++;
+                continue;
+            }
+            if (Double.isNaN(eoq[i])) {
+                withoutCost++;
+            }
+            updated++;
+            newReorderPoints.put(itemIds[i], BigDecimal.valueOf(Math.ceil(reorderPoints[i])));
+        }
+
+        forecastRepository.updateReorderParameters(itemIds, eoq, reorderPoints, batchSize);
+        TransactionCallbacks.afterCommit(() -> newReorderPoints.forEach(lowStockIndex::updateReorderPoint));
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Recomputed reorder parameters for {} of {} items in {} ms ({} without demand, {} without cost)",
+                updated, itemCount, elapsedMillis, withoutDemand, withoutCost);
+
+        return DemandForecastRunDto.builder()
+                .historyFrom(historyFrom)
+                .windowDays(windowDays)
+                .method(method.getCode())
+                .itemsEvaluated(itemCount)
+                .itemsUpdated(updated)
+                .itemsWithoutDemand(withoutDemand)
+                .itemsWithoutCost(withoutCost)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * Nightly reorder parameter recomputation (scheduled task)
+     */
+    @Scheduled(cron = "${inventory.forecast.cron:0 0 3 * * *}")
+    @Transactional
+    public void recomputeReorderParametersScheduled() {
+        if (!advisoryLocks.tryLockForTransaction(FORECAST_LOCK_NAMESPACE, FORECAST_LOCK_KEY)) {
+            log.info("Skipping scheduled reorder parameter recomputation, another node is running it");
+            return;
+        }
+        recomputeReorderParameters();
+    }
+
+    /**
+     * Forecast daily demand and its standard deviation for one item, then derive
+     * reorder point (d * L + z * sigma * sqrt(L)) and EOQ (sqrt(2 * D * S / H)).
+     * Items with no demand in the window get NaN and are left untouched.
+     */
+    private void forecast(double[] demand, int item, double unitCost, double[] eoq, double[] reorderPoints) {
+        int offset = item * windowDays;
+
+        // Welford's running mean/variance and exponential smoothing in one pass
+        double mean = 0;
+        double m2 = 0;
+        double smoothed = demand[offset];
+        double total = 0;
+        for (int day = 0; day < windowDays; day++) {
+            double x = demand[offset + day];
+            total += x;
+            double delta = x - mean;
+            mean += delta / (day + 1);
+            m2 += delta * (x - mean);
+            smoothed = smoothingAlpha * x + (1 - smoothingAlpha) * smoothed;
+        }
+
+        if (total <= 0) {
+            eoq[item] = Double.NaN;
+            reorderPoints[item] = Double.NaN;
+            return;
+        }
+
+        double dailyDemand;
+        if (method == ForecastMethod.MOVING_AVERAGE) {
+            int days = Math.min(movingAverageDays, windowDays);
+            double recent = 0;
+            for (int day = windowDays - days; day < windowDays; day++) {
+                recent += demand[offset + day];
+            }
+            dailyDemand = recent / days;
+        } else {
+            dailyDemand = smoothed;
+        }
+
+        double stdDev = windowDays > 1 ? Math.sqrt(m2 / (windowDays - 1)) : 0;
+        reorderPoints[item] = dailyDemand * leadTimeDays + serviceLevelZ * stdDev * Math.sqrt(leadTimeDays);
+
+        double holdingCost = unitCost * holdingCostRate;
+        eoq[item] = holdingCost > 0 && dailyDemand > 0
+                ? Math.sqrt(2 * dailyDemand * 365 * orderingCost / holdingCost)
+                : Double.NaN;
+    }
+
+    private class ForecastTask extends RecursiveAction {
+        private final double[] demand;
+        private final double[] unitCosts;
+        private final double[] eoq;
+        private final double[] reorderPoints;
+        private final int from;
+        private final int to;
+
+        ForecastTask(double[] demand, double[] unitCosts, double[] eoq, double[] reorderPoints, int from, int to) {
+            this.demand = demand;
+            this.unitCosts = unitCosts;
+            this.eoq = eoq;
+            this.reorderPoints = reorderPoints;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ITEMS_PER_TASK) {
+                for (int item = from; item < to; item++) {
+                    forecast(demand, item, unitCosts[item], eoq, reorderPoints);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ForecastTask(demand, unitCosts, eoq, reorderPoints, from, mid),
+                    new ForecastTask(demand, unitCosts, eoq, reorderPoints, mid, to));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.BatchQuantityChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.InventoryBatchJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory calendar of inventory batches that still hold stock, bucketed by expiration day.
+ * <p>
+ * Loaded once at startup and kept current from batch quantity changes, so expiring-stock
+ * queries and alerts read only the days they ask for instead of scanning inventory_batches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiryCalendar {
+
+    private final InventoryBatchJdbcRepository inventoryBatchJdbcRepository;
+
+    private final ConcurrentSkipListMap<LocalDate, Map<UUID, ExpiringBatch>> byDay = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ExpiringBatch> byBatch = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> batchesByItem = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        inventoryBatchJdbcRepository.forEachAvailableBatch(this::put);
+        log.info("Expiry calendar loaded: {} batches over {} days", byBatch.size(), byDay.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBatchQuantityChanged(BatchQuantityChangedEvent event) {
+        ExpiringBatch current = byBatch.get(event.getInventoryBatchId());
+        if (event.getQuantityRemaining().signum() <= 0) {
+            if (current != null) {
+                remove(current);
+            }
+        } else if (current != null) {
+            put(current.toBuilder().quantityRemaining(event.getQuantityRemaining()).build());
+        } else {
+            // New batch: the event carries only the quantity, the rest is read once
+            inventoryBatchJdbcRepository.findById(event.getInventoryBatchId()).ifPresent(this::put);
+        }
+    }
+
+    /**
+     * Batches expiring on or before the given day, including already expired ones, soonest first
+     */
+    public List<ExpiringBatch> expiringOnOrBefore(LocalDate day) {
+        List<ExpiringBatch> batches = new ArrayList<>();
+        for (Map<UUID, ExpiringBatch> bucket : byDay.headMap(day, true).values()) {
+            batches.addAll(bucket.values());
+        }
+        return batches;
+    }
+
+    /**
+     * Batches expiring on exactly the given day
+     */
+    public List<ExpiringBatch> expiringOn(LocalDate day) {
+        Map<UUID, ExpiringBatch> bucket = byDay.get(day);
+        return bucket == null ? List.of() : List.copyOf(bucket.values());
+    }
+
+    /**
+     * Unexpired batches of an item as of the given day, first-expiring first
+     */
+    public List<ExpiringBatch> availableBatches(UUID inventoryItemId, LocalDate asOf) {
+        Set<UUID> batchIds = batchesByItem.get(inventoryItemId);
+        if (batchIds == null) {
+            return List.of();
+        }
+        List<ExpiringBatch> batches = new ArrayList<>(batchIds.size());
+        for (UUID batchId : batchIds) {
+            ExpiringBatch batch = byBatch.get(batchId);
+            if (batch != null && !batch.getExpirationDate().isBefore(asOf)) {
+                batches.add(batch);
+            }
+        }
+        batches.sort(Comparator.comparing(ExpiringBatch::getExpirationDate));
+        return batches;
+    }
+
+    private synchronized void put(ExpiringBatch batch) {
+        ExpiringBatch previous = byBatch.put(batch.getInventoryBatchId(), batch);
+        if (previous != null && !previous.getExpirationDate().equals(batch.getExpirationDate())) {
+            removeFromDay(previous);
+        }
+        byDay.computeIfAbsent(batch.getExpirationDate(), day -> new ConcurrentHashMap<>())
+                .put(batch.getInventoryBatchId(), batch);
+        batchesByItem.computeIfAbsent(batch.getInventoryItemId(), id -> ConcurrentHashMap.newKeySet())
+                .add(batch.getInventoryBatchId());
+    }
+
+    private synchronized void remove(ExpiringBatch batch) {
+        byBatch.remove(batch.getInventoryBatchId());
+        removeFromDay(batch);
+        Set<UUID> itemBatches = batchesByItem.get(batch.getInventoryItemId());
+        if (itemBatches != null) {
+            itemBatches.remove(batch.getInventoryBatchId());
+            if (itemBatches.isEmpty()) {
+                batchesByItem.remove(batch.getInventoryItemId());
+            }
+        }
+    }
+
+    private void removeFromDay(ExpiringBatch batch) {
+        Map<UUID, ExpiringBatch> bucket = byDay.get(batch.getExpirationDate());
+        if (bucket != null) {
+            bucket.remove(batch.getInventoryBatchId());
+            if (bucket.isEmpty()) {
+                byDay.remove(batch.getExpirationDate());
+            }
+        }
+    }
+}
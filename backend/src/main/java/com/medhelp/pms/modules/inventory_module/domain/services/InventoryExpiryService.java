@@ -0,0 +1,126 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.ExpiringBatchDto;
+import com.medhelp.pms.modules.inventory_module.domain.events.ExpiringStockAlertEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Expiring-stock queries and alerts, served from the in-memory expiry calendar.
+ * <p>
+ * Alerts are published as events for the notification module to send. Each alert carries an
+ * id derived from its expiration day and threshold, so a run repeated on another node or after
+ * a restart does not send the same alert twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryExpiryService {
+
+    private final ExpiryCalendar expiryCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.expiry.alert-days:90,30,7,0}")
+    private List<Integer> alertDays;
+
+    @Value("${inventory.expiry.alert-recipient:}")
+    private String alertRecipient;
+
+    @Value("${inventory.expiry.alert-channel:email}")
+    private String alertChannel;
+
+    /**
+     * Batches with stock left that expire within the given number of days, soonest first
+     */
+    public List<ExpiringBatchDto> getExpiringBatches(int withinDays) {
+        if (withinDays < 0) {
+            throw new ValidationException("withinDays", "Must not be negative", withinDays);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<ExpiringBatchDto> batches = new ArrayList<>();
+        for (ExpiringBatch batch : expiryCalendar.expiringOnOrBefore(today.plusDays(withinDays))) {
+            long daysUntilExpiry = ChronoUnit.DAYS.between(today, batch.getExpirationDate());
+            batches.add(ExpiringBatchDto.builder()
+                    .inventoryItemId(batch.getInventoryItemId())
+                    .batchId(batch.getInventoryBatchId())
+                    .medicationId(batch.getMedicationId())
+                    .ndcCode(batch.getNdcCode())
+                    .batchNumber(batch.getBatchNumber())
+                    .expirationDate(batch.getExpirationDate())
+                    .daysUntilExpiry(daysUntilExpiry)
+                    .quantityRemaining(batch.getQuantityRemaining())
+                    .recommendedAction(daysUntilExpiry < 0 ? "Remove from stock" : "Prioritize dispensing")
+                    .build());
+        }
+        return batches;
+    }
+
+    /**
+     * Alert staff about batches reaching an expiry threshold today (scheduled task)
+     */
+    @Scheduled(cron = "${inventory.expiry.alert-cron:0 0 7 * * *}")
+    @Transactional
+    public void sendExpiryAlerts() {
+        if (alertRecipient == null || alertRecipient.isBlank()) {
+            return;
+        }
+
+        List<ExpiringStockAlertEvent> alerts = expiryAlerts(LocalDate.now());
+        alerts.forEach(eventPublisher::publishEvent);
+        if (!alerts.isEmpty()) {
+            log.info("Published {} expiring-stock alerts", alerts.size());
+        }
+    }
+
+    /**
+     * One alert per threshold that batches reach on the given day; only the calendar days
+     * that hit a threshold are read
+     */
+    List<ExpiringStockAlertEvent> expiryAlerts(LocalDate today) {
+        List<ExpiringStockAlertEvent> alerts = new ArrayList<>();
+        for (Integer days : alertDays) {
+            LocalDate expirationDate = today.plusDays(days);
+            List<ExpiringBatch> batches = new ArrayList<>(expiryCalendar.expiringOn(expirationDate));
+            if (!batches.isEmpty()) {
+                batches.sort(Comparator.comparing(ExpiringBatch::getNdcCode));
+                alerts.add(alert(expirationDate, days, batches));
+            }
+        }
+        return alerts;
+    }
+
+    private ExpiringStockAlertEvent alert(LocalDate expirationDate, int days, List<ExpiringBatch> batches) {
+        StringBuilder message = new StringBuilder();
+        for (ExpiringBatch batch : batches) {
+            message.append("NDC ").append(batch.getNdcCode())
+                    .append(", lot ").append(batch.getBatchNumber())
+                    .append(": ").append(batch.getQuantityRemaining().stripTrailingZeros().toPlainString())
+                    .append(" remaining, expires ").append(batch.getExpirationDate())
+                    .append('\n');
+        }
+
+        UUID alertId = UUID.nameUUIDFromBytes(("inventory_expiry/" + expirationDate + "/" + days)
+                .getBytes(StandardCharsets.UTF_8));
+        String subject = days == 0
+                ? batches.size() + " inventory batches expire today"
+                : batches.size() + " inventory batches expire in " + days + " days";
+        return new ExpiringStockAlertEvent(alertId, expirationDate, days, alertChannel, alertRecipient, subject,
+                message.toString());
+    }
+}
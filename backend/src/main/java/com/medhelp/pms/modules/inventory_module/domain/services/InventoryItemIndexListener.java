@@ -0,0 +1,43 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryItem;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Keeps the low-stock index current when an inventory item is created, changed or deactivated
+ * through JPA. The index is only touched once the write committed, with the values written.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryItemIndexListener {
+
+    private final LowStockIndex lowStockIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(InventoryItem item) {
+        UUID inventoryItemId = item.getId();
+        if (Boolean.FALSE.equals(item.getIsActive())) {
+            TransactionCallbacks.afterCommit(() -> lowStockIndex.remove(inventoryItemId));
+            return;
+        }
+        BigDecimal reorderPoint = item.getReorderPoint();
+        BigDecimal quantityAvailable = item.getQuantityOnHand().subtract(item.getQuantityReserved());
+        TransactionCallbacks.afterCommit(() -> lowStockIndex.update(inventoryItemId, reorderPoint,
+                quantityAvailable));
+    }
+
+    @PostRemove
+    public void onRemoved(InventoryItem item) {
+        UUID inventoryItemId = item.getId();
+        TransactionCallbacks.afterCommit(() -> lowStockIndex.remove(inventoryItemId));
+    }
+}
@@ -0,0 +1,165 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.InventorySnapshotDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StockDriftDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.StockPositionDto;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryProjection;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.InventoryProjectionJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerFlusher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rebuilds stock positions by replaying inventory transactions on top of the
+ * latest snapshot, and answers point-in-time and drift questions from the result.
+ * <p>
+ * Snapshots are never taken closer to the present than the settle lag. A transaction
+ * stamps transaction_date before it commits, so a row can become visible after a later
+ * snapshot was taken; replays start strictly after the snapshot's as_of and would skip
+ * it for good. Holding snapshots back by the lag leaves those rows to the replay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryProjectionService {
+
+    private final InventoryProjectionJdbcRepository projectionRepository;
+    private final StockLedgerFlusher stockLedgerFlusher;
+
+    @Value("${inventory.projection.snapshot-batch-size:1000}")
+    private int snapshotBatchSize;
+
+    @Value("${inventory.projection.settle-seconds:300}")
+    private long settleSeconds;
+
+    /**
+     * Stock positions as of the given time, optionally for a single item
+     */
+    @Transactional(readOnly = true)
+    public List<StockPositionDto> getStockAsOf(LocalDateTime asOf, UUID inventoryItemId) {
+        InventoryProjection projection = build(asOf);
+
+        Map<UUID, Map<UUID, BigDecimal>> batchesByItem = new HashMap<>();
+        for (UUID batchId : projection.batchIds()) {
+            UUID itemId = projection.batchItem(batchId);
+            if (inventoryItemId == null || inventoryItemId.equals(itemId)) {
+                batchesByItem.computeIfAbsent(itemId, id -> new HashMap<>())
+                        .put(batchId, StockLedger.fromUnits(projection.batchQuantity(batchId)));
+            }
+        }
+
+        List<StockPositionDto> positions = new ArrayList<>();
+        for (UUID itemId : projection.itemIds()) {
+            if (inventoryItemId != null && !inventoryItemId.equals(itemId)) {
+                continue;
+            }
+            positions.add(StockPositionDto.builder()
+                    .inventoryItemId(itemId)
+                    .quantity(StockLedger.fromUnits(projection.itemQuantity(itemId)))
+                    .batchQuantities(batchesByItem.getOrDefault(itemId, Map.of()))
+                    .asOf(projection.getAsOf())
+                    .build());
+        }
+        return positions;
+    }
+
+    /**
+     * Items whose recorded quantity on hand differs from the replayed transaction history
+     */
+    @Transactional
+    public List<StockDriftDto> checkDrift() {
+        // Recorded quantities must include the stock ledger journal (applied here when this node owns the ledger)
+        stockLedgerFlusher.flush();
+
+        InventoryProjection projection = build(LocalDateTime.now());
+        Map<UUID, Long> recorded = projectionRepository.loadRecordedItemQuantities();
+
+        Set<UUID> itemIds = new HashSet<>(recorded.keySet());
+        itemIds.addAll(projection.itemIds());
+
+        List<StockDriftDto> drift = new ArrayList<>();
+        for (UUID itemId : itemIds) {
+            long projected = projection.itemQuantity(itemId);
+            long actual = recorded.getOrDefault(itemId, 0L);
+            if (projected != actual) {
+                drift.add(StockDriftDto.builder()
+                        .inventoryItemId(itemId)
+                        .projectedQuantity(StockLedger.fromUnits(projected))
+                        .recordedQuantity(StockLedger.fromUnits(actual))
+                        .difference(StockLedger.fromUnits(actual - projected))
+                        .build());
+            }
+        }
+
+        log.info("Inventory drift check found {} items out of {} with differences", drift.size(), itemIds.size());
+        return drift;
+    }
+
+    /**
+     * Persist the projection as of the given time so later queries replay less history.
+     * Times within the settle lag are moved back to the lag, since transactions stamped
+     * before them may still be uncommitted.
+     */
+    @Transactional
+    public InventorySnapshotDto createSnapshot(LocalDateTime asOf) {
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(settleSeconds);
+        if (asOf.isAfter(settled)) {
+            log.debug("Inventory snapshot requested as of {}, taking it as of {} to let transactions settle",
+                    asOf, settled);
+            asOf = settled;
+        }
+        InventoryProjection projection = build(asOf);
+        UUID snapshotId = projectionRepository.saveSnapshot(projection, snapshotBatchSize);
+
+        log.info("Created inventory snapshot {} as of {} ({} transactions)", snapshotId, asOf,
+                projection.getTransactionCount());
+
+        return InventorySnapshotDto.builder()
+                .snapshotId(snapshotId)
+                .asOf(projection.getAsOf())
+                .transactionCount(projection.getTransactionCount())
+                .itemCount(projection.itemIds().size())
+                .batchCount(projection.batchIds().size())
+                .build();
+    }
+
+    /**
+     * Nightly snapshot (scheduled task)
+     */
+    @Scheduled(cron = "${inventory.projection.snapshot-cron:0 30 2 * * *}")
+    @Transactional
+    public void createScheduledSnapshot() {
+        createSnapshot(LocalDateTime.now());
+    }
+
+    private InventoryProjection build(LocalDateTime asOf) {
+        long started = System.nanoTime();
+
+        InventoryProjection projection = projectionRepository.loadLatestSnapshot(asOf)
+                .orElseGet(() -> new InventoryProjection(null));
+        long seededCount = projection.getTransactionCount();
+        LocalDateTime replayFrom = projection.getAsOf();
+
+        projectionRepository.replay(projection, replayFrom, asOf);
+
+        long replayed = projection.getTransactionCount() - seededCount;
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.debug("Replayed {} inventory transactions from {} to {} in {} ms ({} tx/s)",
+                replayed, replayFrom, asOf, elapsedMillis, replayed * 1000 / elapsedMillis);
+        return projection;
+    }
+}
@@ -0,0 +1,296 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.CategoryValueDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ExpiringValueDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.InventoryValueReportDto;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.CategoryValue;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.ItemValuation;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ValuationMethod;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerFlusher;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ValuationJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ValuationJdbcRepository.ItemCost;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ValuationJdbcRepository.TransactionCursor;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ValuationJdbcRepository.ValuedTransaction;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Inventory valuation by FIFO batch cost and by moving average cost.
+ * <p>
+ * Valuations are materialized per item in inventory_valuations and mirrored in memory with
+ * running totals per therapeutic class. A scheduled refresh folds only the transactions
+ * recorded since the last run and re-costs only the items they touched, so the report
+ * never scans the batch table. Month-end snapshots are copied from the materialized rows.
+ * <p>
+ * Initialization, refreshes and snapshots hold a transaction advisory lock, so only one node
+ * at a time folds transactions, always starting from the stored valuations and cursor. Each
+ * refresh also reloads into the in-memory mirror the rows other nodes wrote since this node
+ * last read them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryValuationService {
+
+    private static final UUID NO_TRANSACTION = new UUID(0, 0);
+    private static final String LOCK_NAMESPACE = "inventory.valuation";
+
+    private final ValuationJdbcRepository valuationRepository;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final ExpiryCalendar expiryCalendar;
+    private final AdvisoryLocks advisoryLocks;
+    private final InventoryValuation valuation = new InventoryValuation();
+    // Database clock time up to which the mirror holds every stored valuation row
+    private volatile LocalDateTime syncedAt;
+
+    @Value("${inventory.valuation.settle-seconds:30}")
+    private long settleSeconds;
+
+    @Value("${inventory.valuation.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        advisoryLocks.lockForTransaction(LOCK_NAMESPACE, "refresh");
+        LocalDateTime loadedAt = valuationRepository.clockTimestamp();
+        if (valuationRepository.findCursor().isPresent()) {
+            valuationRepository.forEachValuation(valuation::update);
+            log.info("Inventory valuation loaded for {} items", valuation.itemCount());
+        } else {
+            initialize();
+        }
+        TransactionCallbacks.afterCommit(() -> syncedAt = loadedAt);
+    }
+
+    /**
+     * Fold transactions recorded since the last refresh into the valuation (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${inventory.valuation.refresh-interval-ms:60000}")
+    @Transactional
+    public void refresh() {
+        LocalDateTime since = syncedAt;
+        if (since == null) {
+            // Not loaded yet
+            return;
+        }
+        advisoryLocks.lockForTransaction(LOCK_NAMESPACE, "refresh");
+        TransactionCursor cursor = valuationRepository.findCursor().orElse(null);
+        if (cursor == null) {
+            return;
+        }
+
+        // Every refresh before this one committed before the lock was granted, so its rows are read here
+        LocalDateTime lockedAt = valuationRepository.clockTimestamp();
+        List<ItemValuation> changed = new ArrayList<>();
+        valuationRepository.forEachValuationUpdatedAfter(since, changed::add);
+
+        // Leave recent transactions for the next run so ones committed slightly out of order are not skipped
+        LocalDateTime upTo = LocalDateTime.now().minusSeconds(settleSeconds);
+        List<ValuedTransaction> transactions = new ArrayList<>();
+        valuationRepository.forEachTransactionAfter(cursor, upTo, transactions::add);
+
+        List<ItemValuation> updated = fold(transactions);
+        if (!updated.isEmpty()) {
+            ValuedTransaction last = transactions.get(transactions.size() - 1);
+            valuationRepository.upsertValuations(updated, batchSize);
+            valuationRepository.saveCursor(new TransactionCursor(last.getTransactionDate(), last.getId()));
+            log.debug("Inventory valuation refreshed for {} items up to {}", updated.size(),
+                    last.getTransactionDate());
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            changed.forEach(valuation::update);
+            updated.forEach(valuation::update);
+            syncedAt = lockedAt;
+        });
+    }
+
+    /**
+     * Apply the transactions, in order, to the stored valuation of each item they touched
+     */
+    private List<ItemValuation> fold(List<ValuedTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> itemIds = new LinkedHashSet<>();
+        transactions.forEach(transaction -> itemIds.add(transaction.getInventoryItemId()));
+        Map<UUID, ItemValuation> stored = valuationRepository.findValuations(itemIds);
+
+        Map<UUID, BigDecimal[]> running = new HashMap<>();
+        for (ValuedTransaction transaction : transactions) {
+            BigDecimal[] state = running.computeIfAbsent(transaction.getInventoryItemId(),
+                    id -> storedState(stored.get(id)));
+            apply(state, transaction.getQuantityChange(), transaction.getUnitCost());
+        }
+
+        List<ItemValuation> updated = new ArrayList<>(running.size());
+        for (ItemCost cost : valuationRepository.findItemCosts(running.keySet())) {
+            BigDecimal[] state = running.get(cost.getInventoryItemId());
+            updated.add(new ItemValuation(cost.getInventoryItemId(), cost.getCategory(), state[0], state[1],
+                    cost.getFifoValue()));
+        }
+        return updated;
+    }
+
+    /**
+     * Inventory value by therapeutic class, currently or as of a month-end snapshot
+     *
+     * @throws EntityNotFoundException when no snapshot was stored for the month
+     */
+    @Transactional(readOnly = true)
+    public InventoryValueReportDto getInventoryValue(String method, YearMonth month) {
+        ValuationMethod valuationMethod = method != null ? ValuationMethod.fromCode(method) : ValuationMethod.FIFO;
+        LocalDate periodEnd = month != null ? month.atEndOfMonth() : null;
+        if (periodEnd != null && !valuationRepository.snapshotExists(periodEnd)) {
+            // Current values say nothing about a past month-end, so there is nothing to compute on demand
+            throw new EntityNotFoundException("InventoryValuationSnapshot", month.toString());
+        }
+        List<CategoryValue> categories = periodEnd != null
+                ? valuationRepository.findSnapshotCategories(periodEnd)
+                : valuation.categories();
+
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
+        List<CategoryValueDto> byCategory = new ArrayList<>(categories.size());
+        for (CategoryValue category : categories) {
+            BigDecimal value = valuationMethod == ValuationMethod.FIFO ? category.getFifoValue()
+                    : category.getAverageValue();
+            total = total.add(value);
+            itemCount += category.getItemCount();
+            byCategory.add(CategoryValueDto.builder()
+                    .category(category.getCategory())
+                    .value(value)
+                    .itemCount(category.getItemCount())
+                    .build());
+        }
+        byCategory.sort(Comparator.comparing(CategoryValueDto::getValue).reversed());
+
+        return InventoryValueReportDto.builder()
+                .method(valuationMethod.getCode())
+                .periodEnd(periodEnd)
+                .totalValue(total)
+                .itemCount(itemCount)
+                .byCategory(byCategory)
+                .expiringValue(periodEnd == null ? expiringValue() : null)
+                .build();
+    }
+
+    /**
+     * Store the current valuation as the snapshot for the given month
+     */
+    @Transactional
+    public InventoryValueReportDto snapshotMonthEnd(YearMonth month) {
+        advisoryLocks.lockForTransaction(LOCK_NAMESPACE, "refresh");
+        refresh();
+        int items = valuationRepository.snapshot(month.atEndOfMonth());
+        log.info("Stored inventory valuation snapshot for {} ({} items)", month, items);
+        return getInventoryValue(ValuationMethod.FIFO.getCode(), month);
+    }
+
+    /**
+     * Month-end snapshot of the month just closed (scheduled task)
+     */
+    @Scheduled(cron = "${inventory.valuation.snapshot-cron:0 10 0 1 * *}")
+    @Transactional
+    public void snapshotPreviousMonth() {
+        snapshotMonthEnd(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Seed the valuation from current quantities and batch costs
+     */
+    private void initialize() {
+        // Quantities on hand must include the stock ledger journal (applied here when this node owns the ledger)
+        stockLedgerFlusher.flush();
+
+        LocalDateTime now = LocalDateTime.now();
+        TransactionCursor cursor = valuationRepository.findLatestTransaction(now)
+                .orElse(new TransactionCursor(now, NO_TRANSACTION));
+
+        List<ItemValuation> seeded = new ArrayList<>();
+        valuationRepository.forEachItemCost(cost -> {
+            BigDecimal quantity = cost.getQuantityOnHand();
+            BigDecimal averageCost = quantity.signum() > 0 && cost.getFifoValue().signum() > 0
+                    ? cost.getFifoValue().divide(quantity, 4, RoundingMode.HALF_UP)
+                    : cost.getUnitCost();
+            seeded.add(new ItemValuation(cost.getInventoryItemId(), cost.getCategory(), quantity, averageCost,
+                    cost.getFifoValue()));
+        });
+
+        valuationRepository.upsertValuations(seeded, batchSize);
+        valuationRepository.saveCursor(cursor);
+        seeded.forEach(valuation::update);
+        log.info("Inventory valuation initialized for {} items", seeded.size());
+    }
+
+    private static BigDecimal[] storedState(ItemValuation current) {
+        return current != null
+                ? new BigDecimal[]{current.getQuantity(), current.getAverageCost()}
+                : new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO};
+    }
+
+    /**
+     * Receipts with a known cost move the weighted average; every movement changes the quantity
+     */
+    private static void apply(BigDecimal[] state, BigDecimal quantityChange, BigDecimal unitCost) {
+        if (quantityChange.signum() > 0 && unitCost != null) {
+            BigDecimal base = state[0].max(BigDecimal.ZERO);
+            BigDecimal quantity = base.add(quantityChange);
+            state[1] = base.multiply(state[1]).add(quantityChange.multiply(unitCost))
+                    .divide(quantity, 4, RoundingMode.HALF_UP);
+        }
+        state[0] = state[0].add(quantityChange);
+    }
+
+    private ExpiringValueDto expiringValue() {
+        LocalDate today = LocalDate.now();
+        BigDecimal within30 = BigDecimal.ZERO;
+        BigDecimal within60 = BigDecimal.ZERO;
+        BigDecimal within90 = BigDecimal.ZERO;
+        for (ExpiringBatch batch : expiryCalendar.expiringOnOrBefore(today.plusDays(90))) {
+            if (batch.getUnitCost() == null) {
+                continue;
+            }
+            BigDecimal value = batch.getQuantityRemaining().multiply(batch.getUnitCost());
+            long days = ChronoUnit.DAYS.between(today, batch.getExpirationDate());
+            within90 = within90.add(value);
+            if (days <= 60) {
+                within60 = within60.add(value);
+            }
+            if (days <= 30) {
+                within30 = within30.add(value);
+            }
+        }
+        return ExpiringValueDto.builder()
+                .within30Days(within30.setScale(2, RoundingMode.HALF_UP))
+                .within60Days(within60.setScale(2, RoundingMode.HALF_UP))
+                .within90Days(within90.setScale(2, RoundingMode.HALF_UP))
+                .build();
+    }
+}
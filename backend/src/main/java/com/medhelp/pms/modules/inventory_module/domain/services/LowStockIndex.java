@@ -0,0 +1,105 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.StockLevelChangedEvent;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of inventory items whose available quantity is at or below their reorder point.
+ * <p>
+ * Loaded once at startup, then kept current from stock level changes and from items created,
+ * changed or deactivated (InventoryItemIndexListener), so finding low-stock items costs
+ * O(changed items) instead of a sweep over inventory_items. Both are applied only after the
+ * write committed, so a rolled-back change never reaches the index.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockIndex {
+
+    private final ReorderJdbcRepository reorderJdbcRepository;
+
+    // inventory item id -> {reorder point, last known available quantity}, in hundredths
+    private final Map<UUID, long[]> levels = new ConcurrentHashMap<>();
+    private final Set<UUID> lowStock = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reorderJdbcRepository.forEachStockThreshold(threshold -> update(threshold.getInventoryItemId(),
+                threshold.getReorderPoint(), threshold.getQuantityAvailable()));
+        log.info("Low-stock index loaded: {} of {} items at or below reorder point",
+                lowStock.size(), levels.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        evaluate(event.getInventoryItemId(), StockLedger.toUnits(event.getQuantityAvailable()));
+    }
+
+    /**
+     * Record reorder point and available quantity for an item and re-evaluate it
+     */
+    public void update(UUID inventoryItemId, BigDecimal reorderPoint, BigDecimal quantityAvailable) {
+        levels.put(inventoryItemId, new long[]{StockLedger.toUnits(reorderPoint), 0});
+        evaluate(inventoryItemId, StockLedger.toUnits(quantityAvailable));
+    }
+
+    /**
+     * Record a new reorder point, keeping the last known available quantity
+     */
+    public void updateReorderPoint(UUID inventoryItemId, BigDecimal reorderPoint) {
+        long[] level = levels.get(inventoryItemId);
+        if (level == null) {
+            return;
+        }
+        synchronized (level) {
+            level[0] = StockLedger.toUnits(reorderPoint);
+        }
+        evaluate(inventoryItemId, level[1]);
+    }
+
+    /**
+     * Stop tracking an item (deactivated)
+     */
+    public void remove(UUID inventoryItemId) {
+        levels.remove(inventoryItemId);
+        lowStock.remove(inventoryItemId);
+    }
+
+    public boolean isLowStock(UUID inventoryItemId) {
+        return lowStock.contains(inventoryItemId);
+    }
+
+    /**
+     * Copy of the current low-stock item ids
+     */
+    public Set<UUID> snapshot() {
+        return Set.copyOf(lowStock);
+    }
+
+    private void evaluate(UUID inventoryItemId, long availableUnits) {
+        long[] level = levels.get(inventoryItemId);
+        if (level == null) {
+            return;
+        }
+        synchronized (level) {
+            level[1] = availableUnits;
+            if (availableUnits <= level[0]) {
+                lowStock.add(inventoryItemId);
+            } else {
+                lowStock.remove(inventoryItemId);
+            }
+        }
+    }
+}
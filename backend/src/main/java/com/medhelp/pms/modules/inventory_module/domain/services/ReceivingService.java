@@ -0,0 +1,343 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.PurchaseOrderReceiptDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceiveItemRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivePurchaseOrderRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivingScanRequest;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReceivingSessionDto;
+import com.medhelp.pms.modules.inventory_module.domain.events.BatchQuantityChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.PurchaseOrderStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.OrderHeader;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.OrderLine;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.ReceiptLine;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Receives purchase orders, either in one request or through a receiving session fed
+ * by barcode scans.
+ * <p>
+ * Scans are aggregated in memory per order line, lot and expiration date. Each flush
+ * writes all pending lines with one batched statement per table; quantity on hand goes
+ * through the stock ledger like every other stock movement.
+ * <p>
+ * Quantities above what is still outstanding on an order line are refused: a request
+ * fails, a scan is rejected, and the batched write re-checks against the stored
+ * quantities. Sessions live in memory on the node that opened them, so every scan of a
+ * session must reach that node.
+ */
+@Service
+@Slf4j
+public class ReceivingService {
+
+    private static final Set<String> RECEIVABLE_STATUSES = Set.of(PurchaseOrderStatus.PENDING.getCode(),
+            PurchaseOrderStatus.SENT.getCode(), PurchaseOrderStatus.PARTIALLY_RECEIVED.getCode());
+
+    private final ReceivingJdbcRepository receivingJdbcRepository;
+    private final StockLedger stockLedger;
+    private final SupplierPriceIndex supplierPriceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, ReceivingSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${inventory.receiving.flush-threshold:200}")
+    private int flushThreshold;
+
+    @Value("${inventory.receiving.idle-timeout-minutes:30}")
+    private long idleTimeoutMinutes;
+
+    @Value("${inventory.receiving.batch-size:500}")
+    private int batchSize;
+
+    public ReceivingService(ReceivingJdbcRepository receivingJdbcRepository, StockLedger stockLedger,
+                            SupplierPriceIndex supplierPriceIndex, ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.receivingJdbcRepository = receivingJdbcRepository;
+        this.stockLedger = stockLedger;
+        this.supplierPriceIndex = supplierPriceIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Receive a purchase order in one request (full or partial)
+     */
+    public PurchaseOrderReceiptDto receive(UUID purchaseOrderId, ReceivePurchaseOrderRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new ValidationException("items", "At least one received item is required", null);
+        }
+
+        ReceivingSession session = open(purchaseOrderId);
+        for (ReceiveItemRequest item : request.getItems()) {
+            OrderLine line = item.getPoItemId() != null ? session.lineForId(item.getPoItemId()) : null;
+            if (line == null) {
+                throw new ValidationException("poItemId", "Item is not on purchase order " + session.getPoNumber(),
+                        item.getPoItemId());
+            }
+            String problem = validate(item.getBatchNumber(), item.getExpirationDate(), item.getQuantityReceived());
+            if (problem != null) {
+                throw new ValidationException("items", problem, item.getPoItemId());
+            }
+            if (!session.record(line, item.getBatchNumber(), item.getExpirationDate(), item.getQuantityReceived(),
+                    item.getUnitCost())) {
+                throw new ValidationException("quantityReceived", overReceipt(session, line),
+                        item.getQuantityReceived());
+            }
+        }
+
+        LocalDate deliveryDate = request.getActualDeliveryDate() != null ? request.getActualDeliveryDate()
+                : LocalDate.now();
+        int lineCount = session.getPendingLines();
+        String status = transactionTemplate.execute(tx -> flush(session, deliveryDate));
+
+        return PurchaseOrderReceiptDto.builder()
+                .poId(purchaseOrderId)
+                .status(status)
+                .actualDeliveryDate(deliveryDate)
+                .itemsReceived(lineCount)
+                .totalItemsOrdered(receivingJdbcRepository.findOrderLines(purchaseOrderId).size())
+                .receivedBy(session.getReceivedBy())
+                .receivedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Open a receiving session for scanning a delivery
+     */
+    public synchronized ReceivingSessionDto startSession(UUID purchaseOrderId) {
+        for (ReceivingSession existing : sessions.values()) {
+            if (existing.getPurchaseOrderId().equals(purchaseOrderId)) {
+                throw new BusinessException("RECEIVING_SESSION_OPEN",
+                        "Purchase order " + existing.getPoNumber() + " already has open receiving session "
+                                + existing.getId());
+            }
+        }
+        ReceivingSession session = open(purchaseOrderId);
+        sessions.put(session.getId(), session);
+        log.info("Started receiving session {} for purchase order {}", session.getId(), session.getPoNumber());
+        return toDto(session, "open", List.of());
+    }
+
+    public ReceivingSessionDto getSession(UUID purchaseOrderId, UUID sessionId) {
+        return toDto(session(purchaseOrderId, sessionId), "open", List.of());
+    }
+
+    /**
+     * Record scan events; flushes once enough scans are pending
+     */
+    public ReceivingSessionDto addScans(UUID purchaseOrderId, UUID sessionId, List<ReceivingScanRequest> scans) {
+        ReceivingSession session = session(purchaseOrderId, sessionId);
+
+        List<String> rejections = new ArrayList<>();
+        for (ReceivingScanRequest scan : scans) {
+            OrderLine line = scan.getNdcCode() != null ? session.lineForNdc(scan.getNdcCode()) : null;
+            String problem = line == null
+                    ? "NDC " + scan.getNdcCode() + " is not on purchase order " + session.getPoNumber()
+                    : validate(scan.getBatchNumber(), scan.getExpirationDate(), scan.getQuantity());
+            if (problem == null && !session.record(line, scan.getBatchNumber(), scan.getExpirationDate(),
+                    scan.getQuantity(), scan.getUnitCost())) {
+                problem = overReceipt(session, line);
+            }
+            if (problem != null) {
+                session.reject();
+                rejections.add(problem);
+            }
+        }
+
+        if (session.getPendingScans() >= flushThreshold) {
+            transactionTemplate.executeWithoutResult(tx -> flush(session, LocalDate.now()));
+        }
+        return toDto(session, "open", rejections);
+    }
+
+    /**
+     * Write all pending scans of a session
+     */
+    public ReceivingSessionDto flushSession(UUID purchaseOrderId, UUID sessionId) {
+        ReceivingSession session = session(purchaseOrderId, sessionId);
+        transactionTemplate.executeWithoutResult(tx -> flush(session, LocalDate.now()));
+        return toDto(session, "open", List.of());
+    }
+
+    /**
+     * Write all pending scans and close the session
+     */
+    public ReceivingSessionDto completeSession(UUID purchaseOrderId, UUID sessionId) {
+        ReceivingSession session = session(purchaseOrderId, sessionId);
+        transactionTemplate.executeWithoutResult(tx -> flush(session, LocalDate.now()));
+        sessions.remove(sessionId);
+        log.info("Completed receiving session {} for purchase order {}: {} scans, {} lines",
+                sessionId, session.getPoNumber(), session.getScansAccepted(), session.getLinesFlushed());
+        return toDto(session, "completed", List.of());
+    }
+
+    /**
+     * Flush and close sessions nobody scanned into for a while (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${inventory.receiving.idle-check-interval-ms:60000}")
+    public void closeIdleSessions() {
+        LocalDateTime idleSince = LocalDateTime.now().minusMinutes(idleTimeoutMinutes);
+        for (ReceivingSession session : sessions.values()) {
+            if (session.getLastActivityAt().isBefore(idleSince)) {
+                try {
+                    completeSession(session.getPurchaseOrderId(), session.getId());
+                } catch (RuntimeException e) {
+                    log.error("Failed to close idle receiving session {}", session.getId(), e);
+                }
+            }
+        }
+    }
+
+    private ReceivingSession open(UUID purchaseOrderId) {
+        OrderHeader order = receivingJdbcRepository.findOrder(purchaseOrderId)
+                .orElseThrow(() -> new EntityNotFoundException("PurchaseOrder", purchaseOrderId.toString()));
+        if (!RECEIVABLE_STATUSES.contains(order.getStatus())) {
+            throw new BusinessException("PURCHASE_ORDER_NOT_RECEIVABLE",
+                    "Purchase order " + order.getPoNumber() + " is " + order.getStatus());
+        }
+        return new ReceivingSession(purchaseOrderId, order.getPoNumber(), order.getSupplierId(),
+                SecurityUtils.getCurrentUserId(), receivingJdbcRepository.findOrderLines(purchaseOrderId));
+    }
+
+    private ReceivingSession session(UUID purchaseOrderId, UUID sessionId) {
+        ReceivingSession session = sessions.get(sessionId);
+        if (session == null || !session.getPurchaseOrderId().equals(purchaseOrderId)) {
+            throw new EntityNotFoundException("ReceivingSession", sessionId.toString());
+        }
+        return session;
+    }
+
+    private String overReceipt(ReceivingSession session, OrderLine line) {
+        return "NDC " + line.getNdcCode() + " would be received above the ordered quantity on purchase order "
+                + session.getPoNumber() + " (outstanding " + session.outstanding(line).max(BigDecimal.ZERO) + ")";
+    }
+
+    private String validate(String batchNumber, LocalDate expirationDate, BigDecimal quantity) {
+        if (batchNumber == null || batchNumber.isBlank()) {
+            return "Batch number is required";
+        }
+        if (expirationDate == null) {
+            return "Expiration date is required for lot " + batchNumber;
+        }
+        if (expirationDate.isBefore(LocalDate.now())) {
+            return "Lot " + batchNumber + " expired on " + expirationDate;
+        }
+        if (quantity == null || quantity.signum() <= 0) {
+            return "Quantity must be positive for lot " + batchNumber;
+        }
+        return null;
+    }
+
+    /**
+     * Write the session's pending lines; must run inside a transaction
+     *
+     * @return the purchase order status after the write, or null if nothing was pending
+     */
+    private String flush(ReceivingSession session, LocalDate deliveryDate) {
+        List<ReceiptLine> lines = session.drain();
+        if (lines.isEmpty()) {
+            return null;
+        }
+        TransactionCallbacks.afterRollback(() -> session.restore(lines));
+
+        Map<String, UUID> existingBatches = receivingJdbcRepository.findBatchIds(lines);
+        Map<String, UUID> newBatches = new HashMap<>();
+        List<ReceiptLine> toInsert = new ArrayList<>();
+        List<ReceiptLine> toUpdate = new ArrayList<>();
+        for (ReceiptLine line : lines) {
+            UUID batchId = existingBatches.get(line.getBatchKey());
+            if (batchId == null && !newBatches.containsKey(line.getBatchKey())) {
+                batchId = UUID.randomUUID();
+                newBatches.put(line.getBatchKey(), batchId);
+                line.assignBatch(batchId);
+                toInsert.add(line);
+            } else {
+                line.assignBatch(batchId != null ? batchId : newBatches.get(line.getBatchKey()));
+                toUpdate.add(line);
+            }
+        }
+
+        Map<UUID, BigDecimal> receivedByOrderLine = new HashMap<>();
+        for (ReceiptLine line : lines) {
+            StockMovement movement = stockLedger.receive(line.getInventoryItemId(), line.getQuantity());
+            line.assignQuantityBefore(movement.getQuantityBefore());
+            receivedByOrderLine.merge(line.getOrderLineId(), line.getQuantity(), BigDecimal::add);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        receivingJdbcRepository.insertBatches(toInsert, session.getReceivedBy(), deliveryDate, batchSize);
+        receivingJdbcRepository.addToBatches(toUpdate, batchSize);
+        receivingJdbcRepository.insertTransactions(lines, session.getPurchaseOrderId(), session.getReceivedBy(),
+                now, batchSize);
+        int overReceived = receivingJdbcRepository.addReceivedQuantities(receivedByOrderLine, batchSize);
+        if (overReceived > 0) {
+            throw new BusinessException("OVER_RECEIPT", overReceived + " lines of purchase order "
+                    + session.getPoNumber() + " would be received above the ordered quantity");
+        }
+        String status = receivingJdbcRepository.updateReceivedStatus(session.getPurchaseOrderId(), deliveryDate);
+
+        Set<UUID> batchIds = new HashSet<>();
+        for (ReceiptLine line : lines) {
+            batchIds.add(line.getBatchId());
+        }
+        receivingJdbcRepository.findRemainingQuantities(batchIds).forEach((batchId, remaining) ->
+                eventPublisher.publishEvent(new BatchQuantityChangedEvent(batchId, remaining)));
+
+        TransactionCallbacks.afterCommit(() -> {
+            session.flushed(lines);
+            // Same observation the price index loads at startup: the agreed price of a line, once
+            for (UUID orderLineId : receivedByOrderLine.keySet()) {
+                OrderLine orderLine = session.lineForId(orderLineId);
+                if (session.markPriced(orderLine)) {
+                    supplierPriceIndex.record(orderLine.getNdcCode(), session.getSupplierId(),
+                            orderLine.getUnitPrice());
+                }
+            }
+        });
+        log.debug("Flushed {} receipt lines for purchase order {} ({} new batches)", lines.size(),
+                session.getPoNumber(), toInsert.size());
+        return status;
+    }
+
+    private ReceivingSessionDto toDto(ReceivingSession session, String status, List<String> rejections) {
+        return ReceivingSessionDto.builder()
+                .sessionId(session.getId())
+                .poId(session.getPurchaseOrderId())
+                .poNumber(session.getPoNumber())
+                .status(status)
+                .scansAccepted(session.getScansAccepted())
+                .scansRejected(session.getScansRejected())
+                .pendingScans(session.getPendingScans())
+                .pendingLines(session.getPendingLines())
+                .linesFlushed(session.getLinesFlushed())
+                .quantityFlushed(session.getQuantityFlushed())
+                .rejections(rejections)
+                .startedAt(session.getStartedAt())
+                .lastActivityAt(session.getLastActivityAt())
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.OrderLine;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.ReceiptLine;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Scans received against one purchase order, aggregated in memory per order line, lot
+ * and expiration date until they are flushed to the database.
+ * <p>
+ * Every accepted quantity counts against the line's outstanding ordered quantity, so a
+ * scan that would receive more than was ordered is refused before it is recorded.
+ */
+public class ReceivingSession {
+
+    @Getter
+    private final UUID id = UUID.randomUUID();
+    @Getter
+    private final UUID purchaseOrderId;
+    @Getter
+    private final String poNumber;
+    @Getter
+    private final UUID receivedBy;
+    @Getter
+    private final UUID supplierId;
+    @Getter
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    @Getter
+    private volatile LocalDateTime lastActivityAt = startedAt;
+
+    private final Map<String, OrderLine> linesByNdc = new HashMap<>();
+    private final Map<UUID, OrderLine> linesById = new HashMap<>();
+    private final Map<Key, Pending> pending = new LinkedHashMap<>();
+    private final Map<UUID, BigDecimal> acceptedByLine = new HashMap<>();
+    private final Set<UUID> pricedLines = new HashSet<>();
+
+    private int pendingScans;
+    private long scansAccepted;
+    private long scansRejected;
+    private long linesFlushed;
+    private BigDecimal quantityFlushed = BigDecimal.ZERO;
+
+    public ReceivingSession(UUID purchaseOrderId, String poNumber, UUID supplierId, UUID receivedBy,
+                            List<OrderLine> orderLines) {
+        this.purchaseOrderId = purchaseOrderId;
+        this.poNumber = poNumber;
+        this.supplierId = supplierId;
+        this.receivedBy = receivedBy;
+        for (OrderLine line : orderLines) {
+            linesByNdc.putIfAbsent(line.getNdcCode(), line);
+            linesById.put(line.getId(), line);
+        }
+    }
+
+    public OrderLine lineForNdc(String ndcCode) {
+        return linesByNdc.get(ndcCode);
+    }
+
+    public OrderLine lineForId(UUID orderLineId) {
+        return linesById.get(orderLineId);
+    }
+
+    /**
+     * Quantity of a line still outstanding: ordered, minus received before the session
+     * started, minus everything accepted by this session
+     */
+    public synchronized BigDecimal outstanding(OrderLine line) {
+        return line.getQuantityOrdered()
+                .subtract(line.getQuantityReceived())
+                .subtract(acceptedByLine.getOrDefault(line.getId(), BigDecimal.ZERO));
+    }
+
+    /**
+     * Add a scan to the pending totals unless it exceeds the line's outstanding quantity
+     *
+     * @return false when the scan would receive more than was ordered
+     */
+    public synchronized boolean record(OrderLine line, String batchNumber, LocalDate expirationDate,
+                                       BigDecimal quantity, BigDecimal unitCost) {
+        if (quantity.compareTo(outstanding(line)) > 0) {
+            return false;
+        }
+        acceptedByLine.merge(line.getId(), quantity, BigDecimal::add);
+        Pending totals = pending.computeIfAbsent(new Key(line.getId(), batchNumber, expirationDate),
+                key -> new Pending());
+        totals.quantity = totals.quantity.add(quantity);
+        if (unitCost != null) {
+            totals.unitCost = unitCost;
+        }
+        pendingScans++;
+        scansAccepted++;
+        lastActivityAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * Mark a line's price as observed once its first receipt committed
+     *
+     * @return false when the line was already received before, in this session or earlier
+     */
+    public synchronized boolean markPriced(OrderLine line) {
+        return line.getQuantityReceived().signum() == 0 && pricedLines.add(line.getId());
+    }
+
+    public synchronized void reject() {
+        scansRejected++;
+        lastActivityAt = LocalDateTime.now();
+    }
+
+    public synchronized int getPendingScans() {
+        return pendingScans;
+    }
+
+    public synchronized int getPendingLines() {
+        return pending.size();
+    }
+
+    public synchronized long getScansAccepted() {
+        return scansAccepted;
+    }
+
+    public synchronized long getScansRejected() {
+        return scansRejected;
+    }
+
+    public synchronized long getLinesFlushed() {
+        return linesFlushed;
+    }
+
+    public synchronized BigDecimal getQuantityFlushed() {
+        return quantityFlushed;
+    }
+
+    /**
+     * Take all pending totals as receipt lines, leaving the session empty
+     */
+    public synchronized List<ReceiptLine> drain() {
+        List<ReceiptLine> lines = new ArrayList<>(pending.size());
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            OrderLine orderLine = linesById.get(key.orderLineId);
+            BigDecimal unitCost = entry.getValue().unitCost != null ? entry.getValue().unitCost : orderLine.getUnitPrice();
+            lines.add(new ReceiptLine(key.orderLineId, orderLine.getInventoryItemId(), key.batchNumber,
+                    key.expirationDate, entry.getValue().quantity, unitCost));
+        }
+        pending.clear();
+        pendingScans = 0;
+        return lines;
+    }
+
+    /**
+     * Put back lines whose flush rolled back
+     */
+    public synchronized void restore(List<ReceiptLine> lines) {
+        for (ReceiptLine line : lines) {
+            Pending totals = pending.computeIfAbsent(
+                    new Key(line.getOrderLineId(), line.getBatchNumber(), line.getExpirationDate()),
+                    key -> new Pending());
+            totals.quantity = totals.quantity.add(line.getQuantity());
+            if (totals.unitCost == null) {
+                totals.unitCost = line.getUnitCost();
+            }
+            pendingScans++;
+        }
+    }
+
+    public synchronized void flushed(List<ReceiptLine> lines) {
+        for (ReceiptLine line : lines) {
+            quantityFlushed = quantityFlushed.add(line.getQuantity());
+        }
+        linesFlushed += lines.size();
+    }
+
+    private static final class Pending {
+        private BigDecimal quantity = BigDecimal.ZERO;
+        private BigDecimal unitCost;
+    }
+
+    private static final class Key {
+        private final UUID orderLineId;
+        private final String batchNumber;
+        private final LocalDate expirationDate;
+
+        private Key(UUID orderLineId, String batchNumber, LocalDate expirationDate) {
+            this.orderLineId = orderLineId;
+            this.batchNumber = batchNumber;
+            this.expirationDate = expirationDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return orderLineId.equals(other.orderLineId)
+                    && batchNumber.equals(other.batchNumber)
+                    && expirationDate.equals(other.expirationDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderLineId, batchNumber, expirationDate);
+        }
+    }
+}
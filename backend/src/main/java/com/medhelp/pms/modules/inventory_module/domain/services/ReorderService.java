@@ -0,0 +1,226 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.application.dtos.LowStockItemDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.ReorderRunDto;
+import com.medhelp.pms.modules.inventory_module.application.dtos.SupplierPriceDto;
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryItem;
+import com.medhelp.pms.modules.inventory_module.domain.entities.Supplier;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryItemRepository;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.SupplierRepository;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ReorderCandidate;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.SupplierQuote;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository.DraftOrder;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository.DraftOrderLine;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drafts purchase orders for low-stock items, grouped by the cheapest active supplier per NDC.
+ * <p>
+ * Runs are serialized across nodes with a transaction advisory lock, so the open-order
+ * check of a run always sees the drafts committed by the previous one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderService {
+
+    private final LowStockIndex lowStockIndex;
+    private final ReorderJdbcRepository reorderJdbcRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final SupplierRepository supplierRepository;
+    private final SupplierPriceIndex supplierPriceIndex;
+    private final AdvisoryLocks advisoryLocks;
+
+    @Value("${inventory.reorder.enabled:true}")
+    private boolean autoReorderEnabled;
+
+    @Value("${inventory.reorder.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Items currently at or below their reorder point
+     */
+    @Transactional(readOnly = true)
+    public List<LowStockItemDto> getLowStockItems() {
+        List<LowStockItemDto> items = new ArrayList<>();
+        for (InventoryItem item : inventoryItemRepository.findAllById(lowStockIndex.snapshot())) {
+            BigDecimal available = item.getQuantityOnHand().subtract(item.getQuantityReserved());
+            items.add(LowStockItemDto.builder()
+                    .inventoryItemId(item.getId())
+                    .medicationId(item.getMedicationId())
+                    .ndcCode(item.getNdcCode())
+                    .quantityOnHand(item.getQuantityOnHand())
+                    .quantityReserved(item.getQuantityReserved())
+                    .reorderPoint(item.getReorderPoint())
+                    .reorderQuantity(item.getReorderQuantity())
+                    .recommendedAction(available.signum() <= 0 ? "Reorder immediately" : "Reorder")
+                    .build());
+        }
+        return items;
+    }
+
+    /**
+     * Draft purchase orders for every low-stock item that has no open order yet
+     */
+    @Transactional
+    public ReorderRunDto draftPurchaseOrders() {
+        advisoryLocks.lockForTransaction("inventory.reorder", "draft");
+
+        Set<UUID> lowStockIds = lowStockIndex.snapshot();
+        if (lowStockIds.isEmpty()) {
+            return ReorderRunDto.builder().poNumbers(List.of()).build();
+        }
+
+        List<ReorderCandidate> candidates = reorderJdbcRepository.findCandidates(lowStockIds);
+        Map<UUID, Supplier> suppliers = supplierRepository.findByIsActiveTrue().stream()
+                .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+
+        // Each line goes to the active supplier with the lowest average price for its NDC; items
+        // never received go to the supplier of their last order at the item's unit cost
+        Map<UUID, List<DraftOrderLine>> linesBySupplier = new HashMap<>();
+        int withoutSupplier = 0;
+        for (ReorderCandidate candidate : candidates) {
+            SupplierQuote quote = supplierPriceIndex.cheapest(candidate.getNdcCode(), suppliers.keySet());
+            UUID supplierId = quote != null ? quote.getSupplierId() : candidate.getLastSupplierId();
+            if (supplierId == null || !suppliers.containsKey(supplierId)) {
+                withoutSupplier++;
+                continue;
+            }
+            BigDecimal unitPrice = quote != null ? quote.getAveragePrice()
+                    : candidate.getUnitCost() != null ? candidate.getUnitCost() : BigDecimal.ZERO;
+            linesBySupplier.computeIfAbsent(supplierId, id -> new ArrayList<>()).add(toLine(candidate, unitPrice));
+        }
+
+        List<UUID> acceptedSuppliers = new ArrayList<>();
+        int belowMinimum = 0;
+        for (Map.Entry<UUID, List<DraftOrderLine>> entry : linesBySupplier.entrySet()) {
+            Supplier supplier = suppliers.get(entry.getKey());
+            BigDecimal subtotal = subtotal(entry.getValue());
+            if (supplier.getMinimumOrderAmount() != null && subtotal.compareTo(supplier.getMinimumOrderAmount()) < 0) {
+                // Left in the low-stock index; retried once more items from this supplier need ordering
+                log.debug("Holding {} lines for supplier {}: subtotal {} below minimum {}", entry.getValue().size(),
+                        supplier.getName(), subtotal, supplier.getMinimumOrderAmount());
+                belowMinimum += entry.getValue().size();
+                continue;
+            }
+            acceptedSuppliers.add(entry.getKey());
+        }
+
+        if (acceptedSuppliers.isEmpty()) {
+            return ReorderRunDto.builder()
+                    .lowStockItems(lowStockIds.size())
+                    .itemsWithoutSupplier(withoutSupplier)
+                    .itemsBelowSupplierMinimum(belowMinimum)
+                    .poNumbers(List.of())
+                    .build();
+        }
+
+        List<String> poNumbers = reorderJdbcRepository.nextPurchaseOrderNumbers(acceptedSuppliers.size());
+        List<DraftOrder> orders = new ArrayList<>(acceptedSuppliers.size());
+        int itemsOrdered = 0;
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < acceptedSuppliers.size(); i++) {
+            List<DraftOrderLine> lines = linesBySupplier.get(acceptedSuppliers.get(i));
+            orders.add(new DraftOrder(UUID.randomUUID(), poNumbers.get(i), acceptedSuppliers.get(i), today,
+                    subtotal(lines), "Drafted automatically from reorder points", lines));
+            itemsOrdered += lines.size();
+        }
+
+        reorderJdbcRepository.insertDraftOrders(orders, SecurityUtils.getCurrentUserIdOrSystem(), batchSize);
+
+        log.info("Drafted {} purchase orders covering {} low-stock items", orders.size(), itemsOrdered);
+
+        return ReorderRunDto.builder()
+                .lowStockItems(lowStockIds.size())
+                .purchaseOrdersCreated(orders.size())
+                .itemsOrdered(itemsOrdered)
+                .itemsWithoutSupplier(withoutSupplier)
+                .itemsBelowSupplierMinimum(belowMinimum)
+                .poNumbers(poNumbers)
+                .build();
+    }
+
+    /**
+     * Draft purchase orders (scheduled task)
+     */
+    @Scheduled(cron = "${inventory.reorder.cron:0 0 6 * * *}")
+    @Transactional
+    public void draftPurchaseOrdersScheduled() {
+        if (autoReorderEnabled) {
+            draftPurchaseOrders();
+        }
+    }
+
+    /**
+     * Price comparison of every supplier that has supplied an NDC, cheapest first
+     */
+    @Transactional(readOnly = true)
+    public List<SupplierPriceDto> getSupplierPrices(String ndcCode) {
+        List<SupplierQuote> quotes = supplierPriceIndex.quotes(ndcCode);
+        Map<UUID, Supplier> suppliers = supplierRepository.findAllById(
+                        quotes.stream().map(SupplierQuote::getSupplierId).toList()).stream()
+                .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+
+        List<SupplierPriceDto> prices = new ArrayList<>(quotes.size());
+        for (SupplierQuote quote : quotes) {
+            Supplier supplier = suppliers.get(quote.getSupplierId());
+            prices.add(SupplierPriceDto.builder()
+                    .supplierId(quote.getSupplierId())
+                    .supplierName(supplier != null ? supplier.getName() : null)
+                    .supplierActive(supplier != null && !Boolean.FALSE.equals(supplier.getIsActive()))
+                    .latestPrice(quote.getLatestPrice())
+                    .averagePrice(quote.getAveragePrice())
+                    .observations(quote.getObservations())
+                    .build());
+        }
+        return prices;
+    }
+
+    private DraftOrderLine toLine(ReorderCandidate candidate, BigDecimal unitPrice) {
+        BigDecimal quantity = orderQuantity(candidate);
+        return new DraftOrderLine(candidate.getInventoryItemId(), candidate.getNdcCode(),
+                candidate.getMedicationName(), quantity, unitPrice,
+                quantity.multiply(unitPrice).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Economic order quantity when known, otherwise the reorder quantity,
+     * but always enough to bring stock back up to the reorder point
+     */
+    private BigDecimal orderQuantity(ReorderCandidate candidate) {
+        BigDecimal base = candidate.getEconomicOrderQuantity() != null
+                && candidate.getEconomicOrderQuantity().signum() > 0
+                ? candidate.getEconomicOrderQuantity()
+                : candidate.getReorderQuantity();
+        BigDecimal deficit = candidate.getReorderPoint().subtract(candidate.getQuantityAvailable());
+        return base.max(deficit);
+    }
+
+    private BigDecimal subtotal(List<DraftOrderLine> lines) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (DraftOrderLine line : lines) {
+            subtotal = subtotal.add(line.getTotalPrice());
+        }
+        return subtotal;
+    }
+}
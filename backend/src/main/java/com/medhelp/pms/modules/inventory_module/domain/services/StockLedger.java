@@ -0,0 +1,389 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryItemRepository;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stock counters per inventory item.
+ * <p>
+ * On the node that owns the ledger, reservations and fills only touch a counter guarded
+ * by one of a fixed set of lock stripes, so concurrent fills of the same popular NDC never
+ * queue on the inventory_items row lock. Every change is also appended to the stock ledger
+ * journal in the caller's transaction, so it is as durable as the reservation or inventory
+ * transaction it belongs to; StockLedgerFlusher applies committed journal rows to
+ * inventory_items in batches.
+ * <p>
+ * Changes that take stock away are applied to the counter straight away and undone if the
+ * transaction rolls back; changes that give stock back only once it commits, so a
+ * reservation can never be granted from stock that is not there.
+ * <p>
+ * Only one node owns the ledger at a time (see StockLedgerFlusher). Every other node,
+ * and the owner before it has taken over, writes the same changes to inventory_items
+ * directly. The owner re-reads the stored quantities on every flush, so its counters
+ * pick those writes up.
+ * <p>
+ * Quantities are kept as hundredths of a unit to match the DECIMAL(10,2) columns.
+ * Counters with no unapplied changes are evicted after they have been idle for a while
+ * and reloaded on next use.
+ */
+@Component
+@Slf4j
+public class StockLedger {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final StockLedgerJdbcRepository stockLedgerJdbcRepository;
+    private final Object[] stripes;
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> unapplied = new ConcurrentHashMap<>();
+
+    private final long idleEvictMillis;
+    private volatile boolean owner;
+
+    public StockLedger(InventoryItemRepository inventoryItemRepository,
+                       StockLedgerJdbcRepository stockLedgerJdbcRepository,
+                       @Value("${inventory.ledger.stripes:64}") int stripeCount,
+                       @Value("${inventory.ledger.idle-evict-minutes:30}") long idleEvictMinutes) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.stockLedgerJdbcRepository = stockLedgerJdbcRepository;
+        this.idleEvictMillis = idleEvictMinutes * 60_000;
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Reserve stock if enough is available (on hand minus already reserved)
+     *
+     * @return false when the item does not have enough available stock
+     */
+    public boolean tryReserve(UUID inventoryItemId, BigDecimal quantity) {
+        if (!owner) {
+            return stockLedgerJdbcRepository.reserveDirect(inventoryItemId, quantity)
+                    .orElseThrow(() -> new EntityNotFoundException("InventoryItem", inventoryItemId.toString()));
+        }
+        return record(inventoryItemId, 0, toUnits(quantity), true) != null;
+    }
+
+    /**
+     * Return previously reserved stock to the available pool
+     */
+    public void release(UUID inventoryItemId, BigDecimal quantity) {
+        apply(inventoryItemId, 0, -toUnits(quantity));
+    }
+
+    /**
+     * Turn a reservation into a physical deduction (fill)
+     */
+    public StockMovement consume(UUID inventoryItemId, BigDecimal quantity) {
+        long units = toUnits(quantity);
+        return apply(inventoryItemId, -units, -units);
+    }
+
+    /**
+     * Add received stock to the quantity on hand
+     */
+    public StockMovement receive(UUID inventoryItemId, BigDecimal quantity) {
+        return apply(inventoryItemId, toUnits(quantity), 0);
+    }
+
+    /**
+     * Correct the quantity on hand by a signed difference (count adjustment)
+     */
+    public StockMovement adjust(UUID inventoryItemId, BigDecimal difference) {
+        return apply(inventoryItemId, toUnits(difference), 0);
+    }
+
+    /**
+     * Quantity on hand minus reserved, including changes not yet applied to inventory_items
+     */
+    public BigDecimal available(UUID inventoryItemId) {
+        if (!owner) {
+            return stockLedgerJdbcRepository.findAvailable(inventoryItemId)
+                    .orElseThrow(() -> new EntityNotFoundException("InventoryItem", inventoryItemId.toString()));
+        }
+        while (true) {
+            Counter counter = counter(inventoryItemId);
+            synchronized (stripe(inventoryItemId)) {
+                if (counter.evicted) {
+                    continue;
+                }
+                return fromUnits(counter.onHand - counter.reserved);
+            }
+        }
+    }
+
+    /**
+     * Start serving changes from memory (this node took ledger ownership). The journal must
+     * have been applied to inventory_items first, so counters load complete quantities.
+     */
+    public void becomeOwner() {
+        clear();
+        owner = true;
+    }
+
+    /**
+     * Go back to writing changes directly (ownership given up). Journal rows still
+     * unapplied stay in the database for the next owner.
+     */
+    public void resign() {
+        owner = false;
+        clear();
+    }
+
+    public boolean isOwner() {
+        return owner;
+    }
+
+    /**
+     * Forget changes whose journal rows the flusher has applied to inventory_items
+     */
+    public void applied(Collection<Long> journalIds) {
+        for (Long journalId : journalIds) {
+            Entry entry = unapplied.remove(journalId);
+            if (entry == null) {
+                continue;
+            }
+            synchronized (stripe(entry.inventoryItemId)) {
+                entry.applied = true;
+                entry.counter.entries.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Items that currently have a counter in memory
+     */
+    public Set<UUID> cachedItemIds() {
+        return new HashSet<>(counters.keySet());
+    }
+
+    /**
+     * Reset counters to the stored quantities plus the changes not applied to them yet,
+     * picking up writes other nodes made directly. Levels hold on hand and reserved.
+     */
+    public void rebase(Map<UUID, BigDecimal[]> levels) {
+        for (Map.Entry<UUID, BigDecimal[]> level : levels.entrySet()) {
+            UUID inventoryItemId = level.getKey();
+            Counter counter = counters.get(inventoryItemId);
+            if (counter == null) {
+                continue;
+            }
+            synchronized (stripe(inventoryItemId)) {
+                if (counter.evicted) {
+                    continue;
+                }
+                long onHand = toUnits(level.getValue()[0]);
+                long reserved = toUnits(level.getValue()[1]);
+                for (Entry entry : counter.entries) {
+                    if (entry.inMemory) {
+                        onHand += entry.onHandDelta;
+                        reserved += entry.reservedDelta;
+                    }
+                }
+                counter.onHand = onHand;
+                counter.reserved = reserved;
+            }
+        }
+    }
+
+    /**
+     * Drop counters that have no unapplied changes and have not been used recently
+     *
+     * @return the number of counters evicted
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMillis;
+        int evicted = 0;
+        for (Map.Entry<UUID, Counter> entry : counters.entrySet()) {
+            UUID inventoryItemId = entry.getKey();
+            Counter counter = entry.getValue();
+            synchronized (stripe(inventoryItemId)) {
+                if (counter.touchedAt > cutoff || !counter.entries.isEmpty()) {
+                    continue;
+                }
+                counter.evicted = true;
+                counters.remove(inventoryItemId, counter);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Number of counters currently held in memory
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    private StockMovement apply(UUID inventoryItemId, long onHandDelta, long reservedDelta) {
+        if (!owner) {
+            return stockLedgerJdbcRepository.applyDirect(inventoryItemId, fromUnits(onHandDelta),
+                            fromUnits(reservedDelta))
+                    .orElseThrow(() -> new EntityNotFoundException("InventoryItem", inventoryItemId.toString()));
+        }
+        Entry entry = record(inventoryItemId, onHandDelta, reservedDelta, false);
+        return new StockMovement(fromUnits(entry.onHandBefore), fromUnits(entry.onHandBefore + onHandDelta));
+    }
+
+    private Entry record(UUID inventoryItemId, long onHandDelta, long reservedDelta, boolean checkAvailable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock ledger changes must be made inside a transaction");
+        }
+        Entry entry;
+        while (true) {
+            Counter counter = counter(inventoryItemId);
+            synchronized (stripe(inventoryItemId)) {
+                // Evicted between lookup and lock: reload so the change is not applied to a dropped counter
+                if (counter.evicted) {
+                    continue;
+                }
+                if (checkAvailable && counter.onHand - counter.reserved < reservedDelta) {
+                    return null;
+                }
+                entry = new Entry(counter, inventoryItemId, onHandDelta, reservedDelta, counter.onHand);
+                if (onHandDelta - reservedDelta <= 0) {
+                    entry.inMemory = true;
+                    counter.onHand += onHandDelta;
+                    counter.reserved += reservedDelta;
+                }
+                counter.entries.add(entry);
+                counter.touchedAt = System.currentTimeMillis();
+                break;
+            }
+        }
+
+        Entry recorded = entry;
+        TransactionCallbacks.afterRollback(() -> rolledBack(recorded));
+        if (!entry.inMemory) {
+            TransactionCallbacks.afterCommit(() -> committed(recorded));
+        }
+        entry.journalId = stockLedgerJdbcRepository.append(inventoryItemId, fromUnits(onHandDelta),
+                fromUnits(reservedDelta));
+        unapplied.put(entry.journalId, entry);
+        return entry;
+    }
+
+    private void committed(Entry entry) {
+        synchronized (stripe(entry.inventoryItemId)) {
+            // Already applied and rebased by a flush that ran before this callback
+            if (entry.applied || entry.inMemory) {
+                return;
+            }
+            entry.inMemory = true;
+            entry.counter.onHand += entry.onHandDelta;
+            entry.counter.reserved += entry.reservedDelta;
+        }
+    }
+
+    private void rolledBack(Entry entry) {
+        if (entry.journalId != null) {
+            unapplied.remove(entry.journalId);
+        }
+        synchronized (stripe(entry.inventoryItemId)) {
+            entry.counter.entries.remove(entry);
+            if (entry.inMemory) {
+                entry.inMemory = false;
+                entry.counter.onHand -= entry.onHandDelta;
+                entry.counter.reserved -= entry.reservedDelta;
+            }
+        }
+    }
+
+    private void clear() {
+        List<UUID> inventoryItemIds = new ArrayList<>(counters.keySet());
+        for (UUID inventoryItemId : inventoryItemIds) {
+            synchronized (stripe(inventoryItemId)) {
+                Counter counter = counters.remove(inventoryItemId);
+                if (counter != null) {
+                    counter.evicted = true;
+                }
+            }
+        }
+        unapplied.clear();
+    }
+
+    private Counter counter(UUID inventoryItemId) {
+        Counter counter = counters.get(inventoryItemId);
+        if (counter != null) {
+            return counter;
+        }
+        // Load outside of any stripe lock; if two threads race, the first put wins
+        InventoryItemRepository.StockLevelView level = inventoryItemRepository.findStockLevelById(inventoryItemId)
+                .orElseThrow(() -> new EntityNotFoundException("InventoryItem", inventoryItemId.toString()));
+        Counter loaded = new Counter(toUnits(level.getQuantityOnHand()), toUnits(level.getQuantityReserved()));
+        Counter existing = counters.putIfAbsent(inventoryItemId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Object stripe(UUID inventoryItemId) {
+        return stripes[(inventoryItemId.hashCode() & 0x7fffffff) % stripes.length];
+    }
+
+    public static long toUnits(BigDecimal quantity) {
+        if (quantity == null) {
+            return 0;
+        }
+        return quantity.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, 2);
+    }
+
+    private static final class Counter {
+        private long onHand;
+        private long reserved;
+        private long touchedAt;
+        private boolean evicted;
+        private final Set<Entry> entries = new HashSet<>();
+
+        private Counter(long onHand, long reserved) {
+            this.onHand = onHand;
+            this.reserved = reserved;
+            this.touchedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * One change recorded by the owner, kept until its journal row is applied or rolled back
+     */
+    private static final class Entry {
+        private final Counter counter;
+        private final UUID inventoryItemId;
+        private final long onHandDelta;
+        private final long reservedDelta;
+        private final long onHandBefore;
+        private Long journalId;
+        private boolean inMemory;
+        private boolean applied;
+
+        private Entry(Counter counter, UUID inventoryItemId, long onHandDelta, long reservedDelta,
+                      long onHandBefore) {
+            this.counter = counter;
+            this.inventoryItemId = inventoryItemId;
+            this.onHandDelta = onHandDelta;
+            this.reservedDelta = reservedDelta;
+            this.onHandBefore = onHandBefore;
+        }
+    }
+}
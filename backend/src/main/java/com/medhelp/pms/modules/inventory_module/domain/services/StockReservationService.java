@@ -0,0 +1,188 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryBatch;
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryItem;
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryTransaction;
+import com.medhelp.pms.modules.inventory_module.domain.entities.StockReservation;
+import com.medhelp.pms.modules.inventory_module.domain.events.BatchQuantityChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryBatchRepository;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryItemRepository;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryTransactionRepository;
+import com.medhelp.pms.modules.inventory_module.domain.repositories.StockReservationRepository;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.InventoryTransactionType;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ReservationStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.InventoryBatchJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockLedger stockLedger;
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final InventoryBatchJdbcRepository inventoryBatchJdbcRepository;
+    private final ExpiryCalendar expiryCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.reservation.ttl-minutes:240}")
+    private long reservationTtlMinutes;
+
+    @Value("${inventory.reservation.expiry-batch-size:500}")
+    private int expiryBatchSize;
+
+    /**
+     * Create a soft reservation (prescription validated)
+     */
+    @Transactional
+    public StockReservation reserve(UUID inventoryItemId, BigDecimal quantity, String referenceType, UUID referenceId) {
+        if (quantity == null || quantity.signum() <= 0) {
+            throw new ValidationException("quantity", "Reserved quantity must be positive", quantity);
+        }
+
+        if (!stockLedger.tryReserve(inventoryItemId, quantity)) {
+            throw new BusinessException("INSUFFICIENT_STOCK",
+                    "Insufficient available stock for inventory item: " + inventoryItemId);
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setInventoryItem(inventoryItemRepository.getReferenceById(inventoryItemId));
+        reservation.setQuantity(quantity);
+        reservation.setStatus(ReservationStatus.ACTIVE.getCode());
+        reservation.setReferenceType(referenceType);
+        reservation.setReferenceId(referenceId);
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(reservationTtlMinutes));
+        reservation.setReservedBy(SecurityUtils.getCurrentUser());
+        reservation.setCreatedAt(LocalDateTime.now());
+
+        log.debug("Reserved {} of inventory item {} for {} {}", quantity, inventoryItemId, referenceType, referenceId);
+        return stockReservationRepository.save(reservation);
+    }
+
+    /**
+     * Deduct reserved stock (prescription filled), drawing from the first-expiring batches
+     */
+    @Transactional
+    public List<InventoryTransaction> consume(UUID reservationId) {
+        StockReservation reservation = lockActive(reservationId);
+        InventoryItem item = reservation.getInventoryItem();
+        UUID inventoryItemId = item.getId();
+        BigDecimal quantity = reservation.getQuantity();
+
+        StockMovement movement = stockLedger.consume(inventoryItemId, quantity);
+
+        reservation.setStatus(ReservationStatus.CONSUMED.getCode());
+        reservation.setConsumedAt(LocalDateTime.now());
+
+        // One transaction per batch drawn from, chained so before/after still add up per item
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        BigDecimal before = movement.getQuantityBefore();
+        BigDecimal outstanding = quantity;
+        for (ExpiringBatch batch : expiryCalendar.availableBatches(inventoryItemId, LocalDate.now())) {
+            if (outstanding.signum() <= 0) {
+                break;
+            }
+            BigDecimal portion = outstanding.min(batch.getQuantityRemaining());
+            Optional<BigDecimal> remaining = inventoryBatchJdbcRepository.decrementRemaining(
+                    batch.getInventoryBatchId(), portion);
+            if (remaining.isEmpty()) {
+                continue;
+            }
+            eventPublisher.publishEvent(new BatchQuantityChangedEvent(batch.getInventoryBatchId(), remaining.get()));
+            transactions.add(dispensed(item, inventoryBatchRepository.getReferenceById(batch.getInventoryBatchId()),
+                    reservation, portion, before));
+            before = before.subtract(portion);
+            outstanding = outstanding.subtract(portion);
+        }
+        if (outstanding.signum() > 0) {
+            // Stock not tracked in any batch
+            transactions.add(dispensed(item, null, reservation, outstanding, before));
+        }
+
+        return inventoryTransactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * Give reserved stock back (prescription rejected or cancelled)
+     */
+    @Transactional
+    public void release(UUID reservationId) {
+        StockReservation reservation = lockActive(reservationId);
+        reservation.setStatus(ReservationStatus.RELEASED.getCode());
+        reservation.setReleasedAt(LocalDateTime.now());
+
+        stockLedger.release(reservation.getInventoryItem().getId(), reservation.getQuantity());
+    }
+
+    /**
+     * Expire reservations whose TTL has passed (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-ms:60000}")
+    @Transactional
+    public void expireReservations() {
+        List<StockReservation> expired = stockReservationRepository.lockExpired(LocalDateTime.now(), expiryBatchSize);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (StockReservation reservation : expired) {
+            reservation.setStatus(ReservationStatus.EXPIRED.getCode());
+            reservation.setReleasedAt(now);
+            stockLedger.release(reservation.getInventoryItem().getId(), reservation.getQuantity());
+        }
+
+        log.info("Expired {} stock reservations", expired.size());
+    }
+
+    private InventoryTransaction dispensed(InventoryItem item, InventoryBatch batch, StockReservation reservation,
+                                           BigDecimal quantity, BigDecimal quantityBefore) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setInventoryItem(item);
+        transaction.setBatch(batch);
+        transaction.setTransactionType(InventoryTransactionType.DISPENSED.getCode());
+        transaction.setQuantityChange(quantity.negate());
+        transaction.setQuantityBefore(quantityBefore);
+        transaction.setQuantityAfter(quantityBefore.subtract(quantity));
+        transaction.setReferenceType(reservation.getReferenceType());
+        transaction.setReferenceId(reservation.getReferenceId());
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setPerformedBy(SecurityUtils.getCurrentUser());
+        transaction.setCreatedAt(LocalDateTime.now());
+        return transaction;
+    }
+
+    private StockReservation lockActive(UUID reservationId) {
+        StockReservation reservation = stockReservationRepository.findByIdForUpdate(reservationId)
+                .orElseThrow(() -> new EntityNotFoundException("StockReservation", reservationId.toString()));
+
+        if (!reservation.isActive()) {
+            throw new BusinessException("RESERVATION_NOT_ACTIVE",
+                    "Stock reservation is " + reservation.getStatus());
+        }
+        return reservation;
+    }
+}
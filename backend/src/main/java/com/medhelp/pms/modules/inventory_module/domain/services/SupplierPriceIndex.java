@@ -0,0 +1,139 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.SupplierQuote;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest and moving-average unit price per NDC and supplier.
+ * <p>
+ * Prices come from one source: the agreed unit price of a purchase order line, observed
+ * once when the line is first received. The index is loaded from received lines at
+ * startup and fed the same observation after each receiving flush commits, so a restart
+ * yields the same prices as a long-running node.
+ * <p>
+ * Suppliers are compared on the moving average rather than the latest price, so a single
+ * promotional price does not win every following order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SupplierPriceIndex {
+
+    private static final int PRICE_SCALE = 4;
+
+    private final ReorderJdbcRepository reorderJdbcRepository;
+
+    // NDC -> supplier id -> price history
+    private final Map<String, Map<UUID, PriceHistory>> prices = new ConcurrentHashMap<>();
+
+    @Value("${inventory.supplier-prices.average-window:10}")
+    private int averageWindow;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int[] lines = {0};
+        reorderJdbcRepository.forEachReceivedPrice(price -> {
+            record(price.getNdcCode(), price.getSupplierId(), price.getUnitPrice());
+            lines[0]++;
+        });
+        log.info("Supplier price index loaded from {} received purchase order lines: {} NDCs", lines[0],
+                prices.size());
+    }
+
+    /**
+     * Record a price paid; the average weighs roughly the last averageWindow prices
+     */
+    public void record(String ndcCode, UUID supplierId, BigDecimal unitPrice) {
+        if (ndcCode == null || supplierId == null || unitPrice == null || unitPrice.signum() <= 0) {
+            return;
+        }
+        BigDecimal price = unitPrice.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        Map<UUID, PriceHistory> bySupplier = prices.computeIfAbsent(ndcCode, ndc -> new HashMap<>(4));
+        synchronized (bySupplier) {
+            bySupplier.computeIfAbsent(supplierId, id -> new PriceHistory()).add(price, averageWindow);
+        }
+    }
+
+    /**
+     * Lowest average price for an NDC among the given suppliers, ties broken by latest price
+     *
+     * @return the cheapest quote, or null if none of the suppliers has supplied the NDC
+     */
+    public SupplierQuote cheapest(String ndcCode, Set<UUID> eligibleSupplierIds) {
+        Map<UUID, PriceHistory> bySupplier = prices.get(ndcCode);
+        if (bySupplier == null) {
+            return null;
+        }
+        SupplierQuote best = null;
+        synchronized (bySupplier) {
+            for (Map.Entry<UUID, PriceHistory> entry : bySupplier.entrySet()) {
+                if (!eligibleSupplierIds.contains(entry.getKey())) {
+                    continue;
+                }
+                SupplierQuote quote = entry.getValue().toQuote(entry.getKey());
+                if (best == null || QUOTE_ORDER.compare(quote, best) < 0) {
+                    best = quote;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * All supplier quotes for an NDC, cheapest first
+     */
+    public List<SupplierQuote> quotes(String ndcCode) {
+        Map<UUID, PriceHistory> bySupplier = prices.get(ndcCode);
+        if (bySupplier == null) {
+            return List.of();
+        }
+        List<SupplierQuote> quotes = new ArrayList<>(bySupplier.size());
+        synchronized (bySupplier) {
+            bySupplier.forEach((supplierId, history) -> quotes.add(history.toQuote(supplierId)));
+        }
+        quotes.sort(QUOTE_ORDER);
+        return quotes;
+    }
+
+    private static final Comparator<SupplierQuote> QUOTE_ORDER = Comparator
+            .comparing(SupplierQuote::getAveragePrice)
+            .thenComparing(SupplierQuote::getLatestPrice);
+
+    /**
+     * Prices observed for one NDC from one supplier (guarded by the per-NDC map)
+     */
+    private static final class PriceHistory {
+        private BigDecimal latest;
+        private BigDecimal average;
+        private long observations;
+
+        void add(BigDecimal price, int window) {
+            observations++;
+            latest = price;
+            // Cumulative average until the window fills, exponential moving average after that
+            average = average == null ? price : average.add(price.subtract(average)
+                    .divide(BigDecimal.valueOf(Math.min(observations, window)), PRICE_SCALE, RoundingMode.HALF_UP));
+        }
+
+        SupplierQuote toQuote(UUID supplierId) {
+            return new SupplierQuote(supplierId, latest, average, observations);
+        }
+    }
+}
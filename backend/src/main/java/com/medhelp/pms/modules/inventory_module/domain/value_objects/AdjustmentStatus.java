@@ -0,0 +1,17 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+public enum AdjustmentStatus {
+    PENDING_APPROVAL("pending_approval"),
+    APPLIED("applied"),
+    REJECTED("rejected");
+
+    private final String code;
+
+    AdjustmentStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
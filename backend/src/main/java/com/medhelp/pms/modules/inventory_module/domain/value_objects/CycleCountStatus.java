@@ -0,0 +1,17 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+public enum CycleCountStatus {
+    OPEN("open"),
+    POSTED("posted"),
+    CANCELLED("cancelled");
+
+    private final String code;
+
+    CycleCountStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@Builder(toBuilder = true)
+public class ExpiringBatch {
+    private final UUID inventoryBatchId;
+    private final UUID inventoryItemId;
+    private final UUID medicationId;
+    private final String ndcCode;
+    private final String batchNumber;
+    private final LocalDate expirationDate;
+    private final BigDecimal quantityRemaining;
+    private final BigDecimal unitCost;
+}
@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.util.Arrays;
+
+public enum ForecastMethod {
+    EXPONENTIAL_SMOOTHING("ses"),
+    MOVING_AVERAGE("sma");
+
+    private final String code;
+
+    ForecastMethod(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static ForecastMethod fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(method -> method.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("method", "Unknown forecast method", code));
+    }
+}
@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+public enum InventoryTransactionType {
+    RECEIVED("received"),
+    DISPENSED("dispensed"),
+    ADJUSTED("adjusted"),
+    EXPIRED("expired");
+
+    private final String code;
+
+    InventoryTransactionType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,29 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import java.util.List;
+
+public enum PurchaseOrderStatus {
+    DRAFT("draft"),
+    PENDING("pending"),
+    SENT("sent"),
+    PARTIALLY_RECEIVED("partially_received"),
+    RECEIVED("received"),
+    CANCELLED("cancelled");
+
+    private final String code;
+
+    PurchaseOrderStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Statuses of orders that are still expected to deliver stock
+     */
+    public static List<String> openCodes() {
+        return List.of(DRAFT.code, PENDING.code, SENT.code, PARTIALLY_RECEIVED.code);
+    }
+}
@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Low-stock inventory item considered for an automatic purchase order.
+ */
+@Getter
+@Builder
+public class ReorderCandidate {
+    private final UUID inventoryItemId;
+    private final String ndcCode;
+    private final String medicationName;
+    private final BigDecimal quantityAvailable;
+    private final BigDecimal reorderPoint;
+    private final BigDecimal reorderQuantity;
+    private final BigDecimal economicOrderQuantity;
+    private final BigDecimal unitCost;
+    private final UUID lastSupplierId;
+}
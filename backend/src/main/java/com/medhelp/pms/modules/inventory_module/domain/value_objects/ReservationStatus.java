@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+public enum ReservationStatus {
+    ACTIVE("active"),
+    CONSUMED("consumed"),
+    RELEASED("released"),
+    EXPIRED("expired");
+
+    private final String code;
+
+    ReservationStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * On-hand quantity before and after a single ledger movement.
+ */
+@Getter
+@AllArgsConstructor
+public class StockMovement {
+    private final BigDecimal quantityBefore;
+    private final BigDecimal quantityAfter;
+
+    public BigDecimal getQuantityChange() {
+        return quantityAfter.subtract(quantityBefore);
+    }
+}
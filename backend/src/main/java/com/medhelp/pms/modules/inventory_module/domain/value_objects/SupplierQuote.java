@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Latest and rolling-average unit price one supplier charged for one NDC.
+ */
+@Getter
+@AllArgsConstructor
+public class SupplierQuote {
+    private final UUID supplierId;
+    private final BigDecimal latestPrice;
+    private final BigDecimal averagePrice;
+    private final long observations;
+}
@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.inventory_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.util.Arrays;
+
+public enum ValuationMethod {
+    FIFO("fifo"),
+    AVERAGE("average");
+
+    private final String code;
+
+    ValuationMethod(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static ValuationMethod fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(method -> method.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("method", "Unknown valuation method", code));
+    }
+}
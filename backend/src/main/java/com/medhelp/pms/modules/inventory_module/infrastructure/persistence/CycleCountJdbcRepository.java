@@ -0,0 +1,390 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.AdjustmentStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.CycleCountStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.InventoryTransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-based reads and batched writes for cycle counts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CycleCountJdbcRepository {
+
+    private static final String ADJUSTMENT_TYPE = "cycle_count";
+
+    private static final String SELECT_ADJUSTMENTS =
+            "SELECT a.id, a.cycle_count_id, a.inventory_item_id, i.ndc_code, a.quantity_expected, a.quantity_actual, " +
+                    "a.status, a.performed_by, a.created_at " +
+                    "FROM inventory_schema.stock_adjustments a " +
+                    "JOIN inventory_schema.inventory_items i ON i.id = a.inventory_item_id ";
+
+    private static final RowMapper<AdjustmentRecord> ADJUSTMENT_MAPPER = (rs, rowNum) -> new AdjustmentRecord(
+            rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class), rs.getString(4),
+            rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getString(7), rs.getObject(8, UUID.class),
+            rs.getTimestamp(9).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create a count and snapshot the expected quantity of every active item in scope
+     *
+     * @return the number of items to count
+     */
+    public int createCount(UUID cycleCountId, String binLocationPrefix, UUID startedBy) {
+        jdbcTemplate.update(
+                "INSERT INTO inventory_schema.cycle_counts (id, status, bin_location_prefix, started_by) " +
+                        "VALUES (?, ?, ?, ?)",
+                cycleCountId, CycleCountStatus.OPEN.getCode(), binLocationPrefix, startedBy);
+
+        int items = binLocationPrefix == null
+                ? jdbcTemplate.update(
+                "INSERT INTO inventory_schema.cycle_count_lines " +
+                        "(cycle_count_id, inventory_item_id, ndc_code, quantity_expected) " +
+                        "SELECT ?, i.id, i.ndc_code, " +
+                        "i.quantity_on_hand + " + StockLedgerJdbcRepository.JOURNAL_ON_HAND + " " +
+                        "FROM inventory_schema.inventory_items i " +
+                        "WHERE i.is_active = true",
+                cycleCountId)
+                : jdbcTemplate.update(
+                "INSERT INTO inventory_schema.cycle_count_lines " +
+                        "(cycle_count_id, inventory_item_id, ndc_code, quantity_expected) " +
+                        "SELECT ?, i.id, i.ndc_code, " +
+                        "i.quantity_on_hand + " + StockLedgerJdbcRepository.JOURNAL_ON_HAND + " " +
+                        "FROM inventory_schema.inventory_items i " +
+                        "WHERE i.is_active = true AND i.bin_location LIKE ?",
+                cycleCountId, binLocationPrefix + "%");
+
+        jdbcTemplate.update("UPDATE inventory_schema.cycle_counts SET item_count = ? WHERE id = ?", items, cycleCountId);
+        return items;
+    }
+
+    public Optional<CountHeader> findCount(UUID cycleCountId, boolean forUpdate) {
+        return jdbcTemplate.query(
+                "SELECT id, status, bin_location_prefix, item_count, adjustment_count, started_at, posted_at " +
+                        "FROM inventory_schema.cycle_counts WHERE id = ?" + (forUpdate ? " FOR UPDATE" : ""),
+                (rs, rowNum) -> new CountHeader(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+                        rs.getInt(4), (Integer) rs.getObject(5),
+                        rs.getTimestamp(6).toLocalDateTime(),
+                        rs.getTimestamp(7) != null ? rs.getTimestamp(7).toLocalDateTime() : null),
+                cycleCountId).stream().findFirst();
+    }
+
+    /**
+     * Inventory item id per NDC for the items in a count
+     */
+    public Map<String, UUID> findItemIdsByNdc(UUID cycleCountId) {
+        Map<String, UUID> itemIds = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT ndc_code, inventory_item_id FROM inventory_schema.cycle_count_lines WHERE cycle_count_id = ?",
+                rs -> {
+                    itemIds.put(rs.getString(1), rs.getObject(2, UUID.class));
+                },
+                cycleCountId);
+        return itemIds;
+    }
+
+    /**
+     * Record counted quantities; a later count of the same item replaces the earlier one
+     *
+     * @return the number of entries that matched an item of the count
+     */
+    public int recordCounts(UUID cycleCountId, List<CountedQuantity> counts, LocalDateTime countedAt, int batchSize) {
+        int[][] updated = jdbcTemplate.batchUpdate(
+                "UPDATE inventory_schema.cycle_count_lines SET quantity_counted = ?, counted_at = ? " +
+                        "WHERE cycle_count_id = ? AND inventory_item_id = ?",
+                counts, batchSize, (ps, count) -> {
+                    ps.setBigDecimal(1, count.getQuantity());
+                    ps.setTimestamp(2, Timestamp.valueOf(countedAt));
+                    ps.setObject(3, cycleCountId);
+                    ps.setObject(4, count.getInventoryItemId());
+                });
+
+        int matched = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Counted lines whose quantity differs from the snapshot
+     */
+    public List<CountVariance> findVariances(UUID cycleCountId) {
+        return jdbcTemplate.query(
+                "SELECT inventory_item_id, quantity_expected, quantity_counted " +
+                        "FROM inventory_schema.cycle_count_lines " +
+                        "WHERE cycle_count_id = ? AND quantity_counted IS NOT NULL " +
+                        "AND quantity_counted <> quantity_expected",
+                (rs, rowNum) -> new CountVariance(rs.getObject(1, UUID.class), rs.getBigDecimal(2),
+                        rs.getBigDecimal(3)),
+                cycleCountId);
+    }
+
+    /**
+     * Insert one stock adjustment per variance. Adjustments needing approval are left
+     * unapproved; applied ones are never marked approved by the person who counted.
+     */
+    public void insertAdjustments(UUID cycleCountId, List<CountVariance> variances, AdjustmentStatus status,
+                                  String reason, UUID performedBy, LocalDateTime postedAt, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.stock_adjustments (id, inventory_item_id, adjustment_type, " +
+                        "quantity_expected, quantity_actual, quantity_difference, reason, requires_approval, status, " +
+                        "cycle_count_id, adjustment_date, performed_by, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                variances, batchSize, (ps, variance) -> {
+                    ps.setObject(1, variance.getAdjustmentId());
+                    ps.setObject(2, variance.getInventoryItemId());
+                    ps.setString(3, ADJUSTMENT_TYPE);
+                    ps.setBigDecimal(4, variance.getQuantityExpected());
+                    ps.setBigDecimal(5, variance.getQuantityCounted());
+                    ps.setBigDecimal(6, variance.getDifference());
+                    ps.setString(7, reason);
+                    ps.setBoolean(8, status == AdjustmentStatus.PENDING_APPROVAL);
+                    ps.setString(9, status.getCode());
+                    ps.setObject(10, cycleCountId);
+                    ps.setDate(11, Date.valueOf(postedAt.toLocalDate()));
+                    ps.setObject(12, performedBy);
+                    ps.setTimestamp(13, Timestamp.valueOf(postedAt));
+                });
+    }
+
+    /**
+     * Lock the batches of the given items, earliest expiration first
+     */
+    public Map<UUID, List<BatchBalance>> lockBatches(Collection<UUID> inventoryItemIds) {
+        Map<UUID, List<BatchBalance>> batches = new HashMap<>();
+        if (inventoryItemIds.isEmpty()) {
+            return batches;
+        }
+        jdbcTemplate.query(
+                "SELECT id, inventory_item_id, expiration_date, quantity_remaining " +
+                        "FROM inventory_schema.inventory_batches WHERE inventory_item_id = ANY(?) " +
+                        "ORDER BY inventory_item_id, expiration_date, id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", inventoryItemIds.toArray())),
+                rs -> {
+                    UUID inventoryItemId = rs.getObject(2, UUID.class);
+                    batches.computeIfAbsent(inventoryItemId, id -> new ArrayList<>()).add(new BatchBalance(
+                            rs.getObject(1, UUID.class), inventoryItemId, rs.getDate(3).toLocalDate(),
+                            rs.getBigDecimal(4)));
+                });
+        return batches;
+    }
+
+    /**
+     * Apply the batch portions of adjustments to quantity_remaining (batches must be locked)
+     */
+    public void adjustBatches(List<VarianceAllocation> allocations, int batchSize) {
+        List<VarianceAllocation> batched = new ArrayList<>();
+        for (VarianceAllocation allocation : allocations) {
+            if (allocation.getBatchId() != null) {
+                batched.add(allocation);
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_schema.inventory_batches SET quantity_remaining = quantity_remaining + ? WHERE id = ?",
+                batched, batchSize, (ps, allocation) -> {
+                    ps.setBigDecimal(1, allocation.getQuantity());
+                    ps.setObject(2, allocation.getBatchId());
+                });
+    }
+
+    /**
+     * Insert one adjusted transaction per allocation; the before/after quantities chain per item
+     */
+    public void insertTransactions(UUID cycleCountId, List<VarianceAllocation> allocations, String reason,
+                                   UUID performedBy, LocalDateTime postedAt, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.inventory_transactions (inventory_item_id, batch_id, transaction_type, " +
+                        "quantity_change, quantity_before, quantity_after, reference_type, reference_id, reason, " +
+                        "transaction_date, performed_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                allocations, batchSize, (ps, allocation) -> {
+                    ps.setObject(1, allocation.getInventoryItemId());
+                    ps.setObject(2, allocation.getBatchId());
+                    ps.setString(3, InventoryTransactionType.ADJUSTED.getCode());
+                    ps.setBigDecimal(4, allocation.getQuantity());
+                    ps.setBigDecimal(5, allocation.getQuantityBefore());
+                    ps.setBigDecimal(6, allocation.getQuantityBefore().add(allocation.getQuantity()));
+                    ps.setString(7, ADJUSTMENT_TYPE);
+                    ps.setObject(8, cycleCountId);
+                    ps.setString(9, reason);
+                    ps.setTimestamp(10, Timestamp.valueOf(postedAt));
+                    ps.setObject(11, performedBy);
+                });
+    }
+
+    /**
+     * Cycle count adjustments waiting for approval, oldest first
+     */
+    public List<AdjustmentRecord> findPendingAdjustments(int limit) {
+        return jdbcTemplate.query(SELECT_ADJUSTMENTS + "WHERE a.status = ? ORDER BY a.created_at LIMIT ?",
+                ADJUSTMENT_MAPPER, AdjustmentStatus.PENDING_APPROVAL.getCode(), limit);
+    }
+
+    public Optional<AdjustmentRecord> findAdjustmentForUpdate(UUID adjustmentId) {
+        return jdbcTemplate.query(SELECT_ADJUSTMENTS + "WHERE a.id = ? AND a.adjustment_type = ? FOR UPDATE OF a",
+                ADJUSTMENT_MAPPER, adjustmentId, ADJUSTMENT_TYPE).stream().findFirst();
+    }
+
+    public void markApproved(UUID adjustmentId, UUID approvedBy, LocalDateTime approvedAt) {
+        jdbcTemplate.update(
+                "UPDATE inventory_schema.stock_adjustments SET status = ?, approved_by = ?, approved_at = ? WHERE id = ?",
+                AdjustmentStatus.APPLIED.getCode(), approvedBy, Timestamp.valueOf(approvedAt), adjustmentId);
+    }
+
+    public void markRejected(UUID adjustmentId, UUID rejectedBy, LocalDateTime rejectedAt) {
+        jdbcTemplate.update(
+                "UPDATE inventory_schema.stock_adjustments SET status = ?, rejected_by = ?, rejected_at = ? WHERE id = ?",
+                AdjustmentStatus.REJECTED.getCode(), rejectedBy, Timestamp.valueOf(rejectedAt), adjustmentId);
+    }
+
+    /**
+     * Number of adjustments of a count still waiting for approval
+     */
+    public int countPendingAdjustments(UUID cycleCountId) {
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_schema.stock_adjustments WHERE cycle_count_id = ? AND status = ?",
+                Integer.class, cycleCountId, AdjustmentStatus.PENDING_APPROVAL.getCode());
+        return pending != null ? pending : 0;
+    }
+
+    /**
+     * Stamp last_counted_at on every counted item and close the count
+     */
+    public void markPosted(UUID cycleCountId, int adjustmentCount, UUID postedBy, LocalDateTime postedAt) {
+        jdbcTemplate.update(
+                "UPDATE inventory_schema.inventory_items i SET last_counted_at = l.counted_at " +
+                        "FROM inventory_schema.cycle_count_lines l " +
+                        "WHERE l.cycle_count_id = ? AND l.inventory_item_id = i.id AND l.quantity_counted IS NOT NULL",
+                cycleCountId);
+        jdbcTemplate.update(
+                "UPDATE inventory_schema.cycle_counts SET status = ?, adjustment_count = ?, posted_at = ?, posted_by = ? " +
+                        "WHERE id = ?",
+                CycleCountStatus.POSTED.getCode(), adjustmentCount, Timestamp.valueOf(postedAt), postedBy,
+                cycleCountId);
+    }
+
+    public void markCancelled(UUID cycleCountId) {
+        jdbcTemplate.update("UPDATE inventory_schema.cycle_counts SET status = ? WHERE id = ?",
+                CycleCountStatus.CANCELLED.getCode(), cycleCountId);
+    }
+
+    /**
+     * Number of lines with a counted quantity
+     */
+    public int countCounted(UUID cycleCountId) {
+        Integer counted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_schema.cycle_count_lines " +
+                        "WHERE cycle_count_id = ? AND quantity_counted IS NOT NULL",
+                Integer.class, cycleCountId);
+        return counted != null ? counted : 0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CountHeader {
+        private final UUID id;
+        private final String status;
+        private final String binLocationPrefix;
+        private final int itemCount;
+        private final Integer adjustmentCount;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime postedAt;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CountedQuantity {
+        private final UUID inventoryItemId;
+        private final BigDecimal quantity;
+    }
+
+    @Getter
+    public static class CountVariance {
+        private final UUID adjustmentId;
+        private final UUID inventoryItemId;
+        private final BigDecimal quantityExpected;
+        private final BigDecimal quantityCounted;
+        private BigDecimal quantityBefore;
+
+        public CountVariance(UUID inventoryItemId, BigDecimal quantityExpected, BigDecimal quantityCounted) {
+            this(UUID.randomUUID(), inventoryItemId, quantityExpected, quantityCounted);
+        }
+
+        public CountVariance(UUID adjustmentId, UUID inventoryItemId, BigDecimal quantityExpected,
+                             BigDecimal quantityCounted) {
+            this.adjustmentId = adjustmentId;
+            this.inventoryItemId = inventoryItemId;
+            this.quantityExpected = quantityExpected;
+            this.quantityCounted = quantityCounted;
+        }
+
+        public BigDecimal getDifference() {
+            return quantityCounted.subtract(quantityExpected);
+        }
+
+        public void assignQuantityBefore(BigDecimal quantityBefore) {
+            this.quantityBefore = quantityBefore;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BatchBalance {
+        private final UUID batchId;
+        private final UUID inventoryItemId;
+        private final LocalDate expirationDate;
+        private final BigDecimal quantityRemaining;
+    }
+
+    /**
+     * Portion of a variance applied to one batch, or to untracked stock when batchId is null
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VarianceAllocation {
+        private final UUID inventoryItemId;
+        private final UUID batchId;
+        private final BigDecimal quantity;
+        private final BigDecimal quantityBefore;
+        private final BigDecimal batchRemainingAfter;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AdjustmentRecord {
+        private final UUID id;
+        private final UUID cycleCountId;
+        private final UUID inventoryItemId;
+        private final String ndcCode;
+        private final BigDecimal quantityExpected;
+        private final BigDecimal quantityCounted;
+        private final String status;
+        private final UUID performedBy;
+        private final LocalDateTime createdAt;
+    }
+}
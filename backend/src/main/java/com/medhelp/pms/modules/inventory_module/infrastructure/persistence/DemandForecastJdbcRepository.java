@@ -0,0 +1,106 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.InventoryTransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reads of dispensing history and batched writes of reorder parameters.
+ */
+@Repository
+public class DemandForecastJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public DemandForecastJdbcRepository(DataSource dataSource,
+                                        @Value("${inventory.forecast.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Active items with their unit cost
+     */
+    public List<ItemCost> findActiveItems() {
+        return jdbcTemplate.query(
+                "SELECT id, unit_cost FROM inventory_schema.inventory_items WHERE is_active = true",
+                (rs, rowNum) -> new ItemCost(rs.getObject(1, UUID.class), rs.getBigDecimal(2)));
+    }
+
+    /**
+     * Stream dispensed quantity per item and day since the given date, day 0 being that date.
+     * Must run inside a transaction so the result is read through a server-side cursor.
+     */
+    public void streamDailyDispensed(LocalDate since, Consumer<DailyDemand> consumer) {
+        streamingJdbcTemplate.query(
+                "SELECT inventory_item_id, (transaction_date::date - ?::date), SUM(-quantity_change)::float8 " +
+                        "FROM inventory_schema.inventory_transactions " +
+                        "WHERE transaction_type = ? AND transaction_date >= ? AND inventory_item_id IS NOT NULL " +
+                        "GROUP BY 1, 2",
+                rs -> {
+                    consumer.accept(new DailyDemand(rs.getObject(1, UUID.class), rs.getInt(2), rs.getDouble(3)));
+                },
+                Date.valueOf(since), InventoryTransactionType.DISPENSED.getCode(), Date.valueOf(since));
+    }
+
+    /**
+     * Write recomputed EOQ and reorder points; a null EOQ keeps the stored value
+     */
+    public void updateReorderParameters(UUID[] itemIds, double[] eoq, double[] reorderPoints, int batchSize) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < itemIds.length; i++) {
+            if (Double.isNaN(reorderPoints[i])) {
+                continue;
+            }
+            rows.add(new Object[]{
+                    Double.isNaN(eoq[i]) ? null : toQuantity(eoq[i]),
+                    toQuantity(reorderPoints[i]),
+                    itemIds[i]});
+        }
+
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_schema.inventory_items " +
+                        "SET economic_order_quantity = COALESCE(?, economic_order_quantity), " +
+                        "reorder_point = ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ?",
+                rows, batchSize, (ps, row) -> {
+                    ps.setBigDecimal(1, (BigDecimal) row[0]);
+                    ps.setBigDecimal(2, (BigDecimal) row[1]);
+                    ps.setObject(3, row[2]);
+                });
+    }
+
+    private static BigDecimal toQuantity(double value) {
+        return BigDecimal.valueOf(value).setScale(0, RoundingMode.CEILING).setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ItemCost {
+        private final UUID inventoryItemId;
+        private final BigDecimal unitCost;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DailyDemand {
+        private final UUID inventoryItemId;
+        private final int dayIndex;
+        private final double quantity;
+    }
+}
@@ -0,0 +1,68 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to inventory batches for the expiry calendar and batch-level stock movements.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryBatchJdbcRepository {
+
+    private static final String SELECT_BATCHES =
+            "SELECT b.id, b.inventory_item_id, i.medication_id, i.ndc_code, b.batch_number, " +
+                    "b.expiration_date, b.quantity_remaining, b.unit_cost " +
+                    "FROM inventory_schema.inventory_batches b " +
+                    "JOIN inventory_schema.inventory_items i ON i.id = b.inventory_item_id ";
+
+    private static final RowMapper<ExpiringBatch> BATCH_MAPPER = (rs, rowNum) -> ExpiringBatch.builder()
+            .inventoryBatchId(rs.getObject(1, UUID.class))
+            .inventoryItemId(rs.getObject(2, UUID.class))
+            .medicationId(rs.getObject(3, UUID.class))
+            .ndcCode(rs.getString(4))
+            .batchNumber(rs.getString(5))
+            .expirationDate(rs.getDate(6).toLocalDate())
+            .quantityRemaining(rs.getBigDecimal(7))
+            .unitCost(rs.getBigDecimal(8))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stream every batch that still has stock
+     */
+    public void forEachAvailableBatch(Consumer<ExpiringBatch> consumer) {
+        jdbcTemplate.query(SELECT_BATCHES + "WHERE b.quantity_remaining > 0",
+                rs -> {
+                    consumer.accept(BATCH_MAPPER.mapRow(rs, 0));
+                });
+    }
+
+    public Optional<ExpiringBatch> findById(UUID inventoryBatchId) {
+        return jdbcTemplate.query(SELECT_BATCHES + "WHERE b.id = ?", BATCH_MAPPER, inventoryBatchId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Take quantity out of a batch if it still holds that much
+     *
+     * @return the remaining quantity, or empty if the batch holds less than requested
+     */
+    public Optional<BigDecimal> decrementRemaining(UUID inventoryBatchId, BigDecimal quantity) {
+        List<BigDecimal> remaining = jdbcTemplate.queryForList(
+                "UPDATE inventory_schema.inventory_batches SET quantity_remaining = quantity_remaining - ? " +
+                        "WHERE id = ? AND quantity_remaining >= ? RETURNING quantity_remaining",
+                BigDecimal.class, quantity, inventoryBatchId, quantity);
+        return remaining.stream().findFirst();
+    }
+}
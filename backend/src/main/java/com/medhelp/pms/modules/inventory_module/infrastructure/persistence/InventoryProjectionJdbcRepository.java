@@ -0,0 +1,140 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryProjection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access for the inventory projection: streaming replay of inventory_transactions
+ * and reading/writing projection snapshots.
+ * <p>
+ * Replays must run inside a transaction so that PostgreSQL uses a server-side cursor
+ * and honours the fetch size instead of materializing the whole result set.
+ */
+@Repository
+public class InventoryProjectionJdbcRepository {
+
+    private static final String SELECT_TRANSACTIONS =
+            "SELECT inventory_item_id, batch_id, (quantity_change * 100)::bigint " +
+                    "FROM inventory_schema.inventory_transactions " +
+                    "WHERE inventory_item_id IS NOT NULL AND transaction_date <= ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public InventoryProjectionJdbcRepository(DataSource dataSource,
+                                             @Value("${inventory.projection.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Replay transactions in (after, upTo] into the projection, in transaction_date order
+     */
+    public void replay(InventoryProjection projection, LocalDateTime after, LocalDateTime upTo) {
+        if (after == null) {
+            streamingJdbcTemplate.query(SELECT_TRANSACTIONS + "ORDER BY transaction_date, id",
+                    rs -> {
+                        projection.apply(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getLong(3));
+                    },
+                    Timestamp.valueOf(upTo));
+        } else {
+            streamingJdbcTemplate.query(SELECT_TRANSACTIONS + "AND transaction_date > ? ORDER BY transaction_date, id",
+                    rs -> {
+                        projection.apply(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getLong(3));
+                    },
+                    Timestamp.valueOf(upTo), Timestamp.valueOf(after));
+        }
+        projection.setAsOf(upTo);
+    }
+
+    /**
+     * Load the latest snapshot taken at or before the given time
+     */
+    public Optional<InventoryProjection> loadLatestSnapshot(LocalDateTime notAfter) {
+        List<Object[]> headers = jdbcTemplate.query(
+                "SELECT id, as_of, transaction_count FROM inventory_schema.inventory_snapshots " +
+                        "WHERE as_of <= ? ORDER BY as_of DESC LIMIT 1",
+                (rs, rowNum) -> new Object[]{
+                        rs.getObject(1, UUID.class), rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3)},
+                Timestamp.valueOf(notAfter));
+        if (headers.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] header = headers.get(0);
+        InventoryProjection projection = new InventoryProjection((LocalDateTime) header[1]);
+        projection.setTransactionCount((Long) header[2]);
+
+        streamingJdbcTemplate.query(
+                "SELECT inventory_item_id, batch_id, (quantity * 100)::bigint " +
+                        "FROM inventory_schema.inventory_snapshot_balances WHERE snapshot_id = ?",
+                rs -> {
+                    UUID inventoryItemId = rs.getObject(1, UUID.class);
+                    UUID batchId = rs.getObject(2, UUID.class);
+                    if (batchId == null) {
+                        projection.seedItem(inventoryItemId, rs.getLong(3));
+                    } else {
+                        projection.seedBatch(inventoryItemId, batchId, rs.getLong(3));
+                    }
+                },
+                header[0]);
+        return Optional.of(projection);
+    }
+
+    /**
+     * Persist the projection as a new snapshot
+     *
+     * @return the snapshot id
+     */
+    public UUID saveSnapshot(InventoryProjection projection, int batchSize) {
+        UUID snapshotId = UUID.randomUUID();
+        jdbcTemplate.update(
+                "INSERT INTO inventory_schema.inventory_snapshots (id, as_of, transaction_count) VALUES (?, ?, ?)",
+                snapshotId, Timestamp.valueOf(projection.getAsOf()), projection.getTransactionCount());
+
+        List<Object[]> rows = new ArrayList<>(projection.itemIds().size() + projection.batchIds().size());
+        for (UUID inventoryItemId : projection.itemIds()) {
+            rows.add(new Object[]{snapshotId, inventoryItemId, null, projection.itemQuantity(inventoryItemId)});
+        }
+        for (UUID batchId : projection.batchIds()) {
+            rows.add(new Object[]{snapshotId, projection.batchItem(batchId), batchId, projection.batchQuantity(batchId)});
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.inventory_snapshot_balances " +
+                        "(snapshot_id, inventory_item_id, batch_id, quantity) VALUES (?, ?, ?, ? / 100.0)",
+                rows, batchSize, (ps, row) -> {
+                    ps.setObject(1, row[0]);
+                    ps.setObject(2, row[1]);
+                    ps.setObject(3, row[2]);
+                    ps.setLong(4, (Long) row[3]);
+                });
+        return snapshotId;
+    }
+
+    /**
+     * Quantity on hand currently recorded on each inventory item, in hundredths
+     */
+    public Map<UUID, Long> loadRecordedItemQuantities() {
+        Map<UUID, Long> quantities = new HashMap<>();
+        streamingJdbcTemplate.query(
+                "SELECT id, (quantity_on_hand * 100)::bigint FROM inventory_schema.inventory_items",
+                rs -> {
+                    quantities.put(rs.getObject(1, UUID.class), rs.getLong(2));
+                });
+        return quantities;
+    }
+}
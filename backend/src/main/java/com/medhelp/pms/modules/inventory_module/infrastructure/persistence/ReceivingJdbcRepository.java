@@ -0,0 +1,260 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.InventoryTransactionType;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.PurchaseOrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-based reads and batched writes used when receiving purchase orders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReceivingJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Purchase order number and status
+     */
+    public Optional<OrderHeader> findOrder(UUID purchaseOrderId) {
+        return jdbcTemplate.query(
+                "SELECT id, po_number, status, supplier_id FROM inventory_schema.purchase_orders WHERE id = ?",
+                (rs, rowNum) -> new OrderHeader(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+                        rs.getObject(4, UUID.class)),
+                purchaseOrderId).stream().findFirst();
+    }
+
+    /**
+     * Lines of a purchase order that are linked to an inventory item
+     */
+    public List<OrderLine> findOrderLines(UUID purchaseOrderId) {
+        return jdbcTemplate.query(
+                "SELECT id, inventory_item_id, ndc_code, quantity_ordered, COALESCE(quantity_received, 0), unit_price " +
+                        "FROM inventory_schema.purchase_order_items " +
+                        "WHERE purchase_order_id = ? AND inventory_item_id IS NOT NULL",
+                (rs, rowNum) -> new OrderLine(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                        rs.getString(3), rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6)),
+                purchaseOrderId);
+    }
+
+    /**
+     * Ids of existing batches matching the receipt lines by item, lot and expiration date
+     */
+    public Map<String, UUID> findBatchIds(Collection<ReceiptLine> lines) {
+        List<UUID> itemIds = new ArrayList<>();
+        List<String> batchNumbers = new ArrayList<>();
+        for (ReceiptLine line : lines) {
+            itemIds.add(line.getInventoryItemId());
+            batchNumbers.add(line.getBatchNumber());
+        }
+
+        Map<String, UUID> batchIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, inventory_item_id, batch_number, expiration_date FROM inventory_schema.inventory_batches " +
+                        "WHERE inventory_item_id IN (:itemIds) AND batch_number IN (:batchNumbers)",
+                new MapSqlParameterSource()
+                        .addValue("itemIds", itemIds)
+                        .addValue("batchNumbers", batchNumbers),
+                rs -> {
+                    batchIds.put(batchKey(rs.getObject(2, UUID.class), rs.getString(3), rs.getDate(4).toLocalDate()),
+                            rs.getObject(1, UUID.class));
+                });
+        return batchIds;
+    }
+
+    /**
+     * Add received quantities to existing batches
+     */
+    public void addToBatches(List<ReceiptLine> lines, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_schema.inventory_batches " +
+                        "SET quantity_received = quantity_received + ?, quantity_remaining = quantity_remaining + ? " +
+                        "WHERE id = ?",
+                lines, batchSize, (ps, line) -> {
+                    ps.setBigDecimal(1, line.getQuantity());
+                    ps.setBigDecimal(2, line.getQuantity());
+                    ps.setObject(3, line.getBatchId());
+                });
+    }
+
+    /**
+     * Insert batches for lots not seen before
+     */
+    public void insertBatches(List<ReceiptLine> lines, UUID receivedBy, LocalDate receivedDate, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.inventory_batches (id, inventory_item_id, batch_number, expiration_date, " +
+                        "quantity_received, quantity_remaining, unit_cost, received_date, received_by) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                lines, batchSize, (ps, line) -> {
+                    ps.setObject(1, line.getBatchId());
+                    ps.setObject(2, line.getInventoryItemId());
+                    ps.setString(3, line.getBatchNumber());
+                    ps.setDate(4, Date.valueOf(line.getExpirationDate()));
+                    ps.setBigDecimal(5, line.getQuantity());
+                    ps.setBigDecimal(6, line.getQuantity());
+                    ps.setBigDecimal(7, line.getUnitCost());
+                    ps.setDate(8, Date.valueOf(receivedDate));
+                    ps.setObject(9, receivedBy);
+                });
+    }
+
+    /**
+     * Remaining quantity of the given batches
+     */
+    public Map<UUID, BigDecimal> findRemainingQuantities(Collection<UUID> batchIds) {
+        Map<UUID, BigDecimal> remaining = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, quantity_remaining FROM inventory_schema.inventory_batches WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", batchIds),
+                rs -> {
+                    remaining.put(rs.getObject(1, UUID.class), rs.getBigDecimal(2));
+                });
+        return remaining;
+    }
+
+    /**
+     * Insert one received transaction per receipt line
+     */
+    public void insertTransactions(List<ReceiptLine> lines, UUID purchaseOrderId, UUID performedBy,
+                                   LocalDateTime transactionDate, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.inventory_transactions (inventory_item_id, batch_id, transaction_type, " +
+                        "quantity_change, quantity_before, quantity_after, reference_type, reference_id, " +
+                        "transaction_date, performed_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                lines, batchSize, (ps, line) -> {
+                    ps.setObject(1, line.getInventoryItemId());
+                    ps.setObject(2, line.getBatchId());
+                    ps.setString(3, InventoryTransactionType.RECEIVED.getCode());
+                    ps.setBigDecimal(4, line.getQuantity());
+                    ps.setBigDecimal(5, line.getQuantityBefore());
+                    ps.setBigDecimal(6, line.getQuantityBefore().add(line.getQuantity()));
+                    ps.setString(7, "purchase_order");
+                    ps.setObject(8, purchaseOrderId);
+                    ps.setTimestamp(9, Timestamp.valueOf(transactionDate));
+                    ps.setObject(10, performedBy);
+                });
+    }
+
+    /**
+     * Add received quantities to the purchase order lines, leaving lines that would end
+     * up above their ordered quantity untouched
+     *
+     * @return the number of lines left untouched
+     */
+    public int addReceivedQuantities(Map<UUID, BigDecimal> quantitiesByOrderLine, int batchSize) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE inventory_schema.purchase_order_items " +
+                        "SET quantity_received = COALESCE(quantity_received, 0) + ? " +
+                        "WHERE id = ? AND COALESCE(quantity_received, 0) + ? <= quantity_ordered",
+                quantitiesByOrderLine.entrySet(), batchSize, (ps, entry) -> {
+                    ps.setBigDecimal(1, entry.getValue());
+                    ps.setObject(2, entry.getKey());
+                    ps.setBigDecimal(3, entry.getValue());
+                });
+        int refused = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    refused++;
+                }
+            }
+        }
+        return refused;
+    }
+
+    /**
+     * Mark the order received once every line is fully received, partially received otherwise
+     *
+     * @return the new status code
+     */
+    public String updateReceivedStatus(UUID purchaseOrderId, LocalDate deliveryDate) {
+        return jdbcTemplate.queryForObject(
+                "UPDATE inventory_schema.purchase_orders po SET " +
+                        "status = CASE WHEN EXISTS (SELECT 1 FROM inventory_schema.purchase_order_items poi " +
+                        "  WHERE poi.purchase_order_id = po.id " +
+                        "  AND COALESCE(poi.quantity_received, 0) < poi.quantity_ordered) THEN ? ELSE ? END, " +
+                        "actual_delivery_date = COALESCE(po.actual_delivery_date, ?), " +
+                        "updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE po.id = ? RETURNING po.status",
+                String.class,
+                PurchaseOrderStatus.PARTIALLY_RECEIVED.getCode(), PurchaseOrderStatus.RECEIVED.getCode(),
+                Date.valueOf(deliveryDate), purchaseOrderId);
+    }
+
+    public static String batchKey(UUID inventoryItemId, String batchNumber, LocalDate expirationDate) {
+        return inventoryItemId + "|" + batchNumber + "|" + expirationDate;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OrderHeader {
+        private final UUID id;
+        private final String poNumber;
+        private final String status;
+        private final UUID supplierId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OrderLine {
+        private final UUID id;
+        private final UUID inventoryItemId;
+        private final String ndcCode;
+        private final BigDecimal quantityOrdered;
+        private final BigDecimal quantityReceived;
+        private final BigDecimal unitPrice;
+    }
+
+    /**
+     * Received quantity of one lot of one purchase order line
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ReceiptLine {
+        private final UUID orderLineId;
+        private final UUID inventoryItemId;
+        private final String batchNumber;
+        private final LocalDate expirationDate;
+        private final BigDecimal quantity;
+        private final BigDecimal unitCost;
+        private UUID batchId;
+        private BigDecimal quantityBefore;
+
+        public ReceiptLine(UUID orderLineId, UUID inventoryItemId, String batchNumber, LocalDate expirationDate,
+                           BigDecimal quantity, BigDecimal unitCost) {
+            this(orderLineId, inventoryItemId, batchNumber, expirationDate, quantity, unitCost, null, null);
+        }
+
+        public String getBatchKey() {
+            return batchKey(inventoryItemId, batchNumber, expirationDate);
+        }
+
+        public void assignBatch(UUID batchId) {
+            this.batchId = batchId;
+        }
+
+        public void assignQuantityBefore(BigDecimal quantityBefore) {
+            this.quantityBefore = quantityBefore;
+        }
+    }
+}
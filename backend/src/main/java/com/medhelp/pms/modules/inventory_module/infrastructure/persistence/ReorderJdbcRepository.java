@@ -0,0 +1,199 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.PurchaseOrderStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ReorderCandidate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based reads and bulk writes used by the reorder engine.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReorderJdbcRepository {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private static final String SELECT_CANDIDATES =
+            "SELECT i.id, i.ndc_code, COALESCE(m.drug_name, i.ndc_code), " +
+                    "i.quantity_on_hand - i.quantity_reserved, i.reorder_point, i.reorder_quantity, " +
+                    "i.economic_order_quantity, i.unit_cost, last_po.supplier_id " +
+                    "FROM inventory_schema.inventory_items i " +
+                    "LEFT JOIN prescription_schema.medications m ON m.id = i.medication_id " +
+                    "LEFT JOIN LATERAL (" +
+                    "  SELECT po.supplier_id " +
+                    "  FROM inventory_schema.purchase_order_items poi " +
+                    "  JOIN inventory_schema.purchase_orders po ON po.id = poi.purchase_order_id " +
+                    "  WHERE poi.inventory_item_id = i.id AND po.supplier_id IS NOT NULL " +
+                    "  ORDER BY po.order_date DESC, po.created_at DESC LIMIT 1" +
+                    ") last_po ON true " +
+                    "WHERE i.id IN (:ids) AND i.is_active = true " +
+                    "AND NOT EXISTS (" +
+                    "  SELECT 1 FROM inventory_schema.purchase_order_items oi " +
+                    "  JOIN inventory_schema.purchase_orders op ON op.id = oi.purchase_order_id " +
+                    "  WHERE oi.inventory_item_id = i.id AND op.status IN (:openStatuses))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Stream reorder point and available quantity of every active item
+     */
+    public void forEachStockThreshold(Consumer<StockThreshold> consumer) {
+        jdbcTemplate.query(
+                "SELECT id, reorder_point, quantity_on_hand - quantity_reserved " +
+                        "FROM inventory_schema.inventory_items WHERE is_active = true",
+                rs -> {
+                    consumer.accept(new StockThreshold(rs.getObject(1, UUID.class),
+                            rs.getBigDecimal(2), rs.getBigDecimal(3)));
+                });
+    }
+
+    /**
+     * Stream the agreed unit price of every purchase order line that has been received,
+     * oldest delivery first
+     */
+    public void forEachReceivedPrice(Consumer<PurchasePrice> consumer) {
+        jdbcTemplate.query(
+                "SELECT poi.ndc_code, po.supplier_id, poi.unit_price " +
+                        "FROM inventory_schema.purchase_order_items poi " +
+                        "JOIN inventory_schema.purchase_orders po ON po.id = poi.purchase_order_id " +
+                        "WHERE po.supplier_id IS NOT NULL AND COALESCE(poi.quantity_received, 0) > 0 " +
+                        "ORDER BY COALESCE(po.actual_delivery_date, po.order_date), po.created_at",
+                rs -> {
+                    consumer.accept(new PurchasePrice(rs.getString(1), rs.getObject(2, UUID.class),
+                            rs.getBigDecimal(3)));
+                });
+    }
+
+    /**
+     * Low-stock items without an open purchase order, with the supplier of their last order
+     */
+    public List<ReorderCandidate> findCandidates(Collection<UUID> inventoryItemIds) {
+        List<UUID> ids = new ArrayList<>(inventoryItemIds);
+        List<ReorderCandidate> candidates = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size())))
+                    .addValue("openStatuses", PurchaseOrderStatus.openCodes());
+            candidates.addAll(namedParameterJdbcTemplate.query(SELECT_CANDIDATES, params, (rs, rowNum) ->
+                    ReorderCandidate.builder()
+                            .inventoryItemId(rs.getObject(1, UUID.class))
+                            .ndcCode(rs.getString(2))
+                            .medicationName(rs.getString(3))
+                            .quantityAvailable(rs.getBigDecimal(4))
+                            .reorderPoint(rs.getBigDecimal(5))
+                            .reorderQuantity(rs.getBigDecimal(6))
+                            .economicOrderQuantity(rs.getBigDecimal(7))
+                            .unitCost(rs.getBigDecimal(8))
+                            .lastSupplierId(rs.getObject(9, UUID.class))
+                            .build()));
+        }
+        return candidates;
+    }
+
+    /**
+     * Reserve a block of purchase order numbers in one round trip
+     */
+    public List<String> nextPurchaseOrderNumbers(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT 'PO' || lpad(nextval('inventory_schema.purchase_order_number_seq')::text, 8, '0') " +
+                        "FROM generate_series(1, ?)",
+                String.class, count);
+    }
+
+    /**
+     * Insert draft purchase orders and their lines with two batched statements
+     */
+    public void insertDraftOrders(List<DraftOrder> orders, UUID createdBy, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.purchase_orders " +
+                        "(id, po_number, supplier_id, order_date, status, subtotal, total_amount, notes, created_by) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                orders, batchSize, (ps, order) -> {
+                    ps.setObject(1, order.getId());
+                    ps.setString(2, order.getPoNumber());
+                    ps.setObject(3, order.getSupplierId());
+                    ps.setDate(4, Date.valueOf(order.getOrderDate()));
+                    ps.setString(5, PurchaseOrderStatus.DRAFT.getCode());
+                    ps.setBigDecimal(6, order.getSubtotal());
+                    ps.setBigDecimal(7, order.getSubtotal());
+                    ps.setString(8, order.getNotes());
+                    ps.setObject(9, createdBy);
+                });
+
+        List<Object[]> lines = new ArrayList<>();
+        for (DraftOrder order : orders) {
+            for (DraftOrderLine line : order.getLines()) {
+                lines.add(new Object[]{order.getId(), line});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.purchase_order_items " +
+                        "(purchase_order_id, inventory_item_id, ndc_code, medication_name, " +
+                        "quantity_ordered, unit_price, total_price) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                lines, batchSize, (ps, row) -> {
+                    DraftOrderLine line = (DraftOrderLine) row[1];
+                    ps.setObject(1, row[0]);
+                    ps.setObject(2, line.getInventoryItemId());
+                    ps.setString(3, line.getNdcCode());
+                    ps.setString(4, line.getMedicationName());
+                    ps.setBigDecimal(5, line.getQuantity());
+                    ps.setBigDecimal(6, line.getUnitPrice());
+                    ps.setBigDecimal(7, line.getTotalPrice());
+                });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StockThreshold {
+        private final UUID inventoryItemId;
+        private final BigDecimal reorderPoint;
+        private final BigDecimal quantityAvailable;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PurchasePrice {
+        private final String ndcCode;
+        private final UUID supplierId;
+        private final BigDecimal unitPrice;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DraftOrder {
+        private final UUID id;
+        private final String poNumber;
+        private final UUID supplierId;
+        private final LocalDate orderDate;
+        private final BigDecimal subtotal;
+        private final String notes;
+        private final List<DraftOrderLine> lines;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DraftOrderLine {
+        private final UUID inventoryItemId;
+        private final String ndcCode;
+        private final String medicationName;
+        private final BigDecimal quantity;
+        private final BigDecimal unitPrice;
+        private final BigDecimal totalPrice;
+    }
+}
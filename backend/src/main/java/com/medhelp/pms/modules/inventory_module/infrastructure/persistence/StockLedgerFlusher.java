@@ -0,0 +1,188 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.StockLevelChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.services.StockLedger;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Elects the stock ledger owner and applies the ledger journal to inventory_items.
+ * <p>
+ * Ownership is a session advisory lock. The node holding it serves reservations and fills
+ * from the in-memory ledger; every other node is a standby that writes stock changes to
+ * inventory_items directly and retries the lock periodically, so it takes over when the
+ * owner shuts down or its connection dies. Before taking over, a node applies whatever
+ * journal rows the previous owner left behind and recomputes quantity_reserved from the
+ * active stock_reservations.
+ * <p>
+ * Each flush applies committed journal rows in batches, each batch deleting its rows and
+ * updating the items in one transaction of its own. Deltas are applied relative to the
+ * stored value and bump the optimistic-lock version, so a JPA update based on a stale
+ * InventoryItem fails instead of overwriting the quantities. On a standby a flush does
+ * nothing, as its changes are already in inventory_items.
+ */
+@Component
+@Slf4j
+public class StockLedgerFlusher {
+
+    private static final String OWNER_LOCK_NAMESPACE = "inventory.stock-ledger";
+    private static final long EVICTION_INTERVAL_MS = 60_000;
+
+    private final StockLedger stockLedger;
+    private final StockLedgerJdbcRepository stockLedgerJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AdvisoryLocks advisoryLocks;
+    private AdvisoryLocks.SessionLock ownerLock;
+    private boolean shutDown;
+    private volatile long lastEvictionAt;
+
+    @Value("${inventory.ledger.flush-batch-size:500}")
+    private int batchSize;
+
+    public StockLedgerFlusher(StockLedger stockLedger, StockLedgerJdbcRepository stockLedgerJdbcRepository,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher, AdvisoryLocks advisoryLocks) {
+        this.stockLedger = stockLedger;
+        this.stockLedgerJdbcRepository = stockLedgerJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.advisoryLocks = advisoryLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Try to claim ledger ownership (on startup)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        claimOwnership();
+    }
+
+    /**
+     * Take over ledger ownership if no other node holds it (scheduled task on standbys)
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.owner-retry-ms:5000}",
+            initialDelayString = "${inventory.ledger.owner-retry-ms:5000}")
+    public synchronized void claimOwnership() {
+        if (ownerLock != null || shutDown) {
+            return;
+        }
+        Optional<AdvisoryLocks.SessionLock> lock = advisoryLocks.trySessionLock(OWNER_LOCK_NAMESPACE, "owner");
+        if (lock.isEmpty()) {
+            log.debug("Stock ledger is owned by another node; writing stock changes directly");
+            return;
+        }
+
+        ownerLock = lock.get();
+        try {
+            Set<UUID> changed = applyJournal();
+            Integer corrected = transactionTemplate.execute(status -> stockLedgerJdbcRepository.reconcileReserved());
+            stockLedger.becomeOwner();
+            log.info("Took stock ledger ownership; applied journal entries for {} inventory items", changed.size());
+            if (corrected != null && corrected > 0) {
+                log.warn("Reconciled quantity_reserved for {} inventory items from active reservations", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to take stock ledger ownership, will retry", e);
+            ownerLock.close();
+            ownerLock = null;
+        }
+    }
+
+    /**
+     * Apply committed journal rows to inventory_items (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (ownerLock == null) {
+            return;
+        }
+
+        Set<UUID> changed;
+        try {
+            changed = applyJournal();
+        } catch (RuntimeException e) {
+            log.error("Failed to apply the stock ledger journal, will retry", e);
+            return;
+        }
+
+        Set<UUID> itemIds = stockLedger.cachedItemIds();
+        itemIds.addAll(changed);
+        Map<UUID, BigDecimal[]> levels = stockLedgerJdbcRepository.findLevels(itemIds);
+        stockLedger.rebase(levels);
+        evictIdle();
+
+        if (!changed.isEmpty()) {
+            log.debug("Flushed stock changes for {} inventory items", changed.size());
+        }
+        for (UUID inventoryItemId : changed) {
+            BigDecimal[] level = levels.get(inventoryItemId);
+            if (level != null) {
+                eventPublisher.publishEvent(new StockLevelChangedEvent(inventoryItemId, level[0], level[1]));
+            }
+        }
+    }
+
+    private Set<UUID> applyJournal() {
+        Set<UUID> changed = new HashSet<>();
+        List<StockLedgerJdbcRepository.AppliedEntry> applied;
+        do {
+            applied = transactionTemplate.execute(status -> stockLedgerJdbcRepository.applyJournal(batchSize));
+            if (applied == null) {
+                break;
+            }
+            stockLedger.applied(applied.stream().map(StockLedgerJdbcRepository.AppliedEntry::getId).toList());
+            applied.forEach(entry -> changed.add(entry.getInventoryItemId()));
+        } while (applied.size() == batchSize);
+        return changed;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        if (now - lastEvictionAt < EVICTION_INTERVAL_MS) {
+            return;
+        }
+        lastEvictionAt = now;
+        int evicted = stockLedger.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle stock counters, {} remain", evicted, stockLedger.size());
+        }
+    }
+
+    /**
+     * Give up ownership: later changes go to inventory_items directly, and journal rows
+     * committed after the last flush are applied by the next owner
+     */
+    @PreDestroy
+    public synchronized void flushOnShutdown() {
+        shutDown = true;
+        stockLedger.resign();
+        try {
+            flush();
+        } finally {
+            if (ownerLock != null) {
+                ownerLock.close();
+                ownerLock = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ReservationStatus;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stock ledger writes: the journal the ledger owner writes in the caller's transaction, and the
+ * direct inventory_items updates other nodes make instead.
+ * <p>
+ * Quantities available to a direct write include journal rows the owner has committed but not
+ * yet applied, so a direct reservation does not take stock the owner already gave out.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerJdbcRepository {
+
+    private static final String JOURNAL_AVAILABLE =
+            "COALESCE((SELECT SUM(j.on_hand_delta - j.reserved_delta) FROM inventory_schema.stock_ledger_journal j " +
+                    "WHERE j.inventory_item_id = i.id), 0)";
+    static final String JOURNAL_ON_HAND =
+            "COALESCE((SELECT SUM(j.on_hand_delta) FROM inventory_schema.stock_ledger_journal j " +
+                    "WHERE j.inventory_item_id = i.id), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Record a ledger change in the surrounding transaction
+     *
+     * @return id of the journal row
+     */
+    public long append(UUID inventoryItemId, BigDecimal onHandDelta, BigDecimal reservedDelta) {
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO inventory_schema.stock_ledger_journal " +
+                        "(inventory_item_id, on_hand_delta, reserved_delta) VALUES (?, ?, ?) RETURNING id",
+                Long.class, inventoryItemId, onHandDelta, reservedDelta);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Apply up to limit committed journal rows to inventory_items and delete them
+     *
+     * @return the rows applied
+     */
+    public List<AppliedEntry> applyJournal(int limit) {
+        return jdbcTemplate.query(
+                "WITH applied AS (" +
+                        "  DELETE FROM inventory_schema.stock_ledger_journal WHERE id IN (" +
+                        "    SELECT id FROM inventory_schema.stock_ledger_journal ORDER BY id LIMIT ?) " +
+                        "  RETURNING id, inventory_item_id, on_hand_delta, reserved_delta), " +
+                        "totals AS (SELECT inventory_item_id, SUM(on_hand_delta) AS on_hand_delta, " +
+                        "  SUM(reserved_delta) AS reserved_delta FROM applied GROUP BY inventory_item_id), " +
+                        "updated AS (" +
+                        "  UPDATE inventory_schema.inventory_items i " +
+                        "  SET quantity_on_hand = i.quantity_on_hand + t.on_hand_delta, " +
+                        "  quantity_reserved = i.quantity_reserved + t.reserved_delta, " +
+                        "  version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "  FROM totals t WHERE i.id = t.inventory_item_id RETURNING i.id) " +
+                        "SELECT a.id, a.inventory_item_id FROM applied a ORDER BY a.id",
+                (rs, rowNum) -> new AppliedEntry(rs.getLong(1), rs.getObject(2, UUID.class)),
+                limit);
+    }
+
+    /**
+     * Stored on-hand and reserved quantities of the items
+     */
+    public Map<UUID, BigDecimal[]> findLevels(Collection<UUID> inventoryItemIds) {
+        Map<UUID, BigDecimal[]> levels = new HashMap<>();
+        if (inventoryItemIds.isEmpty()) {
+            return levels;
+        }
+        jdbcTemplate.query(
+                "SELECT id, quantity_on_hand, quantity_reserved FROM inventory_schema.inventory_items " +
+                        "WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", inventoryItemIds.toArray())),
+                rs -> {
+                    levels.put(rs.getObject(1, UUID.class),
+                            new BigDecimal[]{rs.getBigDecimal(2), rs.getBigDecimal(3)});
+                });
+        return levels;
+    }
+
+    /**
+     * Set quantity_reserved to the sum of the active reservations where it drifted
+     *
+     * @return number of items corrected
+     */
+    public int reconcileReserved() {
+        return jdbcTemplate.update(
+                "UPDATE inventory_schema.inventory_items i " +
+                        "SET quantity_reserved = r.reserved, version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM (SELECT ii.id, COALESCE(SUM(sr.quantity), 0) AS reserved " +
+                        "      FROM inventory_schema.inventory_items ii " +
+                        "      LEFT JOIN inventory_schema.stock_reservations sr " +
+                        "        ON sr.inventory_item_id = ii.id AND sr.status = ? " +
+                        "      GROUP BY ii.id) r " +
+                        "WHERE r.id = i.id AND i.quantity_reserved <> r.reserved",
+                ReservationStatus.ACTIVE.getCode());
+    }
+
+    /**
+     * Reserve stock directly on the item row if enough is available (non-owner nodes)
+     *
+     * @return empty if the item does not exist, false if it has too little available stock
+     */
+    public Optional<Boolean> reserveDirect(UUID inventoryItemId, BigDecimal quantity) {
+        int updated = jdbcTemplate.update(
+                "UPDATE inventory_schema.inventory_items i " +
+                        "SET quantity_reserved = i.quantity_reserved + ?, version = i.version + 1, " +
+                        "updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE i.id = ? AND i.quantity_on_hand - i.quantity_reserved + " + JOURNAL_AVAILABLE + " >= ?",
+                quantity, inventoryItemId, quantity);
+        if (updated > 0) {
+            return Optional.of(true);
+        }
+        return exists(inventoryItemId) ? Optional.of(false) : Optional.empty();
+    }
+
+    /**
+     * Change the item row's quantities directly (non-owner nodes)
+     *
+     * @return the on-hand quantity before and after, empty if the item does not exist
+     */
+    public Optional<StockMovement> applyDirect(UUID inventoryItemId, BigDecimal onHandDelta,
+                                               BigDecimal reservedDelta) {
+        return jdbcTemplate.query(
+                "UPDATE inventory_schema.inventory_items i " +
+                        "SET quantity_on_hand = i.quantity_on_hand + ?, quantity_reserved = i.quantity_reserved + ?, " +
+                        "version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE i.id = ? RETURNING i.quantity_on_hand + " + JOURNAL_ON_HAND,
+                (rs, rowNum) -> new StockMovement(rs.getBigDecimal(1).subtract(onHandDelta), rs.getBigDecimal(1)),
+                onHandDelta, reservedDelta, inventoryItemId).stream().findFirst();
+    }
+
+    /**
+     * On hand minus reserved, including journal rows not applied yet
+     */
+    public Optional<BigDecimal> findAvailable(UUID inventoryItemId) {
+        return jdbcTemplate.query(
+                "SELECT i.quantity_on_hand - i.quantity_reserved + " + JOURNAL_AVAILABLE + " " +
+                        "FROM inventory_schema.inventory_items i WHERE i.id = ?",
+                (rs, rowNum) -> rs.getBigDecimal(1), inventoryItemId).stream().findFirst();
+    }
+
+    private boolean exists(UUID inventoryItemId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM inventory_schema.inventory_items WHERE id = ?)",
+                Boolean.class, inventoryItemId));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AppliedEntry {
+        private final long id;
+        private final UUID inventoryItemId;
+    }
+}
@@ -0,0 +1,265 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.CategoryValue;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.ItemValuation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads and batched writes for the materialized inventory valuation.
+ * <p>
+ * Valuation rows carry the database clock time they were written at (clock_timestamp(), not
+ * the transaction start), so a node can pick up the rows other nodes wrote since it last read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ValuationJdbcRepository {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private static final String SELECT_ITEM_COSTS =
+            "SELECT i.id, COALESCE(m.therapeutic_class, 'Unclassified'), i.quantity_on_hand, " +
+                    "COALESCE(SUM(b.quantity_remaining * COALESCE(b.unit_cost, i.unit_cost, 0)), 0), " +
+                    "COALESCE(i.unit_cost, 0) " +
+                    "FROM inventory_schema.inventory_items i " +
+                    "LEFT JOIN prescription_schema.medications m ON m.id = i.medication_id " +
+                    "LEFT JOIN inventory_schema.inventory_batches b " +
+                    "  ON b.inventory_item_id = i.id AND b.quantity_remaining > 0 ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void forEachValuation(Consumer<ItemValuation> consumer) {
+        jdbcTemplate.query(
+                "SELECT inventory_item_id, COALESCE(therapeutic_class, 'Unclassified'), quantity, average_cost, fifo_value " +
+                        "FROM inventory_schema.inventory_valuations",
+                rs -> {
+                    consumer.accept(new ItemValuation(rs.getObject(1, UUID.class), rs.getString(2),
+                            rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+                });
+    }
+
+    /**
+     * Valuations written after the given database clock time
+     */
+    public void forEachValuationUpdatedAfter(LocalDateTime after, Consumer<ItemValuation> consumer) {
+        jdbcTemplate.query(
+                "SELECT inventory_item_id, COALESCE(therapeutic_class, 'Unclassified'), quantity, average_cost, " +
+                        "fifo_value FROM inventory_schema.inventory_valuations WHERE updated_at > ?",
+                rs -> {
+                    consumer.accept(new ItemValuation(rs.getObject(1, UUID.class), rs.getString(2),
+                            rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+                },
+                Timestamp.valueOf(after));
+    }
+
+    /**
+     * Stored valuations of the given items; items without one are left out
+     */
+    public Map<UUID, ItemValuation> findValuations(Collection<UUID> inventoryItemIds) {
+        List<UUID> ids = new ArrayList<>(inventoryItemIds);
+        Map<UUID, ItemValuation> valuations = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            namedParameterJdbcTemplate.query(
+                    "SELECT inventory_item_id, COALESCE(therapeutic_class, 'Unclassified'), quantity, average_cost, " +
+                            "fifo_value FROM inventory_schema.inventory_valuations WHERE inventory_item_id IN (:ids)",
+                    new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()))),
+                    rs -> {
+                        UUID inventoryItemId = rs.getObject(1, UUID.class);
+                        valuations.put(inventoryItemId, new ItemValuation(inventoryItemId, rs.getString(2),
+                                rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+                    });
+        }
+        return valuations;
+    }
+
+    /**
+     * Current database clock time, comparable with the write time of valuation rows
+     */
+    public LocalDateTime clockTimestamp() {
+        return jdbcTemplate.queryForObject("SELECT clock_timestamp()", Timestamp.class).toLocalDateTime();
+    }
+
+    public Optional<TransactionCursor> findCursor() {
+        return jdbcTemplate.query(
+                "SELECT transaction_date, transaction_id FROM inventory_schema.inventory_valuation_cursor WHERE id = 1",
+                (rs, rowNum) -> new TransactionCursor(rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getObject(2, UUID.class))).stream().findFirst();
+    }
+
+    public void saveCursor(TransactionCursor cursor) {
+        jdbcTemplate.update(
+                "INSERT INTO inventory_schema.inventory_valuation_cursor (id, transaction_date, transaction_id) " +
+                        "VALUES (1, ?, ?) ON CONFLICT (id) DO UPDATE " +
+                        "SET transaction_date = EXCLUDED.transaction_date, transaction_id = EXCLUDED.transaction_id",
+                Timestamp.valueOf(cursor.getTransactionDate()), cursor.getTransactionId());
+    }
+
+    /**
+     * Latest transaction recorded at or before the given time
+     */
+    public Optional<TransactionCursor> findLatestTransaction(LocalDateTime notAfter) {
+        return jdbcTemplate.query(
+                "SELECT transaction_date, id FROM inventory_schema.inventory_transactions " +
+                        "WHERE transaction_date <= ? ORDER BY transaction_date DESC, id DESC LIMIT 1",
+                (rs, rowNum) -> new TransactionCursor(rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getObject(2, UUID.class)),
+                Timestamp.valueOf(notAfter)).stream().findFirst();
+    }
+
+    /**
+     * Stream transactions after the cursor up to the given time, with the unit cost of their batch
+     */
+    public void forEachTransactionAfter(TransactionCursor cursor, LocalDateTime upTo,
+                                        Consumer<ValuedTransaction> consumer) {
+        jdbcTemplate.query(
+                "SELECT t.transaction_date, t.id, t.inventory_item_id, t.quantity_change, b.unit_cost " +
+                        "FROM inventory_schema.inventory_transactions t " +
+                        "LEFT JOIN inventory_schema.inventory_batches b ON b.id = t.batch_id " +
+                        "WHERE (t.transaction_date, t.id) > (?, ?) AND t.transaction_date <= ? " +
+                        "AND t.inventory_item_id IS NOT NULL " +
+                        "ORDER BY t.transaction_date, t.id",
+                rs -> {
+                    consumer.accept(new ValuedTransaction(rs.getTimestamp(1).toLocalDateTime(),
+                            rs.getObject(2, UUID.class), rs.getObject(3, UUID.class), rs.getBigDecimal(4),
+                            rs.getBigDecimal(5)));
+                },
+                Timestamp.valueOf(cursor.getTransactionDate()), cursor.getTransactionId(), Timestamp.valueOf(upTo));
+    }
+
+    /**
+     * Class, quantity on hand, cost of remaining batches and unit cost of every active item
+     */
+    public void forEachItemCost(Consumer<ItemCost> consumer) {
+        jdbcTemplate.query(SELECT_ITEM_COSTS + "WHERE i.is_active = true GROUP BY i.id, m.therapeutic_class",
+                rs -> {
+                    consumer.accept(new ItemCost(rs.getObject(1, UUID.class), rs.getString(2),
+                            rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+                });
+    }
+
+    /**
+     * Same as {@link #forEachItemCost} for the given items only
+     */
+    public List<ItemCost> findItemCosts(Collection<UUID> inventoryItemIds) {
+        List<UUID> ids = new ArrayList<>(inventoryItemIds);
+        List<ItemCost> costs = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            costs.addAll(namedParameterJdbcTemplate.query(
+                    SELECT_ITEM_COSTS + "WHERE i.id IN (:ids) GROUP BY i.id, m.therapeutic_class",
+                    new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()))),
+                    (rs, rowNum) -> new ItemCost(rs.getObject(1, UUID.class), rs.getString(2),
+                            rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5))));
+        }
+        return costs;
+    }
+
+    public void upsertValuations(List<ItemValuation> valuations, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_schema.inventory_valuations " +
+                        "(inventory_item_id, therapeutic_class, quantity, average_cost, fifo_value, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, clock_timestamp()) ON CONFLICT (inventory_item_id) DO UPDATE SET " +
+                        "therapeutic_class = EXCLUDED.therapeutic_class, quantity = EXCLUDED.quantity, " +
+                        "average_cost = EXCLUDED.average_cost, fifo_value = EXCLUDED.fifo_value, " +
+                        "updated_at = EXCLUDED.updated_at",
+                valuations, batchSize, (ps, valuation) -> {
+                    ps.setObject(1, valuation.getInventoryItemId());
+                    ps.setString(2, valuation.getCategory());
+                    ps.setBigDecimal(3, valuation.getQuantity());
+                    ps.setBigDecimal(4, valuation.getAverageCost());
+                    ps.setBigDecimal(5, valuation.getFifoValue());
+                });
+    }
+
+    /**
+     * Copy the current valuation as the snapshot for a period end, replacing an earlier one
+     *
+     * @return the number of items in the snapshot
+     */
+    public int snapshot(LocalDate periodEnd) {
+        jdbcTemplate.update("DELETE FROM inventory_schema.inventory_valuation_snapshots WHERE period_end = ?",
+                Date.valueOf(periodEnd));
+        int items = jdbcTemplate.update(
+                "INSERT INTO inventory_schema.inventory_valuation_snapshots " +
+                        "(period_end, inventory_item_id, therapeutic_class, quantity, average_cost, fifo_value) " +
+                        "SELECT ?, inventory_item_id, therapeutic_class, quantity, average_cost, fifo_value " +
+                        "FROM inventory_schema.inventory_valuations",
+                Date.valueOf(periodEnd));
+        jdbcTemplate.update(
+                "INSERT INTO inventory_schema.inventory_valuation_snapshot_periods (period_end, item_count) " +
+                        "VALUES (?, ?) ON CONFLICT (period_end) DO UPDATE " +
+                        "SET item_count = EXCLUDED.item_count, created_at = CURRENT_TIMESTAMP",
+                Date.valueOf(periodEnd), items);
+        return items;
+    }
+
+    /**
+     * Whether a snapshot was stored for a period end (it may hold no items)
+     */
+    public boolean snapshotExists(LocalDate periodEnd) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM inventory_schema.inventory_valuation_snapshot_periods " +
+                        "WHERE period_end = ?)",
+                Boolean.class, Date.valueOf(periodEnd)));
+    }
+
+    /**
+     * Class totals of a period-end snapshot
+     */
+    public List<CategoryValue> findSnapshotCategories(LocalDate periodEnd) {
+        return jdbcTemplate.query(
+                "SELECT COALESCE(therapeutic_class, 'Unclassified'), COUNT(*), SUM(fifo_value), " +
+                        "SUM(ROUND(quantity * average_cost, 2)) " +
+                        "FROM inventory_schema.inventory_valuation_snapshots WHERE period_end = ? " +
+                        "GROUP BY 1",
+                (rs, rowNum) -> new CategoryValue(rs.getString(1), rs.getInt(2), rs.getBigDecimal(3),
+                        rs.getBigDecimal(4)),
+                Date.valueOf(periodEnd));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class TransactionCursor {
+        private final LocalDateTime transactionDate;
+        private final UUID transactionId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ValuedTransaction {
+        private final LocalDateTime transactionDate;
+        private final UUID id;
+        private final UUID inventoryItemId;
+        private final BigDecimal quantityChange;
+        private final BigDecimal unitCost;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ItemCost {
+        private final UUID inventoryItemId;
+        private final String category;
+        private final BigDecimal quantityOnHand;
+        private final BigDecimal fifoValue;
+        private final BigDecimal unitCost;
+    }
+}
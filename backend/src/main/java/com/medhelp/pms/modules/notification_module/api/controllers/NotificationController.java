@@ -0,0 +1,48 @@
+package com.medhelp.pms.modules.notification_module.api.controllers;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationDispatchDto;
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationRetentionDto;
+import com.medhelp.pms.modules.notification_module.application.dtos.RenderedTemplateDto;
+import com.medhelp.pms.modules.notification_module.domain.services.NotificationDispatcher;
+import com.medhelp.pms.modules.notification_module.domain.services.NotificationRetentionService;
+import com.medhelp.pms.modules.notification_module.domain.services.NotificationTemplateService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationTemplateService notificationTemplateService;
+    private final NotificationRetentionService notificationRetentionService;
+
+    @PostMapping("/dispatch")
+    @Operation(summary = "Dispatch Notifications", description = "Send due notifications now instead of waiting for the next dispatch round")
+    public ResponseEntity<ApiResponse<NotificationDispatchDto>> dispatch() {
+        return ResponseEntity.ok(ApiResponse.success(notificationDispatcher.dispatch()));
+    }
+
+    @PostMapping("/retention")
+    @Operation(summary = "Maintain Notification Partitions", description = "Create upcoming monthly partitions, expire unsent notifications and archive partitions past the retention period")
+    public ResponseEntity<ApiResponse<NotificationRetentionDto>> maintainRetention() {
+        return ResponseEntity.ok(ApiResponse.success(notificationRetentionService.maintain()));
+    }
+
+    @PostMapping("/templates/{templateName}/preview")
+    @Operation(summary = "Preview Template", description = "Render a template with the given values, in the language passed or else the patient's preferred one")
+    public ResponseEntity<ApiResponse<RenderedTemplateDto>> previewTemplate(
+            @PathVariable String templateName,
+            @RequestParam(required = false) UUID patientId,
+            @RequestParam(required = false) String language,
+            @RequestBody(required = false) Map<String, String> values) {
+        return ResponseEntity.ok(ApiResponse.success(notificationTemplateService.preview(templateName, patientId,
+                language, values != null ? values : Map.of())));
+    }
+}
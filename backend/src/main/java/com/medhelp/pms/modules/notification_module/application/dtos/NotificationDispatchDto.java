@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.notification_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDispatchDto {
+    private int claimed;
+    private int sent;
+    private int retried;
+    private int failed;
+    private int released;
+    private int reclaimed;
+    private int batches;
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.notification_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRetentionDto {
+    private List<String> partitionsEnsured;
+    private int expired;
+    private List<String> archivedFiles;
+    private long archivedRows;
+    private long defaultPartitionRows;
+    private long durationMs;
+}
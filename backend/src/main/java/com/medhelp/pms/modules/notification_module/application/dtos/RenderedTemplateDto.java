@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.notification_module.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RenderedTemplateDto {
+    private UUID templateId;
+    private String language;
+    private String notificationType;
+    private String subject;
+    private String body;
+}
@@ -20,8 +20,7 @@ public class Notification {
     @Column(name = "id", nullable = false)
     private UUID id;
 
-    @NotNull
-    @Column(name = "patient_id", nullable = false)
+    @Column(name = "patient_id")
     private UUID patientId;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -80,8 +79,9 @@ public class Notification {
     @Column(name = "reference_id")
     private UUID referenceId;
 
+    @NotNull
     @ColumnDefault("CURRENT_TIMESTAMP")
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
 }
\ No newline at end of file
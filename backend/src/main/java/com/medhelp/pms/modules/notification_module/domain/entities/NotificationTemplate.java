@@ -25,6 +25,12 @@ public class NotificationTemplate {
     @Column(name = "template_name", nullable = false, length = 100)
     private String templateName;
 
+    @Size(max = 10)
+    @NotNull
+    @ColumnDefault("'en'")
+    @Column(name = "language", nullable = false, length = 10)
+    private String language;
+
     @Size(max = 50)
     @NotNull
     @Column(name = "notification_type", nullable = false, length = 50)
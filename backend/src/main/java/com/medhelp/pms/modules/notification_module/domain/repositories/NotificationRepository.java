@@ -0,0 +1,11 @@
+package com.medhelp.pms.modules.notification_module.domain.repositories;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+}
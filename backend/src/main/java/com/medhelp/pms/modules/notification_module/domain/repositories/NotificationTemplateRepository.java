@@ -0,0 +1,14 @@
+package com.medhelp.pms.modules.notification_module.domain.repositories;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationTemplateRepository extends JpaRepository<NotificationTemplate, UUID> {
+
+    List<NotificationTemplate> findByIsActiveTrue();
+}
@@ -0,0 +1,67 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces the messages sent on one channel evenly to stay under the provider's rate limit.
+ * <p>
+ * The limit applies to all nodes together. Slots are taken from a schedule shared through the
+ * database, one block at a time: a node reserves the next block of consecutive slots, sends
+ * into them locally, and reserves another block once they are used up. No two nodes ever hold
+ * the same slot. Slots a node reserved but did not use lapse, which can only lower throughput.
+ * The database is asked once per block rather than once per message.
+ */
+class ChannelRateLimiter {
+
+    /**
+     * Reserves consecutive send time on the shared schedule
+     */
+    interface SlotReserver {
+        /**
+         * Reserve the given length of send time starting at the shared schedule's next free moment
+         *
+         * @return nanoseconds from now until the end of the reserved time
+         */
+        long reserve(long durationNanos);
+    }
+
+    private final long intervalNanos;
+    private final long blockNanos;
+    private final SlotReserver reserver;
+    private long nextFreeNanos;
+    private long blockEndNanos;
+
+    ChannelRateLimiter(double messagesPerSecond, int slotsPerBlock, SlotReserver reserver) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / messagesPerSecond);
+        this.blockNanos = intervalNanos * Math.max(1, slotsPerBlock);
+        this.reserver = reserver;
+        this.nextFreeNanos = System.nanoTime();
+        this.blockEndNanos = nextFreeNanos;
+    }
+
+    /**
+     * Wait for the next free slot
+     *
+     * @return false, without taking a slot, if the next free slot is further away than the timeout
+     */
+    boolean acquire(long timeoutNanos) throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            if (slot + intervalNanos > blockEndNanos) {
+                // Slots of a block that passed unused are gone; reserve the next block
+                blockEndNanos = now + reserver.reserve(blockNanos);
+                nextFreeNanos = blockEndNanos - blockNanos;
+                slot = Math.max(now, nextFreeNanos);
+            }
+            if (slot - now > timeoutNanos) {
+                return false;
+            }
+            nextFreeNanos = slot + intervalNanos;
+            wait = slot - now;
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        return true;
+    }
+}
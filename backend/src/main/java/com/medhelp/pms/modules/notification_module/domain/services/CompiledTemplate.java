@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Notification template compiled once per version
+ */
+@Getter
+@AllArgsConstructor
+public class CompiledTemplate {
+    private final UUID id;
+    private final String name;
+    private final String language;
+    private final String notificationType;
+    /**
+     * Hash of the template's content; a changed value means it has to be compiled again
+     */
+    private final String version;
+    private final CompiledText subject;
+    private final CompiledText body;
+}
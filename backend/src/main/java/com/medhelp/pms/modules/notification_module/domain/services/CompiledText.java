@@ -0,0 +1,53 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import java.util.Map;
+
+/**
+ * Template text split into literal segments and the placeholders between them.
+ * <p>
+ * Rendering appends the segments and looked-up values straight into the caller's builder.
+ */
+public final class CompiledText {
+
+    static final CompiledText EMPTY = new CompiledText(new String[]{""}, new String[0]);
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    /**
+     * @param literals one more literal than placeholders; literal i comes before placeholder i
+     */
+    CompiledText(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Append the text with placeholders replaced by their values; missing values render as nothing
+     */
+    public void renderTo(StringBuilder out, Map<String, ? extends CharSequence> values) {
+        out.ensureCapacity(out.length() + literalLength + 16 * placeholders.length);
+        out.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            CharSequence value = values.get(placeholders[i]);
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    public boolean isEmpty() {
+        return placeholders.length == 0 && literalLength == 0;
+    }
+
+    public String[] getPlaceholders() {
+        return placeholders.clone();
+    }
+}
@@ -0,0 +1,289 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationDispatchDto;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.DeliveryResult;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import com.medhelp.pms.modules.notification_module.infrastructure.channels.NotificationSender;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository.Attempt;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository.Sent;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends pending notifications through their channel.
+ * <p>
+ * Each round claims a batch of due notifications with SKIP LOCKED, so any number of nodes can
+ * dispatch side by side, and holds them under a lease while they are sent concurrently. Every
+ * channel is paced to its messages-per-second limit across all nodes; sends that would not start
+ * before half of the lease is over, or whose send time could not be reserved, go back to pending
+ * untouched and end the run. Outcomes are written with batched updates: failures are retried with
+ * exponential backoff and jitter until the notification's retries are used up.
+ * <p>
+ * Only channels with a NotificationSender bean are dispatched. Notifications of other channels
+ * stay pending for a node that can send them, instead of being failed here.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationDispatchJdbcRepository notificationDispatchJdbcRepository;
+    private final Map<NotificationChannel, NotificationSender> senders = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, ChannelRateLimiter> limiters = new EnumMap<>(NotificationChannel.class);
+    private final List<String> channelCodes = new ArrayList<>();
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${notifications.dispatch.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.dispatch.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${notifications.dispatch.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${notifications.dispatch.retry-base-seconds:60}")
+    private long retryBaseSeconds;
+
+    @Value("${notifications.dispatch.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    /**
+     * Notifications older than this are no longer sent, which keeps dispatch queries to the newest partitions
+     */
+    @Value("${notifications.dispatch.max-age-days:7}")
+    private long maxAgeDays;
+
+    @Value("${notifications.dispatch.write-batch-size:500}")
+    private int writeBatchSize;
+
+    /**
+     * @param rateLimits messages per second of individual channels, e.g. "sms=20,email=50"
+     * @param rateBlockSeconds send time each node reserves on a channel's shared schedule at once
+     */
+    public NotificationDispatcher(NotificationDispatchJdbcRepository notificationDispatchJdbcRepository,
+                                  List<NotificationSender> senders,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${notifications.dispatch.threads:32}") int threads,
+                                  @Value("${notifications.dispatch.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notifications.dispatch.rate-limits:}") String rateLimits,
+                                  @Value("${notifications.dispatch.default-rate-per-second:20}") double defaultRate,
+                                  @Value("${notifications.dispatch.rate-block-seconds:1}") double rateBlockSeconds) {
+        this.notificationDispatchJdbcRepository = notificationDispatchJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        senders.forEach(sender -> this.senders.put(sender.channel(), sender));
+        Map<NotificationChannel, Double> rates = parseRateLimits(rateLimits);
+        for (NotificationChannel channel : this.senders.keySet()) {
+            double rate = rates.getOrDefault(channel, defaultRate);
+            limiters.put(channel, new ChannelRateLimiter(rate, (int) Math.ceil(rate * rateBlockSeconds),
+                    durationNanos -> notificationDispatchJdbcRepository.reserveSendTime(channel.getCode(),
+                            durationNanos)));
+            channelCodes.add(channel.getCode());
+        }
+        if (channelCodes.isEmpty()) {
+            log.warn("No notification senders are configured, notifications will not be dispatched");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Send what is due (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${notifications.dispatch.interval-ms:2000}")
+    public void dispatchScheduled() {
+        if (running.get()) {
+            return;
+        }
+        NotificationDispatchDto run = dispatch();
+        if (run.getClaimed() > 0 || run.getReclaimed() > 0) {
+            log.info("Notification dispatch: {} claimed, {} sent, {} retried, {} failed, {} released, " +
+                            "{} reclaimed in {} ms", run.getClaimed(), run.getSent(), run.getRetried(), run.getFailed(),
+                    run.getReleased(), run.getReclaimed(), run.getDurationMs());
+        }
+    }
+
+    public NotificationDispatchDto dispatch() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException("NOTIFICATION_DISPATCH_IN_PROGRESS", "Notification dispatch is already running");
+        }
+        try {
+            return run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private NotificationDispatchDto run() {
+        if (channelCodes.isEmpty()) {
+            return NotificationDispatchDto.builder().build();
+        }
+        long started = System.nanoTime();
+        Integer reclaimed = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            return notificationDispatchJdbcRepository.releaseExpiredClaims(now, now.minusDays(maxAgeDays));
+        });
+        NotificationDispatchDto run = NotificationDispatchDto.builder()
+                .reclaimed(reclaimed != null ? reclaimed : 0)
+                .build();
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutgoingNotification> claimed = transactionTemplate.execute(tx ->
+                    notificationDispatchJdbcRepository.claim(channelCodes, batchSize, now,
+                            now.plusSeconds(leaseSeconds), now.minusDays(maxAgeDays)));
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            run.setBatches(run.getBatches() + 1);
+            run.setClaimed(run.getClaimed() + claimed.size());
+            long releasedBefore = run.getReleased();
+            sendBatch(claimed, run);
+            // Released notifications are due again at once; claiming them now would only wait on the same channel
+            if (claimed.size() < batchSize || run.getReleased() > releasedBefore) {
+                break;
+            }
+        }
+        run.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        return run;
+    }
+
+    private void sendBatch(List<OutgoingNotification> claimed, NotificationDispatchDto run) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(leaseSeconds) / 2;
+        List<CompletableFuture<DeliveryResult>> futures = new ArrayList<>(claimed.size());
+        for (OutgoingNotification notification : claimed) {
+            futures.add(CompletableFuture.supplyAsync(() -> send(notification, deadline), executor));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Sent> sent = new ArrayList<>();
+        List<Attempt> attempts = new ArrayList<>();
+        List<OutgoingNotification> released = new ArrayList<>();
+        for (int i = 0; i < claimed.size(); i++) {
+            OutgoingNotification notification = claimed.get(i);
+            DeliveryResult result = futures.get(i).join();
+            if (result == null) {
+                released.add(notification);
+            } else if (result.isDelivered()) {
+                sent.add(new Sent(notification, result.getExternalId(), now));
+            } else if (result.isRetryable() && notification.getRetryCount() < notification.getMaxRetries()) {
+                attempts.add(new Attempt(notification, result.getError(),
+                        now.plusSeconds(backoffSeconds(notification.getRetryCount()))));
+                run.setRetried(run.getRetried() + 1);
+            } else {
+                attempts.add(new Attempt(notification, result.getError(), null));
+                run.setFailed(run.getFailed() + 1);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            notificationDispatchJdbcRepository.markSent(sent, writeBatchSize);
+            notificationDispatchJdbcRepository.markAttemptFailed(attempts, writeBatchSize);
+            notificationDispatchJdbcRepository.release(released, writeBatchSize);
+        });
+        run.setSent(run.getSent() + sent.size());
+        run.setReleased(run.getReleased() + released.size());
+    }
+
+    /**
+     * Send one notification once its channel has a free slot
+     *
+     * @return null if no slot became free before the deadline or none could be reserved
+     */
+    private DeliveryResult send(OutgoingNotification notification, long deadline) {
+        NotificationChannel channel = NotificationChannel.fromCode(notification.getChannel()).orElse(null);
+        NotificationSender sender = channel != null ? senders.get(channel) : null;
+        if (sender == null) {
+            return DeliveryResult.failed("No sender for channel " + notification.getChannel(), false);
+        }
+        try {
+            if (!limiters.get(channel).acquire(deadline - System.nanoTime())) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (RuntimeException e) {
+            // Nothing reached the provider, so this is not an attempt
+            log.warn("Reserving {} send time for notification {} failed: {}", channel.getCode(),
+                    notification.getId(), e.getMessage());
+            return null;
+        }
+        try {
+            return sender.send(notification);
+        } catch (RuntimeException e) {
+            log.warn("Sending notification {} by {} failed: {}", notification.getId(), channel.getCode(),
+                    e.getMessage());
+            return DeliveryResult.failed(e.getMessage(), true);
+        }
+    }
+
+    /**
+     * Delay before the next attempt: the base doubled per retry so far, capped, with up to 20% jitter
+     * so notifications that failed together do not retry together
+     */
+    private long backoffSeconds(int retryCount) {
+        long delay = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(retryCount, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static Map<NotificationChannel, Double> parseRateLimits(String rateLimits) {
+        Map<NotificationChannel, Double> rates = new EnumMap<>(NotificationChannel.class);
+        if (rateLimits == null || rateLimits.isBlank()) {
+            return rates;
+        }
+        for (String entry : rateLimits.split(",")) {
+            String[] parts = entry.split("=");
+            NotificationChannel channel = parts.length == 2 ? NotificationChannel.fromCode(parts[0].trim()).orElse(null) : null;
+            double rate = parts.length == 2 ? parseRate(parts[1]) : 0;
+            if (channel != null && rate > 0) {
+                rates.put(channel, rate);
+            } else {
+                log.warn("Ignoring invalid notification rate limit '{}'", entry);
+            }
+        }
+        return rates;
+    }
+
+    private static double parseRate(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
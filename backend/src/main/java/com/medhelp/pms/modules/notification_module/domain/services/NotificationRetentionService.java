@@ -0,0 +1,207 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationRetentionDto;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationPartitionJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks.SessionLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of the notifications table.
+ * <p>
+ * Partitions are created a few months ahead, so inserts never land in the default partition.
+ * Notifications not sent within the dispatch age limit are marked failed. Partitions older than
+ * the retention period are written to gzip'd CSV files in the archive directory and then
+ * detached and dropped; a partition is only dropped once its file is complete and synced to
+ * disk. The archive directory has to be an absolute path, meant to be durable storage shared
+ * by the nodes rather than a node's working directory.
+ * <p>
+ * A run holds an advisory lock, so only one node maintains the partitions at a time.
+ */
+@Service
+@Slf4j
+public class NotificationRetentionService {
+
+    private static final String LOCK_NAMESPACE = "notification.retention";
+
+    private final NotificationPartitionJdbcRepository notificationPartitionJdbcRepository;
+    private final NotificationDispatchJdbcRepository notificationDispatchJdbcRepository;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Path archiveDir;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${notifications.retention.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${notifications.retention.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${notifications.dispatch.max-age-days:7}")
+    private long maxAgeDays;
+
+    /**
+     * @param archiveDir absolute path of the directory archived partitions are written to; required
+     */
+    public NotificationRetentionService(NotificationPartitionJdbcRepository notificationPartitionJdbcRepository,
+                                        NotificationDispatchJdbcRepository notificationDispatchJdbcRepository,
+                                        AdvisoryLocks advisoryLocks,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${notifications.retention.archive-dir}") String archiveDir) {
+        if (archiveDir == null || archiveDir.isBlank() || !Path.of(archiveDir).isAbsolute()) {
+            throw new IllegalStateException("notifications.retention.archive-dir must be an absolute path, was '"
+                    + archiveDir + "'");
+        }
+        this.notificationPartitionJdbcRepository = notificationPartitionJdbcRepository;
+        this.notificationDispatchJdbcRepository = notificationDispatchJdbcRepository;
+        this.advisoryLocks = advisoryLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Nightly partition maintenance (scheduled task)
+     */
+    @Scheduled(cron = "${notifications.retention.cron:0 15 3 * * *}")
+    public void maintainScheduled() {
+        if (running.get() || tryMaintain().isEmpty()) {
+            log.info("Skipping scheduled notification retention, a run is already in progress");
+        }
+    }
+
+    public NotificationRetentionDto maintain() {
+        return tryMaintain().orElseThrow(() -> new BusinessException("NOTIFICATION_RETENTION_IN_PROGRESS",
+                "Notification retention is already running"));
+    }
+
+    /**
+     * @return empty if a run is in progress on this or another node
+     */
+    private Optional<NotificationRetentionDto> tryMaintain() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<SessionLock> lock = advisoryLocks.trySessionLock(LOCK_NAMESPACE, "maintain");
+            if (lock.isEmpty()) {
+                return Optional.empty();
+            }
+            try (SessionLock held = lock.get()) {
+                return Optional.of(run());
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private NotificationRetentionDto run() {
+        long started = System.nanoTime();
+        List<String> ensured = ensurePartitions();
+
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        LocalDateTime now = LocalDateTime.now();
+        Integer expired = transactionTemplate.execute(tx -> notificationDispatchJdbcRepository.expirePending(
+                oldestKept.atDay(1).atStartOfDay(), now.minusDays(maxAgeDays)));
+
+        List<String> archived = new ArrayList<>();
+        long archivedRows = 0;
+        for (YearMonth month : notificationPartitionJdbcRepository.findPartitionMonths()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            Path file = archiveDir.resolve(NotificationPartitionJdbcRepository.partitionName(month) + ".csv.gz");
+            archivedRows += archive(month, file);
+            transactionTemplate.executeWithoutResult(tx -> notificationPartitionJdbcRepository.dropPartition(month));
+            archived.add(file.toString());
+        }
+
+        long defaultRows = notificationPartitionJdbcRepository.countDefaultPartition();
+        if (defaultRows > 0) {
+            log.warn("{} notifications are in the default partition; create the partitions for their months",
+                    defaultRows);
+        }
+        NotificationRetentionDto run = NotificationRetentionDto.builder()
+                .partitionsEnsured(ensured)
+                .expired(expired != null ? expired : 0)
+                .archivedFiles(archived)
+                .archivedRows(archivedRows)
+                .defaultPartitionRows(defaultRows)
+                .durationMs((System.nanoTime() - started) / 1_000_000)
+                .build();
+        log.info("Notification retention: {} expired, {} partitions archived ({} rows) in {} ms", run.getExpired(),
+                archived.size(), archivedRows, run.getDurationMs());
+        return run;
+    }
+
+    private List<String> ensurePartitions() {
+        return transactionTemplate.execute(tx -> {
+            // Nodes starting together would otherwise race to create the same partition
+            advisoryLocks.lockForTransaction(LOCK_NAMESPACE, "partitions");
+            List<String> partitions = new ArrayList<>();
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                partitions.add(notificationPartitionJdbcRepository.createPartition(current.plusMonths(i)));
+            }
+            return partitions;
+        });
+    }
+
+    /**
+     * Write the partition to its archive file and sync it to disk, replacing a file left by an
+     * earlier run that did not finish
+     *
+     * @return number of rows archived
+     */
+    private long archive(YearMonth month, Path file) {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Files.createDirectories(file.getParent());
+            long rows;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 GZIPOutputStream out = new GZIPOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(channel)), 1 << 16)) {
+                rows = notificationPartitionJdbcRepository.copyOut(month, out);
+                out.finish();
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archived {} notifications of {} to {}", rows, month, file);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archiving notifications of " + month + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.ExpiringStockAlertEvent;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.PatientContact;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.QueuedNotification;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.RenderedTemplate;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationQueueJdbcRepository;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.PatientContactJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Queues patient notifications rendered from templates, and staff alerts published by other modules.
+ * <p>
+ * Messages with a reference type wait in a coalescing window first. When the window of a
+ * patient, notification type and reference type closes, everything that arrived for it goes
+ * out as a single notification: rendered from the "_coalesced" variant of the template when
+ * there is one, otherwise as the distinct messages one per line. A window of zero sends
+ * every message on its own. Messages for the same reference are only held once.
+ */
+@Service
+@Slf4j
+public class NotificationService {
+
+    private static final String PRESCRIPTION_REFERENCE = "prescription";
+    private static final String INVENTORY_EXPIRY_REFERENCE = "inventory_expiry";
+
+    private final NotificationTemplateService notificationTemplateService;
+    private final NotificationTemplateCatalog notificationTemplateCatalog;
+    private final PatientContactJdbcRepository patientContactJdbcRepository;
+    private final NotificationQueueJdbcRepository notificationQueueJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.coalescing.window-seconds:120}")
+    private long windowSeconds;
+
+    @Value("${notifications.coalescing.max-groups-per-flush:500}")
+    private int maxGroupsPerFlush;
+
+    @Value("${notifications.coalescing.template-suffix:_coalesced}")
+    private String coalescedTemplateSuffix;
+
+    @Value("${notifications.coalescing.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notifications.pickup.template:prescription_ready}")
+    private String pickupTemplate;
+
+    public NotificationService(NotificationTemplateService notificationTemplateService,
+                               NotificationTemplateCatalog notificationTemplateCatalog,
+                               PatientContactJdbcRepository patientContactJdbcRepository,
+                               NotificationQueueJdbcRepository notificationQueueJdbcRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.notificationTemplateService = notificationTemplateService;
+        this.notificationTemplateCatalog = notificationTemplateCatalog;
+        this.patientContactJdbcRepository = patientContactJdbcRepository;
+        this.notificationQueueJdbcRepository = notificationQueueJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fill and refill events come from the prescription event relay, whatever path recorded the fill
+     */
+    @ApplicationModuleListener
+    public void onPrescriptionFilled(PrescriptionFilledEvent event) {
+        queuePickup(event.getPatientId(), event.getPrescriptionId(), event.getPrescriptionNumber());
+    }
+
+    @ApplicationModuleListener
+    public void onPrescriptionRefilled(PrescriptionRefilledEvent event) {
+        queuePickup(event.getPatientId(), event.getPrescriptionId(), null);
+    }
+
+    /**
+     * Expiring-stock alerts go to staff as they are; a redelivered or re-run alert is queued only once
+     */
+    @ApplicationModuleListener
+    public void onExpiringStockAlert(ExpiringStockAlertEvent event) {
+        QueuedNotification notification = QueuedNotification.builder()
+                .notificationType(event.getNotificationType())
+                .recipient(event.getRecipient())
+                .subject(event.getSubject())
+                .message(event.getMessage())
+                .referenceType(INVENTORY_EXPIRY_REFERENCE)
+                .referenceId(event.getAlertId())
+                .createdAt(LocalDateTime.now())
+                .build();
+        if (!notificationQueueJdbcRepository.insertOnce(notification)) {
+            log.debug("Expiring-stock alert for {} at {} days was already queued", event.getExpirationDate(),
+                    event.getDaysUntilExpiry());
+        }
+    }
+
+    /**
+     * Render a template for the patient in their language and queue it on the template's channel
+     *
+     * @param itemLabel short name of the referenced item, listed when messages are merged
+     * @return false if the patient has no address for the channel or the message was already waiting
+     */
+    @Transactional
+    public boolean queueForPatient(String templateName, UUID patientId, String referenceType, UUID referenceId,
+                                   String itemLabel, Map<String, ? extends CharSequence> values) {
+        PatientContact contact = patientContactJdbcRepository.findContact(patientId)
+                .orElseThrow(() -> new EntityNotFoundException("Patient", patientId.toString()));
+        RenderedTemplate rendered = notificationTemplateService.render(templateName, contact.getLanguagePreference(),
+                values);
+        String recipient = recipient(contact, rendered.getNotificationType());
+        if (recipient == null) {
+            log.debug("Patient {} has no {} address, not sending {}", patientId, rendered.getNotificationType(),
+                    templateName);
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        QueuedNotification notification = QueuedNotification.builder()
+                .patientId(patientId)
+                .templateId(rendered.getTemplateId())
+                .notificationType(rendered.getNotificationType())
+                .recipient(recipient)
+                .subject(rendered.getSubject())
+                .message(rendered.getBody())
+                .referenceType(referenceType)
+                .referenceId(referenceId)
+                .itemLabel(itemLabel)
+                .createdAt(now)
+                .build();
+        if (windowSeconds > 0 && referenceType != null) {
+            return notificationQueueJdbcRepository.stage(notification, now.plusSeconds(windowSeconds));
+        }
+        notificationQueueJdbcRepository.insert(List.of(notification), batchSize);
+        return true;
+    }
+
+    /**
+     * Queue the messages whose coalescing window closed (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${notifications.coalescing.flush-interval-ms:5000}")
+    public void flushScheduled() {
+        int queued;
+        do {
+            queued = flush();
+        } while (queued >= maxGroupsPerFlush);
+    }
+
+    /**
+     * @return number of notifications queued
+     */
+    public int flush() {
+        Integer queued = transactionTemplate.execute(tx -> {
+            List<QueuedNotification> released = notificationQueueJdbcRepository.takeReleased(LocalDateTime.now(),
+                    maxGroupsPerFlush);
+            if (released.isEmpty()) {
+                return 0;
+            }
+            Map<List<Object>, List<QueuedNotification>> groups = new LinkedHashMap<>();
+            released.stream()
+                    .sorted(Comparator.comparing(QueuedNotification::getCreatedAt))
+                    .forEach(item -> groups.computeIfAbsent(List.of(item.getPatientId(), item.getNotificationType(),
+                            item.getReferenceType()), key -> new ArrayList<>()).add(item));
+
+            Set<UUID> merging = new LinkedHashSet<>();
+            groups.values().stream().filter(group -> group.size() > 1)
+                    .forEach(group -> merging.add(group.get(0).getPatientId()));
+            Map<UUID, PatientContact> contacts = patientContactJdbcRepository.findContacts(merging);
+
+            List<QueuedNotification> notifications = new ArrayList<>(groups.size());
+            for (List<QueuedNotification> group : groups.values()) {
+                notifications.add(group.size() == 1 ? group.get(0)
+                        : merge(group, contacts.get(group.get(0).getPatientId())));
+            }
+            notificationQueueJdbcRepository.insert(notifications, batchSize);
+            log.debug("Queued {} notifications for {} coalesced messages", notifications.size(), released.size());
+            return notifications.size();
+        });
+        return queued != null ? queued : 0;
+    }
+
+    private void queuePickup(UUID patientId, UUID prescriptionId, String prescriptionNumber) {
+        if (patientId == null || !notificationTemplateCatalog.contains(pickupTemplate)) {
+            return;
+        }
+        Map<String, String> values = new HashMap<>();
+        if (prescriptionNumber != null) {
+            values.put("prescription_number", prescriptionNumber);
+        }
+        try {
+            queueForPatient(pickupTemplate, patientId, PRESCRIPTION_REFERENCE, prescriptionId, prescriptionNumber,
+                    values);
+        } catch (EntityNotFoundException e) {
+            log.debug("Not sending pickup notification for prescription {}: {}", prescriptionId, e.getMessage());
+        }
+    }
+
+    /**
+     * One notification for the messages of a group, oldest first
+     */
+    private QueuedNotification merge(List<QueuedNotification> group, PatientContact contact) {
+        QueuedNotification first = group.get(0);
+        QueuedNotification last = group.get(group.size() - 1);
+        List<UUID> references = group.stream().map(QueuedNotification::getReferenceId).filter(Objects::nonNull)
+                .distinct().toList();
+        List<String> labels = group.stream().map(QueuedNotification::getItemLabel).filter(Objects::nonNull)
+                .distinct().toList();
+
+        String subject = first.getSubject();
+        String message = null;
+        UUID templateId = first.getTemplateId();
+        CompiledTemplate template = templateId != null ? notificationTemplateCatalog.findById(templateId) : null;
+        CompiledTemplate coalesced = template != null
+                ? notificationTemplateCatalog.find(template.getName() + coalescedTemplateSuffix, template.getLanguage())
+                : null;
+        if (coalesced != null) {
+            Map<String, String> values = new HashMap<>();
+            values.put("count", Integer.toString(group.size()));
+            values.put("items", String.join(", ", labels));
+            if (contact != null && contact.getFirstName() != null) {
+                values.put("first_name", contact.getFirstName());
+            }
+            RenderedTemplate rendered = notificationTemplateService.render(coalesced.getName(), coalesced.getLanguage(),
+                    values);
+            templateId = rendered.getTemplateId();
+            subject = rendered.getSubject() != null ? rendered.getSubject() : subject;
+            message = rendered.getBody();
+        }
+        if (message == null) {
+            message = String.join("\n", group.stream().map(QueuedNotification::getMessage).distinct().toList());
+        }
+
+        return QueuedNotification.builder()
+                .patientId(first.getPatientId())
+                .templateId(templateId)
+                .notificationType(first.getNotificationType())
+                .recipient(last.getRecipient())
+                .subject(subject)
+                .message(message)
+                .referenceType(first.getReferenceType())
+                .referenceId(first.getReferenceId())
+                .coalescedReferenceIds(references)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String recipient(PatientContact contact, String notificationType) {
+        NotificationChannel channel = NotificationChannel.fromCode(notificationType).orElse(null);
+        if (channel == null) {
+            return null;
+        }
+        String address = switch (channel) {
+            case SMS -> contact.getPhone();
+            case EMAIL -> contact.getEmail();
+        };
+        return address != null && !address.isBlank() ? address : null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import com.medhelp.pms.modules.notification_module.domain.repositories.NotificationTemplateRepository;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Active notification templates, compiled once per version and looked up by name and language.
+ * <p>
+ * A refresh only compiles templates whose content is new or changed since the last one and
+ * swaps the whole catalog in at once. Templates that do not compile are left out with a warning.
+ */
+@Component
+@Slf4j
+public class NotificationTemplateCatalog {
+
+    private final NotificationTemplateRepository notificationTemplateRepository;
+    private final String defaultLanguage;
+
+    private volatile Map<UUID, CompiledTemplate> byId = Map.of();
+    private volatile Map<String, Map<String, CompiledTemplate>> byName = Map.of();
+
+    public NotificationTemplateCatalog(NotificationTemplateRepository notificationTemplateRepository,
+                                       @Value("${notifications.templates.default-language:en}") String defaultLanguage) {
+        this.notificationTemplateRepository = notificationTemplateRepository;
+        this.defaultLanguage = languageKey(defaultLanguage);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Pick up added and edited templates (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${notifications.templates.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        long started = System.nanoTime();
+        Map<UUID, CompiledTemplate> previous = byId;
+        Map<UUID, CompiledTemplate> ids = new HashMap<>();
+        Map<String, Map<String, CompiledTemplate>> names = new HashMap<>();
+        int compiled = 0;
+        int rejected = 0;
+        for (NotificationTemplate template : notificationTemplateRepository.findByIsActiveTrue()) {
+            CompiledTemplate current = previous.get(template.getId());
+            if (current == null || !current.getVersion().equals(NotificationTemplateCompiler.version(template))) {
+                try {
+                    current = NotificationTemplateCompiler.compile(template);
+                    compiled++;
+                } catch (ValidationException e) {
+                    rejected++;
+                    log.warn("Skipping notification template {} ({}): {}", template.getTemplateName(),
+                            template.getLanguage(), e.getMessage());
+                    continue;
+                }
+            }
+            ids.put(current.getId(), current);
+            names.computeIfAbsent(current.getName(), name -> new HashMap<>())
+                    .put(languageKey(current.getLanguage()), current);
+        }
+        byId = Map.copyOf(ids);
+        byName = Map.copyOf(names);
+        if (compiled > 0 || rejected > 0 || ids.size() != previous.size()) {
+            log.info("Notification templates loaded: {} active, {} compiled in {} ms ({} skipped)", ids.size(),
+                    compiled, (System.nanoTime() - started) / 1_000_000, rejected);
+        }
+    }
+
+    public boolean contains(String templateName) {
+        return byName.containsKey(templateName);
+    }
+
+    public CompiledTemplate findById(UUID templateId) {
+        return byId.get(templateId);
+    }
+
+    /**
+     * Variant of the template for the language: an exact match, then the base language
+     * ("es" for "es-MX"), then the default language
+     */
+    public CompiledTemplate find(String templateName, String language) {
+        Map<String, CompiledTemplate> variants = byName.get(templateName);
+        if (variants == null) {
+            return null;
+        }
+        if (language != null && !language.isBlank()) {
+            String key = languageKey(language);
+            CompiledTemplate template = variants.get(key);
+            if (template == null && key.indexOf('-') > 0) {
+                template = variants.get(key.substring(0, key.indexOf('-')));
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+        return variants.get(defaultLanguage);
+    }
+
+    private static String languageKey(String language) {
+        return language.trim().replace('_', '-').toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,96 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Compiles notification templates into segment lists.
+ * <p>
+ * Placeholders are written {@code {{name}}}, where the name consists of letters, digits,
+ * underscores and dots, e.g. {@code {{patient.first_name}}}; whitespace inside the braces is
+ * ignored. An unclosed or invalid placeholder is rejected, so a template never sends its
+ * markup to a patient.
+ * <p>
+ * A compiled template is versioned by a hash of the content it was compiled from, so an edit is
+ * picked up whichever path made it, whether or not it touched updated_at.
+ */
+public final class NotificationTemplateCompiler {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private NotificationTemplateCompiler() {
+    }
+
+    public static CompiledTemplate compile(NotificationTemplate template) {
+        return new CompiledTemplate(template.getId(), template.getTemplateName(), template.getLanguage(),
+                template.getNotificationType(), version(template),
+                compileText(template.getSubject(), "subject"),
+                compileText(template.getBodyTemplate(), "bodyTemplate"));
+    }
+
+    /**
+     * SHA-256 of everything a compiled template is made from
+     */
+    public static String version(NotificationTemplate template) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (String part : new String[]{template.getTemplateName(), template.getLanguage(),
+                template.getNotificationType(), template.getSubject(), template.getBodyTemplate()}) {
+            // Length-prefixed, so parts cannot run into each other and a null differs from ""
+            byte[] bytes = part == null ? new byte[0] : part.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(part == null ? -1 : bytes.length).array());
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static CompiledText compileText(String source, String field) {
+        if (source == null || source.isEmpty()) {
+            return CompiledText.EMPTY;
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new ValidationException(field, "Placeholder is not closed", source.substring(open));
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(placeholderName(source.substring(open + OPEN.length(), close).trim(), field));
+            position = close + CLOSE.length();
+        }
+        return new CompiledText(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    private static String placeholderName(String name, String field) {
+        if (name.isEmpty()) {
+            throw new ValidationException(field, "Placeholder name is empty", OPEN + CLOSE);
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.') {
+                throw new ValidationException(field, "Invalid placeholder name", name);
+            }
+        }
+        return name;
+    }
+}
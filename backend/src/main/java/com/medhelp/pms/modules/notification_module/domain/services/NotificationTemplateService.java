@@ -0,0 +1,76 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.RenderedTemplateDto;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.PatientContact;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.RenderedTemplate;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.PatientContactJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Renders notification templates in the recipient's language.
+ * <p>
+ * Each thread renders into its own reused builder, so a render allocates only the resulting strings.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationTemplateService {
+
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final NotificationTemplateCatalog notificationTemplateCatalog;
+    private final PatientContactJdbcRepository patientContactJdbcRepository;
+
+    /**
+     * Render the template variant for the language; missing values render as nothing
+     */
+    public RenderedTemplate render(String templateName, String language, Map<String, ? extends CharSequence> values) {
+        CompiledTemplate template = notificationTemplateCatalog.find(templateName, language);
+        if (template == null) {
+            throw new EntityNotFoundException("NotificationTemplate", templateName);
+        }
+        return new RenderedTemplate(template.getId(), template.getLanguage(), template.getNotificationType(),
+                template.getSubject().isEmpty() ? null : render(template.getSubject(), values),
+                render(template.getBody(), values));
+    }
+
+    /**
+     * Render the template in the patient's preferred language
+     */
+    public RenderedTemplate renderForPatient(String templateName, UUID patientId,
+                                             Map<String, ? extends CharSequence> values) {
+        PatientContact contact = patientContactJdbcRepository.findContact(patientId)
+                .orElseThrow(() -> new EntityNotFoundException("Patient", patientId.toString()));
+        return render(templateName, contact.getLanguagePreference(), values);
+    }
+
+    public RenderedTemplateDto preview(String templateName, UUID patientId, String language, Map<String, String> values) {
+        RenderedTemplate rendered = patientId != null && language == null
+                ? renderForPatient(templateName, patientId, values)
+                : render(templateName, language, values);
+        return RenderedTemplateDto.builder()
+                .templateId(rendered.getTemplateId())
+                .language(rendered.getLanguage())
+                .notificationType(rendered.getNotificationType())
+                .subject(rendered.getSubject())
+                .body(rendered.getBody())
+                .build();
+    }
+
+    private static String render(CompiledText text, Map<String, ? extends CharSequence> values) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        text.renderTo(buffer, values);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            // Do not keep the memory of one unusually long message per thread
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+}
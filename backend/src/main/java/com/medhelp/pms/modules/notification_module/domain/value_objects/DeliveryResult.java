@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of handing one notification to its channel
+ */
+@Getter
+@AllArgsConstructor
+public class DeliveryResult {
+    private final boolean delivered;
+    private final String externalId;
+    private final String error;
+    /**
+     * Whether a later attempt may succeed, e.g. after a timeout rather than an invalid recipient
+     */
+    private final boolean retryable;
+
+    public static DeliveryResult delivered(String externalId) {
+        return new DeliveryResult(true, externalId, null, false);
+    }
+
+    public static DeliveryResult failed(String error, boolean retryable) {
+        return new DeliveryResult(false, null, error, retryable);
+    }
+}
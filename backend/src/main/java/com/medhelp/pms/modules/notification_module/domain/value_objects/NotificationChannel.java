@@ -0,0 +1,28 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Delivery channel, stored as the notification type
+ */
+public enum NotificationChannel {
+    SMS("sms"),
+    EMAIL("email");
+
+    private final String code;
+
+    NotificationChannel(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static Optional<NotificationChannel> fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(channel -> channel.code.equalsIgnoreCase(code))
+                .findFirst();
+    }
+}
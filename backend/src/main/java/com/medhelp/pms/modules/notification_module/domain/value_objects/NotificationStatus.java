@@ -0,0 +1,18 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+public enum NotificationStatus {
+    PENDING("pending"),
+    SENDING("sending"),
+    SENT("sent"),
+    FAILED("failed");
+
+    private final String code;
+
+    NotificationStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Notification claimed for sending
+ */
+@Getter
+@AllArgsConstructor
+public class OutgoingNotification {
+    private final UUID id;
+    private final LocalDateTime createdAt;
+    private final String channel;
+    private final String recipient;
+    private final String subject;
+    private final String message;
+    private final int retryCount;
+    private final int maxRetries;
+}
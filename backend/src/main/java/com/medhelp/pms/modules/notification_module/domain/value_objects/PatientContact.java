@@ -0,0 +1,20 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * How a patient wants to be reached
+ */
+@Getter
+@AllArgsConstructor
+public class PatientContact {
+    private final UUID patientId;
+    private final String firstName;
+    private final String languagePreference;
+    private final String communicationPreference;
+    private final String phone;
+    private final String email;
+}
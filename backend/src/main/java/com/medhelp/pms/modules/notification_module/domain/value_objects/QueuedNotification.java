@@ -0,0 +1,35 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rendered notification on its way into the notifications table, directly or through the coalescing window
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class QueuedNotification {
+    private final UUID patientId;
+    private final UUID templateId;
+    private final String notificationType;
+    private final String recipient;
+    private final String subject;
+    private final String message;
+    private final String referenceType;
+    private final UUID referenceId;
+    /**
+     * Short name of the item, e.g. the prescription number, listed when messages are merged
+     */
+    private final String itemLabel;
+    /**
+     * All references merged into this notification, or null if it was not merged
+     */
+    private final List<UUID> coalescedReferenceIds;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.medhelp.pms.modules.notification_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class RenderedTemplate {
+    private final UUID templateId;
+    private final String language;
+    private final String notificationType;
+    private final String subject;
+    private final String body;
+}
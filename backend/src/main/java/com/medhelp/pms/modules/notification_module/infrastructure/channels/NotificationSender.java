@@ -0,0 +1,15 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.channels;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.DeliveryResult;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+
+public interface NotificationSender {
+
+    NotificationChannel channel();
+
+    /**
+     * Hand one notification to the provider. Exceptions are treated as retryable failures.
+     */
+    DeliveryResult send(OutgoingNotification notification);
+}
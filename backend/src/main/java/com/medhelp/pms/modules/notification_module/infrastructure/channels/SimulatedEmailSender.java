@@ -0,0 +1,54 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.channels;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.DeliveryResult;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for mail providers, used until a real one is connected and for load tests.
+ * <p>
+ * It pretends to deliver, so it is only registered when notifications.simulator.enabled is set;
+ * without it and without a real sender, notifications of the channel are not dispatched.
+ * <p>
+ * Each send takes a fixed latency and fails transiently at the configured rate.
+ */
+@Service
+@ConditionalOnProperty(name = "notifications.simulator.enabled", havingValue = "true")
+@Slf4j
+public class SimulatedEmailSender implements NotificationSender {
+
+    @Value("${notifications.simulator.email.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${notifications.simulator.email.failure-rate:0.02}")
+    private double failureRate;
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public DeliveryResult send(OutgoingNotification notification) {
+        if (notification.getRecipient().indexOf('@') < 1) {
+            return DeliveryResult.failed("Invalid email address", false);
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DeliveryResult.failed("Interrupted", true);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return DeliveryResult.failed("Simulated provider error", true);
+        }
+        log.debug("Simulated email to {}: {}", notification.getRecipient(), notification.getSubject());
+        return DeliveryResult.delivered("SIM-" + notification.getId());
+    }
+}
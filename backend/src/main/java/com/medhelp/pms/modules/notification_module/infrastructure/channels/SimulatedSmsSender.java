@@ -0,0 +1,55 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.channels;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.DeliveryResult;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for SMS gateways, used until a real one is connected and for load tests.
+ * <p>
+ * It pretends to deliver, so it is only registered when notifications.simulator.enabled is set;
+ * without it and without a real sender, notifications of the channel are not dispatched.
+ * <p>
+ * Each send takes a fixed latency and fails transiently at the configured rate.
+ */
+@Service
+@ConditionalOnProperty(name = "notifications.simulator.enabled", havingValue = "true")
+@Slf4j
+public class SimulatedSmsSender implements NotificationSender {
+
+    @Value("${notifications.simulator.sms.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${notifications.simulator.sms.failure-rate:0.02}")
+    private double failureRate;
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.SMS;
+    }
+
+    @Override
+    public DeliveryResult send(OutgoingNotification notification) {
+        String digits = notification.getRecipient().replaceAll("\\D", "");
+        if (digits.length() < 10) {
+            return DeliveryResult.failed("Invalid phone number", false);
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DeliveryResult.failed("Interrupted", true);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return DeliveryResult.failed("Simulated provider error", true);
+        }
+        log.debug("Simulated sms to {}, {} characters", notification.getRecipient(), notification.getMessage().length());
+        return DeliveryResult.delivered("SIM-" + notification.getId());
+    }
+}
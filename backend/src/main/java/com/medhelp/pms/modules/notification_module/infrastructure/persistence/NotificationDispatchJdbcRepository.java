@@ -0,0 +1,167 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationStatus;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claims due notifications for sending and records the outcome of each attempt.
+ * <p>
+ * A claim marks the rows as sending until a lease expires; rows of a node that died while
+ * sending are released back to pending once their lease is over. The table is partitioned by
+ * created_at, so every statement bounds or matches created_at and only touches the partitions
+ * that can hold the rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationDispatchJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Take up to limit due notifications of the given channels created since createdAfter,
+     * skipping rows other nodes are claiming at the same time
+     */
+    public List<OutgoingNotification> claim(Collection<String> channels, int limit, LocalDateTime now,
+                                            LocalDateTime claimedUntil, LocalDateTime createdAfter) {
+        Timestamp after = Timestamp.valueOf(createdAfter);
+        return jdbcTemplate.query(
+                "UPDATE notification_schema.notifications n SET status = ?, claimed_until = ? " +
+                        "FROM (SELECT id, created_at FROM notification_schema.notifications " +
+                        "  WHERE status = ? AND next_attempt_at <= ? AND created_at >= ? " +
+                        "  AND notification_type = ANY(?) " +
+                        "  ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+                        "WHERE n.id = due.id AND n.created_at = due.created_at AND n.created_at >= ? " +
+                        "RETURNING n.id, n.created_at, n.notification_type, n.recipient, n.subject, n.message, " +
+                        "COALESCE(n.retry_count, 0), COALESCE(n.max_retries, 0)",
+                ps -> {
+                    ps.setString(1, NotificationStatus.SENDING.getCode());
+                    ps.setTimestamp(2, Timestamp.valueOf(claimedUntil));
+                    ps.setString(3, NotificationStatus.PENDING.getCode());
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                    ps.setTimestamp(5, after);
+                    ps.setArray(6, ps.getConnection().createArrayOf("varchar", channels.toArray()));
+                    ps.setInt(7, limit);
+                    ps.setTimestamp(8, after);
+                },
+                (rs, rowNum) -> new OutgoingNotification(rs.getObject(1, UUID.class),
+                        rs.getTimestamp(2).toLocalDateTime(), rs.getString(3), rs.getString(4), rs.getString(5),
+                        rs.getString(6), rs.getInt(7), rs.getInt(8)));
+    }
+
+    /**
+     * Reserve send time on a channel's shared schedule, starting where the last reservation of any
+     * node ended, or now if that is past
+     *
+     * @return nanoseconds from now until the end of the reserved time
+     */
+    public long reserveSendTime(String channel, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        Double remaining = jdbcTemplate.queryForObject(
+                "INSERT INTO notification_schema.notification_channel_slots AS s (channel, next_free_at) " +
+                        "VALUES (?, clock_timestamp() + make_interval(secs => ?)) " +
+                        "ON CONFLICT (channel) DO UPDATE SET next_free_at = " +
+                        "GREATEST(s.next_free_at, clock_timestamp()) + make_interval(secs => ?) " +
+                        "RETURNING EXTRACT(EPOCH FROM (s.next_free_at - clock_timestamp()))::float8",
+                Double.class, channel, seconds, seconds);
+        return remaining == null ? durationNanos : (long) (remaining * 1e9);
+    }
+
+    /**
+     * Release notifications created since createdAfter whose claim expired without an outcome
+     */
+    public int releaseExpiredClaims(LocalDateTime now, LocalDateTime createdAfter) {
+        return jdbcTemplate.update(
+                "UPDATE notification_schema.notifications SET status = ?, claimed_until = NULL " +
+                        "WHERE status = ? AND claimed_until < ? AND created_at >= ?",
+                NotificationStatus.PENDING.getCode(), NotificationStatus.SENDING.getCode(), Timestamp.valueOf(now),
+                Timestamp.valueOf(createdAfter));
+    }
+
+    /**
+     * Give up on notifications that were not sent before createdBefore
+     */
+    public int expirePending(LocalDateTime createdAfter, LocalDateTime createdBefore) {
+        return jdbcTemplate.update(
+                "UPDATE notification_schema.notifications SET status = ?, claimed_until = NULL, " +
+                        "error_message = 'Expired before it could be sent' " +
+                        "WHERE status IN (?, ?) AND created_at >= ? AND created_at < ?",
+                NotificationStatus.FAILED.getCode(), NotificationStatus.PENDING.getCode(),
+                NotificationStatus.SENDING.getCode(), Timestamp.valueOf(createdAfter),
+                Timestamp.valueOf(createdBefore));
+    }
+
+    public void markSent(List<Sent> sent, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE notification_schema.notifications SET status = ?, sent_at = ?, external_id = ?, " +
+                        "error_message = NULL, claimed_until = NULL WHERE id = ? AND created_at = ? AND status = ?",
+                sent, batchSize, (ps, row) -> {
+                    ps.setString(1, NotificationStatus.SENT.getCode());
+                    ps.setTimestamp(2, Timestamp.valueOf(row.getSentAt()));
+                    ps.setString(3, row.getExternalId());
+                    ps.setObject(4, row.getNotification().getId());
+                    ps.setTimestamp(5, Timestamp.valueOf(row.getNotification().getCreatedAt()));
+                    ps.setString(6, NotificationStatus.SENDING.getCode());
+                });
+    }
+
+    /**
+     * Count a failed attempt; with a next attempt time the row goes back to pending, otherwise it failed for good
+     */
+    public void markAttemptFailed(List<Attempt> attempts, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE notification_schema.notifications SET status = ?, next_attempt_at = COALESCE(?, next_attempt_at), " +
+                        "retry_count = COALESCE(retry_count, 0) + 1, error_message = ?, claimed_until = NULL " +
+                        "WHERE id = ? AND created_at = ? AND status = ?",
+                attempts, batchSize, (ps, row) -> {
+                    ps.setString(1, row.getNextAttemptAt() != null
+                            ? NotificationStatus.PENDING.getCode() : NotificationStatus.FAILED.getCode());
+                    ps.setTimestamp(2, row.getNextAttemptAt() != null ? Timestamp.valueOf(row.getNextAttemptAt()) : null);
+                    ps.setString(3, row.getError());
+                    ps.setObject(4, row.getNotification().getId());
+                    ps.setTimestamp(5, Timestamp.valueOf(row.getNotification().getCreatedAt()));
+                    ps.setString(6, NotificationStatus.SENDING.getCode());
+                });
+    }
+
+    /**
+     * Put claimed notifications back without counting an attempt
+     */
+    public void release(Collection<OutgoingNotification> notifications, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE notification_schema.notifications SET status = ?, claimed_until = NULL " +
+                        "WHERE id = ? AND created_at = ? AND status = ?",
+                notifications, batchSize, (ps, notification) -> {
+                    ps.setString(1, NotificationStatus.PENDING.getCode());
+                    ps.setObject(2, notification.getId());
+                    ps.setTimestamp(3, Timestamp.valueOf(notification.getCreatedAt()));
+                    ps.setString(4, NotificationStatus.SENDING.getCode());
+                });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Sent {
+        private final OutgoingNotification notification;
+        private final String externalId;
+        private final LocalDateTime sentAt;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Attempt {
+        private final OutgoingNotification notification;
+        private final String error;
+        private final LocalDateTime nextAttemptAt;
+    }
+}
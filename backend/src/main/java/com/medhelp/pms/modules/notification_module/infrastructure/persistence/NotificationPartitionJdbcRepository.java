@@ -0,0 +1,91 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates, archives and drops the monthly partitions of the notifications table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationPartitionJdbcRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("notifications_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the partition of the month unless it exists
+     *
+     * @return name of the partition
+     */
+    public String createPartition(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT notification_schema.create_notification_partition(?)",
+                String.class, Date.valueOf(month.atDay(1)));
+    }
+
+    /**
+     * Months that have a partition, oldest first
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                                "WHERE i.inhparent = 'notification_schema.notifications'::regclass ORDER BY c.relname",
+                        String.class).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+                .toList();
+    }
+
+    /**
+     * Rows of the default partition, which should stay empty while partitions are created ahead
+     */
+    public long countDefaultPartition() {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notification_schema.notifications_default", Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Write the partition as CSV with a header line
+     *
+     * @return number of rows written
+     */
+    public long copyOut(YearMonth month, OutputStream out) {
+        String sql = "COPY notification_schema." + partitionName(month) + " TO STDOUT (FORMAT csv, HEADER)";
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Detach and drop the partition; must run inside a transaction
+     */
+    public void dropPartition(YearMonth month) {
+        String partition = "notification_schema." + partitionName(month);
+        jdbcTemplate.execute("ALTER TABLE notification_schema.notifications DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return String.format("notifications_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
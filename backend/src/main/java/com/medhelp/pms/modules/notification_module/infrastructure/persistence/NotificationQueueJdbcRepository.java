@@ -0,0 +1,165 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationStatus;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.QueuedNotification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Adds notifications to the send queue and holds patient notifications in the coalescing window.
+ * <p>
+ * Staging a message and flushing a group both take the group's transaction advisory lock, so
+ * a group's window is never computed from rows another transaction is adding or removing.
+ * Queueing a notification once per reference takes the reference's lock the same way.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationQueueJdbcRepository {
+
+    private static final String GROUP_LOCK_NAMESPACE = "notification.coalescing";
+    private static final String REFERENCE_LOCK_NAMESPACE = "notification.reference";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<QueuedNotification> notifications, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification_schema.notifications (patient_id, template_id, notification_type, " +
+                        "recipient, subject, message, status, retry_count, max_retries, reference_type, reference_id, " +
+                        "coalesced_reference_ids, created_at, next_attempt_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 3, ?, ?, ?, ?, ?)",
+                notifications, batchSize, (ps, notification) -> {
+                    Timestamp createdAt = Timestamp.valueOf(notification.getCreatedAt());
+                    ps.setObject(1, notification.getPatientId());
+                    ps.setObject(2, notification.getTemplateId());
+                    ps.setString(3, notification.getNotificationType());
+                    ps.setString(4, notification.getRecipient());
+                    ps.setString(5, notification.getSubject());
+                    ps.setString(6, notification.getMessage());
+                    ps.setString(7, NotificationStatus.PENDING.getCode());
+                    ps.setString(8, notification.getReferenceType());
+                    ps.setObject(9, notification.getReferenceId());
+                    ps.setArray(10, notification.getCoalescedReferenceIds() != null
+                            ? ps.getConnection().createArrayOf("uuid", notification.getCoalescedReferenceIds().toArray())
+                            : null);
+                    ps.setTimestamp(11, createdAt);
+                    ps.setTimestamp(12, createdAt);
+                });
+    }
+
+    /**
+     * Queue a notification unless one with the same reference type and id was already queued.
+     * Waits for other transactions queueing the same reference (must run inside a transaction).
+     *
+     * @return false if the reference was already queued
+     */
+    public boolean insertOnce(QueuedNotification notification) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?), hashtext(?))", rs -> null,
+                REFERENCE_LOCK_NAMESPACE, notification.getReferenceType() + "/" + notification.getReferenceId());
+        Integer queued = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notification_schema.notifications WHERE reference_type = ? AND reference_id = ?",
+                Integer.class, notification.getReferenceType(), notification.getReferenceId());
+        if (queued != null && queued > 0) {
+            return false;
+        }
+        insert(List.of(notification), 1);
+        return true;
+    }
+
+    /**
+     * Hold a patient notification until the window of its group closes. The window starts with
+     * the first message of the group, so a steady stream cannot hold it back for longer. Waits
+     * for other transactions staging or flushing the same group (must run inside a transaction).
+     *
+     * @return false if a message for the same reference is already waiting
+     */
+    public boolean stage(QueuedNotification notification, LocalDateTime releaseAt) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?), hashtext(?))", rs -> null,
+                GROUP_LOCK_NAMESPACE, groupKey(notification.getPatientId(), notification.getNotificationType(),
+                        notification.getReferenceType()));
+        return jdbcTemplate.update(
+                "INSERT INTO notification_schema.coalescing_notifications (patient_id, notification_type, " +
+                        "reference_type, reference_id, template_id, recipient, subject, message, item_label, " +
+                        "created_at, release_at) " +
+                        "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(min(c.release_at), ?) " +
+                        "FROM notification_schema.coalescing_notifications c " +
+                        "WHERE c.patient_id = ? AND c.notification_type = ? AND c.reference_type = ? " +
+                        "ON CONFLICT (patient_id, notification_type, reference_type, reference_id) DO NOTHING",
+                ps -> {
+                    ps.setObject(1, notification.getPatientId());
+                    ps.setString(2, notification.getNotificationType());
+                    ps.setString(3, notification.getReferenceType());
+                    ps.setObject(4, notification.getReferenceId());
+                    ps.setObject(5, notification.getTemplateId());
+                    ps.setString(6, notification.getRecipient());
+                    ps.setString(7, notification.getSubject());
+                    ps.setString(8, notification.getMessage());
+                    ps.setString(9, notification.getItemLabel());
+                    ps.setTimestamp(10, Timestamp.valueOf(notification.getCreatedAt()));
+                    ps.setTimestamp(11, Timestamp.valueOf(releaseAt));
+                    ps.setObject(12, notification.getPatientId());
+                    ps.setString(13, notification.getNotificationType());
+                    ps.setString(14, notification.getReferenceType());
+                }) > 0;
+    }
+
+    /**
+     * Remove and return the waiting messages of up to maxGroups groups whose window closed,
+     * oldest first. Groups another transaction is staging into or flushing are skipped; the
+     * groups taken stay locked until the transaction ends (must run inside a transaction).
+     */
+    public List<QueuedNotification> takeReleased(LocalDateTime now, int maxGroups) {
+        List<UUID> patientIds = new ArrayList<>();
+        List<String> notificationTypes = new ArrayList<>();
+        List<String> referenceTypes = new ArrayList<>();
+        // The limit is applied before locking, so only the groups taken are locked
+        jdbcTemplate.query(
+                "SELECT g.patient_id, g.notification_type, g.reference_type FROM (" +
+                        "  SELECT patient_id, notification_type, reference_type, min(release_at) AS release_at " +
+                        "  FROM notification_schema.coalescing_notifications WHERE release_at <= ? " +
+                        "  GROUP BY patient_id, notification_type, reference_type " +
+                        "  ORDER BY min(release_at) LIMIT ?) g " +
+                        "WHERE pg_try_advisory_xact_lock(hashtext(?), " +
+                        "  hashtext(g.patient_id::text || '/' || g.notification_type || '/' || g.reference_type)) " +
+                        "ORDER BY g.release_at",
+                rs -> {
+                    patientIds.add(rs.getObject(1, UUID.class));
+                    notificationTypes.add(rs.getString(2));
+                    referenceTypes.add(rs.getString(3));
+                },
+                Timestamp.valueOf(now), maxGroups, GROUP_LOCK_NAMESPACE);
+        if (patientIds.isEmpty()) {
+            return List.of();
+        }
+        // A separate statement, so messages staged before the locks were taken are included
+        return jdbcTemplate.query(
+                "DELETE FROM notification_schema.coalescing_notifications c " +
+                        "USING unnest(?, ?, ?) AS g(patient_id, notification_type, reference_type) " +
+                        "WHERE c.patient_id = g.patient_id AND c.notification_type = g.notification_type " +
+                        "AND c.reference_type = g.reference_type " +
+                        "RETURNING c.patient_id, c.template_id, c.notification_type, c.recipient, c.subject, " +
+                        "c.message, c.reference_type, c.reference_id, c.item_label, c.created_at",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", patientIds.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", notificationTypes.toArray()));
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", referenceTypes.toArray()));
+                },
+                (rs, rowNum) -> new QueuedNotification(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                        rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7),
+                        rs.getObject(8, UUID.class), rs.getString(9), null,
+                        rs.getTimestamp(10).toLocalDateTime()));
+    }
+
+    /**
+     * Lock key of a coalescing group; takeReleased builds the same key in SQL
+     */
+    private static String groupKey(UUID patientId, String notificationType, String referenceType) {
+        return patientId + "/" + notificationType + "/" + referenceType;
+    }
+}
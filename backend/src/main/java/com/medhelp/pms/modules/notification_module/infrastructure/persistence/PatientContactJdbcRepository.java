@@ -0,0 +1,56 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.PatientContact;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads the contact details and preferences of patients to address notifications.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientContactJdbcRepository {
+
+    private static final String COLUMNS =
+            "id, first_name, language_preference, communication_preference, phone_primary, email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Optional<PatientContact> findContact(UUID patientId) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM patient_schema.patients WHERE id = ? AND deleted_at IS NULL",
+                (rs, rowNum) -> toContact(rs), patientId).stream().findFirst();
+    }
+
+    public Map<UUID, PatientContact> findContacts(Collection<UUID> patientIds) {
+        Map<UUID, PatientContact> contacts = new HashMap<>();
+        if (patientIds.isEmpty()) {
+            return contacts;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM patient_schema.patients WHERE id IN (:ids) AND deleted_at IS NULL",
+                new MapSqlParameterSource("ids", patientIds),
+                rs -> {
+                    PatientContact contact = toContact(rs);
+                    contacts.put(contact.getPatientId(), contact);
+                });
+        return contacts;
+    }
+
+    private static PatientContact toContact(ResultSet rs) throws SQLException {
+        return new PatientContact(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getString(5), rs.getString(6));
+    }
+}
@@ -0,0 +1,42 @@
+package com.medhelp.pms.modules.patient_module.api.controllers;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateCandidateDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateRunDto;
+import com.medhelp.pms.modules.patient_module.domain.services.DuplicatePatientService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/patients/duplicates")
+@RequiredArgsConstructor
+public class DuplicatePatientController {
+    private final DuplicatePatientService duplicatePatientService;
+
+    @GetMapping
+    @Operation(summary = "Duplicate Candidates", description = "Pairs of patients that may be the same person, highest score first")
+    public ResponseEntity<ApiResponse<List<DuplicateCandidateDto>>> getCandidates(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(duplicatePatientService.getCandidates(status, limit)));
+    }
+
+    @PostMapping("/detect")
+    @Operation(summary = "Detect Duplicates", description = "Run duplicate detection now instead of waiting for the nightly run")
+    public ResponseEntity<ApiResponse<DuplicateRunDto>> detect() {
+        return ResponseEntity.ok(ApiResponse.success(duplicatePatientService.detectDuplicates(),
+                "Duplicate detection completed"));
+    }
+
+    @PostMapping("/{candidateId}/review")
+    @Operation(summary = "Review Duplicate", description = "Mark a pending candidate as merged or dismissed; dismissed pairs are not raised again")
+    public ResponseEntity<ApiResponse<Void>> review(@PathVariable UUID candidateId, @RequestParam String status) {
+        duplicatePatientService.review(candidateId, status);
+        return ResponseEntity.ok(ApiResponse.success(null, "Duplicate candidate reviewed"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.medhelp.pms.modules.patient_module.api.controllers;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.EligibilityDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.MedicationHistoryDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientProfileDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientSearchResultDto;
+import com.medhelp.pms.modules.patient_module.domain.services.EligibilityService;
+import com.medhelp.pms.modules.patient_module.domain.services.MedicationHistoryService;
+import com.medhelp.pms.modules.patient_module.domain.services.PatientProfileService;
+import com.medhelp.pms.modules.patient_module.domain.services.PatientSearchService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/patients")
+@RequiredArgsConstructor
+public class PatientController {
+    private final PatientSearchService patientSearchService;
+    private final PatientProfileService patientProfileService;
+    private final MedicationHistoryService medicationHistoryService;
+    private final EligibilityService eligibilityService;
+
+    @GetMapping("/search")
+    @Operation(summary = "Search Patients", description = "Ranked patients matching partial or similar-sounding names, a birth date (2024-03-15, 3/15/2024) or year, and phone digits, e.g. \"smi 1972\"")
+    public ResponseEntity<ApiResponse<List<PatientSearchResultDto>>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(patientSearchService.search(q, limit)));
+    }
+
+    @GetMapping("/{patientId}/profile")
+    @Operation(summary = "Get Patient Profile", description = "Patient chart with active allergies, conditions and insurance and all prescribers")
+    public ResponseEntity<ApiResponse<PatientProfileDto>> getProfile(@PathVariable UUID patientId) {
+        return ResponseEntity.ok(ApiResponse.success(patientProfileService.getProfile(patientId)));
+    }
+
+    @GetMapping("/profiles")
+    @Operation(summary = "Get Patient Profiles", description = "Charts of several patients at once, in request order; unknown patients are left out")
+    public ResponseEntity<ApiResponse<List<PatientProfileDto>>> getProfiles(@RequestParam List<UUID> ids) {
+        return ResponseEntity.ok(ApiResponse.success(patientProfileService.getProfiles(ids)));
+    }
+
+    @GetMapping("/{patientId}/medication-history")
+    @Operation(summary = "Get Medication History", description = "Fills and refills of the patient, newest first, with the medications still in supply on the first page; pass nextCursor to page")
+    public ResponseEntity<ApiResponse<MedicationHistoryDto>> getMedicationHistory(
+            @PathVariable UUID patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(medicationHistoryService.getHistory(patientId, cursor, limit)));
+    }
+
+    @PostMapping("/{patientId}/medication-history/rebuild")
+    @Operation(summary = "Rebuild Medication History", description = "Recopy the patient's fills and refills from the prescription tables")
+    public ResponseEntity<ApiResponse<Integer>> rebuildMedicationHistory(@PathVariable UUID patientId) {
+        return ResponseEntity.ok(ApiResponse.success(medicationHistoryService.rebuild(patientId),
+                "Medication history rebuilt"));
+    }
+
+    @GetMapping("/{patientId}/eligibility")
+    @Operation(summary = "Get Eligibility", description = "Active coverage and the last eligibility result of the patient, from the cache unless refresh is set")
+    public ResponseEntity<ApiResponse<EligibilityDto>> getEligibility(
+            @PathVariable UUID patientId,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(ApiResponse.success(eligibilityService.getEligibilityDto(patientId, refresh)));
+    }
+}
@@ -0,0 +1,37 @@
+package com.medhelp.pms.modules.patient_module.api.controllers;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientImportResultDto;
+import com.medhelp.pms.modules.patient_module.domain.services.PatientTransferService;
+import com.medhelp.pms.shared.api.validators.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/patients/transfer")
+@RequiredArgsConstructor
+public class PatientTransferController {
+    private final PatientTransferService patientTransferService;
+
+    @GetMapping("/export")
+    @Operation(summary = "Export Patients", description = "Download all patients with allergies, conditions, insurance and prescribers as a compressed columnar transfer file")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients-" + LocalDate.now() + ".pmsc\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(patientTransferService::exportTo);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Import Patients", description = "Merge a transfer file from the export; existing patients and rows are kept as they are")
+    public ResponseEntity<ApiResponse<PatientImportResultDto>> importPatients(InputStream file) {
+        return ResponseEntity.ok(ApiResponse.success(patientTransferService.importFrom(file), "Patients imported"));
+    }
+}
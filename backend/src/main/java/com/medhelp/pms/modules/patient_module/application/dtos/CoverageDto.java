@@ -0,0 +1,27 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverageDto {
+    private UUID insuranceId;
+    private String insuranceProvider;
+    private String insuranceType;
+    private String binNumber;
+    private String pcnNumber;
+    private String groupNumber;
+    private String policyNumber;
+    private String cardholderName;
+    private LocalDate effectiveDate;
+    private LocalDate expirationDate;
+    private boolean primary;
+}
@@ -0,0 +1,39 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateCandidateDto {
+    private UUID id;
+    private BigDecimal score;
+    private BigDecimal nameScore;
+    private BigDecimal dobScore;
+    private BigDecimal phoneScore;
+    private BigDecimal addressScore;
+    private String status;
+    private LocalDateTime detectedAt;
+    private LocalDateTime reviewedAt;
+    private UUID patient1Id;
+    private String patient1Number;
+    private String patient1Name;
+    private LocalDate patient1DateOfBirth;
+    private String patient1Phone;
+    private String patient1Address;
+    private UUID patient2Id;
+    private String patient2Number;
+    private String patient2Name;
+    private LocalDate patient2DateOfBirth;
+    private String patient2Phone;
+    private String patient2Address;
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateRunDto {
+    private long blocks;
+    private long oversizedBlocks;
+    private long pairsCompared;
+    private int candidatesFound;
+    private int candidatesRemoved;
+    private long durationMs;
+}
@@ -0,0 +1,24 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EligibilityDto {
+    private UUID patientId;
+    private String status;
+    private String message;
+    private UUID checkedInsuranceId;
+    private LocalDateTime checkedAt;
+    private LocalDateTime loadedAt;
+    private List<CoverageDto> coverages;
+}
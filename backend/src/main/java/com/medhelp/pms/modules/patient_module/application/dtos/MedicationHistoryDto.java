@@ -0,0 +1,26 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MedicationHistoryDto {
+    /**
+     * Medications whose last fill has not run out; only on the first page
+     */
+    private List<MedicationHistoryEntryDto> currentMedications;
+    private List<MedicationHistoryEntryDto> fills;
+    /**
+     * Pass as cursor to get the next page; absent on the last page
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationHistoryEntryDto {
+    private UUID fillId;
+    private LocalDate filledDate;
+    private LocalDate runOutDate;
+    private UUID prescriptionId;
+    private String prescriptionNumber;
+    private UUID prescriptionItemId;
+    private int refillNumber;
+    private Integer refillsRemaining;
+    private UUID medicationId;
+    private String ndcCode;
+    private String medicationName;
+    private String genericName;
+    private String strength;
+    private String dosageForm;
+    private String therapeuticClass;
+    private BigDecimal quantity;
+    private String quantityUnit;
+    private int daysSupply;
+    private String sig;
+    private String prescriberName;
+    private String prescriberNpi;
+}
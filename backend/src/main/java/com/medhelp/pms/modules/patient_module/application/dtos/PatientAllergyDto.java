@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientAllergyDto {
+    private UUID id;
+    private String allergenType;
+    private String allergenName;
+    private String reaction;
+    private String severity;
+    private String notes;
+    private LocalDate onsetDate;
+}
@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientConditionDto {
+    private UUID id;
+    private String conditionName;
+    private String icd10Code;
+    private LocalDate diagnosedDate;
+    private String notes;
+}
@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportResultDto {
+    private Map<String, Long> rowsRead;
+    private Map<String, Integer> rowsInserted;
+    private long bytesRead;
+    private long durationMs;
+}
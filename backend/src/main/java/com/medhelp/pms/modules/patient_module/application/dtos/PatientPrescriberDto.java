@@ -0,0 +1,22 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientPrescriberDto {
+    private UUID id;
+    private String prescriberName;
+    private String prescriberNpi;
+    private String prescriberDea;
+    private String specialty;
+    private String phone;
+    private Boolean isPrimary;
+}
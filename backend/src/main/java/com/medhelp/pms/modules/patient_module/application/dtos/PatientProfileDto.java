@@ -0,0 +1,46 @@
+package com.medhelp.pms.modules.patient_module.application.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientProfileDto {
+    private UUID id;
+    private String patientNumber;
+    private String firstName;
+    private String middleName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private String phonePrimary;
+    private String phoneSecondary;
+    private String email;
+    private String addressLine1;
+    private String addressLine2;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+    private String languagePreference;
+    private String communicationPreference;
+    private Boolean allowGenericSubstitution;
+    private Boolean isActive;
+    @Builder.Default
+    private List<PatientAllergyDto> allergies = new ArrayList<>();
+    @Builder.Default
+    private List<PatientConditionDto> conditions = new ArrayList<>();
+    @Builder.Default
+    private List<PatientInsuranceDto> insurance = new ArrayList<>();
+    @Builder.Default
+    private List<PatientPrescriberDto> prescribers = new ArrayList<>();
+}
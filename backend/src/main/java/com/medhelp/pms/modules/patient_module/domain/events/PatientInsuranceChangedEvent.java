@@ -0,0 +1,15 @@
+package com.medhelp.pms.modules.patient_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when insurance of a patient was added, changed or deactivated.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientInsuranceChangedEvent {
+    private final UUID patientId;
+}
@@ -0,0 +1,15 @@
+package com.medhelp.pms.modules.patient_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when a patient or any of their allergies, conditions, insurance or prescribers changed.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientProfileChangedEvent {
+    private final UUID patientId;
+}
@@ -0,0 +1,223 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateCandidateDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateRunDto;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DedupRecord;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateBlockingKey;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateCandidateStatus;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateMatch;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.DuplicatePatientJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds patients registered more than once and records them for review.
+ * <p>
+ * Patients are only compared within blocks sharing a blocking key (birth date with the
+ * phonetic code of the last or first name, or phone number), streamed from the search index
+ * in key order. Blocks are scored in parallel on a fork-join pool a chunk at a time, so the
+ * run never compares all pairs and never holds all patients in memory.
+ */
+@Service
+@Slf4j
+public class DuplicatePatientService {
+
+    private static final int BLOCKS_PER_TASK = 32;
+
+    private final DuplicatePatientJdbcRepository duplicatePatientJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${patients.dedup.min-score:0.85}")
+    private double minScore;
+
+    @Value("${patients.dedup.min-name-score:0.8}")
+    private double minNameScore;
+
+    @Value("${patients.dedup.max-block-size:500}")
+    private int maxBlockSize;
+
+    @Value("${patients.dedup.blocks-per-chunk:5000}")
+    private int blocksPerChunk;
+
+    @Value("${patients.dedup.parallelism:0}")
+    private int parallelism;
+
+    @Value("${patients.dedup.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${patients.dedup.batch-size:500}")
+    private int batchSize;
+
+    public DuplicatePatientService(DuplicatePatientJdbcRepository duplicatePatientJdbcRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.duplicatePatientJdbcRepository = duplicatePatientJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nightly duplicate detection (scheduled task)
+     */
+    @Scheduled(cron = "${patients.dedup.cron:0 30 2 * * *}")
+    public void detectScheduled() {
+        if (running.get()) {
+            log.info("Skipping scheduled duplicate detection, a run is already in progress");
+            return;
+        }
+        detectDuplicates();
+    }
+
+    public DuplicateRunDto detectDuplicates() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException("DEDUP_RUN_IN_PROGRESS", "Duplicate detection is already running");
+        }
+        try {
+            return run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private DuplicateRunDto run() {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, DuplicateMatch> found = new ConcurrentHashMap<>();
+        // blocks, oversized blocks, pairs compared
+        long[] stats = new long[3];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            for (DuplicateBlockingKey key : DuplicateBlockingKey.values()) {
+                List<List<DedupRecord>> chunk = new ArrayList<>(blocksPerChunk);
+                transactionTemplate.executeWithoutResult(tx ->
+                        duplicatePatientJdbcRepository.forEachBlock(key, fetchSize, block -> {
+                            if (block.size() > maxBlockSize) {
+                                stats[1]++;
+                                return;
+                            }
+                            stats[0]++;
+                            stats[2] += (long) block.size() * (block.size() - 1) / 2;
+                            chunk.add(block);
+                            if (chunk.size() >= blocksPerChunk) {
+                                pool.invoke(new ScoreBlocks(chunk, found, minScore, minNameScore));
+                                chunk.clear();
+                            }
+                        }));
+                pool.invoke(new ScoreBlocks(chunk, found, minScore, minNameScore));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Integer removed = transactionTemplate.execute(tx -> {
+            duplicatePatientJdbcRepository.upsertCandidates(found.values(), startedAt, batchSize);
+            return duplicatePatientJdbcRepository.deletePendingNotSeenSince(startedAt);
+        });
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        if (stats[1] > 0) {
+            log.warn("Duplicate detection skipped {} blocks larger than {} patients", stats[1], maxBlockSize);
+        }
+        log.info("Duplicate detection: {} blocks, {} pairs compared, {} candidates in {} ms",
+                stats[0], stats[2], found.size(), elapsedMs);
+        return DuplicateRunDto.builder()
+                .blocks(stats[0])
+                .oversizedBlocks(stats[1])
+                .pairsCompared(stats[2])
+                .candidatesFound(found.size())
+                .candidatesRemoved(removed != null ? removed : 0)
+                .durationMs(elapsedMs)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<DuplicateCandidateDto> getCandidates(String status, int limit) {
+        DuplicateCandidateStatus candidateStatus = status != null
+                ? DuplicateCandidateStatus.fromCode(status) : DuplicateCandidateStatus.PENDING;
+        return duplicatePatientJdbcRepository.findByStatus(candidateStatus, Math.max(1, Math.min(limit, 500)));
+    }
+
+    /**
+     * Record the reviewer's decision on a pending candidate
+     */
+    @Transactional
+    public void review(UUID candidateId, String status) {
+        DuplicateCandidateStatus decision = DuplicateCandidateStatus.fromCode(status);
+        if (decision == DuplicateCandidateStatus.PENDING) {
+            throw new ValidationException("status", "Review decision must be merged or dismissed", status);
+        }
+        if (!duplicatePatientJdbcRepository.review(candidateId, decision, SecurityUtils.getCurrentUserId())) {
+            throw new BusinessException("DUPLICATE_NOT_PENDING",
+                    "Duplicate candidate does not exist or was already reviewed");
+        }
+        log.info("Duplicate candidate {} reviewed as {}", candidateId, decision.getCode());
+    }
+
+    /**
+     * Scores every pair within a range of blocks, splitting the range until it is small
+     */
+    private static final class ScoreBlocks extends RecursiveAction {
+        private final List<List<DedupRecord>> blocks;
+        private final int from;
+        private final int to;
+        private final Map<String, DuplicateMatch> found;
+        private final double minScore;
+        private final double minNameScore;
+
+        private ScoreBlocks(List<List<DedupRecord>> blocks, Map<String, DuplicateMatch> found,
+                            double minScore, double minNameScore) {
+            this(blocks, 0, blocks.size(), found, minScore, minNameScore);
+        }
+
+        private ScoreBlocks(List<List<DedupRecord>> blocks, int from, int to, Map<String, DuplicateMatch> found,
+                            double minScore, double minNameScore) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.minScore = minScore;
+            this.minNameScore = minNameScore;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BLOCKS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScoreBlocks(blocks, from, middle, found, minScore, minNameScore),
+                        new ScoreBlocks(blocks, middle, to, found, minScore, minNameScore));
+                return;
+            }
+            for (int b = from; b < to; b++) {
+                List<DedupRecord> block = blocks.get(b);
+                for (int i = 0; i < block.size(); i++) {
+                    for (int j = i + 1; j < block.size(); j++) {
+                        DuplicateMatch match = PatientMatcher.match(block.get(i), block.get(j), minScore, minNameScore);
+                        if (match != null) {
+                            // The same pair can share several blocking keys; keep one entry
+                            found.merge(match.getPatientId1() + ":" + match.getPatientId2(), match,
+                                    (kept, other) -> kept.getScore() >= other.getScore() ? kept : other);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
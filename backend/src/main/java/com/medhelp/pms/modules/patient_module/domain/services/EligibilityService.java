@@ -0,0 +1,263 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.CoverageDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.EligibilityDto;
+import com.medhelp.pms.modules.patient_module.domain.events.PatientInsuranceChangedEvent;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.Coverage;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityResult;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityStatus;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientEligibility;
+import com.medhelp.pms.modules.patient_module.infrastructure.eligibility.EligibilityChecker;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.CoverageJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionQueuedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coverage and eligibility of patients, cached per patient for the fill path.
+ * <p>
+ * Entries are loaded in the background when a prescription enters the queue, so the fill
+ * normally finds them ready. A fill arriving while the load runs waits for that load instead
+ * of starting another. Entries past the refresh age are served while a background reload
+ * replaces them; entries past the TTL are reloaded before use. Insurance changes evict the
+ * patient's entry once they commit.
+ * <p>
+ * Without an EligibilityChecker bean every covered patient is reported with unknown
+ * eligibility, never as eligible, and such results are not refreshed in the background.
+ */
+@Service
+@Slf4j
+public class EligibilityService {
+
+    private final CoverageJdbcRepository coverageJdbcRepository;
+    private final EligibilityChecker eligibilityChecker;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, CompletableFuture<PatientEligibility>> entries = new ConcurrentHashMap<>();
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Value("${patients.eligibility.ttl-minutes:240}")
+    private long ttlMinutes;
+
+    @Value("${patients.eligibility.refresh-after-minutes:180}")
+    private long refreshAfterMinutes;
+
+    @Value("${patients.eligibility.check-timeout-ms:3000}")
+    private long checkTimeoutMs;
+
+    public EligibilityService(CoverageJdbcRepository coverageJdbcRepository,
+                              ObjectProvider<EligibilityChecker> eligibilityChecker,
+                              @Value("${patients.eligibility.prefetch-threads:4}") int threads,
+                              @Value("${patients.eligibility.prefetch-queue-capacity:1000}") int queueCapacity) {
+        this.coverageJdbcRepository = coverageJdbcRepository;
+        this.eligibilityChecker = eligibilityChecker.getIfAvailable();
+        if (this.eligibilityChecker == null) {
+            log.warn("No eligibility checker is configured, eligibility of covered patients will be unknown");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "eligibility-prefetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrescriptionQueued(PrescriptionQueuedEvent event) {
+        prefetch(event.getPatientId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientInsuranceChanged(PatientInsuranceChangedEvent event) {
+        entries.remove(event.getPatientId());
+    }
+
+    /**
+     * Coverage and eligibility of the patient, from the cache when fresh
+     */
+    public PatientEligibility getEligibility(UUID patientId) {
+        while (true) {
+            CompletableFuture<PatientEligibility> entry = entries.get(patientId);
+            if (entry == null) {
+                CompletableFuture<PatientEligibility> loading = new CompletableFuture<>();
+                if (entries.putIfAbsent(patientId, loading) != null) {
+                    continue;
+                }
+                return complete(patientId, loading);
+            }
+            PatientEligibility eligibility;
+            try {
+                eligibility = entry.join();
+            } catch (CompletionException e) {
+                // Failed or rejected prefetch; drop it and load here
+                entries.remove(patientId, entry);
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (eligibility.getLoadedAt().isBefore(now.minusMinutes(ttlMinutes))) {
+                entries.remove(patientId, entry);
+                continue;
+            }
+            if (eligibility.getLoadedAt().isBefore(now.minusMinutes(refreshAfterMinutes))
+                    || (eligibility.getEligibility().getStatus() == EligibilityStatus.UNKNOWN
+                    && eligibilityChecker != null)) {
+                refreshInBackground(patientId, entry);
+            }
+            return eligibility;
+        }
+    }
+
+    public EligibilityDto getEligibilityDto(UUID patientId, boolean refresh) {
+        if (refresh) {
+            entries.remove(patientId);
+        }
+        PatientEligibility eligibility = getEligibility(patientId);
+        Coverage primary = eligibility.primaryOn(LocalDate.now());
+        EligibilityResult result = eligibility.getEligibility();
+        return EligibilityDto.builder()
+                .patientId(patientId)
+                .status(result.getStatus().getCode())
+                .message(result.getMessage())
+                .checkedInsuranceId(result.getInsuranceId())
+                .checkedAt(result.getCheckedAt())
+                .loadedAt(eligibility.getLoadedAt())
+                .coverages(eligibility.getCoverages().stream()
+                        .map(coverage -> CoverageDto.builder()
+                                .insuranceId(coverage.getInsuranceId())
+                                .insuranceProvider(coverage.getInsuranceProvider())
+                                .insuranceType(coverage.getInsuranceType())
+                                .binNumber(coverage.getBinNumber())
+                                .pcnNumber(coverage.getPcnNumber())
+                                .groupNumber(coverage.getGroupNumber())
+                                .policyNumber(coverage.getPolicyNumber())
+                                .cardholderName(coverage.getCardholderName())
+                                .effectiveDate(coverage.getEffectiveDate())
+                                .expirationDate(coverage.getExpirationDate())
+                                .primary(coverage == primary)
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Start loading the patient's entry in the background unless one is cached or loading
+     */
+    public void prefetch(UUID patientId) {
+        CompletableFuture<PatientEligibility> existing = entries.get(patientId);
+        if (existing != null && !(existing.isDone() && isExpired(existing))) {
+            return;
+        }
+        CompletableFuture<PatientEligibility> loading = new CompletableFuture<>();
+        boolean claimed = existing == null
+                ? entries.putIfAbsent(patientId, loading) == null
+                : entries.replace(patientId, existing, loading);
+        if (!claimed) {
+            return;
+        }
+        try {
+            executor.execute(() -> complete(patientId, loading));
+        } catch (RejectedExecutionException e) {
+            loading.completeExceptionally(e);
+            entries.remove(patientId, loading);
+            log.debug("Eligibility prefetch queue full, patient {} will be loaded on use", patientId);
+        }
+    }
+
+    /**
+     * Drop expired entries (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${patients.eligibility.sweep-interval-ms:300000}")
+    public void evictExpired() {
+        int before = entries.size();
+        entries.entrySet().removeIf(entry -> entry.getValue().isDone() && isExpired(entry.getValue()));
+        if (entries.size() < before) {
+            log.debug("Evicted {} expired eligibility entries, {} cached", before - entries.size(), entries.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void refreshInBackground(UUID patientId, CompletableFuture<PatientEligibility> current) {
+        if (!refreshing.add(patientId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    PatientEligibility reloaded = load(patientId);
+                    // Keep the reload only if the entry was not evicted or replaced meanwhile
+                    entries.replace(patientId, current, CompletableFuture.completedFuture(reloaded));
+                } catch (RuntimeException e) {
+                    log.warn("Background eligibility refresh failed for patient {}", patientId, e);
+                } finally {
+                    refreshing.remove(patientId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(patientId);
+        }
+    }
+
+    private PatientEligibility complete(UUID patientId, CompletableFuture<PatientEligibility> loading) {
+        try {
+            PatientEligibility eligibility = load(patientId);
+            loading.complete(eligibility);
+            return eligibility;
+        } catch (RuntimeException e) {
+            entries.remove(patientId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private PatientEligibility load(UUID patientId) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime loadedAt = LocalDateTime.now();
+        List<Coverage> coverages = coverageJdbcRepository.findCoverage(patientId, today);
+        Coverage primary = coverages.stream().filter(coverage -> coverage.isActiveOn(today)).findFirst().orElse(null);
+        EligibilityResult result;
+        if (primary == null) {
+            result = new EligibilityResult(EligibilityStatus.NO_COVERAGE, null, "No active insurance",
+                    LocalDateTime.now());
+        } else if (eligibilityChecker == null) {
+            result = new EligibilityResult(EligibilityStatus.UNKNOWN, primary.getInsuranceId(),
+                    "No eligibility checker is configured", LocalDateTime.now());
+        } else {
+            result = eligibilityChecker.check(patientId, primary, Duration.ofMillis(checkTimeoutMs));
+        }
+        return new PatientEligibility(patientId, coverages, result, loadedAt);
+    }
+
+    private boolean isExpired(CompletableFuture<PatientEligibility> entry) {
+        if (entry.isCompletedExceptionally()) {
+            return true;
+        }
+        PatientEligibility eligibility = entry.getNow(null);
+        return eligibility != null && eligibility.getLoadedAt().isBefore(LocalDateTime.now().minusMinutes(ttlMinutes));
+    }
+}
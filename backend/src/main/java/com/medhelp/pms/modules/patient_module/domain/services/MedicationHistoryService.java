@@ -0,0 +1,105 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.MedicationHistoryDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.MedicationHistoryEntryDto;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.MedicationHistoryJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent.FilledItem;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Patient medication history, kept as one denormalized row per fill.
+ * <p>
+ * Fill and refill events each append their rows, so history views and DUR checks read
+ * one index range of the patient instead of joining the prescription tables.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationHistoryService {
+
+    private final MedicationHistoryJdbcRepository medicationHistoryJdbcRepository;
+
+    @Value("${patients.medication-history.max-page-size:100}")
+    private int maxPageSize;
+
+    @ApplicationModuleListener
+    public void onPrescriptionFilled(PrescriptionFilledEvent event) {
+        List<UUID> itemIds = event.getItems().stream().map(FilledItem::getPrescriptionItemId).toList();
+        int inserted = medicationHistoryJdbcRepository.insertOriginalFills(itemIds);
+        if (inserted < itemIds.size()) {
+            log.debug("Prescription {}: {} of {} fills added to medication history", event.getPrescriptionNumber(),
+                    inserted, itemIds.size());
+        }
+    }
+
+    @ApplicationModuleListener
+    public void onPrescriptionRefilled(PrescriptionRefilledEvent event) {
+        medicationHistoryJdbcRepository.insertRefill(event.getRefillId());
+    }
+
+    /**
+     * A page of a patient's fills, newest first
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public MedicationHistoryDto getHistory(UUID patientId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        LocalDate beforeDate = null;
+        UUID beforeFillId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("_", 2);
+            try {
+                beforeDate = LocalDate.parse(parts[0]);
+                beforeFillId = UUID.fromString(parts[1]);
+            } catch (DateTimeParseException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new ValidationException("cursor", "Invalid cursor", cursor);
+            }
+        }
+
+        List<MedicationHistoryEntryDto> fills =
+                medicationHistoryJdbcRepository.findPage(patientId, beforeDate, beforeFillId, pageSize + 1);
+        String nextCursor = null;
+        if (fills.size() > pageSize) {
+            fills = fills.subList(0, pageSize);
+            MedicationHistoryEntryDto last = fills.get(pageSize - 1);
+            nextCursor = last.getFilledDate() + "_" + last.getFillId();
+        }
+        return MedicationHistoryDto.builder()
+                .currentMedications(beforeDate == null ? getCurrentMedications(patientId, LocalDate.now()) : null)
+                .fills(fills)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Latest fill of every medication the patient still has supply of on the given day, e.g. for DUR checks
+     */
+    @Transactional(readOnly = true)
+    public List<MedicationHistoryEntryDto> getCurrentMedications(UUID patientId, LocalDate asOf) {
+        return medicationHistoryJdbcRepository.findCurrent(patientId, asOf);
+    }
+
+    /**
+     * Recopy a patient's history from the prescription tables, e.g. after prescriptions were corrected
+     */
+    @Transactional
+    public int rebuild(UUID patientId) {
+        int fills = medicationHistoryJdbcRepository.rebuild(patientId);
+        log.info("Rebuilt medication history of patient {}: {} fills", patientId, fills);
+        return fills;
+    }
+}
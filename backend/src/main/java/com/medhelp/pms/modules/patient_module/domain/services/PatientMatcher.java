@@ -0,0 +1,120 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DedupRecord;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateMatch;
+
+import java.time.LocalDate;
+
+/**
+ * Scores how likely two patient records describe the same person, from 0 to 1.
+ * <p>
+ * Names are compared with Jaro-Winkler, also with first and last name swapped; birth dates
+ * score partly when day and month are swapped or one part differs; phones match on any
+ * shared number; addresses combine ZIP equality with street similarity.
+ */
+final class PatientMatcher {
+
+    private static final double NAME_WEIGHT = 0.45;
+    private static final double DOB_WEIGHT = 0.25;
+    private static final double PHONE_WEIGHT = 0.15;
+    private static final double ADDRESS_WEIGHT = 0.15;
+
+    private PatientMatcher() {
+    }
+
+    /**
+     * @return the scored pair, or null if it scores below either threshold
+     */
+    static DuplicateMatch match(DedupRecord a, DedupRecord b, double minScore, double minNameScore) {
+        double name = Math.max(
+                (jaroWinkler(a.getFirstName(), b.getFirstName()) + jaroWinkler(a.getLastName(), b.getLastName())) / 2,
+                (jaroWinkler(a.getFirstName(), b.getLastName()) + jaroWinkler(a.getLastName(), b.getFirstName())) / 2);
+        if (name < minNameScore) {
+            return null;
+        }
+        double dob = dobScore(a.getDateOfBirth(), b.getDateOfBirth());
+        double phone = sharesPhone(a, b) ? 1 : 0;
+        double address = (a.getZipCode() != null && a.getZipCode().equals(b.getZipCode()) ? 0.4 : 0)
+                + 0.6 * jaroWinkler(a.getAddress(), b.getAddress());
+        double score = NAME_WEIGHT * name + DOB_WEIGHT * dob + PHONE_WEIGHT * phone + ADDRESS_WEIGHT * address;
+        if (score < minScore) {
+            return null;
+        }
+        // Hex strings compare like PostgreSQL compares UUIDs; UUID.compareTo uses signed longs
+        boolean ordered = a.getPatientId().toString().compareTo(b.getPatientId().toString()) < 0;
+        return new DuplicateMatch(ordered ? a.getPatientId() : b.getPatientId(),
+                ordered ? b.getPatientId() : a.getPatientId(), score, name, dob, phone, address);
+    }
+
+    static double dobScore(LocalDate a, LocalDate b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        boolean swapped = a.getYear() == b.getYear()
+                && a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue();
+        int sameParts = (a.getYear() == b.getYear() ? 1 : 0) + (a.getMonthValue() == b.getMonthValue() ? 1 : 0)
+                + (a.getDayOfMonth() == b.getDayOfMonth() ? 1 : 0);
+        return swapped || sameParts == 2 ? 0.5 : 0;
+    }
+
+    private static boolean sharesPhone(DedupRecord a, DedupRecord b) {
+        return samePhone(a.getPhoneDigits(), b.getPhoneDigits())
+                || samePhone(a.getPhoneDigits(), b.getPhoneSecondaryDigits())
+                || samePhone(a.getPhoneSecondaryDigits(), b.getPhoneDigits());
+    }
+
+    private static boolean samePhone(String a, String b) {
+        return a != null && b != null && a.length() >= 7 && b.length() >= 7 && lastTen(a).equals(lastTen(b));
+    }
+
+    private static String lastTen(String digits) {
+        return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits;
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a == null || b == null || a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+}
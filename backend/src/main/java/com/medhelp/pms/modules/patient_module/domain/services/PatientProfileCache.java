@@ -0,0 +1,91 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientProfileDto;
+import com.medhelp.pms.modules.patient_module.domain.events.PatientProfileChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Recently opened patient profiles, least recently used dropped first.
+ * <p>
+ * Entries are evicted when {@link PatientProfileChangeFeed} reports a committed change to the
+ * patient, whichever node or path made it, and expire after a while as a last resort. A
+ * profile loaded while any eviction happened is not stored, so a load racing a change never
+ * caches the old version.
+ */
+@Component
+@Slf4j
+public class PatientProfileCache {
+
+    private final Map<UUID, Entry> entries;
+    private long generation;
+
+    @Value("${patients.profile-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    public PatientProfileCache(@Value("${patients.profile-cache.max-entries:5000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized PatientProfileDto get(UUID patientId) {
+        Entry entry = entries.get(patientId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt > ttlMs) {
+            entries.remove(patientId);
+            return null;
+        }
+        return entry.profile;
+    }
+
+    /**
+     * Generation to pass to {@link #put} for a profile about to be loaded
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(PatientProfileDto profile, long loadedGeneration) {
+        if (loadedGeneration == generation) {
+            entries.put(profile.getId(), new Entry(profile, System.currentTimeMillis()));
+        }
+    }
+
+    public synchronized void evict(UUID patientId) {
+        generation++;
+        entries.remove(patientId);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientProfileChanged(PatientProfileChangedEvent event) {
+        evict(event.getPatientId());
+        log.debug("Evicted profile of patient {}", event.getPatientId());
+    }
+
+    private static final class Entry {
+        private final PatientProfileDto profile;
+        private final long loadedAt;
+
+        private Entry(PatientProfileDto profile, long loadedAt) {
+            this.profile = profile;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
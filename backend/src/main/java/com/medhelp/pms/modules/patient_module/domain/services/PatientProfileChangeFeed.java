@@ -0,0 +1,84 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.domain.events.PatientInsuranceChangedEvent;
+import com.medhelp.pms.modules.patient_module.domain.events.PatientProfileChangedEvent;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientProfileChangeJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Publishes a {@link PatientProfileChangedEvent} for every patient whose profile changed, and a
+ * {@link PatientInsuranceChangedEvent} as well when their insurance was part of the change.
+ * <p>
+ * Triggers on the patients table and its allergies, conditions, insurance and prescribers
+ * record each change in the change log, so writes through JPA, transfer imports and SQL run
+ * outside the application all land there. Each node polls the log and publishes the events
+ * locally, so its profile and eligibility caches serve a changed patient for at most one
+ * poll interval.
+ */
+@Component
+@Slf4j
+public class PatientProfileChangeFeed {
+
+    private static final long CLEANUP_INTERVAL_MS = 3_600_000;
+
+    private final PatientProfileChangeJdbcRepository changeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private long watermark = -1;
+    private long lastCleanupAt;
+
+    @Value("${patients.profile-changes.retention-hours:24}")
+    private long retentionHours;
+
+    public PatientProfileChangeFeed(PatientProfileChangeJdbcRepository changeRepository,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.changeRepository = changeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Publish changes committed since the last poll (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${patients.profile-changes.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        long current = changeRepository.currentWatermark();
+        if (watermark < 0) {
+            // Changes from before startup predate anything this node has cached
+            watermark = current;
+            return;
+        }
+        Map<UUID, Boolean> changed = current > watermark
+                ? changeRepository.findChangedPatients(watermark, current)
+                : Map.of();
+        watermark = current;
+        for (Map.Entry<UUID, Boolean> patient : changed.entrySet()) {
+            eventPublisher.publishEvent(new PatientProfileChangedEvent(patient.getKey()));
+            if (patient.getValue()) {
+                eventPublisher.publishEvent(new PatientInsuranceChangedEvent(patient.getKey()));
+            }
+        }
+        if (!changed.isEmpty()) {
+            log.debug("Published profile changes of {} patients", changed.size());
+        }
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        long now = System.currentTimeMillis();
+        if (now - lastCleanupAt < CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        lastCleanupAt = now;
+        int removed = changeRepository.deleteChangedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (removed > 0) {
+            log.debug("Removed {} patient profile changes older than {} hours", removed, retentionHours);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientProfileDto;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientProfileJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Patient charts: the patient with allergies, conditions, insurance and prescribers,
+ * served from {@link PatientProfileCache} and otherwise loaded in five set-based queries.
+ * Returned profiles are shared with the cache and must not be modified.
+ */
+@Service
+@RequiredArgsConstructor
+public class PatientProfileService {
+
+    private final PatientProfileJdbcRepository patientProfileJdbcRepository;
+    private final PatientProfileCache patientProfileCache;
+
+    @Value("${patients.profile-cache.max-batch:200}")
+    private int maxBatch;
+
+    @Transactional(readOnly = true)
+    public PatientProfileDto getProfile(UUID patientId) {
+        PatientProfileDto profile = patientProfileCache.get(patientId);
+        if (profile != null) {
+            return profile;
+        }
+        List<PatientProfileDto> loaded = load(List.of(patientId));
+        if (loaded.isEmpty()) {
+            throw new EntityNotFoundException("Patient", patientId.toString());
+        }
+        return loaded.get(0);
+    }
+
+    /**
+     * Profiles of several patients in request order; unknown or deleted patients are left out
+     */
+    @Transactional(readOnly = true)
+    public List<PatientProfileDto> getProfiles(Collection<UUID> patientIds) {
+        Set<UUID> ids = new LinkedHashSet<>(patientIds);
+        if (ids.size() > maxBatch) {
+            throw new ValidationException("patientIds", "At most " + maxBatch + " patients per request", ids.size());
+        }
+        Map<UUID, PatientProfileDto> found = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            PatientProfileDto cached = patientProfileCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        for (PatientProfileDto profile : load(missing)) {
+            found.put(profile.getId(), profile);
+        }
+
+        List<PatientProfileDto> profiles = new ArrayList<>(found.size());
+        for (UUID id : ids) {
+            if (found.containsKey(id)) {
+                profiles.add(found.get(id));
+            }
+        }
+        return profiles;
+    }
+
+    private List<PatientProfileDto> load(Collection<UUID> patientIds) {
+        if (patientIds.isEmpty()) {
+            return List.of();
+        }
+        long generation = patientProfileCache.generation();
+        List<PatientProfileDto> profiles = new ArrayList<>(patientProfileJdbcRepository.findProfiles(patientIds).values());
+        for (PatientProfileDto profile : profiles) {
+            patientProfileCache.put(profile, generation);
+        }
+        return profiles;
+    }
+}
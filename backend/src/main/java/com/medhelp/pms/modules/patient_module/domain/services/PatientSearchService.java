@@ -0,0 +1,75 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientSearchResultDto;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientSearchQuery;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientSearchJdbcRepository;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientSearchJdbcRepository.PatientMatch;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Counter lookup of patients by partial or misspelled name, birth date or year and phone digits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientSearchService {
+
+    private final PatientSearchJdbcRepository patientSearchJdbcRepository;
+
+    @Value("${patients.search.max-results:50}")
+    private int maxResults;
+
+    @Value("${patients.search.min-phone-digits:4}")
+    private int minPhoneDigits;
+
+    /**
+     * Shortest name word that may be the only criterion; shorter words still narrow other criteria
+     */
+    @Value("${patients.search.min-name-letters:2}")
+    private int minNameLetters;
+
+    @Value("${patients.search.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Transactional(readOnly = true)
+    public List<PatientSearchResultDto> search(String text, int limit) {
+        PatientSearchQuery query = PatientSearchQuery.parse(text, minPhoneDigits);
+        if (query.isEmpty()) {
+            throw new ValidationException("q", "Search needs a name, birth date or at least "
+                    + minPhoneDigits + " phone digits", text);
+        }
+        if (!query.isSelective(minNameLetters)) {
+            throw new ValidationException("q", "Search needs a name of at least " + minNameLetters
+                    + " letters, a birth date or phone digits", text);
+        }
+
+        long started = System.nanoTime();
+        List<PatientMatch> matches = patientSearchJdbcRepository.search(query, Math.max(1, Math.min(limit, maxResults)));
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        if (elapsedMs > slowQueryMs) {
+            log.warn("Slow patient search ({} ms, {} results): {} name words, dob {}, year {}, {} phone fragments",
+                    elapsedMs, matches.size(), query.getNames().size(), query.getDateOfBirth() != null,
+                    query.getBirthYear() != null, query.getPhoneDigits().size());
+        }
+
+        return matches.stream()
+                .map(match -> PatientSearchResultDto.builder()
+                        .id(match.getPatientId())
+                        .patientNumber(match.getPatientNumber())
+                        .firstName(match.getFirstName())
+                        .middleName(match.getMiddleName())
+                        .lastName(match.getLastName())
+                        .dateOfBirth(match.getDateOfBirth())
+                        .phone(match.getPhonePrimary())
+                        .score(match.getScore())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientImportResultDto;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientTransferJdbcRepository;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnType;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader.TableHeader;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarWriter;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.TransferTable;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.persistence.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Moves patients with their allergies, conditions, insurance and prescribers between stores.
+ * <p>
+ * Exports read all tables from one repeatable-read snapshot through server-side cursors and
+ * stream them straight into the response, so memory use is one row group whatever the size.
+ * Imports run in a single transaction: either the whole file is merged or nothing is.
+ */
+@Service
+@Slf4j
+public class PatientTransferService {
+
+    private final PatientTransferJdbcRepository patientTransferJdbcRepository;
+    private final PatientProfileCache patientProfileCache;
+    private final TransactionTemplate exportTransaction;
+    private final TransactionTemplate importTransaction;
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    @Value("${patients.transfer.row-group-size:10000}")
+    private int rowGroupSize;
+
+    @Value("${patients.transfer.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${patients.transfer.progress-interval-rows:100000}")
+    private long progressIntervalRows;
+
+    public PatientTransferService(PatientTransferJdbcRepository patientTransferJdbcRepository,
+                                  PatientProfileCache patientProfileCache,
+                                  PlatformTransactionManager transactionManager) {
+        this.patientTransferJdbcRepository = patientTransferJdbcRepository;
+        this.patientProfileCache = patientProfileCache;
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
+        this.exportTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.importTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write all patient tables to the stream as a transfer file
+     */
+    public void exportTo(OutputStream out) {
+        long started = System.nanoTime();
+        Map<String, Long> rows = new LinkedHashMap<>();
+        long bytes = exportTransaction.execute(status -> {
+            try {
+                ColumnarWriter writer = new ColumnarWriter(out, rowGroupSize);
+                for (TransferTable table : TransferTable.values()) {
+                    rows.put(table.getTableName(), patientTransferJdbcRepository.exportTable(table, writer, fetchSize,
+                            progress("Exported", table, writer::bytesWritten)));
+                }
+                writer.close();
+                return writer.bytesWritten();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported patients in {} ms, {} bytes: {}", (System.nanoTime() - started) / 1_000_000, bytes, rows);
+    }
+
+    /**
+     * Merge a transfer file into the patient tables. Rows whose id or patient number already
+     * exists are skipped, as are child rows of patients that are neither in the file nor the store.
+     */
+    public PatientImportResultDto importFrom(InputStream in) {
+        if (!importing.compareAndSet(false, true)) {
+            throw new BusinessException("PATIENT_IMPORT_IN_PROGRESS", "A patient import is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            PatientImportResultDto result = importTransaction.execute(status -> {
+                try {
+                    return importTables(new ColumnarReader(in));
+                } catch (IOException e) {
+                    throw new ValidationException("file", "Transfer file could not be read: " + e.getMessage(), null);
+                }
+            });
+            result.setDurationMs((System.nanoTime() - started) / 1_000_000);
+            log.info("Imported patients in {} ms, {} bytes: read {}, inserted {}", result.getDurationMs(),
+                    result.getBytesRead(), result.getRowsRead(), result.getRowsInserted());
+            return result;
+        } finally {
+            importing.set(false);
+        }
+    }
+
+    private PatientImportResultDto importTables(ColumnarReader reader) throws IOException {
+        Map<String, Long> read = new LinkedHashMap<>();
+        Map<String, Integer> inserted = new LinkedHashMap<>();
+        int nextOrdinal = 0;
+        TableHeader header;
+        while ((header = reader.nextTable()) != null) {
+            TransferTable table = resolve(header);
+            // Patients have to be merged before the rows that reference them
+            if (table.ordinal() < nextOrdinal) {
+                throw new ValidationException("file", "Table is out of order or repeated", header.getName());
+            }
+            nextOrdinal = table.ordinal() + 1;
+            read.put(table.getTableName(), patientTransferJdbcRepository.stageTable(table, reader,
+                    progress("Staged", table, reader::bytesRead)));
+            inserted.put(table.getTableName(), patientTransferJdbcRepository.mergeStaged(table));
+        }
+        TransactionCallbacks.afterCommit(patientProfileCache::clear);
+        return PatientImportResultDto.builder()
+                .rowsRead(read)
+                .rowsInserted(inserted)
+                .bytesRead(reader.bytesRead())
+                .build();
+    }
+
+    /**
+     * Table matching the section header, which must have exactly the columns this version writes
+     */
+    private static TransferTable resolve(TableHeader header) {
+        TransferTable table;
+        try {
+            table = TransferTable.fromTableName(header.getName());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("file", "Unknown table in transfer file", header.getName());
+        }
+        List<String> names = table.getColumns().stream().map(TransferTable.Column::getName).toList();
+        List<ColumnType> types = table.getColumns().stream().map(TransferTable.Column::getType).toList();
+        if (!names.equals(header.getColumnNames()) || !types.equals(header.getTypes())) {
+            throw new ValidationException("file", "Columns of " + header.getName() + " do not match this version",
+                    header.getColumnNames());
+        }
+        return table;
+    }
+
+    private LongConsumer progress(String action, TransferTable table, LongSupplier bytes) {
+        long[] next = {progressIntervalRows};
+        return rows -> {
+            if (rows >= next[0]) {
+                log.info("{} {} rows of {} ({} bytes)", action, rows, table.getTableName(), bytes.getAsLong());
+                next[0] = (rows / progressIntervalRows + 1) * progressIntervalRows;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Active insurance of a patient as needed to bill a fill
+ */
+@Getter
+@AllArgsConstructor
+public class Coverage {
+    private final UUID insuranceId;
+    private final String insuranceProvider;
+    private final String insuranceType;
+    private final String binNumber;
+    private final String pcnNumber;
+    private final String groupNumber;
+    private final String policyNumber;
+    private final String cardholderName;
+    private final LocalDate effectiveDate;
+    private final LocalDate expirationDate;
+
+    public boolean isActiveOn(LocalDate date) {
+        return !effectiveDate.isAfter(date) && (expirationDate == null || !expirationDate.isBefore(date));
+    }
+}
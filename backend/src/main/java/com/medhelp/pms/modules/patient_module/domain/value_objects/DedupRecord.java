@@ -0,0 +1,23 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Normalized fields of a patient compared by duplicate detection
+ */
+@Getter
+@AllArgsConstructor
+public class DedupRecord {
+    private final UUID patientId;
+    private final String firstName;
+    private final String lastName;
+    private final LocalDate dateOfBirth;
+    private final String phoneDigits;
+    private final String phoneSecondaryDigits;
+    private final String address;
+    private final String zipCode;
+}
@@ -0,0 +1,11 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+/**
+ * Keys patients are grouped by before pairwise scoring; only patients sharing a key are compared.
+ * Each pass catches duplicates another misses, e.g. a changed last name or a mistyped birth date.
+ */
+public enum DuplicateBlockingKey {
+    DOB_LAST_NAME,
+    DOB_FIRST_NAME,
+    PHONE
+}
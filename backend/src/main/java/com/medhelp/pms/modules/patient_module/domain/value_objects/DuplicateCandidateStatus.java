@@ -0,0 +1,28 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.util.Arrays;
+
+public enum DuplicateCandidateStatus {
+    PENDING("pending"),
+    MERGED("merged"),
+    DISMISSED("dismissed");
+
+    private final String code;
+
+    DuplicateCandidateStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static DuplicateCandidateStatus fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(status -> status.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("status", "Unknown duplicate candidate status", code));
+    }
+}
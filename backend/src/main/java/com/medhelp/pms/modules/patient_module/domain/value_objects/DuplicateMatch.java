@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Scored pair of patients; patientId1 sorts before patientId2 as PostgreSQL orders UUIDs
+ */
+@Getter
+@AllArgsConstructor
+public class DuplicateMatch {
+    private final UUID patientId1;
+    private final UUID patientId2;
+    private final double score;
+    private final double nameScore;
+    private final double dobScore;
+    private final double phoneScore;
+    private final double addressScore;
+}
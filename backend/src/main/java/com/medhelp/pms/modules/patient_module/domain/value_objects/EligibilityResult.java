@@ -0,0 +1,19 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payer's answer to an eligibility check of one coverage
+ */
+@Getter
+@AllArgsConstructor
+public class EligibilityResult {
+    private final EligibilityStatus status;
+    private final UUID insuranceId;
+    private final String message;
+    private final LocalDateTime checkedAt;
+}
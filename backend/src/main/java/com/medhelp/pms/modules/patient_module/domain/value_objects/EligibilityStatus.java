@@ -0,0 +1,21 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+public enum EligibilityStatus {
+    ELIGIBLE("eligible"),
+    INELIGIBLE("ineligible"),
+    NO_COVERAGE("no_coverage"),
+    /**
+     * The payer could not be reached; checked again on the next lookup
+     */
+    UNKNOWN("unknown");
+
+    private final String code;
+
+    EligibilityStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,31 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Coverage of a patient and the last eligibility result, as cached for the fill path
+ */
+@Getter
+@AllArgsConstructor
+public class PatientEligibility {
+    private final UUID patientId;
+    /**
+     * Active and future coverage, most recently effective first
+     */
+    private final List<Coverage> coverages;
+    private final EligibilityResult eligibility;
+    private final LocalDateTime loadedAt;
+
+    /**
+     * Coverage billed first on the given day, or null if the patient pays cash
+     */
+    public Coverage primaryOn(LocalDate date) {
+        return coverages.stream().filter(coverage -> coverage.isActiveOn(date)).findFirst().orElse(null);
+    }
+}
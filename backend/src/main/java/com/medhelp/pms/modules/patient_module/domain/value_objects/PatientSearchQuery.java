@@ -0,0 +1,116 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Free-text patient search split into name keys, a birth date or year and phone digits,
+ * e.g. "smi 1972", "john smith 03/15/1972" or "555-0142"
+ */
+@Getter
+@AllArgsConstructor
+public class PatientSearchQuery {
+
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/uuuu");
+    private static final DateTimeFormatter US_DIGITS = DateTimeFormatter.ofPattern("MMdduuuu");
+
+    /**
+     * Lower case letters only, as in patient_schema.name_key
+     */
+    private final List<String> names;
+    private final LocalDate dateOfBirth;
+    private final Integer birthYear;
+    private final List<String> phoneDigits;
+
+    public boolean isEmpty() {
+        return names.isEmpty() && dateOfBirth == null && birthYear == null && phoneDigits.isEmpty();
+    }
+
+    /**
+     * Whether something narrows the search beyond name words shorter than the given length
+     */
+    public boolean isSelective(int minNameLetters) {
+        return dateOfBirth != null || birthYear != null || !phoneDigits.isEmpty()
+                || names.stream().anyMatch(name -> name.length() >= minNameLetters);
+    }
+
+    /**
+     * Split the text into criteria. Four bare digits are a birth year only next to a name and
+     * when no other token looks like part of a phone number, so "smi 1972" finds a birth year
+     * while "1972" alone or "555 1972" are phone digits.
+     */
+    public static PatientSearchQuery parse(String text, int minPhoneDigits) {
+        List<String> names = new ArrayList<>();
+        List<String> phoneDigits = new ArrayList<>();
+        LocalDate dateOfBirth = null;
+        Integer birthYear = null;
+        if (text == null) {
+            return new PatientSearchQuery(names, null, null, phoneDigits);
+        }
+
+        int thisYear = LocalDate.now().getYear();
+        List<String> years = new ArrayList<>();
+        List<String> digitTokens = new ArrayList<>();
+        for (String token : text.trim().split("[\\s,;]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            LocalDate date = parseDate(token);
+            if (date != null) {
+                dateOfBirth = date;
+                continue;
+            }
+            String digits = token.replaceAll("[^0-9]", "");
+            if (!digits.isEmpty() && token.matches("[0-9()+.\\-]+")) {
+                if (token.matches("\\d{4}") && Integer.parseInt(token) >= 1900 && Integer.parseInt(token) <= thisYear) {
+                    years.add(token);
+                } else {
+                    digitTokens.add(digits);
+                }
+                continue;
+            }
+            String name = token.toLowerCase(Locale.ROOT).replaceAll("[^\\p{IsAlphabetic}]", "");
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+
+        if (years.size() == 1 && !names.isEmpty() && digitTokens.isEmpty()) {
+            birthYear = Integer.parseInt(years.get(0));
+        } else {
+            digitTokens.addAll(years);
+        }
+        for (String digits : digitTokens) {
+            if (digits.length() >= minPhoneDigits) {
+                phoneDigits.add(digits);
+            }
+        }
+        return new PatientSearchQuery(names, dateOfBirth, birthYear, phoneDigits);
+    }
+
+    private static LocalDate parseDate(String token) {
+        try {
+            if (token.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                return LocalDate.parse(token);
+            }
+            if (token.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
+                return LocalDate.parse(token, US_DATE);
+            }
+            if (token.matches("\\d{8}")) {
+                LocalDate date = LocalDate.parse(token, US_DIGITS);
+                return date.getYear() >= 1900 && !date.isAfter(LocalDate.now()) ? date : null;
+            }
+        } catch (DateTimeParseException | DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.eligibility;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.Coverage;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityResult;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public interface EligibilityChecker {
+
+    /**
+     * Ask the payer whether the coverage is in force for the patient (NCPDP E1 or equivalent).
+     * Implementations give up after the timeout and return an unknown result instead of throwing.
+     */
+    EligibilityResult check(UUID patientId, Coverage coverage, Duration timeout);
+}
@@ -0,0 +1,64 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.eligibility;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.Coverage;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityResult;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Local stand-in for payer eligibility checks, used until a real switch is connected.
+ * <p>
+ * It invents answers, so it is only registered when patients.eligibility.simulator.enabled
+ * is set; without it and without a real checker, eligibility is reported as unknown.
+ * <p>
+ * The answer depends only on the policy number, so repeated checks agree.
+ */
+@Service
+@ConditionalOnProperty(name = "patients.eligibility.simulator.enabled", havingValue = "true")
+@Slf4j
+public class SimulatedEligibilityChecker implements EligibilityChecker {
+
+    private static final String[] INELIGIBLE_REASONS = {
+            "Coverage terminated",
+            "Cardholder ID not found",
+            "Patient not covered under this plan"
+    };
+
+    @Value("${patients.eligibility.simulator.latency-ms:150}")
+    private long latencyMs;
+
+    @Value("${patients.eligibility.simulator.eligible-rate:0.95}")
+    private double eligibleRate;
+
+    @Override
+    public EligibilityResult check(UUID patientId, Coverage coverage, Duration timeout) {
+        try {
+            Thread.sleep(Math.min(latencyMs, timeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new EligibilityResult(EligibilityStatus.UNKNOWN, coverage.getInsuranceId(), "Interrupted",
+                    LocalDateTime.now());
+        }
+        if (latencyMs > timeout.toMillis()) {
+            log.warn("Simulated eligibility check for patient {} timed out", patientId);
+            return new EligibilityResult(EligibilityStatus.UNKNOWN, coverage.getInsuranceId(), "Payer timed out",
+                    LocalDateTime.now());
+        }
+
+        SplittableRandom random = new SplittableRandom(coverage.getPolicyNumber().hashCode());
+        if (random.nextDouble() < eligibleRate) {
+            return new EligibilityResult(EligibilityStatus.ELIGIBLE, coverage.getInsuranceId(), null,
+                    LocalDateTime.now());
+        }
+        return new EligibilityResult(EligibilityStatus.INELIGIBLE, coverage.getInsuranceId(),
+                INELIGIBLE_REASONS[random.nextInt(INELIGIBLE_REASONS.length)], LocalDateTime.now());
+    }
+}
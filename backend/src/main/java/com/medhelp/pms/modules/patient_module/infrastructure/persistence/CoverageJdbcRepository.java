@@ -0,0 +1,34 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.Coverage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class CoverageJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Active insurance of the patient not expired before the given day, most recently effective first
+     */
+    public List<Coverage> findCoverage(UUID patientId, LocalDate notExpiredBefore) {
+        return jdbcTemplate.query(
+                "SELECT id, insurance_provider, insurance_type, bin_number, pcn_number, group_number, " +
+                        "policy_number, cardholder_name, effective_date, expiration_date " +
+                        "FROM patient_schema.patient_insurance " +
+                        "WHERE patient_id = ? AND is_active IS NOT FALSE " +
+                        "AND (expiration_date IS NULL OR expiration_date >= ?) " +
+                        "ORDER BY effective_date DESC, created_at DESC",
+                (rs, rowNum) -> new Coverage(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                        rs.getObject(9, LocalDate.class), rs.getObject(10, LocalDate.class)),
+                patientId, notExpiredBefore);
+    }
+}
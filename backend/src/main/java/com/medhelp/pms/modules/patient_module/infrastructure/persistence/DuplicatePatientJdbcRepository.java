@@ -0,0 +1,165 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateCandidateDto;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DedupRecord;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateBlockingKey;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateCandidateStatus;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateMatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads patients grouped by blocking key for duplicate detection and maintains the review table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DuplicatePatientJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stream the patients that share a blocking key, one block of two or more patients at a time.
+     * Rows are fetched in pages of fetchSize, so this must run inside a transaction.
+     */
+    public void forEachBlock(DuplicateBlockingKey key, int fetchSize, Consumer<List<DedupRecord>> consumer) {
+        String blockKey = switch (key) {
+            case DOB_LAST_NAME -> "s.date_of_birth::text || '|' || COALESCE(s.last_name_phonetic, s.last_name_key)";
+            case DOB_FIRST_NAME -> "s.date_of_birth::text || '|' || COALESCE(s.first_name_phonetic, s.first_name_key)";
+            case PHONE -> "right(s.phone_digits, 10)";
+        };
+        String sql = "SELECT " + blockKey + ", s.patient_id, s.first_name_key, s.last_name_key, s.date_of_birth, " +
+                "s.phone_digits, s.phone_secondary_digits, " +
+                "lower(regexp_replace(p.address_line1, '[^[:alnum:]]', '', 'g')), left(p.zip_code, 5) " +
+                "FROM patient_schema.patient_search_index s " +
+                "JOIN patient_schema.patients p ON p.id = s.patient_id " +
+                (key == DuplicateBlockingKey.PHONE ? "WHERE length(s.phone_digits) >= 7 " : "") +
+                "ORDER BY 1";
+
+        List<DedupRecord> block = new ArrayList<>();
+        String[] current = {null};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            String rowKey = rs.getString(1);
+            if (!Objects.equals(rowKey, current[0])) {
+                emit(block, consumer);
+                current[0] = rowKey;
+            }
+            block.add(new DedupRecord(rs.getObject(2, UUID.class), rs.getString(3), rs.getString(4),
+                    rs.getObject(5, LocalDate.class), rs.getString(6), rs.getString(7), rs.getString(8),
+                    rs.getString(9)));
+        });
+        emit(block, consumer);
+    }
+
+    private static void emit(List<DedupRecord> block, Consumer<List<DedupRecord>> consumer) {
+        if (block.size() > 1) {
+            consumer.accept(List.copyOf(block));
+        }
+        block.clear();
+    }
+
+    /**
+     * Record or refresh pending candidates; pairs already reviewed keep their decision
+     */
+    public void upsertCandidates(Collection<DuplicateMatch> matches, LocalDateTime seenAt, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO patient_schema.duplicate_candidates AS c (patient_id_1, patient_id_2, score, " +
+                        "name_score, dob_score, phone_score, address_score, status, detected_at, last_seen_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                        "ON CONFLICT (patient_id_1, patient_id_2) DO UPDATE SET score = EXCLUDED.score, " +
+                        "name_score = EXCLUDED.name_score, dob_score = EXCLUDED.dob_score, " +
+                        "phone_score = EXCLUDED.phone_score, address_score = EXCLUDED.address_score, " +
+                        "last_seen_at = EXCLUDED.last_seen_at " +
+                        "WHERE c.status = EXCLUDED.status",
+                matches, batchSize, (ps, match) -> {
+                    ps.setObject(1, match.getPatientId1());
+                    ps.setObject(2, match.getPatientId2());
+                    ps.setBigDecimal(3, decimal(match.getScore()));
+                    ps.setBigDecimal(4, decimal(match.getNameScore()));
+                    ps.setBigDecimal(5, decimal(match.getDobScore()));
+                    ps.setBigDecimal(6, decimal(match.getPhoneScore()));
+                    ps.setBigDecimal(7, decimal(match.getAddressScore()));
+                    ps.setString(8, DuplicateCandidateStatus.PENDING.getCode());
+                    ps.setTimestamp(9, Timestamp.valueOf(seenAt));
+                    ps.setTimestamp(10, Timestamp.valueOf(seenAt));
+                });
+    }
+
+    /**
+     * Drop pending candidates a complete run no longer found, e.g. after one of the patients was corrected
+     */
+    public int deletePendingNotSeenSince(LocalDateTime runStartedAt) {
+        return jdbcTemplate.update(
+                "DELETE FROM patient_schema.duplicate_candidates WHERE status = ? AND last_seen_at < ?",
+                DuplicateCandidateStatus.PENDING.getCode(), Timestamp.valueOf(runStartedAt));
+    }
+
+    public List<DuplicateCandidateDto> findByStatus(DuplicateCandidateStatus status, int limit) {
+        return jdbcTemplate.query(
+                "SELECT c.id, c.score, c.name_score, c.dob_score, c.phone_score, c.address_score, c.status, " +
+                        "c.detected_at, c.reviewed_at, " +
+                        "p1.id, p1.patient_number, p1.first_name || ' ' || p1.last_name, p1.date_of_birth, " +
+                        "p1.phone_primary, p1.address_line1, " +
+                        "p2.id, p2.patient_number, p2.first_name || ' ' || p2.last_name, p2.date_of_birth, " +
+                        "p2.phone_primary, p2.address_line1 " +
+                        "FROM patient_schema.duplicate_candidates c " +
+                        "JOIN patient_schema.patients p1 ON p1.id = c.patient_id_1 " +
+                        "JOIN patient_schema.patients p2 ON p2.id = c.patient_id_2 " +
+                        "WHERE c.status = ? ORDER BY c.score DESC, c.id LIMIT ?",
+                (rs, rowNum) -> DuplicateCandidateDto.builder()
+                        .id(rs.getObject(1, UUID.class))
+                        .score(rs.getBigDecimal(2))
+                        .nameScore(rs.getBigDecimal(3))
+                        .dobScore(rs.getBigDecimal(4))
+                        .phoneScore(rs.getBigDecimal(5))
+                        .addressScore(rs.getBigDecimal(6))
+                        .status(rs.getString(7))
+                        .detectedAt(rs.getTimestamp(8).toLocalDateTime())
+                        .reviewedAt(rs.getTimestamp(9) != null ? rs.getTimestamp(9).toLocalDateTime() : null)
+                        .patient1Id(rs.getObject(10, UUID.class))
+                        .patient1Number(rs.getString(11))
+                        .patient1Name(rs.getString(12))
+                        .patient1DateOfBirth(rs.getObject(13, LocalDate.class))
+                        .patient1Phone(rs.getString(14))
+                        .patient1Address(rs.getString(15))
+                        .patient2Id(rs.getObject(16, UUID.class))
+                        .patient2Number(rs.getString(17))
+                        .patient2Name(rs.getString(18))
+                        .patient2DateOfBirth(rs.getObject(19, LocalDate.class))
+                        .patient2Phone(rs.getString(20))
+                        .patient2Address(rs.getString(21))
+                        .build(),
+                status.getCode(), limit);
+    }
+
+    /**
+     * @return false if the candidate does not exist or was already reviewed
+     */
+    public boolean review(UUID candidateId, DuplicateCandidateStatus status, UUID reviewedBy) {
+        return jdbcTemplate.update(
+                "UPDATE patient_schema.duplicate_candidates SET status = ?, reviewed_at = CURRENT_TIMESTAMP, " +
+                        "reviewed_by = ? WHERE id = ? AND status = ?",
+                status.getCode(), reviewedBy, candidateId, DuplicateCandidateStatus.PENDING.getCode()) > 0;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,142 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.MedicationHistoryEntryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes and pages patient_schema.medication_history.
+ * <p>
+ * Rows are copied from the prescription tables once per fill and never updated, so reading a
+ * patient's history is a single range scan of (patient_id, filled_date DESC, fill_id DESC).
+ */
+@Repository
+@RequiredArgsConstructor
+public class MedicationHistoryJdbcRepository {
+
+    private static final String INSERT =
+            "INSERT INTO patient_schema.medication_history (fill_id, patient_id, filled_date, run_out_date, " +
+                    "prescription_id, prescription_number, prescription_item_id, refill_number, refills_remaining, " +
+                    "medication_id, ndc_code, medication_name, generic_name, strength, dosage_form, " +
+                    "therapeutic_class, quantity, quantity_unit, days_supply, sig, prescriber_name, prescriber_npi) ";
+
+    private static final String ORIGINAL_FILLS =
+            "SELECT pi.id, p.patient_id, COALESCE(p.dispensed_at, p.filled_at)::date, " +
+                    "COALESCE(p.dispensed_at, p.filled_at)::date + pi.days_supply, p.id, p.prescription_number, " +
+                    "pi.id, 0, pi.refills_authorized, m.id, COALESCE(pi.dispensed_ndc, m.ndc_code), " +
+                    "COALESCE(m.drug_name, pi.written_medication_name), m.generic_name, m.strength, m.dosage_form, " +
+                    "m.therapeutic_class, pi.dispensed_quantity, pi.quantity_unit, pi.days_supply, pi.sig, " +
+                    "p.prescriber_name, p.prescriber_npi " +
+                    "FROM prescription_schema.prescription_items pi " +
+                    "JOIN prescription_schema.prescriptions p ON p.id = pi.prescription_id " +
+                    "LEFT JOIN prescription_schema.medications m " +
+                    "  ON m.id = COALESCE(pi.dispensed_medication_id, pi.medication_id) " +
+                    "WHERE pi.dispensed_quantity IS NOT NULL AND COALESCE(p.dispensed_at, p.filled_at) IS NOT NULL ";
+
+    private static final String REFILLS =
+            "SELECT r.id, p.patient_id, r.filled_date, r.filled_date + r.days_supply, p.id, p.prescription_number, " +
+                    "r.prescription_item_id, r.refill_number, GREATEST(pi.refills_authorized - r.refill_number, 0), " +
+                    "m.id, r.ndc_code, COALESCE(m.drug_name, pi.written_medication_name, r.ndc_code), " +
+                    "m.generic_name, m.strength, m.dosage_form, m.therapeutic_class, r.quantity_dispensed, " +
+                    "pi.quantity_unit, r.days_supply, pi.sig, p.prescriber_name, p.prescriber_npi " +
+                    "FROM prescription_schema.prescription_refills r " +
+                    "JOIN prescription_schema.prescriptions p ON p.id = r.prescription_id " +
+                    "LEFT JOIN prescription_schema.prescription_items pi ON pi.id = r.prescription_item_id " +
+                    "LEFT JOIN prescription_schema.medications m ON m.ndc_code = r.ndc_code " +
+                    "WHERE TRUE ";
+
+    private static final String ON_CONFLICT = " ON CONFLICT (fill_id) DO NOTHING";
+
+    private static final String FIELDS =
+            "fill_id, filled_date, run_out_date, prescription_id, prescription_number, prescription_item_id, " +
+                    "refill_number, refills_remaining, medication_id, ndc_code, medication_name, generic_name, " +
+                    "strength, dosage_form, therapeutic_class, quantity, quantity_unit, days_supply, sig, " +
+                    "prescriber_name, prescriber_npi ";
+
+    private static final RowMapper<MedicationHistoryEntryDto> ENTRY = (rs, rowNum) -> MedicationHistoryEntryDto.builder()
+            .fillId(rs.getObject(1, UUID.class))
+            .filledDate(rs.getObject(2, LocalDate.class))
+            .runOutDate(rs.getObject(3, LocalDate.class))
+            .prescriptionId(rs.getObject(4, UUID.class))
+            .prescriptionNumber(rs.getString(5))
+            .prescriptionItemId(rs.getObject(6, UUID.class))
+            .refillNumber(rs.getInt(7))
+            .refillsRemaining((Integer) rs.getObject(8))
+            .medicationId(rs.getObject(9, UUID.class))
+            .ndcCode(rs.getString(10))
+            .medicationName(rs.getString(11))
+            .genericName(rs.getString(12))
+            .strength(rs.getString(13))
+            .dosageForm(rs.getString(14))
+            .therapeuticClass(rs.getString(15))
+            .quantity(rs.getBigDecimal(16))
+            .quantityUnit(rs.getString(17))
+            .daysSupply(rs.getInt(18))
+            .sig(rs.getString(19))
+            .prescriberName(rs.getString(20))
+            .prescriberNpi(rs.getString(21))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Record the original fill of the given prescription items; already recorded fills are skipped
+     */
+    public int insertOriginalFills(Collection<UUID> prescriptionItemIds) {
+        if (prescriptionItemIds.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(INSERT + ORIGINAL_FILLS + "AND pi.id IN (:ids)" + ON_CONFLICT,
+                new MapSqlParameterSource("ids", prescriptionItemIds));
+    }
+
+    public int insertRefill(UUID refillId) {
+        return jdbcTemplate.update(INSERT + REFILLS + "AND r.id = ?" + ON_CONFLICT, refillId);
+    }
+
+    /**
+     * Replace a patient's history with a fresh copy from the prescription tables
+     */
+    public int rebuild(UUID patientId) {
+        jdbcTemplate.update("DELETE FROM patient_schema.medication_history WHERE patient_id = ?", patientId);
+        return jdbcTemplate.update(INSERT + ORIGINAL_FILLS + "AND p.patient_id = ?" + ON_CONFLICT, patientId)
+                + jdbcTemplate.update(INSERT + REFILLS + "AND p.patient_id = ?" + ON_CONFLICT, patientId);
+    }
+
+    /**
+     * Fills of a patient, newest first, strictly after the (filledDate, fillId) cursor when given
+     */
+    public List<MedicationHistoryEntryDto> findPage(UUID patientId, LocalDate beforeDate, UUID beforeFillId,
+                                                    int limit) {
+        if (beforeDate == null) {
+            return jdbcTemplate.query("SELECT " + FIELDS + "FROM patient_schema.medication_history " +
+                    "WHERE patient_id = ? " +
+                    "ORDER BY filled_date DESC, fill_id DESC LIMIT ?", ENTRY, patientId, limit);
+        }
+        return jdbcTemplate.query("SELECT " + FIELDS + "FROM patient_schema.medication_history " +
+                "WHERE patient_id = ? AND (filled_date, fill_id) < (?, ?) " +
+                "ORDER BY filled_date DESC, fill_id DESC LIMIT ?", ENTRY, patientId, beforeDate, beforeFillId, limit);
+    }
+
+    /**
+     * Latest fill of each prescription item whose supply lasts until the given day
+     */
+    public List<MedicationHistoryEntryDto> findCurrent(UUID patientId, LocalDate asOf) {
+        return jdbcTemplate.query("SELECT * FROM (SELECT DISTINCT ON (COALESCE(prescription_item_id, fill_id)) " +
+                        FIELDS + "FROM patient_schema.medication_history " +
+                        "WHERE patient_id = ? AND run_out_date >= ? " +
+                        "ORDER BY COALESCE(prescription_item_id, fill_id), filled_date DESC, refill_number DESC) c " +
+                        "ORDER BY filled_date DESC, fill_id DESC",
+                ENTRY, patientId, asOf);
+    }
+}
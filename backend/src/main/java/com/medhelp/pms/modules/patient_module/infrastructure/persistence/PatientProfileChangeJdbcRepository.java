@@ -0,0 +1,59 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the patient profile change log that triggers on the patient tables fill.
+ * <p>
+ * Changes are read by transaction id between two watermarks. A watermark is the oldest
+ * transaction still running, so every change below it has either committed or rolled back
+ * and a later poll can never turn up a change below a watermark already passed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientProfileChangeJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Id of the oldest transaction still running; changes below it are final
+     */
+    public long currentWatermark() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class));
+    }
+
+    /**
+     * Patients changed by transactions with ids from fromWatermark (inclusive) to toWatermark (exclusive),
+     * each mapped to whether their insurance was among the changes
+     */
+    public Map<UUID, Boolean> findChangedPatients(long fromWatermark, long toWatermark) {
+        Map<UUID, Boolean> patients = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT patient_id, bool_or(insurance_changed) FROM patient_schema.patient_profile_changes " +
+                        "WHERE txid >= ?::text::xid8 AND txid < ?::text::xid8 GROUP BY patient_id",
+                rs -> {
+                    patients.put(rs.getObject(1, UUID.class), rs.getBoolean(2));
+                },
+                Long.toString(fromWatermark), Long.toString(toWatermark));
+        return patients;
+    }
+
+    /**
+     * Remove changes recorded before the given time
+     *
+     * @return the number of changes removed
+     */
+    public int deleteChangedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM patient_schema.patient_profile_changes WHERE changed_at < ?",
+                Timestamp.valueOf(before));
+    }
+}
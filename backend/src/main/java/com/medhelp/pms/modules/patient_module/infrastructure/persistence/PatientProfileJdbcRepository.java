@@ -0,0 +1,151 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientAllergyDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientConditionDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientInsuranceDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientPrescriberDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientProfileDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loads patient profiles with one query per table for any number of patients,
+ * instead of walking the lazy associations patient by patient.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientProfileJdbcRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Profiles of the patients that exist and are not deleted, with their active allergies,
+     * conditions and insurance and all their prescribers
+     */
+    public Map<UUID, PatientProfileDto> findProfiles(Collection<UUID> patientIds) {
+        Map<UUID, PatientProfileDto> profiles = new LinkedHashMap<>();
+        if (patientIds.isEmpty()) {
+            return profiles;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", patientIds);
+
+        namedParameterJdbcTemplate.query(
+                "SELECT id, patient_number, first_name, middle_name, last_name, date_of_birth, gender, " +
+                        "phone_primary, phone_secondary, email, address_line1, address_line2, city, state, " +
+                        "zip_code, country, language_preference, communication_preference, " +
+                        "allow_generic_substitution, is_active " +
+                        "FROM patient_schema.patients WHERE id IN (:ids) AND deleted_at IS NULL",
+                ids,
+                rs -> {
+                    UUID id = rs.getObject(1, UUID.class);
+                    profiles.put(id, PatientProfileDto.builder()
+                            .id(id)
+                            .patientNumber(rs.getString(2))
+                            .firstName(rs.getString(3))
+                            .middleName(rs.getString(4))
+                            .lastName(rs.getString(5))
+                            .dateOfBirth(rs.getObject(6, LocalDate.class))
+                            .gender(rs.getString(7))
+                            .phonePrimary(rs.getString(8))
+                            .phoneSecondary(rs.getString(9))
+                            .email(rs.getString(10))
+                            .addressLine1(rs.getString(11))
+                            .addressLine2(rs.getString(12))
+                            .city(rs.getString(13))
+                            .state(rs.getString(14))
+                            .zipCode(rs.getString(15))
+                            .country(rs.getString(16))
+                            .languagePreference(rs.getString(17))
+                            .communicationPreference(rs.getString(18))
+                            .allowGenericSubstitution((Boolean) rs.getObject(19))
+                            .isActive((Boolean) rs.getObject(20))
+                            .build());
+                });
+        if (profiles.isEmpty()) {
+            return profiles;
+        }
+        ids = new MapSqlParameterSource("ids", profiles.keySet());
+
+        namedParameterJdbcTemplate.query(
+                "SELECT patient_id, id, allergen_type, allergen_name, reaction, severity, notes, onset_date " +
+                        "FROM patient_schema.patient_allergies " +
+                        "WHERE patient_id IN (:ids) AND is_active IS NOT FALSE ORDER BY patient_id, allergen_name",
+                ids,
+                rs -> {
+                    profiles.get(rs.getObject(1, UUID.class)).getAllergies().add(PatientAllergyDto.builder()
+                            .id(rs.getObject(2, UUID.class))
+                            .allergenType(rs.getString(3))
+                            .allergenName(rs.getString(4))
+                            .reaction(rs.getString(5))
+                            .severity(rs.getString(6))
+                            .notes(rs.getString(7))
+                            .onsetDate(rs.getObject(8, LocalDate.class))
+                            .build());
+                });
+
+        namedParameterJdbcTemplate.query(
+                "SELECT patient_id, id, condition_name, icd_10_code, diagnosed_date, notes " +
+                        "FROM patient_schema.patient_conditions " +
+                        "WHERE patient_id IN (:ids) AND is_active IS NOT FALSE ORDER BY patient_id, condition_name",
+                ids,
+                rs -> {
+                    profiles.get(rs.getObject(1, UUID.class)).getConditions().add(PatientConditionDto.builder()
+                            .id(rs.getObject(2, UUID.class))
+                            .conditionName(rs.getString(3))
+                            .icd10Code(rs.getString(4))
+                            .diagnosedDate(rs.getObject(5, LocalDate.class))
+                            .notes(rs.getString(6))
+                            .build());
+                });
+
+        namedParameterJdbcTemplate.query(
+                "SELECT patient_id, id, insurance_provider, insurance_type, policy_number, group_number, " +
+                        "bin_number, pcn_number, cardholder_name, relationship_to_cardholder, effective_date, " +
+                        "expiration_date " +
+                        "FROM patient_schema.patient_insurance " +
+                        "WHERE patient_id IN (:ids) AND is_active IS NOT FALSE " +
+                        "ORDER BY patient_id, effective_date DESC",
+                ids,
+                rs -> {
+                    profiles.get(rs.getObject(1, UUID.class)).getInsurance().add(PatientInsuranceDto.builder()
+                            .id(rs.getObject(2, UUID.class))
+                            .insuranceProvider(rs.getString(3))
+                            .insuranceType(rs.getString(4))
+                            .policyNumber(rs.getString(5))
+                            .groupNumber(rs.getString(6))
+                            .binNumber(rs.getString(7))
+                            .pcnNumber(rs.getString(8))
+                            .cardholderName(rs.getString(9))
+                            .relationshipToCardholder(rs.getString(10))
+                            .effectiveDate(rs.getObject(11, LocalDate.class))
+                            .expirationDate(rs.getObject(12, LocalDate.class))
+                            .build());
+                });
+
+        namedParameterJdbcTemplate.query(
+                "SELECT patient_id, id, prescriber_name, prescriber_npi, prescriber_dea, specialty, phone, is_primary " +
+                        "FROM patient_schema.patient_prescribers " +
+                        "WHERE patient_id IN (:ids) ORDER BY patient_id, is_primary DESC, prescriber_name",
+                ids,
+                rs -> {
+                    profiles.get(rs.getObject(1, UUID.class)).getPrescribers().add(PatientPrescriberDto.builder()
+                            .id(rs.getObject(2, UUID.class))
+                            .prescriberName(rs.getString(3))
+                            .prescriberNpi(rs.getString(4))
+                            .prescriberDea(rs.getString(5))
+                            .specialty(rs.getString(6))
+                            .phone(rs.getString(7))
+                            .isPrimary((Boolean) rs.getObject(8))
+                            .build());
+                });
+        return profiles;
+    }
+}
@@ -0,0 +1,103 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientSearchQuery;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked lookups on patient_schema.patient_search_index, which a trigger keeps in step with patients.
+ * <p>
+ * Every name word must match a first or last name by prefix, by sound (double metaphone) or,
+ * for words of three letters or more, by trigram similarity. Birth date and phone digits filter.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientSearchJdbcRepository {
+
+    private static final int FUZZY_MIN_LENGTH = 3;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public List<PatientMatch> search(PatientSearchQuery query, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<String> where = new ArrayList<>();
+        List<String> score = new ArrayList<>();
+        score.add("0");
+
+        for (int i = 0; i < query.getNames().size(); i++) {
+            String name = query.getNames().get(i);
+            String t = ":t" + i;
+            String prefix = ":n" + i;
+            params.addValue("t" + i, name);
+            params.addValue("n" + i, name + "%");
+            if (name.length() < FUZZY_MIN_LENGTH) {
+                where.add("(s.last_name_key LIKE " + prefix + " OR s.first_name_key LIKE " + prefix + ")");
+                score.add("CASE WHEN s.last_name_key LIKE " + prefix + " THEN 4 ELSE 2 END");
+                continue;
+            }
+            where.add("(s.last_name_key LIKE " + prefix + " OR s.first_name_key LIKE " + prefix +
+                    " OR s.last_name_phonetic = dmetaphone(" + t + ") OR s.first_name_phonetic = dmetaphone(" + t + ")" +
+                    " OR s.last_name_key % " + t + " OR s.first_name_key % " + t + ")");
+            score.add("CASE WHEN s.last_name_key = " + t + " THEN 10" +
+                    " WHEN s.last_name_key LIKE " + prefix + " THEN 8" +
+                    " WHEN s.first_name_key = " + t + " THEN 6" +
+                    " WHEN s.first_name_key LIKE " + prefix + " THEN 5" +
+                    " WHEN s.last_name_phonetic = dmetaphone(" + t + ") THEN 4" +
+                    " WHEN s.first_name_phonetic = dmetaphone(" + t + ") THEN 3 ELSE 0 END" +
+                    " + 2 * greatest(similarity(s.last_name_key, " + t + "), similarity(s.first_name_key, " + t + "))");
+        }
+
+        if (query.getDateOfBirth() != null) {
+            where.add("s.date_of_birth = :dob");
+            params.addValue("dob", query.getDateOfBirth());
+        } else if (query.getBirthYear() != null) {
+            where.add("s.date_of_birth >= :yearStart AND s.date_of_birth < :yearEnd");
+            params.addValue("yearStart", LocalDate.of(query.getBirthYear(), 1, 1));
+            params.addValue("yearEnd", LocalDate.of(query.getBirthYear() + 1, 1, 1));
+        }
+
+        for (int i = 0; i < query.getPhoneDigits().size(); i++) {
+            String p = ":p" + i;
+            params.addValue("p" + i, "%" + query.getPhoneDigits().get(i) + "%");
+            params.addValue("ps" + i, "%" + query.getPhoneDigits().get(i));
+            where.add("(s.phone_digits LIKE " + p + " OR s.phone_secondary_digits LIKE " + p + ")");
+            // Numbers are usually given from the end, e.g. the last four digits
+            score.add("CASE WHEN s.phone_digits LIKE :ps" + i + " THEN 5 ELSE 3 END");
+        }
+
+        return namedParameterJdbcTemplate.query(
+                "SELECT p.id, p.patient_number, p.first_name, p.middle_name, p.last_name, p.date_of_birth, " +
+                        "p.phone_primary, " + String.join(" + ", score) + " AS score " +
+                        "FROM patient_schema.patient_search_index s " +
+                        "JOIN patient_schema.patients p ON p.id = s.patient_id " +
+                        "WHERE " + String.join(" AND ", where) + " " +
+                        "ORDER BY score DESC, s.last_name_key, s.first_name_key, s.date_of_birth, p.id " +
+                        "LIMIT :limit",
+                params,
+                (rs, rowNum) -> new PatientMatch(
+                        rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getObject(6, LocalDate.class), rs.getString(7), rs.getDouble(8)));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PatientMatch {
+        private final UUID patientId;
+        private final String patientNumber;
+        private final String firstName;
+        private final String middleName;
+        private final String lastName;
+        private final LocalDate dateOfBirth;
+        private final String phonePrimary;
+        private final double score;
+    }
+}
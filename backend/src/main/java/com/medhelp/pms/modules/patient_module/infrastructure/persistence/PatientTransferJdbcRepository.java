@@ -0,0 +1,141 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnType;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader.RowGroup;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarWriter;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.TransferTable;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.function.LongConsumer;
+
+/**
+ * Streams patient tables into transfer files and bulk-loads them back.
+ * <p>
+ * Imports COPY each table into a temporary staging table and merge it from there, so rows that
+ * already exist are skipped without a round trip per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientTransferJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Write every row of the table to the writer. Rows are fetched in pages of fetchSize,
+     * so this must run inside a transaction.
+     */
+    public long exportTable(TransferTable table, ColumnarWriter writer, int fetchSize, LongConsumer progress) {
+        String sql = "SELECT " + table.columnList() + " FROM patient_schema." + table.getTableName();
+        long[] rows = {0};
+        try {
+            writer.beginTable(table);
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.addRow(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress.accept(++rows[0]);
+            });
+            return writer.endTable();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copy the reader's current table into a staging table; must run inside a transaction
+     * that later calls {@link #mergeStaged}
+     */
+    public long stageTable(TransferTable table, ColumnarReader reader, LongConsumer progress) {
+        String staging = stagingTable(table);
+        jdbcTemplate.execute("CREATE TEMP TABLE " + staging + " (LIKE patient_schema." + table.getTableName() +
+                " INCLUDING DEFAULTS) ON COMMIT DROP");
+        String copy = "COPY " + staging + " (" + table.columnList() + ") FROM STDIN (FORMAT csv)";
+
+        Long staged = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(copy);
+            try {
+                StringBuilder csv = new StringBuilder(1 << 16);
+                long rows = 0;
+                RowGroup group;
+                while ((group = reader.nextRowGroup()) != null) {
+                    csv.setLength(0);
+                    appendCsv(csv, table, group);
+                    byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    rows += group.getRowCount();
+                    progress.accept(rows);
+                }
+                return copyIn.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        jdbcTemplate.execute("ANALYZE " + staging);
+        return staged != null ? staged : 0;
+    }
+
+    /**
+     * Insert staged rows that do not exist yet; child rows only for patients present after the merge
+     */
+    public int mergeStaged(TransferTable table) {
+        String columns = table.columnList();
+        String staging = stagingTable(table);
+        int inserted = jdbcTemplate.update("INSERT INTO patient_schema." + table.getTableName() + " (" + columns + ") " +
+                "SELECT " + columns + " FROM " + staging + " s " +
+                (table.isChildOfPatient()
+                        ? "WHERE EXISTS (SELECT 1 FROM patient_schema.patients p WHERE p.id = s.patient_id) "
+                        : "") +
+                "ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("DROP TABLE " + staging);
+        return inserted;
+    }
+
+    private static String stagingTable(TransferTable table) {
+        return "transfer_" + table.getTableName();
+    }
+
+    private static void appendCsv(StringBuilder csv, TransferTable table, RowGroup group) {
+        int columnCount = table.getColumns().size();
+        for (int r = 0; r < group.getRowCount(); r++) {
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) {
+                    csv.append(',');
+                }
+                Object value = group.value(c, r);
+                if (value == null) {
+                    // An unquoted empty field is NULL in CSV COPY
+                    continue;
+                }
+                ColumnType type = table.getColumns().get(c).getType();
+                switch (type) {
+                    case TEXT -> csv.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+                    case BOOLEAN -> csv.append((Boolean) value ? 't' : 'f');
+                    case DECIMAL -> csv.append(((BigDecimal) value).toPlainString());
+                    default -> csv.append(value);
+                }
+            }
+            csv.append('\n');
+        }
+    }
+}
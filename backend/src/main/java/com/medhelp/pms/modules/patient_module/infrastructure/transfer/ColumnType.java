@@ -0,0 +1,33 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import java.util.Arrays;
+
+/**
+ * Value types of transfer file columns; codes are written to the file and must not change
+ */
+public enum ColumnType {
+    ID(1),
+    TEXT(2),
+    DATE(3),
+    BOOLEAN(4),
+    INTEGER(5),
+    DECIMAL(6),
+    TIMESTAMP(7);
+
+    private final int code;
+
+    ColumnType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static ColumnType fromCode(int code) {
+        return Arrays.stream(values())
+                .filter(type -> type.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown column type " + code));
+    }
+}
@@ -0,0 +1,206 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a transfer file written by {@link ColumnarWriter}, one row group at a time
+ */
+public class ColumnarReader implements AutoCloseable {
+
+    private final CountingInputStream counter;
+    private final DataInputStream in;
+
+    private TableHeader table;
+
+    public ColumnarReader(InputStream source) throws IOException {
+        this.counter = new CountingInputStream(source);
+        DataInputStream header = new DataInputStream(counter);
+        byte[] magic = new byte[ColumnarWriter.MAGIC.length];
+        header.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarWriter.MAGIC)) {
+            throw new ValidationException("file", "Not a patient transfer file", null);
+        }
+        int version = header.readInt();
+        if (version != ColumnarWriter.VERSION) {
+            throw new ValidationException("file", "Unsupported transfer file version", version);
+        }
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(counter, 1 << 16), 1 << 16));
+    }
+
+    /**
+     * Header of the next table section, or null at the end of the file
+     */
+    public TableHeader nextTable() throws IOException {
+        if (table != null) {
+            throw new IllegalStateException("Table " + table.getName() + " was not read to the end");
+        }
+        int marker = in.readUnsignedByte();
+        if (marker == ColumnarWriter.END_FILE) {
+            return null;
+        }
+        expect(marker, ColumnarWriter.TABLE);
+        String name = in.readUTF();
+        int count = in.readUnsignedShort();
+        List<String> names = new ArrayList<>(count);
+        List<ColumnType> types = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            names.add(in.readUTF());
+            types.add(ColumnType.fromCode(in.readUnsignedByte()));
+        }
+        table = new TableHeader(name, names, types);
+        return table;
+    }
+
+    /**
+     * Next row group of the current table, or null once the table is exhausted
+     */
+    public RowGroup nextRowGroup() throws IOException {
+        int marker = in.readUnsignedByte();
+        if (marker == ColumnarWriter.END_TABLE) {
+            long declared = in.readLong();
+            if (declared != table.rowsRead) {
+                throw new ValidationException("file", "Table " + table.getName() + " is truncated", declared);
+            }
+            table = null;
+            return null;
+        }
+        expect(marker, ColumnarWriter.ROW_GROUP);
+        int rows = in.readInt();
+        List<ColumnType> types = table.getTypes();
+        Object[][] columns = new Object[types.size()][];
+        byte[] nulls = new byte[(rows + 7) / 8];
+        for (int c = 0; c < types.size(); c++) {
+            in.readFully(nulls);
+            Object[] column = new Object[rows];
+            for (int r = 0; r < rows; r++) {
+                if ((nulls[r >> 3] & (1 << (r & 7))) == 0) {
+                    column[r] = read(types.get(c));
+                }
+            }
+            columns[c] = column;
+        }
+        table.rowsRead += rows;
+        return new RowGroup(rows, columns);
+    }
+
+    /**
+     * Compressed bytes read so far
+     */
+    public long bytesRead() {
+        return counter.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Object read(ColumnType type) throws IOException {
+        return switch (type) {
+            case ID -> new UUID(in.readLong(), in.readLong());
+            case TEXT -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            case DATE -> LocalDate.ofEpochDay(in.readInt());
+            case BOOLEAN -> in.readBoolean();
+            case INTEGER -> in.readInt();
+            case DECIMAL -> new BigDecimal(in.readUTF());
+            case TIMESTAMP -> {
+                long micros = in.readLong();
+                yield Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000);
+            }
+        };
+    }
+
+    private static void expect(int marker, int expected) {
+        if (marker != expected) {
+            throw new ValidationException("file", "Corrupt transfer file", (char) marker);
+        }
+    }
+
+    public static final class TableHeader {
+        private final String name;
+        private final List<String> columnNames;
+        private final List<ColumnType> types;
+        private long rowsRead;
+
+        TableHeader(String name, List<String> columnNames, List<ColumnType> types) {
+            this.name = name;
+            this.columnNames = columnNames;
+            this.types = types;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getColumnNames() {
+            return columnNames;
+        }
+
+        public List<ColumnType> getTypes() {
+            return types;
+        }
+    }
+
+    public static final class RowGroup {
+        private final int rowCount;
+        private final Object[][] columns;
+
+        RowGroup(int rowCount, Object[][] columns) {
+            this.rowCount = rowCount;
+            this.columns = columns;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public Object value(int column, int row) {
+            return columns[column][row];
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
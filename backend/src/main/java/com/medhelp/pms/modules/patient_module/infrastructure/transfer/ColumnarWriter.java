@@ -0,0 +1,191 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.TransferTable.Column;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes tables to a transfer file.
+ * <p>
+ * The file is the magic bytes and version followed by a gzip stream of table sections. Each
+ * section holds its column layout and then row groups, and every row group stores one column
+ * after the other, each as a null bitmap followed by the non-null values. Keeping a column's
+ * values together lets gzip collapse the repetition in codes, cities and dates.
+ */
+public class ColumnarWriter implements AutoCloseable {
+
+    static final byte[] MAGIC = {'P', 'M', 'S', 'C'};
+    static final int VERSION = 1;
+    static final int TABLE = 'T';
+    static final int ROW_GROUP = 'G';
+    static final int END_TABLE = 'E';
+    static final int END_FILE = 'Z';
+
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+
+    private List<Column> columns;
+    private Object[][] values;
+    private int rows;
+    private long tableRows;
+
+    public ColumnarWriter(OutputStream target, int rowGroupSize) throws IOException {
+        this.rowGroupSize = rowGroupSize;
+        this.counter = new CountingOutputStream(target);
+        counter.write(MAGIC);
+        new DataOutputStream(counter).writeInt(VERSION);
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(counter, 1 << 16), 1 << 16));
+    }
+
+    public void beginTable(TransferTable table) throws IOException {
+        columns = table.getColumns();
+        values = new Object[columns.size()][rowGroupSize];
+        rows = 0;
+        tableRows = 0;
+        out.writeByte(TABLE);
+        out.writeUTF(table.getTableName());
+        out.writeShort(columns.size());
+        for (Column column : columns) {
+            out.writeUTF(column.getName());
+            out.writeByte(column.getType().getCode());
+        }
+    }
+
+    /**
+     * Add the current row of a result set selecting the table's columns in order
+     */
+    public void addRow(ResultSet rs) throws SQLException, IOException {
+        for (int c = 0; c < columns.size(); c++) {
+            values[c][rows] = read(rs, c + 1, columns.get(c).getType());
+        }
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Close the current table section and return its row count
+     */
+    public long endTable() throws IOException {
+        flushRowGroup();
+        out.writeByte(END_TABLE);
+        out.writeLong(tableRows);
+        values = null;
+        return tableRows;
+    }
+
+    /**
+     * Compressed bytes written so far
+     */
+    public long bytesWritten() {
+        return counter.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeByte(END_FILE);
+        out.close();
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeByte(ROW_GROUP);
+        out.writeInt(rows);
+        byte[] nulls = new byte[(rows + 7) / 8];
+        for (int c = 0; c < columns.size(); c++) {
+            Object[] column = values[c];
+            Arrays.fill(nulls, (byte) 0);
+            for (int r = 0; r < rows; r++) {
+                if (column[r] == null) {
+                    nulls[r >> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            out.write(nulls);
+            ColumnType type = columns.get(c).getType();
+            for (int r = 0; r < rows; r++) {
+                if (column[r] != null) {
+                    write(type, column[r]);
+                    column[r] = null;
+                }
+            }
+        }
+        tableRows += rows;
+        rows = 0;
+    }
+
+    private static Object read(ResultSet rs, int index, ColumnType type) throws SQLException {
+        return switch (type) {
+            case ID -> rs.getObject(index, UUID.class);
+            case TEXT -> rs.getString(index);
+            case DATE -> rs.getObject(index, LocalDate.class);
+            case BOOLEAN -> rs.getObject(index, Boolean.class);
+            case INTEGER -> rs.getObject(index, Integer.class);
+            case DECIMAL -> rs.getBigDecimal(index);
+            case TIMESTAMP -> {
+                OffsetDateTime value = rs.getObject(index, OffsetDateTime.class);
+                yield value != null ? value.toInstant() : null;
+            }
+        };
+    }
+
+    private void write(ColumnType type, Object value) throws IOException {
+        switch (type) {
+            case ID -> {
+                UUID id = (UUID) value;
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+            case TEXT -> {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            case DATE -> out.writeInt((int) ((LocalDate) value).toEpochDay());
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case INTEGER -> out.writeInt((Integer) value);
+            case DECIMAL -> out.writeUTF(((BigDecimal) value).toPlainString());
+            case TIMESTAMP -> {
+                Instant instant = (Instant) value;
+                out.writeLong(instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
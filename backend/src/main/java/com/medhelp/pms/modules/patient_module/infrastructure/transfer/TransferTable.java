@@ -0,0 +1,100 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import java.util.List;
+
+import static com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnType.*;
+
+/**
+ * Patient schema tables moved by export and import, in dependency order.
+ * <p>
+ * References to users (created_by, updated_by) are left out, since user ids differ between stores.
+ */
+public enum TransferTable {
+    PATIENTS("patients", false, List.of(
+            new Column("id", ID), new Column("patient_number", TEXT), new Column("first_name", TEXT),
+            new Column("middle_name", TEXT), new Column("last_name", TEXT), new Column("date_of_birth", DATE),
+            new Column("gender", TEXT), new Column("ssn_last_four", TEXT), new Column("phone_primary", TEXT),
+            new Column("phone_secondary", TEXT), new Column("email", TEXT), new Column("address_line1", TEXT),
+            new Column("address_line2", TEXT), new Column("city", TEXT), new Column("state", TEXT),
+            new Column("zip_code", TEXT), new Column("country", TEXT), new Column("language_preference", TEXT),
+            new Column("communication_preference", TEXT), new Column("allow_generic_substitution", BOOLEAN),
+            new Column("is_active", BOOLEAN), new Column("created_at", TIMESTAMP),
+            new Column("updated_at", TIMESTAMP), new Column("deleted_at", TIMESTAMP),
+            new Column("version", INTEGER))),
+    ALLERGIES("patient_allergies", true, List.of(
+            new Column("id", ID), new Column("patient_id", ID), new Column("allergen_type", TEXT),
+            new Column("allergen_name", TEXT), new Column("reaction", TEXT), new Column("severity", TEXT),
+            new Column("notes", TEXT), new Column("onset_date", DATE), new Column("is_active", BOOLEAN),
+            new Column("created_at", TIMESTAMP), new Column("updated_at", TIMESTAMP))),
+    CONDITIONS("patient_conditions", true, List.of(
+            new Column("id", ID), new Column("patient_id", ID), new Column("condition_name", TEXT),
+            new Column("icd_10_code", TEXT), new Column("diagnosed_date", DATE), new Column("is_active", BOOLEAN),
+            new Column("notes", TEXT), new Column("created_at", TIMESTAMP))),
+    INSURANCE("patient_insurance", true, List.of(
+            new Column("id", ID), new Column("patient_id", ID), new Column("insurance_provider", TEXT),
+            new Column("insurance_type", TEXT), new Column("policy_number", TEXT), new Column("group_number", TEXT),
+            new Column("bin_number", TEXT), new Column("pcn_number", TEXT), new Column("cardholder_name", TEXT),
+            new Column("relationship_to_cardholder", TEXT), new Column("effective_date", DATE),
+            new Column("expiration_date", DATE), new Column("is_active", BOOLEAN),
+            new Column("created_at", TIMESTAMP), new Column("updated_at", TIMESTAMP))),
+    PRESCRIBERS("patient_prescribers", true, List.of(
+            new Column("id", ID), new Column("patient_id", ID), new Column("prescriber_name", TEXT),
+            new Column("prescriber_npi", TEXT), new Column("prescriber_dea", TEXT), new Column("specialty", TEXT),
+            new Column("phone", TEXT), new Column("is_primary", BOOLEAN), new Column("created_at", TIMESTAMP)));
+
+    private final String tableName;
+    private final boolean childOfPatient;
+    private final List<Column> columns;
+
+    TransferTable(String tableName, boolean childOfPatient, List<Column> columns) {
+        this.tableName = tableName;
+        this.childOfPatient = childOfPatient;
+        this.columns = columns;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Rows reference patient_id and are only imported for patients present in the target
+     */
+    public boolean isChildOfPatient() {
+        return childOfPatient;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public String columnList() {
+        return String.join(", ", columns.stream().map(Column::getName).toList());
+    }
+
+    public static TransferTable fromTableName(String tableName) {
+        for (TransferTable table : values()) {
+            if (table.tableName.equals(tableName)) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("Unknown table " + tableName);
+    }
+
+    public static final class Column {
+        private final String name;
+        private final ColumnType type;
+
+        public Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medhelp.pms.modules.prescription_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when the items of a prescription were dispensed.
+ * <p>
+ * Listeners outside the prescription module receive it through the event publication
+ * registry, which stores it serialized until they complete, so it has no-args constructors.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionFilledEvent {
+    private UUID prescriptionId;
+    private String prescriptionNumber;
+    private UUID patientId;
+    private List<FilledItem> items;
+    private UUID dispensedBy;
+    private LocalDateTime dispensedAt;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilledItem {
+        private UUID prescriptionItemId;
+        private UUID dispensedMedicationId;
+        private String dispensedNdc;
+        private BigDecimal dispensedQuantity;
+        private UUID batchId;
+        private String batchNumber;
+    }
+}
@@ -0,0 +1,16 @@
+package com.medhelp.pms.modules.prescription_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when a prescription entered the fill queue.
+ */
+@Getter
+@AllArgsConstructor
+public class PrescriptionQueuedEvent {
+    private final UUID prescriptionId;
+    private final UUID patientId;
+}
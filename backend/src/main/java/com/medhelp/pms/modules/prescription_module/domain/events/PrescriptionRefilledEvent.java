@@ -0,0 +1,30 @@
+package com.medhelp.pms.modules.prescription_module.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when a refill of a prescription item was dispensed.
+ * <p>
+ * Stored by the event publication registry until listeners in other modules complete,
+ * so it has a no-args constructor.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionRefilledEvent {
+    private UUID refillId;
+    private UUID prescriptionId;
+    private UUID prescriptionItemId;
+    private UUID patientId;
+    private int refillNumber;
+    private String ndcCode;
+    private BigDecimal quantityDispensed;
+    private int daysSupply;
+    private LocalDate filledDate;
+}
@@ -0,0 +1,113 @@
+package com.medhelp.pms.modules.prescription_module.domain.services;
+
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionQueuedEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.value_objects.PrescriptionEventType;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository.OutboxEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes the prescription queued, fill and refill events that triggers put in the outbox.
+ * <p>
+ * Prescriptions are recorded and dispensed by writes this application does not own, so the
+ * events come from triggers on prescriptions and prescription_refills rather than from a
+ * service. Each batch is claimed, published and deleted in one transaction; the event
+ * publication registry stores the events for listeners in other modules in that same
+ * transaction, so an event is neither lost nor published twice. Claimed rows are skipped by
+ * other nodes, which relay the next batch in parallel.
+ * <p>
+ * Queued events only reach listeners on the relaying node. That is enough for the eligibility
+ * prefetch they drive; other nodes load eligibility on first use.
+ */
+@Component
+@Slf4j
+public class PrescriptionEventRelay {
+
+    private final PrescriptionEventJdbcRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${prescriptions.events.batch-size:500}")
+    private int batchSize;
+
+    public PrescriptionEventRelay(PrescriptionEventJdbcRepository eventRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Publish waiting events until the outbox is empty (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${prescriptions.events.relay-interval-ms:1000}")
+    public void relay() {
+        int relayed;
+        do {
+            Integer batch = transactionTemplate.execute(status -> relayBatch());
+            relayed = batch == null ? 0 : batch;
+        } while (relayed >= batchSize);
+    }
+
+    /**
+     * Claim and publish one batch; must run inside a transaction
+     *
+     * @return the number of outbox entries claimed
+     */
+    int relayBatch() {
+        List<OutboxEntry> entries = eventRepository.claim(batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<UUID> queued = new ArrayList<>();
+        List<UUID> filled = new ArrayList<>();
+        List<UUID> refilled = new ArrayList<>();
+        for (OutboxEntry entry : entries) {
+            PrescriptionEventType type = PrescriptionEventType.fromCode(entry.getEventType()).orElse(null);
+            if (type == PrescriptionEventType.QUEUED) {
+                queued.add(entry.getReferenceId());
+            } else if (type == PrescriptionEventType.FILLED) {
+                filled.add(entry.getReferenceId());
+            } else if (type == PrescriptionEventType.REFILLED) {
+                refilled.add(entry.getReferenceId());
+            } else {
+                log.warn("Dropped prescription outbox entry {} of unknown type {}", entry.getId(),
+                        entry.getEventType());
+            }
+        }
+
+        // Prescriptions filled by the time they are relayed no longer need a prefetch
+        List<PrescriptionQueuedEvent> queuedEvents = eventRepository.findQueued(queued);
+        for (PrescriptionQueuedEvent event : queuedEvents) {
+            eventPublisher.publishEvent(event);
+        }
+        List<PrescriptionFilledEvent> fills = eventRepository.findFills(filled);
+        for (PrescriptionFilledEvent fill : fills) {
+            eventPublisher.publishEvent(fill);
+        }
+        if (fills.size() < filled.size()) {
+            log.warn("{} of {} filled prescriptions had no dispensed items and were not published",
+                    filled.size() - fills.size(), filled.size());
+        }
+        List<PrescriptionRefilledEvent> refills = eventRepository.findRefills(refilled);
+        for (PrescriptionRefilledEvent refill : refills) {
+            eventPublisher.publishEvent(refill);
+        }
+        log.debug("Relayed {} queued prescriptions, {} fills and {} refills", queuedEvents.size(), fills.size(),
+                refills.size());
+        return entries.size();
+    }
+}
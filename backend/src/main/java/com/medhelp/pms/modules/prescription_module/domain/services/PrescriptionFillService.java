@@ -0,0 +1,29 @@
+package com.medhelp.pms.modules.prescription_module.domain.services;
+
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills of dispensed prescriptions for other modules, read the same way the event relay
+ * builds the fill events, so a backfill sees exactly what a live fill would have delivered.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrescriptionFillService {
+
+    private final PrescriptionEventJdbcRepository eventRepository;
+
+    /**
+     * Fills of the given prescriptions with their dispensed items; prescriptions that are not
+     * dispensed or have no dispensed item are absent
+     */
+    public List<PrescriptionFilledEvent> findFills(Collection<UUID> prescriptionIds) {
+        return eventRepository.findFills(prescriptionIds);
+    }
+}
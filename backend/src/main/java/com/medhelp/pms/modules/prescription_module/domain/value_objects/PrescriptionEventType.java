@@ -0,0 +1,29 @@
+package com.medhelp.pms.modules.prescription_module.domain.value_objects;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Kind of event waiting in the prescription event outbox
+ */
+public enum PrescriptionEventType {
+    QUEUED("queued"),
+    FILLED("filled"),
+    REFILLED("refilled");
+
+    private final String code;
+
+    PrescriptionEventType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static Optional<PrescriptionEventType> fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(type -> type.code.equals(code))
+                .findFirst();
+    }
+}
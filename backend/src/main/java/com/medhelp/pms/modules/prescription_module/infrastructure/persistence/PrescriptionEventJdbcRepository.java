@@ -0,0 +1,125 @@
+package com.medhelp.pms.modules.prescription_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent.FilledItem;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionQueuedEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The prescription event outbox that triggers fill, and the reads that turn its rows into events.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PrescriptionEventJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Remove and return the oldest outbox entries, skipping entries another transaction claimed;
+     * must run inside the transaction that publishes them
+     */
+    public List<OutboxEntry> claim(int limit) {
+        List<OutboxEntry> entries = new ArrayList<>(jdbcTemplate.query(
+                "DELETE FROM prescription_schema.prescription_event_outbox WHERE id IN (" +
+                        "SELECT id FROM prescription_schema.prescription_event_outbox " +
+                        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id, event_type, reference_id",
+                (rs, rowNum) -> new OutboxEntry(rs.getLong(1), rs.getString(2), rs.getObject(3, UUID.class)),
+                limit));
+        entries.sort(Comparator.comparingLong(OutboxEntry::getId));
+        return entries;
+    }
+
+    /**
+     * Queued events of the given prescriptions that are still not filled
+     */
+    public List<PrescriptionQueuedEvent> findQueued(Collection<UUID> prescriptionIds) {
+        if (prescriptionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return namedParameterJdbcTemplate.query(
+                "SELECT id, patient_id FROM prescription_schema.prescriptions " +
+                        "WHERE id IN (:ids) AND COALESCE(dispensed_at, filled_at) IS NULL",
+                new MapSqlParameterSource("ids", prescriptionIds),
+                (rs, rowNum) -> new PrescriptionQueuedEvent(rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class)));
+    }
+
+    /**
+     * Fills of the given dispensed prescriptions with their dispensed items; prescriptions
+     * without a dispensed item are absent
+     */
+    public List<PrescriptionFilledEvent> findFills(Collection<UUID> prescriptionIds) {
+        if (prescriptionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, PrescriptionFilledEvent> fills = new LinkedHashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT p.id, p.prescription_number, p.patient_id, COALESCE(p.dispensed_by, p.filled_by), " +
+                        "COALESCE(p.dispensed_at, p.filled_at), pi.id, pi.dispensed_medication_id, " +
+                        "COALESCE(pi.dispensed_ndc, dm.ndc_code), pi.dispensed_quantity " +
+                        "FROM prescription_schema.prescriptions p " +
+                        "JOIN prescription_schema.prescription_items pi ON pi.prescription_id = p.id " +
+                        "LEFT JOIN prescription_schema.medications dm ON dm.id = pi.dispensed_medication_id " +
+                        "WHERE p.id IN (:ids) AND COALESCE(p.dispensed_at, p.filled_at) IS NOT NULL " +
+                        "AND pi.dispensed_quantity > 0 " +
+                        "ORDER BY p.id, pi.created_at",
+                new MapSqlParameterSource("ids", prescriptionIds),
+                rs -> {
+                    UUID prescriptionId = rs.getObject(1, UUID.class);
+                    PrescriptionFilledEvent fill = fills.get(prescriptionId);
+                    if (fill == null) {
+                        fill = new PrescriptionFilledEvent(prescriptionId, rs.getString(2), rs.getObject(3, UUID.class),
+                                new ArrayList<>(), rs.getObject(4, UUID.class), rs.getTimestamp(5).toLocalDateTime());
+                        fills.put(prescriptionId, fill);
+                    }
+                    fill.getItems().add(new FilledItem(rs.getObject(6, UUID.class), rs.getObject(7, UUID.class),
+                            rs.getString(8), rs.getBigDecimal(9), null, null));
+                });
+        return new ArrayList<>(fills.values());
+    }
+
+    /**
+     * The given refills with the patient of their prescription
+     */
+    public List<PrescriptionRefilledEvent> findRefills(Collection<UUID> refillIds) {
+        if (refillIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return namedParameterJdbcTemplate.query(
+                "SELECT r.id, r.prescription_id, r.prescription_item_id, p.patient_id, r.refill_number, " +
+                        "r.ndc_code, r.quantity_dispensed, r.days_supply, r.filled_date " +
+                        "FROM prescription_schema.prescription_refills r " +
+                        "JOIN prescription_schema.prescriptions p ON p.id = r.prescription_id " +
+                        "WHERE r.id IN (:ids) ORDER BY r.created_at, r.id",
+                new MapSqlParameterSource("ids", refillIds),
+                (rs, rowNum) -> new PrescriptionRefilledEvent(rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class), rs.getObject(3, UUID.class), rs.getObject(4, UUID.class),
+                        rs.getInt(5), rs.getString(6), rs.getBigDecimal(7), rs.getInt(8),
+                        rs.getDate(9).toLocalDate()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OutboxEntry {
+        private final long id;
+        private final String eventType;
+        private final UUID referenceId;
+    }
+}
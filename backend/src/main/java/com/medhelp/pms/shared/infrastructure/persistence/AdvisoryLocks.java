@@ -0,0 +1,131 @@
+package com.medhelp.pms.shared.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * PostgreSQL advisory locks used to keep work from running on several nodes at once.
+ * <p>
+ * Locks are keyed by a namespace and a key, hashed into the two-integer form so that
+ * unrelated namespaces cannot collide. Transaction locks are released at commit or
+ * rollback; session locks hold a dedicated connection until they are closed.
+ */
+@Component
+@Slf4j
+public class AdvisoryLocks {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public AdvisoryLocks(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Wait for a lock held until the surrounding transaction ends (must run inside a transaction)
+     */
+    public void lockForTransaction(String namespace, String key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?), hashtext(?))",
+                rs -> null, namespace, key);
+    }
+
+    /**
+     * Wait for a shared lock held until the surrounding transaction ends; shared holders only
+     * exclude a holder of the exclusive lock (must run inside a transaction)
+     */
+    public void lockSharedForTransaction(String namespace, String key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(hashtext(?), hashtext(?))",
+                rs -> null, namespace, key);
+    }
+
+    /**
+     * Take a lock held until the surrounding transaction ends, without waiting
+     *
+     * @return false when another session holds the lock
+     */
+    public boolean tryLockForTransaction(String namespace, String key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?), hashtext(?))", Boolean.class, namespace, key));
+    }
+
+    /**
+     * Take a lock held on a dedicated connection until the returned handle is closed
+     *
+     * @return empty when another session holds the lock
+     */
+    public Optional<SessionLock> trySessionLock(String namespace, String key) {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            boolean acquired;
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT pg_try_advisory_lock(hashtext(?), hashtext(?))")) {
+                ps.setString(1, namespace);
+                ps.setString(2, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    acquired = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!acquired) {
+                connection.close();
+                return Optional.empty();
+            }
+            return Optional.of(new SessionLock(connection, namespace, key));
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new DataAccessResourceFailureException("Failed to take advisory lock " + namespace + "/" + key, e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close advisory lock connection", e);
+        }
+    }
+
+    /**
+     * A held session lock; closing it unlocks and returns the connection to the pool
+     */
+    public static final class SessionLock implements AutoCloseable {
+        private final Connection connection;
+        private final String namespace;
+        private final String key;
+
+        private SessionLock(Connection connection, String namespace, String key) {
+            this.connection = connection;
+            this.namespace = namespace;
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT pg_advisory_unlock(hashtext(?), hashtext(?))")) {
+                ps.setString(1, namespace);
+                ps.setString(2, key);
+                ps.execute();
+            } catch (SQLException e) {
+                // Closing the session below releases the lock anyway
+                log.warn("Failed to release advisory lock {}/{}", namespace, key, e);
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
@@ -11,6 +11,11 @@ import org.springframework.stereotype.Component;
 @Component
 public class SecurityUtils {
 
+    /**
+     * Built-in inactive user recorded as the author of work done by scheduled tasks
+     */
+    public static final UUID SYSTEM_USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
     /**
      * Get the currently authenticated user from the SecurityContext
      * 
@@ -42,6 +47,14 @@ public class SecurityUtils {
         return user != null ? user.getId() : null;
     }
 
+    /**
+     * Get the ID of the currently authenticated user, or the system user outside a request
+     */
+    public static UUID getCurrentUserIdOrSystem() {
+        UUID userId = getCurrentUserId();
+        return userId != null ? userId : SYSTEM_USER_ID;
+    }
+
     /**
      * Get current username
      */
@@ -0,0 +1,104 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.ClaimRunDto;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ClaimSubmission;
+import com.medhelp.pms.modules.billing_module.infrastructure.adjudication.ClaimAdjudicator;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.ClaimJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ClaimSubmissionServiceTest {
+
+    private ClaimJdbcRepository repository;
+    private ClaimAdjudicator adjudicator;
+    private AdvisoryLocks advisoryLocks;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ClaimJdbcRepository.class);
+        adjudicator = mock(ClaimAdjudicator.class);
+        advisoryLocks = mock(AdvisoryLocks.class);
+    }
+
+    @Test
+    void refusesToRunWithoutAnAdjudicator() {
+        ClaimSubmissionService service = service(null);
+
+        assertThatThrownBy(service::submitClaims)
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("adjudicator");
+        service.submitScheduled();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void reportsClaimsThatUsedUpTheirAttemptsAsFailed() {
+        ClaimSubmission claim = new ClaimSubmission(UUID.randomUUID(), "CLM00000001", UUID.randomUUID(), "610014",
+                null, null, "P1", "commercial", new BigDecimal("20.00"));
+        when(repository.failExhausted(any(), eq(3))).thenReturn(List.of("CLM00000000"));
+        when(repository.markSubmitted(any(), any(), eq(3), anyInt())).thenReturn(List.of(claim));
+        when(adjudicator.adjudicate(anyString(), anyList(), any())).thenReturn(List.of());
+        when(repository.release(any(), eq(3))).thenReturn(List.of("CLM00000001"));
+
+        ClaimRunDto run = service(adjudicator).submitClaims();
+
+        assertThat(run.getSubmitted()).isEqualTo(1);
+        assertThat(run.getUndelivered()).isZero();
+        assertThat(run.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    void createsClaimsUnderTheRunLock() {
+        when(repository.markSubmitted(any(), any(), eq(3), anyInt())).thenReturn(List.of());
+
+        service(adjudicator).submitClaims();
+
+        InOrder inOrder = inOrder(advisoryLocks, repository);
+        inOrder.verify(advisoryLocks).lockForTransaction("billing.claims", "create");
+        inOrder.verify(repository).createPendingClaims(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClaimSubmissionService service(ClaimAdjudicator claimAdjudicator) {
+        ObjectProvider<ClaimAdjudicator> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(claimAdjudicator);
+        ClaimSubmissionService service = new ClaimSubmissionService(repository, provider,
+                mock(ApplicationEventPublisher.class), advisoryLocks, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "payerBatchSize", 100);
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "timeoutMs", 1000L);
+        ReflectionTestUtils.setField(service, "runTimeoutMinutes", 1L);
+        ReflectionTestUtils.setField(service, "batchesPerSecond", 100.0);
+        ReflectionTestUtils.setField(service, "maxInFlightPerPayer", 4);
+        ReflectionTestUtils.setField(service, "payerRateLimits", "");
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "maxPerRun", 100);
+        ReflectionTestUtils.setField(service, "staleMinutes", 60L);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        return service;
+    }
+}
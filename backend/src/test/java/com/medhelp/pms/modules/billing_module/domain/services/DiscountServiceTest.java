@@ -0,0 +1,182 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.events.InvoiceAmountsChangedEvent;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.ActiveDiscount;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountLine;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountRedemption;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.DiscountType;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.DiscountJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.DiscountJdbcRepository.ReversedRedemption;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DiscountServiceTest {
+
+    private static final UUID PATIENT_ID = UUID.randomUUID();
+    private static final UUID MEDICATION_ID = UUID.randomUUID();
+
+    private DiscountCatalog catalog;
+    private DiscountJdbcRepository repository;
+    private ApplicationEventPublisher eventPublisher;
+    private DiscountService service;
+
+    @BeforeEach
+    void setUp() {
+        catalog = mock(DiscountCatalog.class);
+        repository = mock(DiscountJdbcRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new DiscountService(catalog, repository, eventPublisher);
+        when(repository.incrementPatientUsage(any(), any(), anyInt())).thenReturn(true);
+        when(repository.incrementUsage(any())).thenReturn(true);
+    }
+
+    @Test
+    void takesAPercentageOfTheEligibleLinesOnly() {
+        ActiveDiscount discount = discount("PCT", DiscountType.PERCENTAGE, "15", Set.of(MEDICATION_ID));
+
+        DiscountRedemption redemption = service.redeem("PCT", PATIENT_ID, null, List.of(
+                line(MEDICATION_ID, "10.05"), line(UUID.randomUUID(), "50.00")));
+
+        assertThat(redemption.getDiscountAmount()).isEqualByComparingTo("1.51");
+        assertThat(redemption.getDiscountId()).isEqualTo(discount.getId());
+    }
+
+    @Test
+    void capsAFixedAmountAtTheEligibleSubtotal() {
+        discount("FIX", DiscountType.FIXED_AMOUNT, "20", Set.of(MEDICATION_ID));
+
+        assertThat(service.redeem("FIX", PATIENT_ID, null, List.of(line(MEDICATION_ID, "12.00"),
+                line(UUID.randomUUID(), "30.00"))).getDiscountAmount()).isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    void givesTheCheapestEligibleLineForFree() {
+        discount("FREE", DiscountType.FREE_ITEM, "0", Set.of());
+
+        assertThat(service.redeem("FREE", PATIENT_ID, null, List.of(line(MEDICATION_ID, "8.00"),
+                line(UUID.randomUUID(), "3.25"), line(UUID.randomUUID(), null))).getDiscountAmount())
+                .isEqualByComparingTo("3.25");
+    }
+
+    @Test
+    void publishesTheDiscountForTheInvoice() {
+        discount("PCT", DiscountType.PERCENTAGE, "10", Set.of());
+        UUID invoiceId = UUID.randomUUID();
+
+        service.redeem("PCT", PATIENT_ID, invoiceId, List.of(line(MEDICATION_ID, "40.00")));
+
+        InvoiceAmountsChangedEvent.AmountChange change = publishedChange();
+        assertThat(change.getInvoiceId()).isEqualTo(invoiceId);
+        assertThat(change.getDiscountChange()).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void marksACodeUsedUpWhenTheLastUseIsGone() {
+        ActiveDiscount discount = discount("LAST", DiscountType.PERCENTAGE, "10", Set.of());
+        when(repository.incrementUsage(discount.getId())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.redeem("LAST", PATIENT_ID, UUID.randomUUID(),
+                List.of(line(MEDICATION_ID, "40.00"))))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo("DISCOUNT_USED_UP"));
+        verify(catalog).markExhausted(discount.getId());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void refusesAPatientOverTheirLimitBeforeTouchingTheSharedCounter() {
+        ActiveDiscount discount = discount("ONCE", DiscountType.PERCENTAGE, "10", Set.of());
+        when(repository.incrementPatientUsage(eq(discount.getId()), eq(PATIENT_ID), anyInt())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.redeem("ONCE", PATIENT_ID, null, List.of(line(MEDICATION_ID, "40.00"))))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo("DISCOUNT_PATIENT_LIMIT"));
+        verify(repository, never()).incrementUsage(any());
+    }
+
+    @Test
+    void reversingGivesTheUseAndTheAmountBack() {
+        UUID redemptionId = UUID.randomUUID();
+        UUID discountId = UUID.randomUUID();
+        UUID invoiceId = UUID.randomUUID();
+        when(repository.reverseRedemption(redemptionId)).thenReturn(Optional.of(new ReversedRedemption(
+                redemptionId, discountId, PATIENT_ID, new BigDecimal("4.00"), invoiceId)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.reverse(redemptionId);
+            verify(catalog, never()).markAvailable(any());
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(repository).decrementUsage(discountId, PATIENT_ID);
+        verify(catalog).markAvailable(discountId);
+        assertThat(publishedChange().getDiscountChange()).isEqualByComparingTo("-4.00");
+    }
+
+    @Test
+    void refusesToReverseAnUnknownOrReversedRedemption() {
+        UUID redemptionId = UUID.randomUUID();
+        when(repository.reverseRedemption(redemptionId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.reverse(redemptionId)).isInstanceOf(EntityNotFoundException.class);
+        verify(repository, never()).decrementUsage(any(), any());
+    }
+
+    private ActiveDiscount discount(String code, DiscountType type, String value, Set<UUID> medicationIds) {
+        ActiveDiscount discount = ActiveDiscount.builder()
+                .id(UUID.randomUUID())
+                .code(code)
+                .description(code)
+                .type(type)
+                .value(new BigDecimal(value))
+                .maxUsesPerPatient(1)
+                .effectiveDate(LocalDate.now().minusDays(1))
+                .expirationDate(LocalDate.now().plusDays(1))
+                .medicationIds(medicationIds)
+                .ndcCodes(Set.of())
+                .therapeuticClasses(Set.of())
+                .build();
+        when(catalog.find(code)).thenReturn(discount);
+        return discount;
+    }
+
+    private InvoiceAmountsChangedEvent.AmountChange publishedChange() {
+        ArgumentCaptor<InvoiceAmountsChangedEvent> event = ArgumentCaptor.forClass(InvoiceAmountsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return event.getValue().getChanges().get(0);
+    }
+
+    private static DiscountLine line(UUID medicationId, String amount) {
+        return new DiscountLine(medicationId, null, null, amount != null ? new BigDecimal(amount) : null);
+    }
+}
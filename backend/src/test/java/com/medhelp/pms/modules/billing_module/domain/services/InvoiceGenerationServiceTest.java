@@ -0,0 +1,122 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.InvoiceGenerationDto;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.GeneratedInvoice;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricedLine;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.MedicationPrice;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoice;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent.FilledItem;
+import com.medhelp.pms.modules.prescription_module.domain.services.PrescriptionFillService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceGenerationServiceTest {
+
+    private static final String NDC = "00000000001";
+
+    private InvoiceJdbcRepository repository;
+    private ApplicationEventPublisher eventPublisher;
+    private InvoiceGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(InvoiceJdbcRepository.class);
+        PricingEngine pricingEngine = mock(PricingEngine.class);
+        when(pricingEngine.price(any())).thenReturn(new PricedLine(null, null, "usual", new BigDecimal("2.00")));
+        when(repository.findInvoicedPrescriptions(anyCollection())).thenReturn(Set.of());
+        when(repository.findMedicationPrices(anyCollection())).thenReturn(Map.of(NDC,
+                new MedicationPrice(UUID.randomUUID(), NDC, "Amoxicillin 500mg", "Antibiotic", null,
+                        new BigDecimal("2.00"))));
+        when(repository.nextInvoiceNumbers(anyInt())).thenReturn(List.of("INV00000001", "INV00000002"));
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new InvoiceGenerationService(repository, mock(PrescriptionFillService.class), pricingEngine,
+                eventPublisher, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "dueDays", 30);
+        ReflectionTestUtils.setField(service, "costMarkupPercent", new BigDecimal("25"));
+        ReflectionTestUtils.setField(service, "dispensingFee", BigDecimal.ZERO);
+    }
+
+    @Test
+    void countsFillsInvoicedConcurrentlyAsAlreadyInvoiced() {
+        PrescriptionFilledEvent insured = fill();
+        PrescriptionFilledEvent cash = fill();
+        when(repository.findPayerTypes(anyCollection(), any())).thenReturn(Map.of(insured.getPatientId(),
+                "commercial"));
+        ArgumentCaptor<List<NewInvoice>> invoices = captor();
+        // The insured fill lost the insert to another writer
+        when(repository.insertInvoices(invoices.capture(), eq(100))).thenAnswer(invocation ->
+                Set.of(invoices.getValue().get(1).getId()));
+
+        InvoiceGenerationDto result = service.generate(List.of(insured, cash));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getAlreadyInvoiced()).isEqualTo(1);
+        ArgumentCaptor<InvoicesGeneratedEvent> event = ArgumentCaptor.forClass(InvoicesGeneratedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getInvoices()).extracting(GeneratedInvoice::getInvoiceId)
+                .containsExactly(invoices.getValue().get(1).getId());
+    }
+
+    @Test
+    void publishesNothingWhenEveryFillWasInvoicedConcurrently() {
+        when(repository.findPayerTypes(anyCollection(), any())).thenReturn(Map.of());
+        when(repository.insertInvoices(any(), anyInt())).thenReturn(Set.of());
+
+        service.generate(List.of(fill()));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void leavesTheCopayOfCoveredFillsToAdjudication() {
+        PrescriptionFilledEvent insured = fill();
+        PrescriptionFilledEvent cash = fill();
+        when(repository.findPayerTypes(anyCollection(), any())).thenReturn(Map.of(insured.getPatientId(),
+                "commercial"));
+        when(repository.insertInvoices(any(), anyInt())).thenReturn(Set.of());
+
+        service.generate(List.of(insured, cash));
+
+        ArgumentCaptor<List<NewInvoice>> invoices = captor();
+        verify(repository).insertInvoices(invoices.capture(), anyInt());
+        assertThat(invoices.getValue().get(0).getPatientCopay()).isEqualByComparingTo("0");
+        assertThat(invoices.getValue().get(1).getPatientCopay()).isEqualByComparingTo("20.00");
+    }
+
+    private static PrescriptionFilledEvent fill() {
+        return new PrescriptionFilledEvent(UUID.randomUUID(), "RX1", UUID.randomUUID(),
+                List.of(new FilledItem(UUID.randomUUID(), null, NDC, BigDecimal.TEN, null, null)), null,
+                LocalDateTime.now());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<List<NewInvoice>> captor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.application.dtos.PostPaymentRequest;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.InvoiceBalance;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.PaymentJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentPostingServiceTest {
+
+    private static final UUID INVOICE_ID = UUID.randomUUID();
+
+    private PaymentJdbcRepository repository;
+    private PaymentPostingService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PaymentJdbcRepository.class);
+        when(repository.findBalance(INVOICE_ID)).thenReturn(Optional.of(new InvoiceBalance(INVOICE_ID,
+                UUID.randomUUID(), LocalDate.now(), null, new BigDecimal("50.00"), new BigDecimal("30.00"),
+                new BigDecimal("20.00"), "partially_paid", null)));
+        service = new PaymentPostingService(repository);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+    }
+
+    @Test
+    void rejectsAPaymentLargerThanTheOutstandingAmount() {
+        assertThatThrownBy(() -> service.post(request("20.01", null)))
+                .isInstanceOf(ValidationException.class);
+
+        verify(repository, never()).postPayments(any(), any(), anyInt());
+    }
+
+    @Test
+    void reportsATransactionPostedConcurrentlyAsDuplicate() {
+        when(repository.postPayments(any(), any(), anyInt())).thenReturn(Set.of());
+        when(repository.findPostedTransactions(List.of(INVOICE_ID), List.of("TX1")))
+                .thenReturn(Set.of(PaymentJdbcRepository.transactionKey(INVOICE_ID, "TX1")));
+
+        assertThatThrownBy(() -> service.post(request("10.00", "TX1")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("already posted");
+    }
+
+    @Test
+    void reportsAPaymentOvertakenByAnotherAsExceedingTheBalance() {
+        when(repository.postPayments(any(), any(), anyInt())).thenReturn(Set.of());
+        when(repository.findPostedTransactions(any(), any())).thenReturn(Set.of());
+
+        assertThatThrownBy(() -> service.post(request("10.00", "TX1")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("outstanding amount");
+    }
+
+    private static PostPaymentRequest request(String amount, String transactionId) {
+        return PostPaymentRequest.builder()
+                .invoiceId(INVOICE_ID)
+                .paymentMethod("cash")
+                .amount(new BigDecimal(amount))
+                .transactionId(transactionId)
+                .build();
+    }
+}
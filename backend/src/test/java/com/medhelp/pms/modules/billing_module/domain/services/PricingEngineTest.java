@@ -0,0 +1,66 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import com.medhelp.pms.modules.billing_module.domain.repositories.PricingRuleRepository;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PricingEngineTest {
+
+    private PricingRuleRepository repository;
+    private PricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PricingRuleRepository.class);
+        engine = new PricingEngine(repository);
+    }
+
+    @Test
+    void recompilesOnlyWhenTheRulesVersionMoved() {
+        when(repository.findRulesVersion()).thenReturn(1L);
+        when(repository.findActiveNotExpiredOn(any())).thenReturn(List.of());
+        engine.load();
+
+        engine.recompileIfChanged();
+        verify(repository, times(1)).findActiveNotExpiredOn(any());
+
+        // Another node added a rule
+        when(repository.findRulesVersion()).thenReturn(2L);
+        when(repository.findActiveNotExpiredOn(any())).thenReturn(List.of(fixedPrice("00000000001", "3.50")));
+        engine.recompileIfChanged();
+
+        verify(repository, times(2)).findActiveNotExpiredOn(any());
+        assertThat(engine.ruleCount()).isEqualTo(1);
+        assertThat(engine.price(PricingLine.builder().ndcCode("00000000001").quantity(BigDecimal.ONE).build())
+                .getUnitPrice()).isEqualByComparingTo("3.50");
+    }
+
+    static PricingRule fixedPrice(String ndcCode, String price) {
+        PricingRule rule = new PricingRule();
+        rule.setId(UUID.randomUUID());
+        rule.setRuleName("Fixed " + ndcCode);
+        rule.setRuleType("contract");
+        rule.setConditions(Map.of("ndc_code", ndcCode));
+        rule.setPricingMethod("fixed_price");
+        rule.setPricingValue(new BigDecimal(price));
+        rule.setPriority(0);
+        rule.setEffectiveDate(LocalDate.now().minusDays(1));
+        rule.setIsActive(true);
+        return rule;
+    }
+}
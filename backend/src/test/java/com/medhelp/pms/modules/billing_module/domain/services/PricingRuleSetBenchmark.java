@@ -0,0 +1,142 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.entities.PricingRule;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.PricingLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compile time and per-line match cost of the pricing rule set.
+ * <p>
+ * The synthetic rules mix NDC-, class- and payer-indexed rules with quantity-range rules
+ * that no index covers, in roughly the proportions of a contract-heavy pharmacy. Lines hit
+ * an indexed NDC about half of the time.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args="PricingRuleSetBenchmark"}
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingRuleSetBenchmark {
+
+    private static final String[] CLASSES = {"Analgesic", "Antibiotic", "Statin", "Antihypertensive", "Antidiabetic"};
+    private static final String[] PAYERS = {"cash", "commercial", "medicare", "medicaid"};
+
+    @State(Scope.Benchmark)
+    public static class Rules {
+
+        @Param({"10000"})
+        public int ruleCount;
+
+        List<PricingRule> source;
+        PricingRuleSet compiled;
+        PricingLine[] lines;
+        long serviceDay;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            source = new ArrayList<>(ruleCount);
+            for (int i = 0; i < ruleCount; i++) {
+                Map<String, Object> conditions = new HashMap<>();
+                int kind = i % 10;
+                if (kind < 6) {
+                    conditions.put("ndc_code", ndc(i));
+                } else if (kind < 8) {
+                    conditions.put("therapeutic_class", CLASSES[random.nextInt(CLASSES.length)]);
+                    conditions.put("min_quantity", random.nextInt(60));
+                } else if (kind < 9) {
+                    conditions.put("payer_type", PAYERS[random.nextInt(PAYERS.length)]);
+                } else {
+                    conditions.put("min_quantity", random.nextInt(100));
+                    conditions.put("max_quantity", 100 + random.nextInt(100));
+                }
+                source.add(rule(conditions, random.nextInt(5), random.nextBoolean()));
+            }
+            compiled = compile(source);
+
+            lines = new PricingLine[4096];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = PricingLine.builder()
+                        .ndcCode(random.nextBoolean() ? ndc(random.nextInt(ruleCount)) : "99" + random.nextInt(1_000_000))
+                        .therapeuticClass(CLASSES[random.nextInt(CLASSES.length)])
+                        .payerType(PAYERS[random.nextInt(PAYERS.length)])
+                        .quantity(BigDecimal.valueOf(1 + random.nextInt(180)))
+                        .usualPrice(new BigDecimal("12.50"))
+                        .averageWholesalePrice(new BigDecimal("15.00"))
+                        .build();
+            }
+            serviceDay = LocalDate.now().toEpochDay();
+        }
+
+        private static String ndc(int i) {
+            return String.format("%011d", i);
+        }
+
+        private static PricingRule rule(Map<String, Object> conditions, int priority, boolean discount) {
+            PricingRule rule = new PricingRule();
+            rule.setId(UUID.randomUUID());
+            rule.setRuleName("Synthetic");
+            rule.setRuleType("contract");
+            rule.setConditions(conditions);
+            rule.setPricingMethod(discount ? "percentage_discount" : "fixed_price");
+            rule.setPricingValue(discount ? new BigDecimal("10") : new BigDecimal("4.25"));
+            rule.setPriority(priority);
+            rule.setEffectiveDate(LocalDate.now().minusDays(30));
+            rule.setIsActive(true);
+            return rule;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    static PricingRuleSet compile(List<PricingRule> rules) {
+        List<CompiledPricingRule> compiled = new ArrayList<>(rules.size());
+        for (PricingRule rule : rules) {
+            compiled.add(PricingRuleCompiler.compile(rule, compiled.size()));
+        }
+        return new PricingRuleSet(compiled);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PricingRuleSet compileRules(Rules rules) {
+        return compile(rules.source);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void matchLine(Rules rules, Cursor cursor, Blackhole blackhole) {
+        PricingLine line = rules.lines[cursor.next++ & (rules.lines.length - 1)];
+        CompiledPricingRule rule = rules.compiled.match(line, rules.serviceDay);
+        blackhole.consume(rule != null ? rule.unitPrice(line) : null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.medhelp.pms.modules.billing_module.domain.services;
+
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent;
+import com.medhelp.pms.modules.billing_module.domain.events.InvoicesGeneratedEvent.GeneratedInvoice;
+import com.medhelp.pms.modules.billing_module.domain.value_objects.SalesGranularity;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.SalesRollupJdbcRepository.RollupDelta;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class SalesRollupServiceTest {
+
+    private SalesRollupJdbcRepository repository;
+    private AdvisoryLocks advisoryLocks;
+    private SalesRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SalesRollupJdbcRepository.class);
+        advisoryLocks = mock(AdvisoryLocks.class);
+        service = new SalesRollupService(repository, advisoryLocks);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "timeZone", "UTC");
+    }
+
+    @Test
+    void rebuildsUnderTheExclusiveRollupLockInTheConfiguredZone() {
+        service.rebuild(LocalDate.of(2026, 2, 10), LocalDate.of(2026, 3, 5));
+
+        InOrder order = inOrder(advisoryLocks, repository);
+        order.verify(advisoryLocks).lockForTransaction(anyString(), anyString());
+        order.verify(repository).rebuild(LocalDateTime.of(2026, 2, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0),
+                ZoneId.of("UTC"));
+    }
+
+    @Test
+    void foldsInvoicesUnderTheSharedLockInTheConfiguredZone() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 0, 30);
+        service.onInvoicesGenerated(new InvoicesGeneratedEvent(List.of(new GeneratedInvoice(UUID.randomUUID(),
+                createdAt, null, new BigDecimal("10.00"), new BigDecimal("10.00"), BigDecimal.ZERO, List.of()))));
+
+        InOrder order = inOrder(advisoryLocks, repository);
+        order.verify(advisoryLocks).lockSharedForTransaction(anyString(), anyString());
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<Collection<RollupDelta>> deltas = (ArgumentCaptor) ArgumentCaptor.forClass(Collection.class);
+        order.verify(repository).increment(deltas.capture(), anyInt());
+        LocalDateTime expected = createdAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneId.of("UTC"))
+                .toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        assertThat(deltas.getValue()).filteredOn(delta -> delta.getGranularity() == SalesGranularity.HOUR)
+                .extracting(RollupDelta::getBucketStart).containsExactly(expected);
+    }
+}
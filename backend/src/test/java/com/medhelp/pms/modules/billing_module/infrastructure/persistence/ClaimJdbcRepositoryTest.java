@@ -0,0 +1,62 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClaimJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private ClaimJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ClaimJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void failsUndeliveredClaimsOnTheirLastAttempt() {
+        UUID retried = insertClaim("CLM00000001", "submitted", 2);
+        UUID exhausted = insertClaim("CLM00000002", "submitted", 3);
+
+        List<String> failed = repository.release(List.of(retried, exhausted), 3);
+
+        assertThat(failed).containsExactly("CLM00000002");
+        assertThat(status(retried)).isEqualTo("pending");
+        assertThat(status(exhausted)).isEqualTo("failed");
+    }
+
+    @Test
+    void failsStaleSubmissionsThatUsedUpTheirAttempts() {
+        UUID stale = insertClaim("CLM00000001", "submitted", 3);
+        UUID retried = insertClaim("CLM00000002", "submitted", 1);
+        jdbcTemplate.update("UPDATE billing_schema.insurance_claims SET updated_at = ?",
+                timestamp(LocalDateTime.now().minusHours(2)));
+
+        List<String> failed = repository.failExhausted(LocalDateTime.now().minusHours(1), 3);
+
+        assertThat(failed).containsExactly("CLM00000001");
+        assertThat(status(stale)).isEqualTo("failed");
+        assertThat(status(retried)).isEqualTo("submitted");
+    }
+
+    private UUID insertClaim(String claimNumber, String status, int attempts) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO billing_schema.insurance_claims (id, claim_number, prescription_id, " +
+                        "patient_insurance_id, submission_date, submitted_amount, status, submission_attempts) " +
+                        "VALUES (?, ?, ?, ?, CURRENT_DATE, 20.00, ?, ?)",
+                id, claimNumber, UUID.randomUUID(), UUID.randomUUID(), status, attempts);
+        return id;
+    }
+
+    private String status(UUID claimId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM billing_schema.insurance_claims WHERE id = ?",
+                String.class, claimId);
+    }
+}
@@ -0,0 +1,167 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private DiscountJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new DiscountJdbcRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void countsUsesUpToTheGlobalLimit() {
+        UUID discountId = insertDiscount("SAVE10", 2, true);
+
+        assertThat(repository.incrementUsage(discountId)).isTrue();
+        assertThat(repository.incrementUsage(discountId)).isTrue();
+        assertThat(repository.incrementUsage(discountId)).isFalse();
+
+        assertThat(timesUsed(discountId)).isEqualTo(2);
+    }
+
+    @Test
+    void refusesAnInactiveCodeAndCountsAnUnlimitedOne() {
+        UUID inactive = insertDiscount("OLD", null, false);
+        UUID unlimited = insertDiscount("ALWAYS", null, true);
+
+        assertThat(repository.incrementUsage(inactive)).isFalse();
+        for (int i = 0; i < 5; i++) {
+            assertThat(repository.incrementUsage(unlimited)).isTrue();
+        }
+        assertThat(timesUsed(unlimited)).isEqualTo(5);
+    }
+
+    @Test
+    void countsUsesPerPatientUpToTheLimit() {
+        UUID discountId = insertDiscount("SAVE10", null, true);
+        UUID patientId = UUID.randomUUID();
+        UUID otherPatientId = UUID.randomUUID();
+
+        assertThat(repository.incrementPatientUsage(discountId, patientId, 2)).isTrue();
+        assertThat(repository.incrementPatientUsage(discountId, patientId, 2)).isTrue();
+        assertThat(repository.incrementPatientUsage(discountId, patientId, 2)).isFalse();
+        assertThat(repository.incrementPatientUsage(discountId, otherPatientId, 2)).isTrue();
+        assertThat(repository.incrementPatientUsage(discountId, UUID.randomUUID(), 0)).isFalse();
+
+        assertThat(repository.findPatientUsage(discountId, patientId)).isEqualTo(2);
+        assertThat(repository.findPatientUsage(discountId, otherPatientId)).isEqualTo(1);
+    }
+
+    @Test
+    void grantsTheLastUseToOnlyOneOfTwoConcurrentRedemptions() throws Exception {
+        UUID discountId = insertDiscount("LAST", 1, true);
+        CountDownLatch counted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<Boolean> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            boolean granted = repository.incrementUsage(discountId);
+            counted.countDown();
+            await(finish);
+            return granted;
+        }));
+        assertThat(counted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The second update waits for the first transaction, then re-checks the limit against its result
+        Future<Boolean> second = executor.submit(() ->
+                transactionTemplate.execute(status -> repository.incrementUsage(discountId)));
+        assertThatThrownBy(() -> second.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        finish.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(10, TimeUnit.SECONDS)).isFalse();
+        assertThat(timesUsed(discountId)).isEqualTo(1);
+    }
+
+    @Test
+    void grantsAPatientsLastUseToOnlyOneOfTwoConcurrentRedemptions() throws Exception {
+        UUID discountId = insertDiscount("ONCE", null, true);
+        UUID patientId = UUID.randomUUID();
+        CountDownLatch counted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<Boolean> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            boolean granted = repository.incrementPatientUsage(discountId, patientId, 1);
+            counted.countDown();
+            await(finish);
+            return granted;
+        }));
+        assertThat(counted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<Boolean> second = executor.submit(() ->
+                transactionTemplate.execute(status -> repository.incrementPatientUsage(discountId, patientId, 1)));
+        assertThatThrownBy(() -> second.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        finish.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(10, TimeUnit.SECONDS)).isFalse();
+        assertThat(repository.findPatientUsage(discountId, patientId)).isEqualTo(1);
+    }
+
+    @Test
+    void reversesARedemptionOnceAndGivesTheUseBack() {
+        UUID discountId = insertDiscount("SAVE10", 1, true);
+        UUID patientId = UUID.randomUUID();
+        UUID redemptionId = UUID.randomUUID();
+        repository.incrementPatientUsage(discountId, patientId, 1);
+        repository.incrementUsage(discountId);
+        repository.insertRedemption(redemptionId, discountId, patientId, null, new BigDecimal("4.50"), null,
+                LocalDateTime.now());
+
+        assertThat(repository.reverseRedemption(redemptionId)).hasValueSatisfying(reversed -> {
+            assertThat(reversed.getDiscountId()).isEqualTo(discountId);
+            assertThat(reversed.getPatientId()).isEqualTo(patientId);
+            assertThat(reversed.getDiscountAmount()).isEqualByComparingTo("4.50");
+        });
+        assertThat(repository.reverseRedemption(redemptionId)).isEmpty();
+        repository.decrementUsage(discountId, patientId);
+
+        assertThat(timesUsed(discountId)).isZero();
+        assertThat(repository.findPatientUsage(discountId, patientId)).isZero();
+        assertThat(repository.incrementUsage(discountId)).isTrue();
+    }
+
+    private UUID insertDiscount(String code, Integer maxUses, boolean active) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO billing_schema.discounts (id, code, description, discount_type, " +
+                        "discount_value, max_uses, effective_date, expiration_date, is_active) " +
+                        "VALUES (?, ?, 'Test', 'percentage', 10, ?, CURRENT_DATE, CURRENT_DATE + 30, ?)",
+                id, code, maxUses, active);
+        return id;
+    }
+
+    private int timesUsed(UUID discountId) {
+        return jdbcTemplate.queryForObject("SELECT times_used FROM billing_schema.discounts WHERE id = ?",
+                Integer.class, discountId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoice;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoiceItem;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private InvoiceJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InvoiceJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void returnsOnlyTheInvoicesItInserted() {
+        UUID prescriptionId = UUID.randomUUID();
+        NewInvoice first = invoice("INV00000001", prescriptionId, "commercial", "0");
+        NewInvoice duplicate = invoice("INV00000002", prescriptionId, "commercial", "0");
+        NewInvoice other = invoice("INV00000003", UUID.randomUUID(), null, "12.50");
+
+        assertThat(repository.insertInvoices(List.of(first), 100)).containsExactly(first.getId());
+        Set<UUID> inserted = repository.insertInvoices(List.of(duplicate, other), 1);
+
+        assertThat(inserted).containsExactly(other.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_schema.invoices", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT invoice_id FROM billing_schema.invoice_items", UUID.class))
+                .containsExactlyInAnyOrder(first.getId(), other.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT invoice_id FROM billing_schema.invoice_balances", UUID.class))
+                .containsExactlyInAnyOrder(first.getId(), other.getId());
+    }
+
+    @Test
+    void storesTheCopayItIsGiven() {
+        NewInvoice insured = invoice("INV00000001", UUID.randomUUID(), "commercial", "0");
+
+        repository.insertInvoices(List.of(insured), 100);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT patient_copay FROM billing_schema.invoices WHERE id = ?",
+                BigDecimal.class, insured.getId())).isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT outstanding_amount FROM billing_schema.invoice_balances " +
+                "WHERE invoice_id = ?", BigDecimal.class, insured.getId())).isEqualByComparingTo("12.50");
+    }
+
+    private static NewInvoice invoice(String number, UUID prescriptionId, String payerType, String copay) {
+        UUID id = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        NewInvoiceItem item = new NewInvoiceItem(id, UUID.randomUUID(), "medication", "Amoxicillin 500mg",
+                new BigDecimal("10"), new BigDecimal("1.2500"), new BigDecimal("12.50"), "00000000001");
+        return new NewInvoice(id, number, prescriptionId, UUID.randomUUID(), today, today.plusDays(30),
+                new BigDecimal("12.50"), new BigDecimal(copay), payerType, LocalDateTime.now(), null, List.of(item));
+    }
+}
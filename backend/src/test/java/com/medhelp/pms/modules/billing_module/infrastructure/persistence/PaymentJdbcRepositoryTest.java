@@ -0,0 +1,134 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.InvoiceJdbcRepository.NewInvoice;
+import com.medhelp.pms.modules.billing_module.infrastructure.persistence.PaymentJdbcRepository.NewPayment;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private PaymentJdbcRepository repository;
+    private InvoiceJdbcRepository invoices;
+
+    @BeforeEach
+    void setUp() {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        repository = new PaymentJdbcRepository(jdbcTemplate, named);
+        invoices = new InvoiceJdbcRepository(jdbcTemplate, named);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void findsPostedTransactionsByInvoiceAndTransaction() {
+        UUID invoiceId = insertInvoice("INV00000001", "50.00");
+        UUID otherInvoiceId = insertInvoice("INV00000002", "50.00");
+        repository.postPayments(List.of(payment(invoiceId, "10.00", "TX1")), null, 100);
+
+        Set<String> posted = repository.findPostedTransactions(List.of(invoiceId, otherInvoiceId),
+                List.of("TX1", "TX1"));
+
+        assertThat(posted).containsExactly(PaymentJdbcRepository.transactionKey(invoiceId, "TX1"));
+    }
+
+    @Test
+    void reportsOnlyThePaymentsItPosted() {
+        UUID invoiceId = insertInvoice("INV00000001", "50.00");
+        NewPayment first = payment(invoiceId, "30.00", "TX1");
+        NewPayment duplicate = payment(invoiceId, "30.00", "TX1");
+        NewPayment overpayment = payment(invoiceId, "20.01", "TX2");
+        NewPayment rest = payment(invoiceId, "20.00", "TX3");
+
+        Set<UUID> posted = repository.postPayments(List.of(first, duplicate, overpayment, rest), null, 2);
+
+        assertThat(posted).containsExactlyInAnyOrder(first.getId(), rest.getId());
+        assertThat(repository.findBalance(invoiceId).orElseThrow().getOutstandingAmount())
+                .isEqualByComparingTo("0");
+        assertThat(repository.findBalance(invoiceId).orElseThrow().getStatus()).isEqualTo("paid");
+    }
+
+    @Test
+    void concurrentPostsToOneInvoiceNeverOverpayIt() throws Exception {
+        UUID invoiceId = insertInvoice("INV00000001", "50.00");
+        NewPayment first = payment(invoiceId, "30.00", "TX1");
+        NewPayment second = payment(invoiceId, "30.00", "TX2");
+
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<Set<UUID>> firstPost = executor.submit(() -> transactionTemplate.execute(tx -> {
+            Set<UUID> ids = repository.postPayments(List.of(first), null, 100);
+            posted.countDown();
+            await(finish);
+            return ids;
+        }));
+        assertThat(posted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Both saw 50 outstanding before either committed; the second waits for the balance row
+        Future<Set<UUID>> secondPost = executor.submit(() ->
+                transactionTemplate.execute(tx -> repository.postPayments(List.of(second), null, 100)));
+        assertThatThrownBy(() -> secondPost.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        finish.countDown();
+        assertThat(firstPost.get(10, TimeUnit.SECONDS)).containsExactly(first.getId());
+        assertThat(secondPost.get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(repository.findBalance(invoiceId).orElseThrow().getOutstandingAmount())
+                .isEqualByComparingTo("20");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_schema.payments WHERE invoice_id = ?",
+                Integer.class, invoiceId)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsANegativeOutstandingAmount() {
+        UUID invoiceId = insertInvoice("INV00000001", "50.00");
+
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE billing_schema.invoice_balances " +
+                "SET outstanding_amount = -0.01 WHERE invoice_id = ?", invoiceId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private UUID insertInvoice(String number, String total) {
+        UUID id = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        invoices.insertInvoices(List.of(new NewInvoice(id, number, UUID.randomUUID(), UUID.randomUUID(), today,
+                today.plusDays(30), new BigDecimal(total), new BigDecimal(total), null, LocalDateTime.now(), null,
+                List.of())), 100);
+        return id;
+    }
+
+    private static NewPayment payment(UUID invoiceId, String amount, String transactionId) {
+        return new NewPayment(UUID.randomUUID(), invoiceId, LocalDate.now(), "cash", new BigDecimal(amount),
+                transactionId, null, null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
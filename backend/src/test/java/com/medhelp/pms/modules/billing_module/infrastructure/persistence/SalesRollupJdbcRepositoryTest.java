@@ -0,0 +1,62 @@
+package com.medhelp.pms.modules.billing_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesRollupJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private SalesRollupJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SalesRollupJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void bucketsInvoicesInTheGivenZone() {
+        // Early on March 1st in UTC is still February 28th in New York
+        UUID invoiceId = insertInvoice(Instant.parse("2026-03-01T02:30:00Z"));
+
+        repository.rebuild(LocalDateTime.of(2026, 2, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0), NEW_YORK);
+
+        List<LocalDateTime> days = jdbcTemplate.queryForList("SELECT bucket_start FROM billing_schema.sales_rollups " +
+                "WHERE granularity = 'day' AND therapeutic_class = ''", Timestamp.class)
+                .stream().map(Timestamp::toLocalDateTime).toList();
+        assertThat(days).containsExactly(LocalDateTime.of(2026, 2, 28, 0, 0));
+        assertThat(repository.findInvoiceKeys(List.of(invoiceId), NEW_YORK).get(invoiceId).getCreatedAt())
+                .isEqualTo(LocalDateTime.of(2026, 2, 28, 21, 30));
+    }
+
+    @Test
+    void rebuildsOnlyInvoicesInsideTheRangeInTheGivenZone() {
+        insertInvoice(Instant.parse("2026-03-01T02:30:00Z"));
+
+        repository.rebuild(LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0), NEW_YORK);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_schema.sales_rollups", Integer.class))
+                .isZero();
+    }
+
+    private UUID insertInvoice(Instant createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO billing_schema.invoices (id, invoice_number, prescription_id, patient_id, " +
+                        "invoice_date, subtotal, patient_copay, total_amount, created_at) " +
+                        "VALUES (?, ?, ?, ?, CURRENT_DATE, 10.00, 10.00, 10.00, ?)",
+                id, "INV" + id.toString().substring(0, 8), UUID.randomUUID(), UUID.randomUUID(),
+                Timestamp.from(createdAt));
+        return id;
+    }
+}
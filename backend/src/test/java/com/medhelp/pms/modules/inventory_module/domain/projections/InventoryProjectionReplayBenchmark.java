@@ -0,0 +1,141 @@
+package com.medhelp.pms.modules.inventory_module.domain.projections;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.InventoryProjectionJdbcRepository;
+import com.medhelp.pms.support.TestDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay throughput of the inventory projection over synthetic transactions.
+ * <p>
+ * {@code foldInMemory} measures folding rows into the projection alone; {@code replayFromPostgres}
+ * streams the same number of rows from inventory_transactions in a Testcontainers PostgreSQL,
+ * so the difference is the cost of the cursor and row decoding. Each invocation replays every
+ * row once; divide the row count by the reported time for transactions per second.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args="InventoryProjectionReplayBenchmark"}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class InventoryProjectionReplayBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+
+        @Param({"50000000"})
+        public long transactions;
+
+        @Param({"20000"})
+        public int items;
+
+        @Param({"5"})
+        public int batchesPerItem;
+
+        UUID[] itemIds;
+        UUID[] batchIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            itemIds = new UUID[items];
+            batchIds = new UUID[items * batchesPerItem];
+            for (int i = 0; i < items; i++) {
+                itemIds[i] = UUID.randomUUID();
+                for (int b = 0; b < batchesPerItem; b++) {
+                    batchIds[i * batchesPerItem + b] = UUID.randomUUID();
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"50000000"})
+        public long transactions;
+
+        @Param({"20000"})
+        public int items;
+
+        @Param({"5"})
+        public int batchesPerItem;
+
+        InventoryProjectionJdbcRepository repository;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+            jdbcTemplate.execute("TRUNCATE inventory_schema.inventory_items CASCADE");
+            jdbcTemplate.update("INSERT INTO inventory_schema.inventory_items " +
+                    "(medication_id, ndc_code, quantity_unit, reorder_point, reorder_quantity) " +
+                    "SELECT gen_random_uuid(), lpad(g::text, 11, '0'), 'tablet', 10, 100 " +
+                    "FROM generate_series(1, ?) g", items);
+            jdbcTemplate.update("INSERT INTO inventory_schema.inventory_batches " +
+                    "(inventory_item_id, batch_number, expiration_date, quantity_received, quantity_remaining, received_date) " +
+                    "SELECT i.id, 'B' || b, CURRENT_DATE + 365, 1000, 1000, CURRENT_DATE " +
+                    "FROM inventory_schema.inventory_items i CROSS JOIN generate_series(1, ?) b", batchesPerItem);
+            // Rows are spread over the items and their batches, one second apart
+            jdbcTemplate.update("INSERT INTO inventory_schema.inventory_transactions " +
+                    "(inventory_item_id, batch_id, transaction_type, quantity_change, quantity_before, quantity_after, " +
+                    " transaction_date) " +
+                    "SELECT b.inventory_item_id, b.id, 'dispensed', -1, 0, 0, " +
+                    "       TIMESTAMP '2020-01-01' + make_interval(secs => g) " +
+                    "FROM generate_series(1, ?) g " +
+                    "JOIN (SELECT id, inventory_item_id, row_number() OVER () - 1 AS n " +
+                    "      FROM inventory_schema.inventory_batches) b ON b.n = g % (? * ?)",
+                    transactions, items, batchesPerItem);
+            jdbcTemplate.execute("ANALYZE inventory_schema.inventory_transactions");
+
+            repository = new InventoryProjectionJdbcRepository(TestDatabase.dataSource(), 10000);
+            transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(TestDatabase.dataSource()));
+            transactionTemplate.setReadOnly(true);
+        }
+    }
+
+    @Benchmark
+    public InventoryProjection foldInMemory(Synthetic synthetic) {
+        InventoryProjection projection = new InventoryProjection(null);
+        long seed = 0x9E3779B97F4A7C15L;
+        int batchCount = synthetic.batchIds.length;
+        for (long i = 0; i < synthetic.transactions; i++) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            int batch = (int) ((seed & 0x7fffffffL) % batchCount);
+            projection.apply(synthetic.itemIds[batch / synthetic.batchesPerItem], synthetic.batchIds[batch],
+                    (seed & 1) == 0 ? -100 : 100);
+        }
+        return projection;
+    }
+
+    @Benchmark
+    public InventoryProjection replayFromPostgres(Database database) {
+        return database.transactionTemplate.execute(status -> {
+            InventoryProjection projection = new InventoryProjection(null);
+            database.repository.replay(projection, null, LocalDateTime.now());
+            return projection;
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.BatchBalance;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.VarianceAllocation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CycleCountServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+    private static final UUID ITEM = UUID.randomUUID();
+
+    @Test
+    void takesShrinkageFromEarliestExpiringBatchesFirst() {
+        BatchBalance first = batch(TODAY.plusDays(10), "4");
+        BatchBalance second = batch(TODAY.plusDays(40), "10");
+
+        List<VarianceAllocation> allocations = CycleCountService.allocate(ITEM, new BigDecimal("-6"),
+                new BigDecimal("14"), List.of(first, second), TODAY);
+
+        assertThat(allocations).hasSize(2);
+        assertThat(allocations.get(0).getBatchId()).isEqualTo(first.getBatchId());
+        assertThat(allocations.get(0).getQuantity()).isEqualByComparingTo("-4");
+        assertThat(allocations.get(0).getQuantityBefore()).isEqualByComparingTo("14");
+        assertThat(allocations.get(0).getBatchRemainingAfter()).isEqualByComparingTo("0");
+        assertThat(allocations.get(1).getBatchId()).isEqualTo(second.getBatchId());
+        assertThat(allocations.get(1).getQuantity()).isEqualByComparingTo("-2");
+        assertThat(allocations.get(1).getQuantityBefore()).isEqualByComparingTo("10");
+        assertThat(allocations.get(1).getBatchRemainingAfter()).isEqualByComparingTo("8");
+    }
+
+    @Test
+    void leavesShrinkageNoBatchCoversUntracked() {
+        BatchBalance only = batch(TODAY.plusDays(10), "3");
+
+        List<VarianceAllocation> allocations = CycleCountService.allocate(ITEM, new BigDecimal("-5"),
+                new BigDecimal("8"), List.of(only), TODAY);
+
+        assertThat(allocations).hasSize(2);
+        assertThat(allocations.get(1).getBatchId()).isNull();
+        assertThat(allocations.get(1).getQuantity()).isEqualByComparingTo("-2");
+        assertThat(allocations.get(1).getQuantityBefore()).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void addsSurplusToLatestExpiringBatchThatHasNotExpired() {
+        BatchBalance expired = batch(TODAY.minusDays(1), "0");
+        BatchBalance latest = batch(TODAY.plusDays(90), "7");
+
+        List<VarianceAllocation> allocations = CycleCountService.allocate(ITEM, new BigDecimal("3"),
+                new BigDecimal("7"), List.of(expired, latest), TODAY);
+
+        assertThat(allocations).hasSize(1);
+        assertThat(allocations.get(0).getBatchId()).isEqualTo(latest.getBatchId());
+        assertThat(allocations.get(0).getBatchRemainingAfter()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void keepsSurplusUntrackedWhenEveryBatchExpired() {
+        List<VarianceAllocation> allocations = CycleCountService.allocate(ITEM, new BigDecimal("3"),
+                new BigDecimal("0"), List.of(batch(TODAY.minusDays(5), "0")), TODAY);
+
+        assertThat(allocations).hasSize(1);
+        assertThat(allocations.get(0).getBatchId()).isNull();
+    }
+
+    private static BatchBalance batch(LocalDate expirationDate, String remaining) {
+        return new BatchBalance(UUID.randomUUID(), ITEM, expirationDate, new BigDecimal(remaining));
+    }
+}
@@ -0,0 +1,145 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.DemandForecastJdbcRepository;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.DemandForecastJdbcRepository.DailyDemand;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.DemandForecastJdbcRepository.ItemCost;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DemandForecastServiceTest {
+
+    private final UUID steady = UUID.randomUUID();
+    private final UUID idle = UUID.randomUUID();
+    private final UUID uncosted = UUID.randomUUID();
+    private DemandForecastJdbcRepository repository;
+    private AdvisoryLocks advisoryLocks;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DemandForecastJdbcRepository.class);
+        advisoryLocks = mock(AdvisoryLocks.class);
+        when(repository.findActiveItems()).thenReturn(List.of(new ItemCost(steady, new BigDecimal("10.00")),
+                new ItemCost(idle, new BigDecimal("10.00")), new ItemCost(uncosted, null)));
+        // Four days of history: 2, 4, 4, 6 for the steady item and 1 a day for the uncosted one
+        double[][] demand = {{2, 4, 4, 6}, {0, 0, 0, 0}, {1, 1, 1, 1}};
+        UUID[] ids = {steady, idle, uncosted};
+        doAnswer(invocation -> {
+            Consumer<DailyDemand> consumer = invocation.getArgument(1);
+            for (int item = 0; item < ids.length; item++) {
+                for (int day = 0; day < 4; day++) {
+                    if (demand[item][day] > 0) {
+                        consumer.accept(new DailyDemand(ids[item], day, demand[item][day]));
+                    }
+                }
+            }
+            return null;
+        }).when(repository).streamDailyDispensed(any(), any());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void forecastsWithExponentialSmoothing() {
+        double[][] result = run("ses");
+
+        // Smoothed with alpha 0.5 from the first day: 2, 3, 3.5, 4.75; sample deviation sqrt(8 / 3)
+        assertThat(result[1][0]).isCloseTo(4.75 * 4 + 2 * Math.sqrt(8.0 / 3) * 2, within(1e-9));
+        assertThat(result[0][0]).isCloseTo(Math.sqrt(2 * 4.75 * 365 * 25 / 2.5), within(1e-9));
+    }
+
+    @Test
+    void forecastsWithAMovingAverage() {
+        double[][] result = run("sma");
+
+        // Average of the last two days
+        assertThat(result[1][0]).isCloseTo(5 * 4 + 2 * Math.sqrt(8.0 / 3) * 2, within(1e-9));
+        assertThat(result[0][0]).isCloseTo(Math.sqrt(2 * 5 * 365 * 25 / 2.5), within(1e-9));
+    }
+
+    @Test
+    void leavesItemsWithoutDemandOrCostUntouched() {
+        double[][] result = run("ses");
+
+        assertThat(result[0][1]).isNaN();
+        assertThat(result[1][1]).isNaN();
+        // Constant demand: no safety stock, and no EOQ without a unit cost
+        assertThat(result[1][2]).isCloseTo(4, within(1e-9));
+        assertThat(result[0][2]).isNaN();
+    }
+
+    @Test
+    void runsUnderTheForecastLock() {
+        run("ses");
+
+        verify(advisoryLocks).lockForTransaction("inventory.forecast", "recompute");
+    }
+
+    @Test
+    void skipsTheScheduledRunWhileAnotherNodeHoldsTheLock() {
+        when(advisoryLocks.tryLockForTransaction("inventory.forecast", "recompute")).thenReturn(false);
+
+        service("ses").recomputeReorderParametersScheduled();
+
+        verify(repository, never()).findActiveItems();
+    }
+
+    @Test
+    void refusesAnUnknownMethod() {
+        assertThatThrownBy(() -> service("holt-winters")).isInstanceOf(ValidationException.class);
+    }
+
+    /**
+     * @return EOQ and reorder points, in the order of the active items
+     */
+    private double[][] run(String method) {
+        service(method).recomputeReorderParameters();
+
+        ArgumentCaptor<double[]> eoq = ArgumentCaptor.forClass(double[].class);
+        ArgumentCaptor<double[]> reorderPoints = ArgumentCaptor.forClass(double[].class);
+        verify(repository).updateReorderParameters(eq(new UUID[]{steady, idle, uncosted}), eoq.capture(),
+                reorderPoints.capture(), anyInt());
+        return new double[][]{eoq.getValue(), reorderPoints.getValue()};
+    }
+
+    private DemandForecastService service(String method) {
+        DemandForecastService service = new DemandForecastService(repository, mock(LowStockIndex.class),
+                advisoryLocks, method);
+        ReflectionTestUtils.setField(service, "windowDays", 4);
+        ReflectionTestUtils.setField(service, "movingAverageDays", 2);
+        ReflectionTestUtils.setField(service, "smoothingAlpha", 0.5);
+        ReflectionTestUtils.setField(service, "leadTimeDays", 4.0);
+        ReflectionTestUtils.setField(service, "serviceLevelZ", 2.0);
+        ReflectionTestUtils.setField(service, "orderingCost", 25.0);
+        ReflectionTestUtils.setField(service, "holdingCostRate", 0.25);
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        return service;
+    }
+}
@@ -0,0 +1,107 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.BatchQuantityChangedEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.InventoryBatchJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpiryCalendarTest {
+
+    private final LocalDate today = LocalDate.of(2026, 3, 10);
+    private final UUID itemId = UUID.randomUUID();
+    private InventoryBatchJdbcRepository repository;
+    private ExpiryCalendar calendar;
+    private ExpiringBatch expired;
+    private ExpiringBatch soon;
+    private ExpiringBatch later;
+
+    @BeforeEach
+    void setUp() {
+        expired = batch(itemId, today.minusDays(2), "5");
+        soon = batch(itemId, today.plusDays(7), "10");
+        later = batch(UUID.randomUUID(), today.plusDays(30), "20");
+        repository = mock(InventoryBatchJdbcRepository.class);
+        doAnswer(invocation -> {
+            Consumer<ExpiringBatch> consumer = invocation.getArgument(0);
+            List.of(later, soon, expired).forEach(consumer);
+            return null;
+        }).when(repository).forEachAvailableBatch(any());
+        calendar = new ExpiryCalendar(repository);
+        calendar.load();
+    }
+
+    @Test
+    void indexesBatchesByExpirationDay() {
+        assertThat(calendar.expiringOn(today.plusDays(7))).containsExactly(soon);
+        assertThat(calendar.expiringOn(today.plusDays(8))).isEmpty();
+        assertThat(calendar.expiringOnOrBefore(today.plusDays(7))).containsExactly(expired, soon);
+        assertThat(calendar.expiringOnOrBefore(today.plusDays(30))).containsExactly(expired, soon, later);
+    }
+
+    @Test
+    void listsOnlyUnexpiredBatchesOfAnItemFirstExpiringFirst() {
+        ExpiringBatch last = batch(itemId, today.plusDays(60), "1");
+        when(repository.findById(last.getInventoryBatchId())).thenReturn(Optional.of(last));
+        calendar.onBatchQuantityChanged(new BatchQuantityChangedEvent(last.getInventoryBatchId(), BigDecimal.ONE));
+
+        assertThat(calendar.availableBatches(itemId, today)).containsExactly(soon, last);
+        assertThat(calendar.availableBatches(UUID.randomUUID(), today)).isEmpty();
+    }
+
+    @Test
+    void updatesTheQuantityWithoutReadingTheBatchAgain() {
+        calendar.onBatchQuantityChanged(new BatchQuantityChangedEvent(soon.getInventoryBatchId(),
+                new BigDecimal("4")));
+
+        assertThat(calendar.expiringOn(today.plusDays(7))).singleElement()
+                .satisfies(batch -> assertThat(batch.getQuantityRemaining()).isEqualByComparingTo("4"));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void evictsAnEmptiedBatchFromEveryIndex() {
+        calendar.onBatchQuantityChanged(new BatchQuantityChangedEvent(soon.getInventoryBatchId(), BigDecimal.ZERO));
+        calendar.onBatchQuantityChanged(new BatchQuantityChangedEvent(expired.getInventoryBatchId(),
+                BigDecimal.ZERO));
+
+        assertThat(calendar.expiringOn(today.plusDays(7))).isEmpty();
+        assertThat(calendar.expiringOnOrBefore(today.plusDays(7))).isEmpty();
+        assertThat(calendar.availableBatches(itemId, today.minusDays(30))).isEmpty();
+        assertThat(calendar.expiringOn(today.plusDays(30))).containsExactly(later);
+    }
+
+    @Test
+    void ignoresAnEmptiedBatchItDoesNotHold() {
+        calendar.onBatchQuantityChanged(new BatchQuantityChangedEvent(UUID.randomUUID(), BigDecimal.ZERO));
+
+        assertThat(calendar.expiringOnOrBefore(today.plusDays(30))).hasSize(3);
+        verify(repository, never()).findById(any());
+    }
+
+    private static ExpiringBatch batch(UUID inventoryItemId, LocalDate expirationDate, String quantity) {
+        return ExpiringBatch.builder()
+                .inventoryBatchId(UUID.randomUUID())
+                .inventoryItemId(inventoryItemId)
+                .ndcCode("00000000001")
+                .batchNumber("LOT" + expirationDate)
+                .expirationDate(expirationDate)
+                .quantityRemaining(new BigDecimal(quantity))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.ExpiringStockAlertEvent;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ExpiringBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryExpiryServiceTest {
+
+    private final LocalDate today = LocalDate.of(2026, 3, 10);
+    private ExpiryCalendar calendar;
+    private ApplicationEventPublisher publisher;
+    private InventoryExpiryService service;
+
+    @BeforeEach
+    void setUp() {
+        calendar = mock(ExpiryCalendar.class);
+        when(calendar.expiringOn(any())).thenReturn(List.of());
+        publisher = mock(ApplicationEventPublisher.class);
+        service = new InventoryExpiryService(calendar, publisher);
+        ReflectionTestUtils.setField(service, "alertDays", List.of(90, 30, 7, 0));
+        ReflectionTestUtils.setField(service, "alertRecipient", "pharmacy@example.com");
+        ReflectionTestUtils.setField(service, "alertChannel", "email");
+    }
+
+    @Test
+    void alertsOnlyAboutDaysThatHitAThreshold() {
+        when(calendar.expiringOn(today.plusDays(30))).thenReturn(List.of(
+                batch("00000000002", "LOT2", today.plusDays(30), "12.50"),
+                batch("00000000001", "LOT1", today.plusDays(30), "3")));
+        when(calendar.expiringOn(today)).thenReturn(List.of(batch("00000000003", "LOT3", today, "1")));
+        when(calendar.expiringOn(today.plusDays(8))).thenReturn(List.of(
+                batch("00000000004", "LOT4", today.plusDays(8), "1")));
+
+        List<ExpiringStockAlertEvent> alerts = service.expiryAlerts(today);
+
+        assertThat(alerts).extracting(ExpiringStockAlertEvent::getDaysUntilExpiry).containsExactly(30, 0);
+        assertThat(alerts.get(0).getSubject()).isEqualTo("2 inventory batches expire in 30 days");
+        assertThat(alerts.get(0).getMessage()).isEqualTo(
+                "NDC 00000000001, lot LOT1: 3 remaining, expires 2026-04-09\n" +
+                        "NDC 00000000002, lot LOT2: 12.5 remaining, expires 2026-04-09\n");
+        assertThat(alerts.get(0).getRecipient()).isEqualTo("pharmacy@example.com");
+        assertThat(alerts.get(1).getSubject()).isEqualTo("1 inventory batches expire today");
+    }
+
+    @Test
+    void derivesTheSameAlertIdOnEveryRunOfTheSameDay() {
+        when(calendar.expiringOn(today.plusDays(7))).thenReturn(List.of(
+                batch("00000000001", "LOT1", today.plusDays(7), "3")));
+        when(calendar.expiringOn(today.plusDays(8))).thenReturn(List.of(
+                batch("00000000001", "LOT1", today.plusDays(8), "3")));
+
+        UUID first = service.expiryAlerts(today).get(0).getAlertId();
+        UUID repeated = service.expiryAlerts(today).get(0).getAlertId();
+        UUID nextDay = service.expiryAlerts(today.plusDays(1)).get(0).getAlertId();
+
+        assertThat(repeated).isEqualTo(first);
+        assertThat(nextDay).isNotEqualTo(first);
+    }
+
+    @Test
+    void sendsNothingWithoutARecipient() {
+        ReflectionTestUtils.setField(service, "alertRecipient", " ");
+        when(calendar.expiringOn(any())).thenReturn(List.of(batch("00000000001", "LOT1", today, "1")));
+
+        service.sendExpiryAlerts();
+
+        verify(publisher, never()).publishEvent(any(Object.class));
+    }
+
+    private static ExpiringBatch batch(String ndcCode, String batchNumber, LocalDate expirationDate,
+                                       String quantity) {
+        return ExpiringBatch.builder()
+                .inventoryBatchId(UUID.randomUUID())
+                .inventoryItemId(UUID.randomUUID())
+                .ndcCode(ndcCode)
+                .batchNumber(batchNumber)
+                .expirationDate(expirationDate)
+                .quantityRemaining(new BigDecimal(quantity))
+                .build();
+    }
+}
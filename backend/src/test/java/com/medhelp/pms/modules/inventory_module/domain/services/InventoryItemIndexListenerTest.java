@@ -0,0 +1,95 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.entities.InventoryItem;
+import com.medhelp.pms.modules.inventory_module.domain.events.StockLevelChangedEvent;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class InventoryItemIndexListenerTest {
+
+    private LowStockIndex index;
+    private InventoryItemIndexListener listener;
+
+    @BeforeEach
+    void setUp() {
+        index = new LowStockIndex(mock(ReorderJdbcRepository.class));
+        listener = new InventoryItemIndexListener(index);
+    }
+
+    @Test
+    void indexesACreatedItemOnceCommitted() {
+        InventoryItem item = item("10", "4", "0");
+
+        inTransaction(() -> {
+            listener.onSaved(item);
+            assertThat(index.isLowStock(item.getId())).isFalse();
+        }, true);
+
+        assertThat(index.isLowStock(item.getId())).isTrue();
+        index.onStockLevelChanged(new StockLevelChangedEvent(item.getId(), new BigDecimal("30"), BigDecimal.ONE));
+        assertThat(index.isLowStock(item.getId())).isFalse();
+    }
+
+    @Test
+    void ignoresAChangeThatRolledBack() {
+        InventoryItem item = item("10", "4", "0");
+
+        inTransaction(() -> listener.onSaved(item), false);
+
+        assertThat(index.snapshot()).isEmpty();
+    }
+
+    @Test
+    void reevaluatesAChangedReorderPointAndDropsADeactivatedItem() {
+        InventoryItem item = item("10", "8", "2");
+        inTransaction(() -> listener.onSaved(item), true);
+        assertThat(index.isLowStock(item.getId())).isTrue();
+
+        item.setReorderPoint(new BigDecimal("5"));
+        inTransaction(() -> listener.onSaved(item), true);
+        assertThat(index.isLowStock(item.getId())).isFalse();
+
+        item.setReorderPoint(new BigDecimal("50"));
+        item.setIsActive(false);
+        inTransaction(() -> listener.onSaved(item), true);
+        assertThat(index.isLowStock(item.getId())).isFalse();
+        index.onStockLevelChanged(new StockLevelChangedEvent(item.getId(), BigDecimal.ONE, BigDecimal.ZERO));
+        assertThat(index.snapshot()).isEmpty();
+    }
+
+    private static InventoryItem item(String reorderPoint, String onHand, String reserved) {
+        InventoryItem item = new InventoryItem();
+        item.setId(UUID.randomUUID());
+        item.setReorderPoint(new BigDecimal(reorderPoint));
+        item.setQuantityOnHand(new BigDecimal(onHand));
+        item.setQuantityReserved(new BigDecimal(reserved));
+        item.setIsActive(true);
+        return item;
+    }
+
+    private static void inTransaction(Runnable work, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerFlusher;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ValuationJdbcRepository;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class InventoryValuationServiceTest extends PostgresRepositoryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private UUID itemId;
+    private InventoryValuationService first;
+    private InventoryValuationService second;
+
+    @BeforeEach
+    void setUp() {
+        itemId = insertInventoryItem("00000000001", "10");
+        jdbcTemplate.update("UPDATE inventory_schema.inventory_items SET unit_cost = 2 WHERE id = ?", itemId);
+        first = node();
+        second = node();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void foldsEachTransactionOnceAcrossNodes() {
+        insertTransaction("5");
+
+        transactionTemplate.executeWithoutResult(status -> first.refresh());
+        transactionTemplate.executeWithoutResult(status -> second.refresh());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_schema.inventory_valuations " +
+                "WHERE inventory_item_id = ?", BigDecimal.class, itemId)).isEqualByComparingTo("15");
+        assertThat(averageValue(first)).isEqualByComparingTo("30.00");
+        // The second node folded nothing itself but picked up the row the first one wrote
+        assertThat(averageValue(second)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void foldsFromTheStoredValuationRatherThanTheMirror() {
+        insertTransaction("5");
+        transactionTemplate.executeWithoutResult(status -> first.refresh());
+        insertTransaction("-3");
+
+        transactionTemplate.executeWithoutResult(status -> second.refresh());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_schema.inventory_valuations " +
+                "WHERE inventory_item_id = ?", BigDecimal.class, itemId)).isEqualByComparingTo("12");
+        assertThat(averageValue(second)).isEqualByComparingTo("24.00");
+    }
+
+    @Test
+    void waitsForARefreshInProgressOnAnotherNode() throws Exception {
+        insertTransaction("5");
+        CountDownLatch refreshed = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<?> running = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            first.refresh();
+            refreshed.countDown();
+            await(finish);
+        }));
+        assertThat(refreshed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> waiting = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> second.refresh()));
+        assertThatThrownBy(() -> waiting.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        finish.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        waiting.get(10, TimeUnit.SECONDS);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_schema.inventory_valuations " +
+                "WHERE inventory_item_id = ?", BigDecimal.class, itemId)).isEqualByComparingTo("15");
+    }
+
+    private InventoryValuationService node() {
+        InventoryValuationService service = new InventoryValuationService(
+                new ValuationJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate)),
+                mock(StockLedgerFlusher.class), mock(ExpiryCalendar.class),
+                new AdvisoryLocks(jdbcTemplate, dataSource()));
+        ReflectionTestUtils.setField(service, "settleSeconds", 0L);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        transactionTemplate.executeWithoutResult(status -> service.load());
+        return service;
+    }
+
+    private void insertTransaction(String quantityChange) {
+        jdbcTemplate.update("INSERT INTO inventory_schema.inventory_transactions " +
+                        "(inventory_item_id, transaction_type, quantity_change, quantity_before, quantity_after, " +
+                        "transaction_date) VALUES (?, 'adjustment', ?::numeric, 0, 0, ?)",
+                itemId, quantityChange, timestamp(LocalDateTime.now()));
+    }
+
+    private static BigDecimal averageValue(InventoryValuationService service) {
+        return service.getInventoryValue("average", null).getTotalValue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
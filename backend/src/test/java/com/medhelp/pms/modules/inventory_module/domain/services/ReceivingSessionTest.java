@@ -0,0 +1,66 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.OrderLine;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReceivingJdbcRepository.ReceiptLine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceivingSessionTest {
+
+    private static final LocalDate EXPIRES = LocalDate.now().plusYears(1);
+
+    private final OrderLine line = new OrderLine(UUID.randomUUID(), UUID.randomUUID(), "00000000001",
+            new BigDecimal("100"), new BigDecimal("40"), new BigDecimal("1.25"));
+    private final ReceivingSession session = new ReceivingSession(UUID.randomUUID(), "PO00000001",
+            UUID.randomUUID(), UUID.randomUUID(), List.of(line));
+
+    @Test
+    void aggregatesScansPerLotAndExpiry() {
+        session.record(line, "LOT1", EXPIRES, new BigDecimal("10"), null);
+        session.record(line, "LOT1", EXPIRES, new BigDecimal("5"), null);
+        session.record(line, "LOT2", EXPIRES, new BigDecimal("1"), new BigDecimal("1.10"));
+
+        List<ReceiptLine> lines = session.drain();
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).getQuantity()).isEqualByComparingTo("15");
+        assertThat(lines.get(0).getUnitCost()).isEqualByComparingTo("1.25");
+        assertThat(lines.get(1).getUnitCost()).isEqualByComparingTo("1.10");
+        assertThat(session.getPendingScans()).isZero();
+    }
+
+    @Test
+    void refusesScansAboveTheOutstandingQuantity() {
+        assertThat(session.record(line, "LOT1", EXPIRES, new BigDecimal("50"), null)).isTrue();
+        assertThat(session.record(line, "LOT1", EXPIRES, new BigDecimal("10.01"), null)).isFalse();
+        assertThat(session.record(line, "LOT2", EXPIRES, new BigDecimal("10"), null)).isTrue();
+
+        assertThat(session.outstanding(line)).isEqualByComparingTo("0");
+        assertThat(session.getScansAccepted()).isEqualTo(2);
+    }
+
+    @Test
+    void restoredLinesStillCountAgainstTheOrder() {
+        session.record(line, "LOT1", EXPIRES, new BigDecimal("60"), null);
+        session.restore(session.drain());
+
+        assertThat(session.record(line, "LOT1", EXPIRES, BigDecimal.ONE, null)).isFalse();
+        assertThat(session.drain().get(0).getQuantity()).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void pricesALineOnlyOnItsFirstReceipt() {
+        OrderLine fresh = new OrderLine(UUID.randomUUID(), UUID.randomUUID(), "00000000002",
+                new BigDecimal("10"), BigDecimal.ZERO, new BigDecimal("2.00"));
+
+        assertThat(session.markPriced(fresh)).isTrue();
+        assertThat(session.markPriced(fresh)).isFalse();
+        assertThat(session.markPriced(line)).isFalse();
+    }
+}
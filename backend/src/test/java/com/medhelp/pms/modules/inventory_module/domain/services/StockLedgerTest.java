@@ -0,0 +1,231 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryItemRepository;
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.StockMovement;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.StockLedgerJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockLedgerTest {
+
+    private final UUID itemId = UUID.randomUUID();
+    private final AtomicLong journalIds = new AtomicLong();
+    private InventoryItemRepository repository;
+    private StockLedgerJdbcRepository journal;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(InventoryItemRepository.class);
+        when(repository.findStockLevelById(any())).thenReturn(Optional.of(level("100.00", "10.00")));
+        journal = mock(StockLedgerJdbcRepository.class);
+        when(journal.append(any(), any(), any())).thenAnswer(invocation -> journalIds.incrementAndGet());
+    }
+
+    @Test
+    void reservesOnlyAvailableStock() {
+        StockLedger ledger = owner(30);
+
+        assertThat(committed(() -> ledger.tryReserve(itemId, new BigDecimal("90")))).isTrue();
+        assertThat(committed(() -> ledger.tryReserve(itemId, new BigDecimal("0.01")))).isFalse();
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("0");
+        verify(journal, times(1)).append(eq(itemId), any(), any());
+    }
+
+    @Test
+    void journalsEveryChangeInTheCallersTransaction() {
+        StockLedger ledger = owner(30);
+        committed(() -> ledger.tryReserve(itemId, new BigDecimal("5")));
+        StockMovement movement = committed(() -> ledger.consume(itemId, new BigDecimal("5")));
+
+        assertThat(movement.getQuantityBefore()).isEqualByComparingTo("100");
+        assertThat(movement.getQuantityAfter()).isEqualByComparingTo("95");
+        verify(journal).append(itemId, new BigDecimal("0.00"), new BigDecimal("5.00"));
+        verify(journal).append(itemId, new BigDecimal("-5.00"), new BigDecimal("-5.00"));
+    }
+
+    @Test
+    void givesStockBackOnlyOnceCommitted() {
+        StockLedger ledger = owner(30);
+        committed(() -> ledger.tryReserve(itemId, new BigDecimal("90")));
+
+        committed(() -> {
+            ledger.release(itemId, new BigDecimal("10"));
+            assertThat(ledger.tryReserve(itemId, BigDecimal.ONE)).isFalse();
+            return null;
+        });
+
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void undoesChangesWhoseTransactionRolledBack() {
+        StockLedger ledger = owner(30);
+        committed(() -> ledger.tryReserve(itemId, new BigDecimal("5")));
+
+        rolledBack(() -> ledger.consume(itemId, new BigDecimal("5")));
+        rolledBack(() -> ledger.tryReserve(itemId, new BigDecimal("20")));
+        rolledBack(() -> ledger.receive(itemId, new BigDecimal("20")));
+
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("85");
+        committed(() -> ledger.consume(itemId, new BigDecimal("5")));
+        assertThat(committed(() -> ledger.receive(itemId, BigDecimal.ONE)).getQuantityBefore())
+                .isEqualByComparingTo("95");
+    }
+
+    @Test
+    void rebasesOnStoredQuantitiesPlusUnappliedChanges() {
+        StockLedger ledger = owner(30);
+        committed(() -> ledger.tryReserve(itemId, new BigDecimal("5")));
+        committed(() -> ledger.receive(itemId, new BigDecimal("3")));
+
+        ledger.rebase(Map.of(itemId, levels("100", "10")));
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("88");
+
+        ledger.applied(List.of(1L));
+        ledger.rebase(Map.of(itemId, levels("100", "15")));
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("88");
+
+        // Second change applied, plus one unit another node received directly
+        ledger.applied(List.of(2L));
+        ledger.rebase(Map.of(itemId, levels("104", "15")));
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("89");
+    }
+
+    @Test
+    void evictsOnlyCountersWithoutUnappliedChangesAndReloadsThem() {
+        StockLedger ledger = owner(0);
+        UUID otherId = UUID.randomUUID();
+        ledger.available(itemId);
+        committed(() -> ledger.receive(otherId, BigDecimal.ONE));
+
+        assertThat(ledger.evictIdle()).isEqualTo(1);
+        assertThat(ledger.size()).isEqualTo(1);
+
+        ledger.available(itemId);
+        verify(repository, times(2)).findStockLevelById(itemId);
+
+        ledger.applied(List.of(1L));
+        assertThat(ledger.evictIdle()).isEqualTo(2);
+        assertThat(ledger.size()).isZero();
+    }
+
+    @Test
+    void writesDirectlyUntilItOwnsTheLedger() {
+        StockLedger ledger = new StockLedger(repository, journal, 4, 30);
+        when(journal.reserveDirect(itemId, BigDecimal.TEN)).thenReturn(Optional.of(true));
+        when(journal.applyDirect(itemId, new BigDecimal("-10.00"), new BigDecimal("-10.00")))
+                .thenReturn(Optional.of(new StockMovement(new BigDecimal("100"), new BigDecimal("90"))));
+
+        assertThat(ledger.tryReserve(itemId, BigDecimal.TEN)).isTrue();
+        assertThat(ledger.consume(itemId, BigDecimal.TEN).getQuantityAfter()).isEqualByComparingTo("90");
+
+        verify(journal, never()).append(any(), any(), any());
+        verify(repository, never()).findStockLevelById(any());
+        assertThat(ledger.size()).isZero();
+    }
+
+    @Test
+    void ownerRefusesChangesOutsideATransaction() {
+        StockLedger ledger = owner(30);
+
+        assertThatThrownBy(() -> ledger.receive(itemId, BigDecimal.ONE)).isInstanceOf(IllegalStateException.class);
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("90");
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws InterruptedException {
+        StockLedger ledger = owner(30);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (committed(() -> ledger.tryReserve(itemId, BigDecimal.ONE))) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(90);
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("0");
+    }
+
+    private StockLedger owner(long idleEvictMinutes) {
+        StockLedger ledger = new StockLedger(repository, journal, 4, idleEvictMinutes);
+        ledger.becomeOwner();
+        return ledger;
+    }
+
+    private static <T> T committed(Supplier<T> work) {
+        return inTransaction(work, true);
+    }
+
+    private static <T> T rolledBack(Supplier<T> work) {
+        return inTransaction(work, false);
+    }
+
+    private static <T> T inTransaction(Supplier<T> work, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.get();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static BigDecimal[] levels(String onHand, String reserved) {
+        return new BigDecimal[]{new BigDecimal(onHand), new BigDecimal(reserved)};
+    }
+
+    private static InventoryItemRepository.StockLevelView level(String onHand, String reserved) {
+        return new InventoryItemRepository.StockLevelView() {
+            @Override
+            public BigDecimal getQuantityOnHand() {
+                return new BigDecimal(onHand);
+            }
+
+            @Override
+            public BigDecimal getQuantityReserved() {
+                return new BigDecimal(reserved);
+            }
+        };
+    }
+}
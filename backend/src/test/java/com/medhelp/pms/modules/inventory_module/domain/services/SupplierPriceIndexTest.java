@@ -0,0 +1,62 @@
+package com.medhelp.pms.modules.inventory_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.SupplierQuote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SupplierPriceIndexTest {
+
+    private static final String NDC = "00000000001";
+    private static final UUID STEADY = UUID.randomUUID();
+    private static final UUID PROMO = UUID.randomUUID();
+
+    private SupplierPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SupplierPriceIndex(null);
+        ReflectionTestUtils.setField(index, "averageWindow", 10);
+    }
+
+    @Test
+    void aOneOffPromotionDoesNotWin() {
+        for (int i = 0; i < 5; i++) {
+            index.record(NDC, STEADY, new BigDecimal("1.00"));
+            index.record(NDC, PROMO, new BigDecimal("1.20"));
+        }
+        index.record(NDC, PROMO, new BigDecimal("0.50"));
+
+        SupplierQuote cheapest = index.cheapest(NDC, Set.of(STEADY, PROMO));
+
+        assertThat(cheapest.getSupplierId()).isEqualTo(STEADY);
+        assertThat(index.quotes(NDC).get(1).getLatestPrice()).isEqualByComparingTo("0.50");
+    }
+
+    @Test
+    void averagesExactlyInDecimal() {
+        index.record(NDC, STEADY, new BigDecimal("0.1"));
+        index.record(NDC, STEADY, new BigDecimal("0.2"));
+        index.record(NDC, STEADY, new BigDecimal("0.3"));
+
+        SupplierQuote quote = index.cheapest(NDC, Set.of(STEADY));
+
+        assertThat(quote.getAveragePrice()).isEqualByComparingTo("0.2");
+        assertThat(quote.getObservations()).isEqualTo(3);
+    }
+
+    @Test
+    void ignoresIneligibleSuppliersAndMissingPrices() {
+        index.record(NDC, PROMO, new BigDecimal("0.50"));
+        index.record(NDC, STEADY, null);
+
+        assertThat(index.cheapest(NDC, Set.of(STEADY))).isNull();
+        assertThat(index.cheapest("99999999999", Set.of(STEADY, PROMO))).isNull();
+    }
+}
@@ -0,0 +1,105 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.AdjustmentStatus;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.AdjustmentRecord;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.BatchBalance;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.CountVariance;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.CycleCountJdbcRepository.VarianceAllocation;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CycleCountJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private CycleCountJdbcRepository repository;
+    private UUID counter;
+    private UUID reviewer;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CycleCountJdbcRepository(jdbcTemplate);
+        counter = insertUser("counter");
+        reviewer = insertUser("reviewer");
+    }
+
+    @Test
+    void recordsPendingAdjustmentsUnapprovedAndLinkedToTheCount() {
+        UUID itemId = insertInventoryItem("00000000001", "50");
+        UUID countId = UUID.randomUUID();
+        repository.createCount(countId, null, counter);
+        CountVariance variance = new CountVariance(itemId, new BigDecimal("50"), new BigDecimal("20"));
+
+        repository.insertAdjustments(countId, List.of(variance), AdjustmentStatus.PENDING_APPROVAL, "Cycle count",
+                counter, LocalDateTime.now(), 100);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT requires_approval, approved_by, status, " +
+                "cycle_count_id FROM inventory_schema.stock_adjustments WHERE id = ?", variance.getAdjustmentId());
+        assertThat(row.get("requires_approval")).isEqualTo(true);
+        assertThat(row.get("approved_by")).isNull();
+        assertThat(row.get("status")).isEqualTo("pending_approval");
+        assertThat(row.get("cycle_count_id")).isEqualTo(countId);
+        assertThat(repository.countPendingAdjustments(countId)).isEqualTo(1);
+
+        List<AdjustmentRecord> pending = repository.findPendingAdjustments(10);
+        assertThat(pending).extracting(AdjustmentRecord::getId).containsExactly(variance.getAdjustmentId());
+        assertThat(pending.get(0).getNdcCode()).isEqualTo("00000000001");
+        assertThat(pending.get(0).getPerformedBy()).isEqualTo(counter);
+
+        repository.markApproved(variance.getAdjustmentId(), reviewer, LocalDateTime.now());
+        assertThat(repository.findAdjustmentForUpdate(variance.getAdjustmentId()).orElseThrow().getStatus())
+                .isEqualTo("applied");
+        assertThat(repository.countPendingAdjustments(countId)).isZero();
+    }
+
+    @Test
+    void adjustsBatchRemainingQuantitiesAndWritesOneTransactionPerBatch() {
+        UUID itemId = insertInventoryItem("00000000002", "15");
+        UUID early = insertBatch(itemId, "A", LocalDate.now().plusDays(10), "5");
+        UUID late = insertBatch(itemId, "B", LocalDate.now().plusDays(60), "10");
+        UUID countId = UUID.randomUUID();
+        repository.createCount(countId, null, counter);
+
+        List<BatchBalance> batches = repository.lockBatches(List.of(itemId)).get(itemId);
+        assertThat(batches).extracting(BatchBalance::getBatchId).containsExactly(early, late);
+
+        List<VarianceAllocation> allocations = List.of(
+                new VarianceAllocation(itemId, early, new BigDecimal("-5"), new BigDecimal("15"), BigDecimal.ZERO),
+                new VarianceAllocation(itemId, late, new BigDecimal("-2"), new BigDecimal("10"), new BigDecimal("8")),
+                new VarianceAllocation(itemId, null, new BigDecimal("-1"), new BigDecimal("8"), null));
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.adjustBatches(allocations, 100);
+            repository.insertTransactions(countId, allocations, "Cycle count", counter, LocalDateTime.now(), 100);
+        });
+
+        assertThat(remaining(early)).isEqualByComparingTo("0");
+        assertThat(remaining(late)).isEqualByComparingTo("8");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_schema.inventory_transactions " +
+                "WHERE reference_id = ? AND batch_id IS NOT NULL", Integer.class, countId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantity_change) FROM inventory_schema.inventory_transactions " +
+                "WHERE reference_id = ?", BigDecimal.class, countId)).isEqualByComparingTo("-8");
+    }
+
+    private UUID insertBatch(UUID itemId, String batchNumber, LocalDate expirationDate, String remaining) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.inventory_batches (id, inventory_item_id, batch_number, " +
+                        "expiration_date, quantity_received, quantity_remaining, unit_cost, received_date) " +
+                        "VALUES (?, ?, ?, ?, ?::numeric, ?::numeric, 1, CURRENT_DATE)",
+                id, itemId, batchNumber, Date.valueOf(expirationDate), remaining, remaining);
+        return id;
+    }
+
+    private BigDecimal remaining(UUID batchId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_remaining FROM inventory_schema.inventory_batches " +
+                "WHERE id = ?", BigDecimal.class, batchId);
+    }
+}
@@ -0,0 +1,51 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DemandForecastJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private DemandForecastJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new DemandForecastJdbcRepository(jdbcTemplate.getDataSource(), 100);
+    }
+
+    @Test
+    void writesReorderParametersRoundedUpToWholeUnits() {
+        UUID itemId = insertInventoryItem("00000000001", "50");
+
+        repository.updateReorderParameters(new UUID[]{itemId}, new double[]{186.21}, new double[]{25.53}, 100);
+
+        assertThat(column(itemId, "economic_order_quantity")).isEqualByComparingTo("187");
+        assertThat(column(itemId, "reorder_point")).isEqualByComparingTo("26");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM inventory_schema.inventory_items WHERE id = ?",
+                Integer.class, itemId)).isEqualTo(2);
+    }
+
+    @Test
+    void keepsTheStoredEoqWithoutACostAndSkipsItemsWithoutDemand() {
+        UUID uncosted = insertInventoryItem("00000000001", "50");
+        UUID idle = insertInventoryItem("00000000002", "50");
+        jdbcTemplate.update("UPDATE inventory_schema.inventory_items SET economic_order_quantity = 40");
+
+        repository.updateReorderParameters(new UUID[]{uncosted, idle}, new double[]{Double.NaN, Double.NaN},
+                new double[]{4, Double.NaN}, 1);
+
+        assertThat(column(uncosted, "economic_order_quantity")).isEqualByComparingTo("40");
+        assertThat(column(uncosted, "reorder_point")).isEqualByComparingTo("4");
+        assertThat(column(idle, "reorder_point")).isEqualByComparingTo("10");
+    }
+
+    private BigDecimal column(UUID itemId, String column) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM inventory_schema.inventory_items WHERE id = ?",
+                BigDecimal.class, itemId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryProjection;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryProjectionJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    private InventoryProjectionJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InventoryProjectionJdbcRepository(dataSource(), 100);
+    }
+
+    @Test
+    void replaysTransactionsUpToTheRequestedTime() {
+        UUID itemId = insertInventoryItem("00000000001", "0");
+        insertTransaction(itemId, "10", T0);
+        insertTransaction(itemId, "-3", T0.plusHours(1));
+        insertTransaction(itemId, "-2", T0.plusHours(2));
+
+        InventoryProjection projection = replay(null, T0.plusHours(1));
+
+        assertThat(projection.itemQuantity(itemId)).isEqualTo(700);
+        assertThat(projection.getTransactionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void snapshotPlusLaterReplayMatchesFullReplay() {
+        UUID itemId = insertInventoryItem("00000000001", "0");
+        insertTransaction(itemId, "10", T0);
+        insertTransaction(itemId, "-4", T0.plusHours(1));
+        InventoryProjection snapshot = replay(null, T0.plusHours(1));
+        transactionTemplate.executeWithoutResult(status -> repository.saveSnapshot(snapshot, 100));
+
+        insertTransaction(itemId, "-1", T0.plusHours(2));
+
+        InventoryProjection restored = transactionTemplate.execute(status -> {
+            InventoryProjection loaded = repository.loadLatestSnapshot(T0.plusHours(3)).orElseThrow();
+            repository.replay(loaded, loaded.getAsOf(), T0.plusHours(3));
+            return loaded;
+        });
+        InventoryProjection full = replay(null, T0.plusHours(3));
+
+        assertThat(restored.itemQuantity(itemId)).isEqualTo(500).isEqualTo(full.itemQuantity(itemId));
+        assertThat(restored.getTransactionCount()).isEqualTo(full.getTransactionCount());
+    }
+
+    private InventoryProjection replay(LocalDateTime after, LocalDateTime upTo) {
+        return transactionTemplate.execute(status -> {
+            InventoryProjection projection = new InventoryProjection(after);
+            repository.replay(projection, after, upTo);
+            return projection;
+        });
+    }
+
+    private void insertTransaction(UUID itemId, String change, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO inventory_schema.inventory_transactions " +
+                        "(inventory_item_id, transaction_type, quantity_change, quantity_before, quantity_after, transaction_date) " +
+                        "VALUES (?, 'adjustment', ?::numeric, 0, 0, ?)",
+                itemId, change, timestamp(at));
+    }
+}
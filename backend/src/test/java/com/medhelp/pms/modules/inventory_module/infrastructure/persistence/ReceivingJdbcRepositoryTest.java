@@ -0,0 +1,55 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceivingJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private ReceivingJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReceivingJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void leavesLinesThatWouldBeOverReceivedUntouched() {
+        UUID itemId = insertInventoryItem("00000000001", "0");
+        UUID orderId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.purchase_orders (id, po_number, order_date, status) " +
+                "VALUES (?, 'PO00000001', CURRENT_DATE, 'sent')", orderId);
+        UUID fits = insertLine(orderId, itemId, "10");
+        UUID exceeds = insertLine(orderId, itemId, "10");
+
+        int refused = repository.addReceivedQuantities(Map.of(fits, new BigDecimal("10"),
+                exceeds, new BigDecimal("10.5")), 100);
+
+        assertThat(refused).isEqualTo(1);
+        assertThat(received(fits)).isEqualByComparingTo("10");
+        assertThat(received(exceeds)).isEqualByComparingTo("0");
+        assertThat(repository.updateReceivedStatus(orderId, LocalDate.now())).isEqualTo("partially_received");
+    }
+
+    private UUID insertLine(UUID orderId, UUID itemId, String ordered) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.purchase_order_items (id, purchase_order_id, inventory_item_id, " +
+                        "ndc_code, medication_name, quantity_ordered, unit_price, total_price) " +
+                        "VALUES (?, ?, ?, '00000000001', 'Drug', ?::numeric, 1, 10)",
+                id, orderId, itemId, ordered);
+        return id;
+    }
+
+    private BigDecimal received(UUID lineId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_received FROM inventory_schema.purchase_order_items " +
+                "WHERE id = ?", BigDecimal.class, lineId);
+    }
+}
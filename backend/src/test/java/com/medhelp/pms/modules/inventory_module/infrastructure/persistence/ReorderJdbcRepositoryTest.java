@@ -0,0 +1,86 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.value_objects.ReorderCandidate;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository.DraftOrder;
+import com.medhelp.pms.modules.inventory_module.infrastructure.persistence.ReorderJdbcRepository.DraftOrderLine;
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReorderJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private ReorderJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReorderJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void draftedItemsAreNoLongerCandidates() {
+        UUID itemId = insertInventoryItem("00000000001", "2");
+        UUID otherId = insertInventoryItem("00000000002", "1");
+        UUID supplierId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.suppliers (id, name) VALUES (?, 'Acme')", supplierId);
+
+        List<ReorderCandidate> candidates = repository.findCandidates(List.of(itemId, otherId));
+        assertThat(candidates).extracting(ReorderCandidate::getInventoryItemId).containsExactlyInAnyOrder(itemId, otherId);
+        assertThat(candidates.get(0).getQuantityAvailable()).isNotNull();
+
+        String poNumber = repository.nextPurchaseOrderNumbers(1).get(0);
+        DraftOrderLine line = new DraftOrderLine(itemId, "00000000001", "Drug", new BigDecimal("100"),
+                new BigDecimal("1.5"), new BigDecimal("150.00"));
+        repository.insertDraftOrders(List.of(new DraftOrder(UUID.randomUUID(), poNumber, supplierId, LocalDate.now(),
+                new BigDecimal("150.00"), "test", List.of(line))), SecurityUtils.SYSTEM_USER_ID, 100);
+
+        assertThat(repository.findCandidates(List.of(itemId, otherId)))
+                .extracting(ReorderCandidate::getInventoryItemId).containsExactly(otherId);
+        assertThat(jdbcTemplate.queryForObject("SELECT created_by FROM inventory_schema.purchase_orders " +
+                "WHERE po_number = ?", UUID.class, poNumber)).isEqualTo(SecurityUtils.SYSTEM_USER_ID);
+    }
+
+    @Test
+    void streamsPricesOfReceivedLinesOnlyAndKeepsTheLastSupplier() {
+        UUID itemId = insertInventoryItem("00000000001", "2");
+        UUID supplierId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.suppliers (id, name) VALUES (?, 'Acme')", supplierId);
+        UUID received = insertOrder(supplierId, "PO00000001", "received");
+        UUID sent = insertOrder(supplierId, "PO00000002", "sent");
+        insertOrderLine(received, itemId, "10", "1.25");
+        insertOrderLine(sent, itemId, "0", "0.90");
+
+        List<ReorderJdbcRepository.PurchasePrice> prices = new ArrayList<>();
+        repository.forEachReceivedPrice(prices::add);
+
+        assertThat(prices).hasSize(1);
+        assertThat(prices.get(0).getUnitPrice()).isEqualByComparingTo("1.25");
+        assertThat(prices.get(0).getSupplierId()).isEqualTo(supplierId);
+
+        jdbcTemplate.update("UPDATE inventory_schema.purchase_orders SET status = 'received' WHERE id = ?", sent);
+        assertThat(repository.findCandidates(List.of(itemId)).get(0).getLastSupplierId()).isEqualTo(supplierId);
+    }
+
+    private UUID insertOrder(UUID supplierId, String poNumber, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.purchase_orders (id, po_number, supplier_id, order_date, status) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, ?)", id, poNumber, supplierId, status);
+        return id;
+    }
+
+    private void insertOrderLine(UUID orderId, UUID itemId, String received, String unitPrice) {
+        jdbcTemplate.update("INSERT INTO inventory_schema.purchase_order_items (purchase_order_id, inventory_item_id, " +
+                        "ndc_code, medication_name, quantity_ordered, quantity_received, unit_price, total_price) " +
+                        "VALUES (?, ?, '00000000001', 'Drug', 10, ?::numeric, ?::numeric, 10)",
+                orderId, itemId, received, unitPrice);
+    }
+}
@@ -0,0 +1,222 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.repositories.InventoryItemRepository;
+import com.medhelp.pms.modules.inventory_module.domain.services.StockLedger;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockLedgerFlusherTest extends PostgresRepositoryTest {
+
+    private final List<StockLedgerFlusher> started = new ArrayList<>();
+    private StockLedgerJdbcRepository stockLedgerJdbcRepository;
+    private InventoryItemRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        stockLedgerJdbcRepository = new StockLedgerJdbcRepository(jdbcTemplate);
+        repository = mock(InventoryItemRepository.class);
+        when(repository.findStockLevelById(any())).thenAnswer(invocation -> Optional.of(
+                jdbcTemplate.queryForObject("SELECT quantity_on_hand, quantity_reserved " +
+                                "FROM inventory_schema.inventory_items WHERE id = ?",
+                        (rs, rowNum) -> level(rs.getBigDecimal(1), rs.getBigDecimal(2)),
+                        invocation.<UUID>getArgument(0))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(StockLedgerFlusher::flushOnShutdown);
+    }
+
+    @Test
+    void reconcilesReservedQuantityFromActiveReservations() {
+        UUID itemId = insertInventoryItem("00000000001", "50");
+        jdbcTemplate.update("UPDATE inventory_schema.inventory_items SET quantity_reserved = 7 WHERE id = ?", itemId);
+        insertReservation(itemId, "2", "active");
+        insertReservation(itemId, "1.5", "active");
+        insertReservation(itemId, "4", "consumed");
+
+        StockLedger ledger = ledger();
+        start(ledger);
+
+        assertThat(ledger.isOwner()).isTrue();
+        assertThat(reserved(itemId)).isEqualByComparingTo("3.5");
+        assertThat(ledger.available(itemId)).isEqualByComparingTo("46.5");
+    }
+
+    @Test
+    void secondNodeStaysStandbyAndWritesDirectly() {
+        UUID itemId = insertInventoryItem("00000000002", "10");
+        StockLedger owner = ledger();
+        StockLedgerFlusher ownerFlusher = start(owner);
+        assertThat(owner.available(itemId)).isEqualByComparingTo("10");
+
+        StockLedger standby = ledger();
+        start(standby);
+        assertThat(standby.isOwner()).isFalse();
+
+        assertThat(transactionTemplate.execute(status -> standby.tryReserve(itemId, new BigDecimal("4")))).isTrue();
+        assertThat(reserved(itemId)).isEqualByComparingTo("4");
+
+        ownerFlusher.flush();
+        assertThat(owner.available(itemId)).isEqualByComparingTo("6");
+        assertThat(standby.available(itemId)).isEqualByComparingTo("6");
+    }
+
+    @Test
+    void standbyAvailabilityIncludesTheOwnersUnappliedChanges() {
+        UUID itemId = insertInventoryItem("00000000003", "10");
+        StockLedger owner = ledger();
+        start(owner);
+        StockLedger standby = ledger();
+        start(standby);
+
+        transactionTemplate.executeWithoutResult(status -> owner.tryReserve(itemId, new BigDecimal("8")));
+
+        assertThat(transactionTemplate.execute(status -> standby.tryReserve(itemId, new BigDecimal("3")))).isFalse();
+        assertThat(standby.available(itemId)).isEqualByComparingTo("2");
+    }
+
+    @Test
+    void standbyTakesOverWhenTheOwnerShutsDown() {
+        UUID itemId = insertInventoryItem("00000000004", "10");
+        StockLedger owner = ledger();
+        StockLedgerFlusher ownerFlusher = start(owner);
+        StockLedger standby = ledger();
+        StockLedgerFlusher standbyFlusher = start(standby);
+
+        transactionTemplate.executeWithoutResult(status -> owner.receive(itemId, new BigDecimal("5")));
+        ownerFlusher.flushOnShutdown();
+        started.remove(ownerFlusher);
+        assertThat(owner.isOwner()).isFalse();
+
+        standbyFlusher.claimOwnership();
+
+        assertThat(standby.isOwner()).isTrue();
+        assertThat(onHand(itemId)).isEqualByComparingTo("15");
+        assertThat(standby.available(itemId)).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void nextOwnerRecoversChangesCommittedBeforeACrash() {
+        UUID itemId = insertInventoryItem("00000000005", "10");
+        StockLedger owner = ledger();
+        StockLedgerFlusher ownerFlusher = start(owner);
+        StockLedger standby = ledger();
+        StockLedgerFlusher standbyFlusher = start(standby);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            owner.receive(itemId, new BigDecimal("6"));
+            owner.tryReserve(itemId, new BigDecimal("4"));
+            insertReservation(itemId, "4", "active");
+            owner.adjust(itemId, BigDecimal.ONE.negate());
+        });
+        // Owner dies without flushing: its session ends and the counters are gone
+        ((AdvisoryLocks.SessionLock) ReflectionTestUtils.getField(ownerFlusher, "ownerLock")).close();
+        started.remove(ownerFlusher);
+        assertThat(onHand(itemId)).isEqualByComparingTo("10");
+
+        standbyFlusher.claimOwnership();
+
+        assertThat(standby.isOwner()).isTrue();
+        assertThat(onHand(itemId)).isEqualByComparingTo("15");
+        assertThat(reserved(itemId)).isEqualByComparingTo("4");
+        assertThat(standby.available(itemId)).isEqualByComparingTo("11");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_schema.stock_ledger_journal",
+                Integer.class)).isZero();
+    }
+
+    @Test
+    void changesOfARolledBackTransactionLeaveNoJournalRows() {
+        UUID itemId = insertInventoryItem("00000000006", "10");
+        StockLedger owner = ledger();
+        StockLedgerFlusher flusher = start(owner);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            owner.receive(itemId, new BigDecimal("6"));
+            status.setRollbackOnly();
+        });
+        flusher.flush();
+
+        assertThat(onHand(itemId)).isEqualByComparingTo("10");
+        assertThat(owner.available(itemId)).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void flushWritesDeltasRelativeToStoredQuantities() {
+        UUID itemId = insertInventoryItem("00000000007", "10");
+        StockLedger owner = ledger();
+        StockLedgerFlusher flusher = start(owner);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            owner.tryReserve(itemId, new BigDecimal("4"));
+            owner.receive(itemId, new BigDecimal("6"));
+        });
+        jdbcTemplate.update("UPDATE inventory_schema.inventory_items SET quantity_on_hand = quantity_on_hand + 1 " +
+                "WHERE id = ?", itemId);
+        flusher.flush();
+
+        assertThat(onHand(itemId)).isEqualByComparingTo("17");
+        assertThat(reserved(itemId)).isEqualByComparingTo("4");
+        assertThat(owner.available(itemId)).isEqualByComparingTo("13");
+    }
+
+    private StockLedger ledger() {
+        return new StockLedger(repository, stockLedgerJdbcRepository, 4, 30);
+    }
+
+    private StockLedgerFlusher start(StockLedger ledger) {
+        StockLedgerFlusher flusher = new StockLedgerFlusher(ledger, stockLedgerJdbcRepository, transactionManager,
+                mock(ApplicationEventPublisher.class), new AdvisoryLocks(jdbcTemplate, dataSource()));
+        ReflectionTestUtils.setField(flusher, "batchSize", 2);
+        flusher.reconcileOnStartup();
+        started.add(flusher);
+        return flusher;
+    }
+
+    private void insertReservation(UUID itemId, String quantity, String status) {
+        jdbcTemplate.update("INSERT INTO inventory_schema.stock_reservations " +
+                        "(inventory_item_id, quantity, status, expires_at) " +
+                        "VALUES (?, ?::numeric, ?, CURRENT_TIMESTAMP + INTERVAL '1 hour')",
+                itemId, quantity, status);
+    }
+
+    private BigDecimal onHand(UUID itemId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_on_hand FROM inventory_schema.inventory_items WHERE id = ?",
+                BigDecimal.class, itemId);
+    }
+
+    private BigDecimal reserved(UUID itemId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_reserved FROM inventory_schema.inventory_items WHERE id = ?",
+                BigDecimal.class, itemId);
+    }
+
+    private static InventoryItemRepository.StockLevelView level(BigDecimal onHand, BigDecimal reserved) {
+        return new InventoryItemRepository.StockLevelView() {
+            @Override
+            public BigDecimal getQuantityOnHand() {
+                return onHand;
+            }
+
+            @Override
+            public BigDecimal getQuantityReserved() {
+                return reserved;
+            }
+        };
+    }
+}
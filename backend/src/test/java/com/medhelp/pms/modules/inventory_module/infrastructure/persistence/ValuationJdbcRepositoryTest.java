@@ -0,0 +1,53 @@
+package com.medhelp.pms.modules.inventory_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.CategoryValue;
+import com.medhelp.pms.modules.inventory_module.domain.projections.InventoryValuation.ItemValuation;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValuationJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+
+    private ValuationJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ValuationJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void tellsAMissingSnapshotApartFromAnEmptyOne() {
+        assertThat(repository.snapshotExists(PERIOD_END)).isFalse();
+
+        assertThat(repository.snapshot(PERIOD_END)).isZero();
+
+        assertThat(repository.snapshotExists(PERIOD_END)).isTrue();
+        assertThat(repository.findSnapshotCategories(PERIOD_END)).isEmpty();
+    }
+
+    @Test
+    void replacesAnEarlierSnapshotOfTheSamePeriod() {
+        repository.upsertValuations(List.of(new ItemValuation(insertInventoryItem("00000000001", "10"), "Analgesic",
+                new BigDecimal("10"), new BigDecimal("2.5000"), new BigDecimal("25.00"))), 100);
+        repository.snapshot(PERIOD_END);
+        repository.snapshot(PERIOD_END);
+
+        List<CategoryValue> categories = repository.findSnapshotCategories(PERIOD_END);
+        assertThat(categories).hasSize(1);
+        assertThat(categories.get(0).getItemCount()).isEqualTo(1);
+        assertThat(categories.get(0).getFifoValue()).isEqualByComparingTo("25.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT item_count FROM " +
+                "inventory_schema.inventory_valuation_snapshot_periods WHERE period_end = ?", Integer.class,
+                Date.valueOf(PERIOD_END))).isEqualTo(1);
+    }
+}
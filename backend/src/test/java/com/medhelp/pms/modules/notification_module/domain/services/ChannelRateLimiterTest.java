@@ -0,0 +1,84 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Long> reservations = new ArrayList<>();
+
+    /**
+     * Schedule shared with other nodes that have already reserved the given time ahead
+     */
+    private ChannelRateLimiter.SlotReserver sharedSchedule(long reservedAheadNanos) {
+        return durationNanos -> {
+            reservations.add(durationNanos);
+            return reservedAheadNanos + durationNanos * reservations.size();
+        };
+    }
+
+    @Test
+    void reservesOneBlockForAllItsSlots() throws InterruptedException {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(1000, 10, sharedSchedule(0));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire(SECOND)).isTrue();
+        }
+
+        assertThat(reservations).containsExactly(SECOND / 100);
+    }
+
+    @Test
+    void reservesTheNextBlockOnceTheSlotsAreUsedUp() throws InterruptedException {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(1000, 5, sharedSchedule(0));
+
+        for (int i = 0; i < 12; i++) {
+            assertThat(limiter.acquire(SECOND)).isTrue();
+        }
+
+        assertThat(reservations).hasSize(3);
+    }
+
+    @Test
+    void spacesSendsByTheRate() throws InterruptedException {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(100, 5, sharedSchedule(0));
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(SECOND);
+        }
+
+        // The first slot of the block is now, the fifth four intervals of 10ms later
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(35));
+    }
+
+    @Test
+    void waitsForTheBlockOtherNodesLeftFree() throws InterruptedException {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(1000, 1,
+                sharedSchedule(TimeUnit.MILLISECONDS.toNanos(50)));
+
+        long started = System.nanoTime();
+        assertThat(limiter.acquire(SECOND)).isTrue();
+
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(45));
+    }
+
+    @Test
+    void givesUpWithoutTakingASlotWhenTheNextOneIsPastTheTimeout() throws InterruptedException {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(1000, 1,
+                sharedSchedule(TimeUnit.MILLISECONDS.toNanos(50)));
+
+        assertThat(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(10))).isFalse();
+
+        // The reserved slot is still there for a caller willing to wait
+        assertThat(limiter.acquire(SECOND)).isTrue();
+        assertThat(reservations).hasSize(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationDispatchDto;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.NotificationChannel;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import com.medhelp.pms.modules.notification_module.infrastructure.channels.NotificationSender;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private NotificationDispatchJdbcRepository repository;
+    private NotificationSender sender;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationDispatchJdbcRepository.class);
+        sender = mock(NotificationSender.class);
+        when(sender.channel()).thenReturn(NotificationChannel.SMS);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        dispatcher = new NotificationDispatcher(repository, List.of(sender), transactionManager, 2, 10, "", 20, 1);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 1);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchesPerRun", 5);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseSeconds", 60L);
+        ReflectionTestUtils.setField(dispatcher, "retryMaxSeconds", 3600L);
+        ReflectionTestUtils.setField(dispatcher, "maxAgeDays", 7L);
+        ReflectionTestUtils.setField(dispatcher, "writeBatchSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void releasesANotificationWithoutSpendingARetryWhenNoSendTimeCanBeReserved() {
+        OutgoingNotification notification = notification();
+        when(repository.claim(any(), anyInt(), any(), any(), any())).thenReturn(List.of(notification));
+        when(repository.reserveSendTime(eq("sms"), anyLong())).thenThrow(new QueryTimeoutException("timeout"));
+
+        NotificationDispatchDto run = dispatcher.dispatch();
+
+        assertThat(run.getReleased()).isEqualTo(1);
+        assertThat(run.getRetried()).isZero();
+        assertThat(run.getFailed()).isZero();
+        verify(sender, never()).send(any());
+        verify(repository).release(argThat(released -> released.contains(notification)), eq(500));
+        verify(repository).markAttemptFailed(argThat(attempts -> attempts.isEmpty()), eq(500));
+        // The released notification is due again at once, so the run ends instead of claiming it back
+        verify(repository, times(1)).claim(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void countsAFailedSendAsAnAttempt() {
+        OutgoingNotification notification = notification();
+        when(repository.claim(any(), anyInt(), any(), any(), any())).thenReturn(List.of(notification), List.of());
+        when(repository.reserveSendTime(eq("sms"), anyLong())).thenReturn(TimeUnit.SECONDS.toNanos(1));
+        when(sender.send(notification)).thenThrow(new IllegalStateException("provider unavailable"));
+
+        NotificationDispatchDto run = dispatcher.dispatch();
+
+        assertThat(run.getRetried()).isEqualTo(1);
+        assertThat(run.getReleased()).isZero();
+        verify(repository).markAttemptFailed(argThat(attempts -> attempts.size() == 1
+                && attempts.get(0).getNotification() == notification
+                && attempts.get(0).getNextAttemptAt() != null), eq(500));
+        verify(repository).release(argThat(released -> released.isEmpty()), eq(500));
+    }
+
+    private static OutgoingNotification notification() {
+        return new OutgoingNotification(UUID.randomUUID(), LocalDateTime.now(), "sms", "+15550100142", null,
+                "Your prescription is ready", 0, 3);
+    }
+}
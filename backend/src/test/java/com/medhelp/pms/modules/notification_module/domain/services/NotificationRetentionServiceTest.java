@@ -0,0 +1,140 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.application.dtos.NotificationRetentionDto;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationDispatchJdbcRepository;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationPartitionJdbcRepository;
+import com.medhelp.pms.shared.domain.exceptions.BusinessException;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks;
+import com.medhelp.pms.shared.infrastructure.persistence.AdvisoryLocks.SessionLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationRetentionServiceTest {
+
+    private static final YearMonth EXPIRED = YearMonth.now().minusMonths(13);
+    private static final YearMonth CURRENT = YearMonth.now();
+
+    @TempDir
+    Path archiveDir;
+
+    private NotificationPartitionJdbcRepository partitionRepository;
+    private NotificationDispatchJdbcRepository dispatchRepository;
+    private AdvisoryLocks advisoryLocks;
+    private SessionLock sessionLock;
+    private PlatformTransactionManager transactionManager;
+    private NotificationRetentionService service;
+
+    @BeforeEach
+    void setUp() {
+        partitionRepository = mock(NotificationPartitionJdbcRepository.class);
+        dispatchRepository = mock(NotificationDispatchJdbcRepository.class);
+        advisoryLocks = mock(AdvisoryLocks.class);
+        sessionLock = mock(SessionLock.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(advisoryLocks.trySessionLock(anyString(), anyString())).thenReturn(Optional.of(sessionLock));
+        when(partitionRepository.createPartition(any())).thenAnswer(invocation ->
+                NotificationPartitionJdbcRepository.partitionName(invocation.getArgument(0)));
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(EXPIRED, CURRENT));
+        service = service(archiveDir.toString());
+    }
+
+    @Test
+    void requiresAnAbsoluteArchiveDirectory() {
+        assertThatThrownBy(() -> service("archive/notifications")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service(" ")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void archivesExpiredPartitionsBeforeDroppingThem() throws IOException {
+        when(partitionRepository.copyOut(eq(EXPIRED), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,message\n1,Hello\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        NotificationRetentionDto run = service.maintain();
+
+        Path file = archiveDir.resolve("notifications_%04d_%02d.csv.gz".formatted(EXPIRED.getYear(),
+                EXPIRED.getMonthValue()));
+        assertThat(run.getArchivedFiles()).containsExactly(file.toString());
+        assertThat(run.getArchivedRows()).isEqualTo(1);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,message\n1,Hello\n");
+        }
+        assertThat(file.resolveSibling(file.getFileName() + ".part")).doesNotExist();
+
+        InOrder order = inOrder(partitionRepository);
+        order.verify(partitionRepository).copyOut(eq(EXPIRED), any());
+        order.verify(partitionRepository).dropPartition(EXPIRED);
+        verify(partitionRepository, never()).dropPartition(CURRENT);
+        verify(sessionLock).close();
+    }
+
+    @Test
+    void keepsAPartitionWhoseArchiveFailed() {
+        when(partitionRepository.copyOut(eq(EXPIRED), any())).thenThrow(new UncheckedIOException(new IOException()));
+
+        assertThatThrownBy(() -> service.maintain()).isInstanceOf(UncheckedIOException.class);
+
+        verify(partitionRepository, never()).dropPartition(any());
+        verify(sessionLock).close();
+    }
+
+    @Test
+    void leavesTheRunToTheNodeHoldingTheLock() {
+        when(advisoryLocks.trySessionLock(anyString(), anyString())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.maintain()).isInstanceOf(BusinessException.class);
+        service.maintainScheduled();
+
+        verify(partitionRepository, never()).findPartitionMonths();
+    }
+
+    @Test
+    void createsPartitionsAheadUnderTheLock() {
+        service.ensurePartitionsOnStartup();
+
+        InOrder order = inOrder(advisoryLocks, partitionRepository);
+        order.verify(advisoryLocks).lockForTransaction(anyString(), eq("partitions"));
+        order.verify(partitionRepository).createPartition(CURRENT);
+        order.verify(partitionRepository).createPartition(CURRENT.plusMonths(3));
+    }
+
+    private NotificationRetentionService service(String archiveDir) {
+        NotificationRetentionService service = new NotificationRetentionService(partitionRepository,
+                dispatchRepository, advisoryLocks, transactionManager, archiveDir);
+        ReflectionTestUtils.setField(service, "monthsAhead", 3);
+        ReflectionTestUtils.setField(service, "retentionMonths", 12);
+        ReflectionTestUtils.setField(service, "maxAgeDays", 7L);
+        return service;
+    }
+}
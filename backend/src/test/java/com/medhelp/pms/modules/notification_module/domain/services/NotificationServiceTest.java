@@ -0,0 +1,178 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.inventory_module.domain.events.ExpiringStockAlertEvent;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.PatientContact;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.QueuedNotification;
+import com.medhelp.pms.modules.notification_module.domain.value_objects.RenderedTemplate;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.NotificationQueueJdbcRepository;
+import com.medhelp.pms.modules.notification_module.infrastructure.persistence.PatientContactJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private static final UUID PATIENT_ID = UUID.randomUUID();
+    private static final UUID TEMPLATE_ID = UUID.randomUUID();
+
+    private NotificationTemplateService templateService;
+    private NotificationTemplateCatalog catalog;
+    private PatientContactJdbcRepository contactRepository;
+    private NotificationQueueJdbcRepository queueRepository;
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        templateService = mock(NotificationTemplateService.class);
+        catalog = mock(NotificationTemplateCatalog.class);
+        contactRepository = mock(PatientContactJdbcRepository.class);
+        queueRepository = mock(NotificationQueueJdbcRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new NotificationService(templateService, catalog, contactRepository, queueRepository,
+                transactionManager);
+        ReflectionTestUtils.setField(service, "windowSeconds", 120L);
+        ReflectionTestUtils.setField(service, "maxGroupsPerFlush", 500);
+        ReflectionTestUtils.setField(service, "coalescedTemplateSuffix", "_coalesced");
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "pickupTemplate", "prescription_ready");
+
+        when(contactRepository.findContact(PATIENT_ID)).thenReturn(Optional.of(
+                new PatientContact(PATIENT_ID, "Ana", "es", "sms", "+15550100", null)));
+        when(templateService.render(eq("prescription_ready"), eq("es"), anyMap())).thenReturn(
+                new RenderedTemplate(TEMPLATE_ID, "es", "sms", null, "Su receta esta lista"));
+    }
+
+    @Test
+    void holdsAReferencedMessageForTheWindow() {
+        UUID prescriptionId = UUID.randomUUID();
+        when(queueRepository.stage(any(), any())).thenReturn(true);
+
+        assertThat(service.queueForPatient("prescription_ready", PATIENT_ID, "prescription", prescriptionId,
+                "RX1", Map.of())).isTrue();
+
+        ArgumentCaptor<QueuedNotification> staged = ArgumentCaptor.forClass(QueuedNotification.class);
+        ArgumentCaptor<LocalDateTime> releaseAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(queueRepository).stage(staged.capture(), releaseAt.capture());
+        assertThat(staged.getValue().getRecipient()).isEqualTo("+15550100");
+        assertThat(staged.getValue().getReferenceId()).isEqualTo(prescriptionId);
+        assertThat(releaseAt.getValue()).isEqualTo(staged.getValue().getCreatedAt().plusSeconds(120));
+        verify(queueRepository, never()).insert(any(), anyInt());
+    }
+
+    @Test
+    void reportsAReferenceThatIsAlreadyWaiting() {
+        when(queueRepository.stage(any(), any())).thenReturn(false);
+
+        assertThat(service.queueForPatient("prescription_ready", PATIENT_ID, "prescription", UUID.randomUUID(),
+                "RX1", Map.of())).isFalse();
+    }
+
+    @Test
+    void queuesDirectlyWithoutAWindow() {
+        ReflectionTestUtils.setField(service, "windowSeconds", 0L);
+
+        service.queueForPatient("prescription_ready", PATIENT_ID, "prescription", UUID.randomUUID(), "RX1", Map.of());
+
+        verify(queueRepository).insert(any(), eq(500));
+        verify(queueRepository, never()).stage(any(), any());
+    }
+
+    @Test
+    void skipsAPatientWithoutAnAddressForTheChannel() {
+        when(contactRepository.findContact(PATIENT_ID)).thenReturn(Optional.of(
+                new PatientContact(PATIENT_ID, "Ana", "es", "sms", " ", "ana@example.com")));
+
+        assertThat(service.queueForPatient("prescription_ready", PATIENT_ID, "prescription", UUID.randomUUID(),
+                "RX1", Map.of())).isFalse();
+        verify(queueRepository, never()).stage(any(), any());
+    }
+
+    @Test
+    void queuesAPickupMessageForAFill() {
+        UUID prescriptionId = UUID.randomUUID();
+        when(catalog.contains("prescription_ready")).thenReturn(true);
+
+        service.onPrescriptionFilled(new PrescriptionFilledEvent(prescriptionId, "RX1", PATIENT_ID, List.of(),
+                null, LocalDateTime.now()));
+
+        ArgumentCaptor<QueuedNotification> staged = ArgumentCaptor.forClass(QueuedNotification.class);
+        verify(queueRepository).stage(staged.capture(), any());
+        assertThat(staged.getValue().getItemLabel()).isEqualTo("RX1");
+        assertThat(staged.getValue().getReferenceType()).isEqualTo("prescription");
+    }
+
+    @Test
+    void mergesAGroupIntoOneNotification() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now();
+        when(queueRepository.takeReleased(any(), eq(500))).thenReturn(List.of(
+                released(second, "Second", "+15550101", createdAt.plusSeconds(1)),
+                released(first, "First", "+15550100", createdAt)));
+        when(contactRepository.findContacts(anyCollection())).thenReturn(Map.of());
+
+        assertThat(service.flush()).isEqualTo(1);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<QueuedNotification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(queueRepository).insert(inserted.capture(), eq(500));
+        QueuedNotification merged = inserted.getValue().get(0);
+        assertThat(merged.getMessage()).isEqualTo("First\nSecond");
+        assertThat(merged.getRecipient()).isEqualTo("+15550101");
+        assertThat(merged.getReferenceId()).isEqualTo(first);
+        assertThat(merged.getCoalescedReferenceIds()).containsExactly(first, second);
+    }
+
+    @Test
+    void queuesAnExpiringStockAlertOncePerAlertId() {
+        UUID alertId = UUID.randomUUID();
+        when(queueRepository.insertOnce(any())).thenReturn(true);
+
+        service.onExpiringStockAlert(new ExpiringStockAlertEvent(alertId, LocalDate.now(), 0, "email",
+                "pharmacy@example.com", "1 inventory batches expire today", "NDC 00000000001"));
+
+        ArgumentCaptor<QueuedNotification> queued = ArgumentCaptor.forClass(QueuedNotification.class);
+        verify(queueRepository).insertOnce(queued.capture());
+        assertThat(queued.getValue().getPatientId()).isNull();
+        assertThat(queued.getValue().getRecipient()).isEqualTo("pharmacy@example.com");
+        assertThat(queued.getValue().getReferenceType()).isEqualTo("inventory_expiry");
+        assertThat(queued.getValue().getReferenceId()).isEqualTo(alertId);
+        verify(queueRepository, never()).stage(any(), any());
+    }
+
+    private static QueuedNotification released(UUID referenceId, String message, String recipient,
+                                               LocalDateTime createdAt) {
+        return QueuedNotification.builder()
+                .patientId(PATIENT_ID)
+                .notificationType("sms")
+                .recipient(recipient)
+                .message(message)
+                .referenceType("prescription")
+                .referenceId(referenceId)
+                .createdAt(createdAt)
+                .build();
+    }
+}
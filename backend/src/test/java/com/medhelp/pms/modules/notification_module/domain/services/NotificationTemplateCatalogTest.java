@@ -0,0 +1,77 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import com.medhelp.pms.modules.notification_module.domain.repositories.NotificationTemplateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.medhelp.pms.modules.notification_module.domain.services.NotificationTemplateCompilerTest.template;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationTemplateCatalogTest {
+
+    private NotificationTemplateRepository repository;
+    private NotificationTemplateCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationTemplateRepository.class);
+        catalog = new NotificationTemplateCatalog(repository, "en");
+    }
+
+    @Test
+    void keepsTheCompiledTemplateWhileItsContentIsUnchanged() {
+        NotificationTemplate template = template("Ready", "Hello {{name}}");
+        when(repository.findByIsActiveTrue()).thenReturn(List.of(template));
+        catalog.refresh();
+        CompiledTemplate compiled = catalog.findById(template.getId());
+
+        template.setUpdatedAt(LocalDateTime.now());
+        catalog.refresh();
+
+        assertThat(catalog.findById(template.getId())).isSameAs(compiled);
+    }
+
+    @Test
+    void recompilesAnEditEvenWithoutANewUpdateTime() {
+        NotificationTemplate template = template("Ready", "Hello {{name}}");
+        when(repository.findByIsActiveTrue()).thenReturn(List.of(template));
+        catalog.refresh();
+
+        template.setBodyTemplate("Hi {{name}}");
+        catalog.refresh();
+
+        assertThat(catalog.findById(template.getId()).getBody().getPlaceholders()).containsExactly("name");
+        assertThat(catalog.findById(template.getId()).getVersion())
+                .isEqualTo(NotificationTemplateCompiler.version(template));
+    }
+
+    @Test
+    void leavesOutTemplatesThatDoNotCompile() {
+        NotificationTemplate broken = template("Ready", "Hello {{name");
+        when(repository.findByIsActiveTrue()).thenReturn(List.of(broken));
+
+        catalog.refresh();
+
+        assertThat(catalog.contains("prescription_ready")).isFalse();
+    }
+
+    @Test
+    void fallsBackToTheBaseLanguageThenTheDefault() {
+        NotificationTemplate english = template("Ready", "Hello");
+        NotificationTemplate spanish = template("Lista", "Hola");
+        spanish.setLanguage("es");
+        when(repository.findByIsActiveTrue()).thenReturn(List.of(english, spanish));
+        catalog.refresh();
+
+        assertThat(catalog.find("prescription_ready", "es_MX").getId()).isEqualTo(spanish.getId());
+        assertThat(catalog.find("prescription_ready", "fr").getId()).isEqualTo(english.getId());
+        assertThat(catalog.find("prescription_ready", null).getId()).isEqualTo(english.getId());
+        assertThat(catalog.find("other", "en")).isNull();
+    }
+}
@@ -0,0 +1,125 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationTemplateCompilerTest {
+
+    @Test
+    void rendersLiteralsAndPlaceholdersInOrder() {
+        CompiledText text = NotificationTemplateCompiler.compileText(
+                "Hello {{ patient.first_name }}, your {{drug}} is ready.", "bodyTemplate");
+
+        assertThat(text.getPlaceholders()).containsExactly("patient.first_name", "drug");
+        assertThat(render(text, Map.of("patient.first_name", "Ana", "drug", "Lisinopril")))
+                .isEqualTo("Hello Ana, your Lisinopril is ready.");
+    }
+
+    @Test
+    void rendersMissingValuesAsNothing() {
+        CompiledText text = NotificationTemplateCompiler.compileText("{{a}}-{{b}}", "bodyTemplate");
+
+        assertThat(render(text, Map.of("b", "2"))).isEqualTo("-2");
+    }
+
+    @Test
+    void appendsToWhatIsAlreadyInTheBuilder() {
+        CompiledText text = NotificationTemplateCompiler.compileText("{{a}}!", "bodyTemplate");
+
+        StringBuilder out = new StringBuilder("Say ");
+        text.renderTo(out, Map.of("a", "hi"));
+
+        assertThat(out).hasToString("Say hi!");
+    }
+
+    @Test
+    void compilesTextWithoutPlaceholders() {
+        CompiledText text = NotificationTemplateCompiler.compileText("Plain text", "bodyTemplate");
+
+        assertThat(text.getPlaceholders()).isEmpty();
+        assertThat(render(text, Map.of())).isEqualTo("Plain text");
+    }
+
+    @Test
+    void compilesMissingTextAsEmpty() {
+        assertThat(NotificationTemplateCompiler.compileText(null, "subject").isEmpty()).isTrue();
+        assertThat(NotificationTemplateCompiler.compileText("", "subject").isEmpty()).isTrue();
+        assertThat(NotificationTemplateCompiler.compileText("{{a}}", "subject").isEmpty()).isFalse();
+    }
+
+    @Test
+    void rejectsAnUnclosedPlaceholder() {
+        assertThatThrownBy(() -> NotificationTemplateCompiler.compileText("Hi {{name", "bodyTemplate"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("not closed");
+    }
+
+    @Test
+    void rejectsAnEmptyPlaceholder() {
+        assertThatThrownBy(() -> NotificationTemplateCompiler.compileText("Hi {{ }}", "subject"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("empty");
+    }
+
+    @Test
+    void rejectsAnInvalidPlaceholderName() {
+        assertThatThrownBy(() -> NotificationTemplateCompiler.compileText("Hi {{first name}}", "bodyTemplate"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Invalid placeholder name");
+    }
+
+    @Test
+    void keepsTheVersionWhileTheContentIsUnchanged() {
+        NotificationTemplate template = template("Ready", "Hello {{name}}");
+        String version = NotificationTemplateCompiler.version(template);
+
+        template.setId(UUID.randomUUID());
+        template.setIsActive(false);
+
+        assertThat(NotificationTemplateCompiler.version(template)).isEqualTo(version);
+        assertThat(NotificationTemplateCompiler.compile(template).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void changesTheVersionWithTheContent() {
+        String version = NotificationTemplateCompiler.version(template("Ready", "Hello {{name}}"));
+
+        assertThat(NotificationTemplateCompiler.version(template("Ready", "Hi {{name}}"))).isNotEqualTo(version);
+        assertThat(NotificationTemplateCompiler.version(template("Done", "Hello {{name}}"))).isNotEqualTo(version);
+        assertThat(NotificationTemplateCompiler.version(template(null, "Hello {{name}}"))).isNotEqualTo(version);
+    }
+
+    @Test
+    void doesNotMixUpWhereOnePartEndsAndTheNextStarts() {
+        assertThat(NotificationTemplateCompiler.version(template("Ready ", "now")))
+                .isNotEqualTo(NotificationTemplateCompiler.version(template("Ready", " now")));
+        assertThat(NotificationTemplateCompiler.version(template(null, "x")))
+                .isNotEqualTo(NotificationTemplateCompiler.version(template("", "x")));
+    }
+
+    static NotificationTemplate template(String subject, String body) {
+        NotificationTemplate template = new NotificationTemplate();
+        template.setId(UUID.randomUUID());
+        template.setTemplateName("prescription_ready");
+        template.setLanguage("en");
+        template.setNotificationType("sms");
+        template.setEventTrigger("prescription.filled");
+        template.setSubject(subject);
+        template.setBodyTemplate(body);
+        template.setIsActive(true);
+        return template;
+    }
+
+    private static String render(CompiledText text, Map<String, String> values) {
+        StringBuilder out = new StringBuilder();
+        text.renderTo(out, values);
+        return out.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.medhelp.pms.modules.notification_module.domain.services;
+
+import com.medhelp.pms.modules.notification_module.domain.entities.NotificationTemplate;
+import com.medhelp.pms.modules.notification_module.domain.repositories.NotificationTemplateRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of rendering a batch of notifications from the compiled catalog, against substituting
+ * placeholders into the template source with String.replace for every message.
+ * <p>
+ * Each invocation renders the subject and body of renderCount notifications for distinct
+ * patients, as a reminder run does.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args="NotificationTemplateRenderBenchmark"}
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationTemplateRenderBenchmark {
+
+    private static final String SUBJECT = "Your prescription {{prescription.number}} is ready";
+    private static final String BODY = "Hello {{patient.first_name}} {{patient.last_name}}, your {{drug.name}} "
+            + "({{drug.strength}}) is ready for pickup at {{pharmacy.name}}. Pickup by {{pickup.date}}. "
+            + "Questions? Call {{pharmacy.phone}}.";
+
+    @State(Scope.Benchmark)
+    public static class Renders {
+
+        @Param({"100000"})
+        public int renderCount;
+
+        NotificationTemplateService service;
+        List<Map<String, String>> values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            NotificationTemplate template = NotificationTemplateCompilerTest.template(SUBJECT, BODY);
+            NotificationTemplateRepository repository = mock(NotificationTemplateRepository.class);
+            when(repository.findByIsActiveTrue()).thenReturn(List.of(template));
+            NotificationTemplateCatalog catalog = new NotificationTemplateCatalog(repository, "en");
+            catalog.refresh();
+            service = new NotificationTemplateService(catalog, null);
+
+            values = new ArrayList<>(renderCount);
+            for (int i = 0; i < renderCount; i++) {
+                values.add(Map.of(
+                        "prescription.number", "RX" + (100_000 + i),
+                        "patient.first_name", "Patient" + i,
+                        "patient.last_name", "Example",
+                        "drug.name", "Lisinopril",
+                        "drug.strength", "10 mg",
+                        "pharmacy.name", "Main Street Pharmacy",
+                        "pickup.date", "2026-10-" + (10 + i % 20),
+                        "pharmacy.phone", "555-0100"));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void renderCompiled(Renders renders, Blackhole blackhole) {
+        for (Map<String, String> values : renders.values) {
+            blackhole.consume(renders.service.render("prescription_ready", "en", values));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void renderByReplace(Renders renders, Blackhole blackhole) {
+        for (Map<String, String> values : renders.values) {
+            blackhole.consume(replace(SUBJECT, values));
+            blackhole.consume(replace(BODY, values));
+        }
+    }
+
+    private static String replace(String source, Map<String, String> values) {
+        String rendered = source;
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            rendered = rendered.replace("{{" + value.getKey() + "}}", value.getValue());
+        }
+        return rendered;
+    }
+}
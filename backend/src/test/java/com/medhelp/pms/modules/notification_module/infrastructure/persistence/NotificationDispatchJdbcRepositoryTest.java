@@ -0,0 +1,83 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.OutgoingNotification;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class NotificationDispatchJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private NotificationDispatchJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new NotificationDispatchJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void claimsOnlyNotificationsOfTheGivenChannels() {
+        UUID sms = insertNotification("sms");
+        insertNotification("email");
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutgoingNotification> claimed = repository.claim(List.of("sms"), 10, now, now.plusMinutes(5),
+                now.minusDays(1));
+
+        assertThat(claimed).extracting(OutgoingNotification::getId).containsExactly(sms);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM notification_schema.notifications WHERE notification_type = 'email'",
+                String.class)).isEqualTo("pending");
+    }
+
+    @Test
+    void startsTheFirstReservationNow() {
+        long remaining = repository.reserveSendTime("sms", SECOND);
+
+        assertThat(remaining).isCloseTo(SECOND, within(TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    @Test
+    void queuesReservationsBehindEachOther() {
+        repository.reserveSendTime("sms", SECOND);
+        long second = repository.reserveSendTime("sms", SECOND);
+        long third = repository.reserveSendTime("sms", SECOND);
+
+        // Another node's reservations push the next block back just the same
+        assertThat(second).isCloseTo(2 * SECOND, within(TimeUnit.MILLISECONDS.toNanos(200)));
+        assertThat(third).isCloseTo(3 * SECOND, within(TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    @Test
+    void keepsTheSchedulesOfChannelsApart() {
+        repository.reserveSendTime("sms", 10 * SECOND);
+
+        assertThat(repository.reserveSendTime("email", SECOND))
+                .isCloseTo(SECOND, within(TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    @Test
+    void restartsALapsedScheduleFromNow() {
+        jdbcTemplate.update("INSERT INTO notification_schema.notification_channel_slots (channel, next_free_at) " +
+                "VALUES ('sms', CURRENT_TIMESTAMP - INTERVAL '1 hour')");
+
+        assertThat(repository.reserveSendTime("sms", SECOND))
+                .isCloseTo(SECOND, within(TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    private UUID insertNotification(String channel) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO notification_schema.notifications (patient_id, notification_type, recipient, message) " +
+                        "VALUES (?, ?, 'recipient', 'message') RETURNING id",
+                UUID.class, UUID.randomUUID(), channel);
+    }
+}
@@ -0,0 +1,94 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationPartitionJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final YearMonth OLD_MONTH = YearMonth.of(2001, 1);
+
+    private NotificationPartitionJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new NotificationPartitionJdbcRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void dropOldPartition() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS notification_schema.notifications_2001_01");
+    }
+
+    @Test
+    void createsAPartitionOnce() {
+        assertThat(repository.createPartition(OLD_MONTH)).isEqualTo("notifications_2001_01");
+        assertThat(repository.createPartition(OLD_MONTH)).isEqualTo("notifications_2001_01");
+
+        assertThat(repository.findPartitionMonths()).first().isEqualTo(OLD_MONTH);
+        assertThat(repository.findPartitionMonths()).contains(YearMonth.now()).isSorted();
+    }
+
+    @Test
+    void copiesOutOnlyTheRowsOfThePartition() {
+        repository.createPartition(OLD_MONTH);
+        insertNotification(UUID.randomUUID(), null, OLD_MONTH.atDay(10).atStartOfDay());
+        insertNotification(UUID.randomUUID(), null, LocalDateTime.now());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = repository.copyOut(OLD_MONTH, out);
+
+        assertThat(rows).isEqualTo(1);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,patient_id,");
+    }
+
+    @Test
+    void dropsThePartitionWithItsRows() {
+        repository.createPartition(OLD_MONTH);
+        insertNotification(UUID.randomUUID(), null, OLD_MONTH.atDay(10).atStartOfDay());
+
+        transactionTemplate.executeWithoutResult(tx -> repository.dropPartition(OLD_MONTH));
+
+        assertThat(repository.findPartitionMonths()).doesNotContain(OLD_MONTH);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM notification_schema.notifications",
+                Long.class)).isZero();
+        assertThat(repository.countDefaultPartition()).isZero();
+    }
+
+    @Test
+    void countsRowsThatMissedTheirPartition() {
+        insertNotification(UUID.randomUUID(), null, OLD_MONTH.atDay(10).atStartOfDay());
+
+        assertThat(repository.countDefaultPartition()).isEqualTo(1);
+    }
+
+    @Test
+    void requiresAPatientExceptOnStaffAlerts() {
+        insertNotification(null, "inventory_expiry", LocalDateTime.now());
+
+        assertThatThrownBy(() -> insertNotification(null, "prescription", LocalDateTime.now()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> insertNotification(null, null, LocalDateTime.now()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private void insertNotification(UUID patientId, String referenceType, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO notification_schema.notifications (patient_id, notification_type, " +
+                        "recipient, message, reference_type, created_at) " +
+                        "VALUES (?, 'sms', 'recipient', 'message', ?, ?)",
+                patientId, referenceType, timestamp(createdAt));
+    }
+}
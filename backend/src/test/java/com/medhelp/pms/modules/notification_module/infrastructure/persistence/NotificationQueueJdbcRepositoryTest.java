@@ -0,0 +1,186 @@
+package com.medhelp.pms.modules.notification_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.notification_module.domain.value_objects.QueuedNotification;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationQueueJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private NotificationQueueJdbcRepository repository;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        repository = new NotificationQueueJdbcRepository(jdbcTemplate);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void startsTheWindowWithTheFirstMessageOfAGroup() {
+        UUID patientId = UUID.randomUUID();
+        stage(message(patientId, UUID.randomUUID()), now.plusMinutes(2));
+        stage(message(patientId, UUID.randomUUID()), now.plusMinutes(5));
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT DISTINCT release_at FROM notification_schema.coalescing_notifications", Timestamp.class))
+                .extracting(Timestamp::toLocalDateTime)
+                .containsExactly(now.plusMinutes(2));
+    }
+
+    @Test
+    void dropsAReferenceThatIsAlreadyWaiting() {
+        UUID patientId = UUID.randomUUID();
+        UUID referenceId = UUID.randomUUID();
+
+        assertThat(stage(message(patientId, referenceId), now.plusMinutes(2))).isTrue();
+        assertThat(stage(message(patientId, referenceId), now.plusMinutes(2))).isFalse();
+        assertThat(stage(message(patientId, null), now.plusMinutes(2))).isTrue();
+        assertThat(stage(message(patientId, null), now.plusMinutes(2))).isTrue();
+
+        assertThat(count()).isEqualTo(3);
+    }
+
+    @Test
+    void takesOnlyGroupsWhoseWindowClosedOldestFirst() {
+        UUID late = UUID.randomUUID();
+        UUID early = UUID.randomUUID();
+        UUID open = UUID.randomUUID();
+        stage(message(late, UUID.randomUUID()), now.minusMinutes(1));
+        stage(message(late, UUID.randomUUID()), now.minusMinutes(1));
+        stage(message(early, UUID.randomUUID()), now.minusMinutes(2));
+        stage(message(open, UUID.randomUUID()), now.plusMinutes(2));
+
+        List<QueuedNotification> first = inTransaction(() -> repository.takeReleased(now, 1));
+        List<QueuedNotification> rest = inTransaction(() -> repository.takeReleased(now, 10));
+
+        assertThat(first).extracting(QueuedNotification::getPatientId).containsExactly(early);
+        assertThat(rest).extracting(QueuedNotification::getPatientId).containsExactly(late, late);
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsAGroupThatIsBeingStagedInto() throws Exception {
+        UUID patientId = UUID.randomUUID();
+        stage(message(patientId, UUID.randomUUID()), now.minusMinutes(1));
+
+        CountDownLatch staged = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<?> stager = executor.submit(() -> transactionTemplate.executeWithoutResult(tx -> {
+            repository.stage(message(patientId, UUID.randomUUID()), now.plusMinutes(2));
+            staged.countDown();
+            await(finish);
+        }));
+        assertThat(staged.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(inTransaction(() -> repository.takeReleased(now, 10))).isEmpty();
+
+        finish.countDown();
+        stager.get(10, TimeUnit.SECONDS);
+        assertThat(inTransaction(() -> repository.takeReleased(now, 10))).hasSize(2);
+    }
+
+    @Test
+    void stagesIntoAGroupBeingFlushedOnlyOnceTheFlushIsDone() throws Exception {
+        UUID patientId = UUID.randomUUID();
+        stage(message(patientId, UUID.randomUUID()), now.minusMinutes(1));
+
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<?> flush = executor.submit(() -> transactionTemplate.executeWithoutResult(tx -> {
+            assertThat(repository.takeReleased(now, 10)).hasSize(1);
+            taken.countDown();
+            await(finish);
+        }));
+        assertThat(taken.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<Boolean> stager = executor.submit(() ->
+                stage(message(patientId, UUID.randomUUID()), now.plusMinutes(2)));
+        assertThatThrownBy(() -> stager.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        finish.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+        assertThat(stager.get(10, TimeUnit.SECONDS)).isTrue();
+        // The flushed group is gone, so the new message opens a window of its own
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT release_at FROM notification_schema.coalescing_notifications", Timestamp.class)
+                .toLocalDateTime()).isEqualTo(now.plusMinutes(2));
+    }
+
+    @Test
+    void queuesAReferenceOnlyOnce() {
+        UUID alertId = UUID.randomUUID();
+        QueuedNotification alert = QueuedNotification.builder()
+                .notificationType("email")
+                .recipient("pharmacy@example.com")
+                .subject("1 inventory batches expire today")
+                .message("NDC 00000000001, lot LOT1: 1 remaining")
+                .referenceType("inventory_expiry")
+                .referenceId(alertId)
+                .createdAt(now)
+                .build();
+
+        assertThat(inTransaction(() -> repository.insertOnce(alert))).isTrue();
+        assertThat(inTransaction(() -> repository.insertOnce(alert))).isFalse();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM notification_schema.notifications " +
+                "WHERE reference_type = 'inventory_expiry' AND reference_id = ?", Integer.class, alertId)).isEqualTo(1);
+    }
+
+    private boolean stage(QueuedNotification notification, LocalDateTime releaseAt) {
+        return inTransaction(() -> repository.stage(notification, releaseAt));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(tx -> work.get());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM notification_schema.coalescing_notifications",
+                Integer.class);
+    }
+
+    private QueuedNotification message(UUID patientId, UUID referenceId) {
+        return QueuedNotification.builder()
+                .patientId(patientId)
+                .notificationType("sms")
+                .recipient("+15550100")
+                .message("Your prescription is ready")
+                .referenceType("prescription")
+                .referenceId(referenceId)
+                .itemLabel("RX1")
+                .createdAt(now)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
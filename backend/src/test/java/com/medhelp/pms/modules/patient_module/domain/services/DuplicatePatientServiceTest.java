@@ -0,0 +1,75 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateRunDto;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.DuplicatePatientJdbcRepository;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicatePatientServiceTest extends PostgresRepositoryTest {
+
+    private DuplicatePatientService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DuplicatePatientService(new DuplicatePatientJdbcRepository(jdbcTemplate), transactionManager);
+        ReflectionTestUtils.setField(service, "minScore", 0.85);
+        ReflectionTestUtils.setField(service, "minNameScore", 0.8);
+        ReflectionTestUtils.setField(service, "maxBlockSize", 500);
+        ReflectionTestUtils.setField(service, "blocksPerChunk", 2);
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ReflectionTestUtils.setField(service, "fetchSize", 2);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+    }
+
+    @Test
+    void recordsAPairFoundUnderSeveralKeysOnce() {
+        insertPatient("P1", "555-010-0142");
+        insertPatient("P2", "555-010-0142");
+
+        DuplicateRunDto run = service.detectDuplicates();
+
+        assertThat(run.getBlocks()).isEqualTo(3);
+        assertThat(run.getOversizedBlocks()).isZero();
+        assertThat(run.getPairsCompared()).isEqualTo(3);
+        assertThat(run.getCandidatesFound()).isEqualTo(1);
+        assertThat(pendingCandidates()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsBlocksLargerThanTheLimitAndDropsTheirOldCandidates() {
+        insertPatient("P1", "555-010-0142");
+        insertPatient("P2", "555-010-0142");
+        service.detectDuplicates();
+        insertPatient("P3", "555-010-0142");
+        ReflectionTestUtils.setField(service, "maxBlockSize", 2);
+
+        DuplicateRunDto run = service.detectDuplicates();
+
+        assertThat(run.getBlocks()).isZero();
+        assertThat(run.getOversizedBlocks()).isEqualTo(3);
+        assertThat(run.getPairsCompared()).isZero();
+        assertThat(run.getCandidatesFound()).isZero();
+        assertThat(run.getCandidatesRemoved()).isEqualTo(1);
+        assertThat(pendingCandidates()).isZero();
+    }
+
+    private int pendingCandidates() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patient_schema.duplicate_candidates " +
+                "WHERE status = 'pending'", Integer.class);
+    }
+
+    private void insertPatient(String number, String phone) {
+        jdbcTemplate.update("INSERT INTO patient_schema.patients (id, patient_number, first_name, last_name, " +
+                        "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                        "VALUES (?, ?, 'John', 'Smith', ?, ?, '1 Main St', 'Springfield', 'IL', '62701')",
+                UUID.randomUUID(), number, Date.valueOf(LocalDate.of(1972, 3, 15)), phone);
+    }
+}
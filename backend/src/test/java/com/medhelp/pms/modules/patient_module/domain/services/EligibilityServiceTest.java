@@ -0,0 +1,88 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.domain.events.PatientInsuranceChangedEvent;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.Coverage;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityResult;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.EligibilityStatus;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientEligibility;
+import com.medhelp.pms.modules.patient_module.infrastructure.eligibility.EligibilityChecker;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.CoverageJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EligibilityServiceTest {
+
+    private final UUID patientId = UUID.randomUUID();
+    private final Coverage coverage = new Coverage(UUID.randomUUID(), "Acme Health", "commercial", "610014",
+            "PCN1", "GRP1", "POL1", "John Smith", LocalDate.now().minusYears(1), null);
+
+    private CoverageJdbcRepository coverageRepository;
+    private EligibilityChecker checker;
+    private EligibilityService service;
+
+    @BeforeEach
+    void setUp() {
+        coverageRepository = mock(CoverageJdbcRepository.class);
+        checker = mock(EligibilityChecker.class);
+        when(coverageRepository.findCoverage(eq(patientId), any())).thenReturn(List.of(coverage));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void reportsUnknownEligibilityWithoutACheckerAndDoesNotRetryIt() {
+        service = service(null);
+
+        service.getEligibility(patientId);
+        PatientEligibility eligibility = service.getEligibility(patientId);
+
+        assertThat(eligibility.getEligibility().getStatus()).isEqualTo(EligibilityStatus.UNKNOWN);
+        assertThat(eligibility.getEligibility().getInsuranceId()).isEqualTo(coverage.getInsuranceId());
+        verify(coverageRepository, times(1)).findCoverage(eq(patientId), any());
+    }
+
+    @Test
+    void servesTheCachedEntryUntilInsuranceChanges() {
+        service = service(checker);
+        when(checker.check(eq(patientId), any(), any())).thenReturn(new EligibilityResult(EligibilityStatus.ELIGIBLE,
+                coverage.getInsuranceId(), null, LocalDateTime.now()));
+
+        service.getEligibility(patientId);
+        service.getEligibility(patientId);
+        service.onPatientInsuranceChanged(new PatientInsuranceChangedEvent(patientId));
+        PatientEligibility eligibility = service.getEligibility(patientId);
+
+        assertThat(eligibility.getEligibility().getStatus()).isEqualTo(EligibilityStatus.ELIGIBLE);
+        verify(checker, times(2)).check(eq(patientId), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private EligibilityService service(EligibilityChecker eligibilityChecker) {
+        ObjectProvider<EligibilityChecker> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(eligibilityChecker);
+        EligibilityService eligibilityService = new EligibilityService(coverageRepository, provider, 1, 10);
+        ReflectionTestUtils.setField(eligibilityService, "ttlMinutes", 240L);
+        ReflectionTestUtils.setField(eligibilityService, "refreshAfterMinutes", 180L);
+        ReflectionTestUtils.setField(eligibilityService, "checkTimeoutMs", 3000L);
+        return eligibilityService;
+    }
+}
@@ -0,0 +1,104 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DedupRecord;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateMatch;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PatientMatcherTest {
+
+    private static final LocalDate DOB = LocalDate.of(1972, 3, 15);
+
+    @Test
+    void scoresKnownJaroWinklerPairs() {
+        assertThat(PatientMatcher.jaroWinkler("martha", "marhta")).isCloseTo(0.961, within(0.001));
+        assertThat(PatientMatcher.jaroWinkler("dwayne", "duane")).isCloseTo(0.84, within(0.001));
+        assertThat(PatientMatcher.jaroWinkler("dixon", "dicksonx")).isCloseTo(0.813, within(0.001));
+    }
+
+    @Test
+    void scoresMissingOrDisjointNamesAsZero() {
+        assertThat(PatientMatcher.jaroWinkler(null, "smith")).isZero();
+        assertThat(PatientMatcher.jaroWinkler("", "smith")).isZero();
+        assertThat(PatientMatcher.jaroWinkler("abc", "xyz")).isZero();
+        assertThat(PatientMatcher.jaroWinkler("smith", "smith")).isEqualTo(1);
+    }
+
+    @Test
+    void givesHalfCreditToSwappedOrOneOffBirthDates() {
+        assertThat(PatientMatcher.dobScore(DOB, DOB)).isEqualTo(1);
+        assertThat(PatientMatcher.dobScore(LocalDate.of(1972, 3, 4), LocalDate.of(1972, 4, 3))).isEqualTo(0.5);
+        assertThat(PatientMatcher.dobScore(DOB, LocalDate.of(1973, 3, 15))).isEqualTo(0.5);
+        assertThat(PatientMatcher.dobScore(DOB, LocalDate.of(1981, 7, 2))).isZero();
+    }
+
+    @Test
+    void matchesTheSamePersonWithSwappedNamesAndAShortenedPhone() {
+        DedupRecord a = record("john", "smith", DOB, "15550100142", "12 main st", "62701");
+        DedupRecord b = record("smith", "john", DOB, "5550100142", "12 main street", "62701");
+
+        DuplicateMatch match = PatientMatcher.match(a, b, 0.85, 0.8);
+
+        assertThat(match).isNotNull();
+        assertThat(match.getNameScore()).isEqualTo(1);
+        assertThat(match.getPhoneScore()).isEqualTo(1);
+        assertThat(match.getScore()).isGreaterThan(0.95);
+    }
+
+    @Test
+    void matchesAPhoneAgainstTheOtherRecordsSecondaryPhone() {
+        DedupRecord a = new DedupRecord(UUID.randomUUID(), "john", "smith", DOB, "5550100142", null,
+                "12 main st", "62701");
+        DedupRecord b = new DedupRecord(UUID.randomUUID(), "john", "smith", DOB, "5559999999", "5550100142",
+                "12 main st", "62701");
+
+        assertThat(PatientMatcher.match(a, b, 0, 0).getPhoneScore()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresPhonesTooShortToIdentifyAnyone() {
+        DedupRecord a = record("john", "smith", DOB, "010142", "12 main st", "62701");
+        DedupRecord b = record("john", "smith", DOB, "010142", "12 main st", "62701");
+
+        assertThat(PatientMatcher.match(a, b, 0, 0).getPhoneScore()).isZero();
+    }
+
+    @Test
+    void rejectsPairsBelowTheNameThresholdWhateverElseMatches() {
+        DedupRecord a = record("john", "smith", DOB, "5550100142", "12 main st", "62701");
+        DedupRecord b = record("maria", "garcia", DOB, "5550100142", "12 main st", "62701");
+
+        assertThat(PatientMatcher.match(a, b, 0, 0.8)).isNull();
+    }
+
+    @Test
+    void rejectsPairsBelowTheOverallThreshold() {
+        DedupRecord a = record("john", "smith", DOB, "5550100142", "12 main st", "62701");
+        DedupRecord b = record("john", "smith", LocalDate.of(1990, 8, 1), "5559999999", "400 oak ave", "10001");
+
+        assertThat(PatientMatcher.match(a, b, 0.85, 0.8)).isNull();
+    }
+
+    @Test
+    void ordersThePairAsPostgresOrdersUuids() {
+        UUID low = UUID.fromString("7fffffff-0000-0000-0000-000000000000");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        DedupRecord a = new DedupRecord(high, "john", "smith", DOB, null, null, null, null);
+        DedupRecord b = new DedupRecord(low, "john", "smith", DOB, null, null, null, null);
+
+        DuplicateMatch match = PatientMatcher.match(a, b, 0, 0);
+
+        assertThat(match.getPatientId1()).isEqualTo(low);
+        assertThat(match.getPatientId2()).isEqualTo(high);
+    }
+
+    private static DedupRecord record(String firstName, String lastName, LocalDate dateOfBirth, String phone,
+                                      String address, String zipCode) {
+        return new DedupRecord(UUID.randomUUID(), firstName, lastName, dateOfBirth, phone, null, address, zipCode);
+    }
+}
@@ -0,0 +1,92 @@
+package com.medhelp.pms.modules.patient_module.domain.services;
+
+import com.medhelp.pms.modules.patient_module.domain.events.PatientInsuranceChangedEvent;
+import com.medhelp.pms.modules.patient_module.domain.events.PatientProfileChangedEvent;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientProfileChangeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PatientProfileChangeFeedTest {
+
+    private PatientProfileChangeJdbcRepository repository;
+    private ApplicationEventPublisher eventPublisher;
+    private PatientProfileChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PatientProfileChangeJdbcRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        feed = new PatientProfileChangeFeed(repository, eventPublisher);
+        ReflectionTestUtils.setField(feed, "retentionHours", 24L);
+    }
+
+    @Test
+    void firstPollOnlyRecordsTheWatermark() {
+        when(repository.currentWatermark()).thenReturn(100L);
+
+        feed.poll();
+
+        verify(repository, never()).findChangedPatients(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void publishesPatientsChangedBetweenWatermarks() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(repository.currentWatermark()).thenReturn(100L, 140L);
+        Map<UUID, Boolean> changed = new LinkedHashMap<>();
+        changed.put(first, false);
+        changed.put(second, false);
+        when(repository.findChangedPatients(100L, 140L)).thenReturn(changed);
+
+        feed.poll();
+        feed.poll();
+
+        ArgumentCaptor<PatientProfileChangedEvent> events = ArgumentCaptor.forClass(PatientProfileChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(PatientProfileChangedEvent::getPatientId)
+                .containsExactly(first, second);
+    }
+
+    @Test
+    void alsoPublishesInsuranceChanges() {
+        UUID patientId = UUID.randomUUID();
+        when(repository.currentWatermark()).thenReturn(100L, 140L);
+        when(repository.findChangedPatients(100L, 140L)).thenReturn(Map.of(patientId, true));
+
+        feed.poll();
+        feed.poll();
+
+        ArgumentCaptor<PatientInsuranceChangedEvent> events =
+                ArgumentCaptor.forClass(PatientInsuranceChangedEvent.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        assertThat(events.getValue().getPatientId()).isEqualTo(patientId);
+    }
+
+    @Test
+    void skipsTheQueryWhenNoTransactionFinished() {
+        when(repository.currentWatermark()).thenReturn(100L, 100L);
+
+        feed.poll();
+        feed.poll();
+
+        verify(repository, never()).findChangedPatients(anyLong(), anyLong());
+    }
+}
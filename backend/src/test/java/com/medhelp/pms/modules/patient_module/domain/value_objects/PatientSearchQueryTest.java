@@ -0,0 +1,58 @@
+package com.medhelp.pms.modules.patient_module.domain.value_objects;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientSearchQueryTest {
+
+    @Test
+    void readsFourDigitsNextToANameAsTheBirthYear() {
+        PatientSearchQuery query = PatientSearchQuery.parse("smi 1972", 4);
+
+        assertThat(query.getNames()).containsExactly("smi");
+        assertThat(query.getBirthYear()).isEqualTo(1972);
+        assertThat(query.getPhoneDigits()).isEmpty();
+    }
+
+    @Test
+    void readsFourDigitsAloneAsPhoneDigits() {
+        PatientSearchQuery query = PatientSearchQuery.parse("1972", 4);
+
+        assertThat(query.getBirthYear()).isNull();
+        assertThat(query.getPhoneDigits()).containsExactly("1972");
+    }
+
+    @Test
+    void readsFourDigitsNextToOtherPhoneDigitsAsPhoneDigits() {
+        PatientSearchQuery query = PatientSearchQuery.parse("smith 555 1972", 4);
+
+        assertThat(query.getBirthYear()).isNull();
+        assertThat(query.getPhoneDigits()).containsExactly("1972");
+    }
+
+    @Test
+    void readsPunctuatedDigitsAsPhoneDigits() {
+        PatientSearchQuery query = PatientSearchQuery.parse("smith 555-1972", 4);
+
+        assertThat(query.getBirthYear()).isNull();
+        assertThat(query.getPhoneDigits()).containsExactly("5551972");
+    }
+
+    @Test
+    void parsesBirthDatesAndNormalizesNames() {
+        PatientSearchQuery query = PatientSearchQuery.parse("O'Brien, John 03/15/1972", 4);
+
+        assertThat(query.getNames()).containsExactly("obrien", "john");
+        assertThat(query.getDateOfBirth()).isEqualTo(LocalDate.of(1972, 3, 15));
+    }
+
+    @Test
+    void isNotSelectiveWithOnlySingleLetters() {
+        assertThat(PatientSearchQuery.parse("j s", 4).isSelective(2)).isFalse();
+        assertThat(PatientSearchQuery.parse("j smith", 4).isSelective(2)).isTrue();
+        assertThat(PatientSearchQuery.parse("j 1972-03-15", 4).isSelective(2)).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.DuplicateCandidateDto;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DedupRecord;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateBlockingKey;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateCandidateStatus;
+import com.medhelp.pms.modules.patient_module.domain.value_objects.DuplicateMatch;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicatePatientJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final LocalDate BORN = LocalDate.of(1972, 3, 15);
+
+    private DuplicatePatientJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new DuplicatePatientJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void groupsPatientsByBirthDateAndSoundAlikeLastName() {
+        UUID smith = insertPatient("P1", "John", "Smith", BORN, "555-010-0142");
+        UUID smyth = insertPatient("P2", "Jon", "Smyth", BORN, "555-010-0199");
+        insertPatient("P3", "John", "Smith", LocalDate.of(1980, 1, 1), "555-010-0143");
+        insertPatient("P4", "Mary", "Jones", BORN, "555-010-0144");
+
+        List<List<DedupRecord>> blocks = blocks(DuplicateBlockingKey.DOB_LAST_NAME, 1);
+
+        assertThat(blocks).singleElement().satisfies(block -> {
+            assertThat(block).extracting(DedupRecord::getPatientId).containsExactlyInAnyOrder(smith, smyth);
+            assertThat(block).extracting(DedupRecord::getLastName).containsExactlyInAnyOrder("smith", "smyth");
+            assertThat(block).extracting(DedupRecord::getAddress).containsOnly("1mainst");
+            assertThat(block).extracting(DedupRecord::getZipCode).containsOnly("62701");
+        });
+    }
+
+    @Test
+    void groupsPatientsByPhoneAndSkipsNumbersTooShortToMatchOn() {
+        UUID first = insertPatient("P1", "John", "Smith", BORN, "(555) 010-0142");
+        UUID second = insertPatient("P2", "Mary", "Jones", LocalDate.of(1980, 1, 1), "1-555-010-0142");
+        UUID third = insertPatient("P3", "Ann", "Lee", LocalDate.of(1990, 5, 5), "555.010.0142");
+        insertPatient("P4", "Bob", "Ray", LocalDate.of(1960, 2, 2), "0142");
+        insertPatient("P5", "Sue", "Kim", LocalDate.of(1965, 7, 7), "0142");
+
+        List<List<DedupRecord>> blocks = blocks(DuplicateBlockingKey.PHONE, 2);
+
+        assertThat(blocks).singleElement().satisfies(block -> assertThat(block)
+                .extracting(DedupRecord::getPatientId).containsExactlyInAnyOrder(first, second, third));
+    }
+
+    @Test
+    void refreshesAPendingCandidateButKeepsAReviewedDecision() {
+        UUID[] pending = orderedPair(insertPatient("P1", "John", "Smith", BORN, "555-010-0142"),
+                insertPatient("P2", "Jon", "Smyth", BORN, "555-010-0142"));
+        UUID[] dismissed = orderedPair(insertPatient("P3", "Mary", "Jones", BORN, "555-010-0143"),
+                insertPatient("P4", "Marie", "Jones", BORN, "555-010-0143"));
+        LocalDateTime firstRun = LocalDateTime.of(2026, 3, 1, 2, 30);
+        repository.upsertCandidates(List.of(match(pending, 0.9), match(dismissed, 0.9)), firstRun, 1);
+        UUID dismissedId = candidateId(dismissed);
+        assertThat(repository.review(dismissedId, DuplicateCandidateStatus.DISMISSED, null)).isTrue();
+        assertThat(repository.review(dismissedId, DuplicateCandidateStatus.MERGED, null)).isFalse();
+
+        repository.upsertCandidates(List.of(match(pending, 0.95), match(dismissed, 0.99)), firstRun.plusDays(1), 1);
+
+        assertThat(repository.findByStatus(DuplicateCandidateStatus.PENDING, 10)).singleElement().satisfies(c -> {
+            assertThat(c.getPatient1Id()).isEqualTo(pending[0]);
+            assertThat(c.getPatient2Id()).isEqualTo(pending[1]);
+            assertThat(c.getScore()).isEqualByComparingTo("0.95");
+            assertThat(c.getDetectedAt()).isEqualTo(firstRun);
+        });
+        assertThat(repository.findByStatus(DuplicateCandidateStatus.DISMISSED, 10))
+                .extracting(DuplicateCandidateDto::getScore)
+                .singleElement().satisfies(score -> assertThat(score).isEqualByComparingTo("0.9"));
+    }
+
+    @Test
+    void dropsOnlyPendingCandidatesTheLatestRunDidNotSee() {
+        UUID[] stale = orderedPair(insertPatient("P1", "John", "Smith", BORN, "555-010-0142"),
+                insertPatient("P2", "Jon", "Smyth", BORN, "555-010-0142"));
+        UUID[] seen = orderedPair(insertPatient("P3", "Mary", "Jones", BORN, "555-010-0143"),
+                insertPatient("P4", "Marie", "Jones", BORN, "555-010-0143"));
+        UUID[] reviewed = orderedPair(insertPatient("P5", "Ann", "Lee", BORN, "555-010-0144"),
+                insertPatient("P6", "Anne", "Lee", BORN, "555-010-0144"));
+        LocalDateTime previousRun = LocalDateTime.of(2026, 3, 1, 2, 30);
+        LocalDateTime latestRun = previousRun.plusDays(1);
+        repository.upsertCandidates(List.of(match(stale, 0.9), match(seen, 0.9), match(reviewed, 0.9)),
+                previousRun, 500);
+        repository.review(candidateId(reviewed), DuplicateCandidateStatus.MERGED, null);
+        repository.upsertCandidates(List.of(match(seen, 0.9)), latestRun, 500);
+
+        assertThat(repository.deletePendingNotSeenSince(latestRun)).isEqualTo(1);
+
+        assertThat(repository.findByStatus(DuplicateCandidateStatus.PENDING, 10))
+                .extracting(DuplicateCandidateDto::getPatient1Id).containsExactly(seen[0]);
+        assertThat(repository.findByStatus(DuplicateCandidateStatus.MERGED, 10)).hasSize(1);
+    }
+
+    private List<List<DedupRecord>> blocks(DuplicateBlockingKey key, int fetchSize) {
+        List<List<DedupRecord>> blocks = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> repository.forEachBlock(key, fetchSize, blocks::add));
+        return blocks;
+    }
+
+    private UUID candidateId(UUID[] pair) {
+        return jdbcTemplate.queryForObject("SELECT id FROM patient_schema.duplicate_candidates " +
+                "WHERE patient_id_1 = ? AND patient_id_2 = ?", UUID.class, pair[0], pair[1]);
+    }
+
+    private static DuplicateMatch match(UUID[] pair, double score) {
+        return new DuplicateMatch(pair[0], pair[1], score, score, 1, 1, 1);
+    }
+
+    /**
+     * PostgreSQL orders UUIDs by their bytes, which is the order of their lower-case text
+     */
+    private static UUID[] orderedPair(UUID a, UUID b) {
+        return a.toString().compareTo(b.toString()) < 0 ? new UUID[]{a, b} : new UUID[]{b, a};
+    }
+
+    private UUID insertPatient(String number, String firstName, String lastName, LocalDate dateOfBirth,
+                               String phone) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patient_schema.patients (id, patient_number, first_name, last_name, " +
+                        "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, '1 Main St.', 'Springfield', 'IL', '62701-1234')",
+                id, number, firstName, lastName, Date.valueOf(dateOfBirth), phone);
+        return id;
+    }
+}
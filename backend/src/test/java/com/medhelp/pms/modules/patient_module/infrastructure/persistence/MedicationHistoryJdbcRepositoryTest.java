@@ -0,0 +1,135 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.MedicationHistoryEntryDto;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MedicationHistoryJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private static final LocalDate FILLED = LocalDate.of(2026, 3, 2);
+
+    private MedicationHistoryJdbcRepository repository;
+    private UUID patientId;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MedicationHistoryJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+        patientId = UUID.randomUUID();
+    }
+
+    @Test
+    void recordsAnOriginalFillOnceAndSkipsUndispensedItems() {
+        UUID prescriptionId = insertPrescription("RX1", patientId);
+        UUID dispensed = insertItem(prescriptionId, "30", 2);
+        UUID pending = insertItem(prescriptionId, null, 0);
+
+        assertThat(repository.insertOriginalFills(List.of(dispensed, pending))).isEqualTo(1);
+        assertThat(repository.insertOriginalFills(List.of(dispensed))).isZero();
+        assertThat(repository.insertOriginalFills(List.of())).isZero();
+
+        List<MedicationHistoryEntryDto> history = repository.findPage(patientId, null, null, 10);
+        assertThat(history).singleElement().satisfies(entry -> {
+            assertThat(entry.getFillId()).isEqualTo(dispensed);
+            assertThat(entry.getFilledDate()).isEqualTo(FILLED);
+            assertThat(entry.getRunOutDate()).isEqualTo(FILLED.plusDays(30));
+            assertThat(entry.getRefillNumber()).isZero();
+            assertThat(entry.getRefillsRemaining()).isEqualTo(2);
+            assertThat(entry.getMedicationName()).isEqualTo("Amoxicillin 500 mg");
+            assertThat(entry.getQuantity()).isEqualByComparingTo("30");
+        });
+    }
+
+    @Test
+    void recordsARefillOnceWithTheRefillsLeft() {
+        UUID prescriptionId = insertPrescription("RX1", patientId);
+        UUID itemId = insertItem(prescriptionId, "30", 2);
+        UUID refillId = insertRefill(prescriptionId, itemId, 1, FILLED.plusDays(28));
+
+        assertThat(repository.insertRefill(refillId)).isEqualTo(1);
+        assertThat(repository.insertRefill(refillId)).isZero();
+
+        assertThat(repository.findPage(patientId, null, null, 10)).singleElement().satisfies(entry -> {
+            assertThat(entry.getFillId()).isEqualTo(refillId);
+            assertThat(entry.getPrescriptionItemId()).isEqualTo(itemId);
+            assertThat(entry.getRefillNumber()).isEqualTo(1);
+            assertThat(entry.getRefillsRemaining()).isEqualTo(1);
+            assertThat(entry.getRunOutDate()).isEqualTo(FILLED.plusDays(58));
+        });
+    }
+
+    @Test
+    void rebuildReplacesOnePatientsHistoryFromThePrescriptionTables() {
+        UUID prescriptionId = insertPrescription("RX1", patientId);
+        UUID itemId = insertItem(prescriptionId, "30", 2);
+        UUID refillId = insertRefill(prescriptionId, itemId, 1, FILLED.plusDays(28));
+        UUID otherItem = insertItem(insertPrescription("RX2", UUID.randomUUID()), "10", 0);
+        repository.insertOriginalFills(List.of(itemId, otherItem));
+        jdbcTemplate.update("UPDATE patient_schema.medication_history SET medication_name = 'Stale' " +
+                "WHERE fill_id = ?", itemId);
+
+        assertThat(repository.rebuild(patientId)).isEqualTo(2);
+
+        assertThat(repository.findPage(patientId, null, null, 10)).extracting(MedicationHistoryEntryDto::getFillId,
+                        MedicationHistoryEntryDto::getMedicationName)
+                .containsExactly(tuple(refillId, "Amoxicillin 500 mg"),
+                        tuple(itemId, "Amoxicillin 500 mg"));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patient_schema.medication_history " +
+                "WHERE fill_id = ?", Integer.class, otherItem)).isEqualTo(1);
+    }
+
+    @Test
+    void pagesNewestFirstAfterTheCursorAndKeepsTheLatestFillCurrent() {
+        UUID prescriptionId = insertPrescription("RX1", patientId);
+        UUID itemId = insertItem(prescriptionId, "30", 2);
+        UUID refillId = insertRefill(prescriptionId, itemId, 1, FILLED.plusDays(28));
+        repository.rebuild(patientId);
+
+        List<MedicationHistoryEntryDto> first = repository.findPage(patientId, null, null, 1);
+        assertThat(first).extracting(MedicationHistoryEntryDto::getFillId).containsExactly(refillId);
+        assertThat(repository.findPage(patientId, first.get(0).getFilledDate(), refillId, 1))
+                .extracting(MedicationHistoryEntryDto::getFillId).containsExactly(itemId);
+
+        assertThat(repository.findCurrent(patientId, FILLED.plusDays(31)))
+                .extracting(MedicationHistoryEntryDto::getFillId).containsExactly(refillId);
+        assertThat(repository.findCurrent(patientId, FILLED.plusDays(59))).isEmpty();
+    }
+
+    private UUID insertPrescription(String number, UUID patient) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescriptions (id, prescription_number, patient_id, " +
+                        "prescriber_name, prescriber_npi, prescription_date, written_date, expiration_date, source, " +
+                        "filled_at) VALUES (?, ?, ?, 'Dr. Jones', '1234567890', CURRENT_DATE, CURRENT_DATE, " +
+                        "CURRENT_DATE + 365, 'written', ?)",
+                id, number, patient, timestamp(FILLED.atTime(12, 0)));
+        return id;
+    }
+
+    private UUID insertItem(UUID prescriptionId, String dispensedQuantity, int refillsAuthorized) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescription_items (id, prescription_id, " +
+                        "written_medication_name, quantity, quantity_unit, days_supply, sig, refills_authorized, " +
+                        "dispensed_quantity, dispensed_ndc) VALUES (?, ?, 'Amoxicillin 500 mg', 30, 'capsule', 30, " +
+                        "'Take one daily', ?, ?::numeric, '00093310905')",
+                id, prescriptionId, refillsAuthorized, dispensedQuantity);
+        return id;
+    }
+
+    private UUID insertRefill(UUID prescriptionId, UUID itemId, int refillNumber, LocalDate filledDate) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescription_refills (id, prescription_id, " +
+                        "prescription_item_id, refill_number, ndc_code, quantity_dispensed, days_supply, " +
+                        "filled_date) VALUES (?, ?, ?, ?, '00093310905', 30, 30, ?)",
+                id, prescriptionId, itemId, refillNumber, Date.valueOf(filledDate));
+        return id;
+    }
+}
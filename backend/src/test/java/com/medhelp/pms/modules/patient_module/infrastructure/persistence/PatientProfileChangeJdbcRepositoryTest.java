@@ -0,0 +1,102 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientProfileChangeJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private PatientProfileChangeJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PatientProfileChangeJdbcRepository(jdbcTemplate);
+    }
+
+    @Test
+    void recordsWritesToThePatientAndItsChildTables() {
+        long start = repository.currentWatermark();
+        UUID inserted = insertPatient("P1");
+        UUID updated = insertPatient("P2");
+        UUID allergic = insertPatient("P3");
+        long afterInserts = repository.currentWatermark();
+
+        jdbcTemplate.update("UPDATE patient_schema.patients SET phone_primary = '555-010-0000' WHERE id = ?", updated);
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_allergies (patient_id, allergen_type, allergen_name) " +
+                "VALUES (?, 'drug', 'Penicillin')", allergic);
+        long afterChanges = repository.currentWatermark();
+
+        assertThat(repository.findChangedPatients(start, afterInserts).keySet()).containsExactlyInAnyOrder(inserted, updated,
+                allergic);
+        assertThat(repository.findChangedPatients(afterInserts, afterChanges).keySet())
+                .containsExactlyInAnyOrder(updated, allergic);
+    }
+
+    @Test
+    void flagsPatientsWhoseInsuranceChanged() {
+        UUID insured = insertPatient("P1");
+        UUID moved = insertPatient("P2");
+        long start = repository.currentWatermark();
+
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_insurance (patient_id, insurance_provider, " +
+                "policy_number, cardholder_name, relationship_to_cardholder, effective_date) " +
+                "VALUES (?, 'Acme Health', 'POL1', 'John Smith', 'self', CURRENT_DATE)", insured);
+        jdbcTemplate.update("UPDATE patient_schema.patients SET city = 'Chicago' WHERE id IN (?, ?)", insured, moved);
+
+        Map<UUID, Boolean> changed = repository.findChangedPatients(start, repository.currentWatermark());
+        assertThat(changed).containsEntry(insured, true).containsEntry(moved, false).hasSize(2);
+    }
+
+    @Test
+    void leavesChangesOfRunningTransactionsAboveTheWatermark() {
+        long start = repository.currentWatermark();
+        UUID[] patientId = new UUID[1];
+        long[] watermarkDuringWrite = new long[1];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            patientId[0] = insertPatient("P1");
+            watermarkDuringWrite[0] = watermarkFromAnotherSession();
+        });
+
+        assertThat(repository.findChangedPatients(start, watermarkDuringWrite[0]).keySet()).isEmpty();
+        assertThat(repository.findChangedPatients(start, repository.currentWatermark()).keySet()).containsExactly(patientId[0]);
+    }
+
+    @Test
+    void deletesChangesOlderThanTheCutoff() {
+        insertPatient("P1");
+
+        assertThat(repository.deleteChangedBefore(LocalDateTime.now().minusHours(1))).isZero();
+        assertThat(repository.deleteChangedBefore(LocalDateTime.now().plusMinutes(1))).isEqualTo(1);
+    }
+
+    private long watermarkFromAnotherSession() {
+        try (Connection connection = dataSource().getConnection()) {
+            return new PatientProfileChangeJdbcRepository(
+                    new JdbcTemplate(new SingleConnectionDataSource(connection, true))).currentWatermark();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UUID insertPatient(String number) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patient_schema.patients (id, patient_number, first_name, last_name, " +
+                        "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                        "VALUES (?, ?, 'John', 'Smith', ?, '555-010-0142', '1 Main St', 'Springfield', 'IL', '62701')",
+                id, number, Date.valueOf(LocalDate.of(1972, 3, 15)));
+        return id;
+    }
+}
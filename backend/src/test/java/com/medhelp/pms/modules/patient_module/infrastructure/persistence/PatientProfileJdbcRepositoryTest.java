@@ -0,0 +1,109 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientAllergyDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientConditionDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientInsuranceDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientPrescriberDto;
+import com.medhelp.pms.modules.patient_module.application.dtos.PatientProfileDto;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientProfileJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private PatientProfileJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PatientProfileJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void loadsEveryRequestedPatientWithOnlyTheirOwnChildRows() {
+        UUID smith = insertPatient("P1", "Smith");
+        UUID jones = insertPatient("P2", "Jones");
+        insertAllergy(smith, "Sulfa", true);
+        insertAllergy(smith, "Penicillin", true);
+        insertAllergy(jones, "Latex", true);
+        insertCondition(jones, "Hypertension", true);
+        insertPrescriber(smith, "Dr. Young", false);
+        insertPrescriber(smith, "Dr. Adams", true);
+        insertInsurance(jones, "Acme Health", true);
+
+        Map<UUID, PatientProfileDto> profiles = repository.findProfiles(List.of(smith, jones));
+
+        assertThat(profiles).containsOnlyKeys(smith, jones);
+        assertThat(profiles.get(smith).getLastName()).isEqualTo("Smith");
+        assertThat(profiles.get(smith).getAllergies()).extracting(PatientAllergyDto::getAllergenName)
+                .containsExactly("Penicillin", "Sulfa");
+        assertThat(profiles.get(smith).getConditions()).isEmpty();
+        assertThat(profiles.get(smith).getInsurance()).isEmpty();
+        assertThat(profiles.get(smith).getPrescribers()).extracting(PatientPrescriberDto::getPrescriberName)
+                .containsExactly("Dr. Adams", "Dr. Young");
+        assertThat(profiles.get(jones).getAllergies()).extracting(PatientAllergyDto::getAllergenName)
+                .containsExactly("Latex");
+        assertThat(profiles.get(jones).getConditions()).extracting(PatientConditionDto::getConditionName)
+                .containsExactly("Hypertension");
+        assertThat(profiles.get(jones).getInsurance()).extracting(PatientInsuranceDto::getInsuranceProvider)
+                .containsExactly("Acme Health");
+        assertThat(profiles.get(jones).getPrescribers()).isEmpty();
+    }
+
+    @Test
+    void leavesOutInactiveRowsAndDeletedOrUnknownPatients() {
+        UUID patient = insertPatient("P1", "Smith");
+        UUID deleted = insertPatient("P2", "Jones");
+        jdbcTemplate.update("UPDATE patient_schema.patients SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?", deleted);
+        insertAllergy(patient, "Penicillin", false);
+        insertCondition(patient, "Asthma", false);
+        insertInsurance(patient, "Old Health", false);
+        insertAllergy(deleted, "Latex", true);
+
+        Map<UUID, PatientProfileDto> profiles = repository.findProfiles(List.of(patient, deleted, UUID.randomUUID()));
+
+        assertThat(profiles).containsOnlyKeys(patient);
+        assertThat(profiles.get(patient).getAllergies()).isEmpty();
+        assertThat(profiles.get(patient).getConditions()).isEmpty();
+        assertThat(profiles.get(patient).getInsurance()).isEmpty();
+        assertThat(repository.findProfiles(List.of())).isEmpty();
+    }
+
+    private UUID insertPatient(String number, String lastName) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patient_schema.patients (id, patient_number, first_name, last_name, " +
+                        "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                        "VALUES (?, ?, 'John', ?, ?, '555-010-0142', '1 Main St', 'Springfield', 'IL', '62701')",
+                id, number, lastName, Date.valueOf(LocalDate.of(1972, 3, 15)));
+        return id;
+    }
+
+    private void insertAllergy(UUID patientId, String allergen, boolean active) {
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_allergies (patient_id, allergen_type, allergen_name, " +
+                "is_active) VALUES (?, 'drug', ?, ?)", patientId, allergen, active);
+    }
+
+    private void insertCondition(UUID patientId, String condition, boolean active) {
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_conditions (patient_id, condition_name, is_active) " +
+                "VALUES (?, ?, ?)", patientId, condition, active);
+    }
+
+    private void insertInsurance(UUID patientId, String provider, boolean active) {
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_insurance (patient_id, insurance_provider, " +
+                "policy_number, cardholder_name, relationship_to_cardholder, effective_date, is_active) " +
+                "VALUES (?, ?, 'POL1', 'John Smith', 'self', CURRENT_DATE, ?)", patientId, provider, active);
+    }
+
+    private void insertPrescriber(UUID patientId, String name, boolean primary) {
+        jdbcTemplate.update("INSERT INTO patient_schema.patient_prescribers (patient_id, prescriber_name, " +
+                "prescriber_npi, is_primary) VALUES (?, ?, '1234567890', ?)", patientId, name, primary);
+    }
+}
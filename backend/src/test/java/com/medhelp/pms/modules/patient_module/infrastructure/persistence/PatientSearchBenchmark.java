@@ -0,0 +1,102 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientSearchQuery;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientSearchJdbcRepository.PatientMatch;
+import com.medhelp.pms.support.TestDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of counter patient searches against a Testcontainers PostgreSQL holding 2M patients.
+ * <p>
+ * Patients are generated from a few hundred first and last names, so a name word matches
+ * thousands of rows the way common surnames do; birth dates spread over 90 years and phone
+ * numbers are unique. Rows go in through the patients table, so the search index is built by
+ * its trigger as in production. Sample mode reports the latency percentiles per query shape.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args="PatientSearchBenchmark"}
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PatientSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "james", "mary", "john", "patricia", "robert", "jennifer", "michael", "linda", "william", "elizabeth",
+            "david", "barbara", "richard", "susan", "joseph", "jessica", "thomas", "sarah", "charles", "karen",
+            "christopher", "nancy", "daniel", "lisa", "matthew", "betty", "anthony", "margaret", "mark", "sandra"
+    };
+    private static final String[] LAST_NAMES = {
+            "smith", "johnson", "williams", "brown", "jones", "garcia", "miller", "davis", "rodriguez", "martinez",
+            "hernandez", "lopez", "gonzalez", "wilson", "anderson", "thomas", "taylor", "moore", "jackson", "martin",
+            "lee", "perez", "thompson", "white", "harris", "sanchez", "clark", "ramirez", "lewis", "robinson",
+            "walker", "young", "allen", "king", "wright", "scott", "torres", "nguyen", "hill", "flores",
+            "green", "adams", "nelson", "baker", "hall", "rivera", "campbell", "mitchell", "carter", "roberts",
+            "obrien", "smyth", "schmidt", "muller", "kowalski", "novak", "ivanova", "kim", "park", "chen"
+    };
+
+    @State(Scope.Benchmark)
+    public static class Patients {
+
+        @Param({"2000000"})
+        public int patients;
+
+        @Param({"smi 1972", "smith john", "jon smyth", "sm 1985", "0142", "garcia 03/15/1972"})
+        public String text;
+
+        PatientSearchJdbcRepository repository;
+        PatientSearchQuery query;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM patient_schema.patient_search_index", Integer.class);
+            if (existing == null || existing != patients) {
+                jdbcTemplate.execute("TRUNCATE patient_schema.patients CASCADE");
+                jdbcTemplate.update("INSERT INTO patient_schema.patients (patient_number, first_name, last_name, " +
+                                "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                                "SELECT 'P' || g, initcap((?::text[])[1 + g % ?]), " +
+                                "initcap((?::text[])[1 + (g / 7) % ?]), " +
+                                "DATE '1930-01-01' + (g::bigint * 7919 % 32872)::int, " +
+                                "'555' || lpad(g::text, 7, '0'), '1 Main St', 'Springfield', 'IL', '62701' " +
+                                "FROM generate_series(1, ?) g",
+                        ps -> {
+                            ps.setArray(1, ps.getConnection().createArrayOf("text", FIRST_NAMES));
+                            ps.setInt(2, FIRST_NAMES.length);
+                            ps.setArray(3, ps.getConnection().createArrayOf("text", LAST_NAMES));
+                            ps.setInt(4, LAST_NAMES.length);
+                            ps.setInt(5, patients);
+                        });
+                jdbcTemplate.execute("ANALYZE patient_schema.patient_search_index");
+                jdbcTemplate.execute("ANALYZE patient_schema.patients");
+            }
+            repository = new PatientSearchJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+            query = PatientSearchQuery.parse(text, 4);
+        }
+    }
+
+    @Benchmark
+    public List<PatientMatch> search(Patients patients) {
+        return patients.repository.search(patients.query, 50);
+    }
+}
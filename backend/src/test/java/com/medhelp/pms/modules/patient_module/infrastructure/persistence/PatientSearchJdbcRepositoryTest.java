@@ -0,0 +1,66 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.patient_module.domain.value_objects.PatientSearchQuery;
+import com.medhelp.pms.modules.patient_module.infrastructure.persistence.PatientSearchJdbcRepository.PatientMatch;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientSearchJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private PatientSearchJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PatientSearchJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void ranksAnExactLastNameAboveASoundAlike() {
+        UUID smith = insertPatient("P1", "John", "Smith", LocalDate.of(1972, 3, 15), "555-010-0142");
+        UUID smyth = insertPatient("P2", "Jane", "Smyth", LocalDate.of(1980, 1, 1), "555-010-0199");
+
+        List<PatientMatch> matches = repository.search(PatientSearchQuery.parse("smith", 4), 10);
+
+        assertThat(matches).extracting(PatientMatch::getPatientId).containsExactly(smith, smyth);
+    }
+
+    @Test
+    void narrowsShortPrefixesByBirthYear() {
+        UUID match = insertPatient("P1", "John", "Smith", LocalDate.of(1972, 3, 15), "555-010-0142");
+        insertPatient("P2", "John", "Smith", LocalDate.of(1985, 6, 1), "555-010-0143");
+
+        List<PatientMatch> matches = repository.search(PatientSearchQuery.parse("sm 1972", 4), 10);
+
+        assertThat(matches).extracting(PatientMatch::getPatientId).containsExactly(match);
+    }
+
+    @Test
+    void servesShortPrefixesFromTheBTreeIndex() {
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT patient_id " +
+                    "FROM patient_schema.patient_search_index WHERE last_name_key LIKE 'sm%'", String.class));
+        });
+
+        assertThat(plan).contains("idx_patient_search_last_name_prefix");
+    }
+
+    private UUID insertPatient(String number, String firstName, String lastName, LocalDate dateOfBirth,
+                               String phone) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patient_schema.patients (id, patient_number, first_name, last_name, " +
+                        "date_of_birth, phone_primary, address_line1, city, state, zip_code) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, '1 Main St', 'Springfield', 'IL', '62701')",
+                id, number, firstName, lastName, Date.valueOf(dateOfBirth), phone);
+        return id;
+    }
+}
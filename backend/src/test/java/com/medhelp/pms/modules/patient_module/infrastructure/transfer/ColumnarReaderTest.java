@@ -0,0 +1,122 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader.RowGroup;
+import com.medhelp.pms.modules.patient_module.infrastructure.transfer.ColumnarReader.TableHeader;
+import com.medhelp.pms.shared.domain.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarReaderTest {
+
+    @Test
+    void readsBackEveryTableAndRowInOrder() throws IOException, SQLException {
+        List<String> names = List.of("Asthma", "Diabetes", "Hypertension", "Migraine", "Gout");
+        byte[] file = write(names, 2);
+
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(file))) {
+            TableHeader conditions = reader.nextTable();
+            assertThat(conditions.getName()).isEqualTo("patient_conditions");
+            assertThat(conditions.getColumnNames()).containsExactlyElementsOf(
+                    TransferTable.CONDITIONS.getColumns().stream().map(TransferTable.Column::getName).toList());
+
+            List<Integer> groupSizes = new ArrayList<>();
+            List<Object> readNames = new ArrayList<>();
+            RowGroup group;
+            while ((group = reader.nextRowGroup()) != null) {
+                groupSizes.add(group.getRowCount());
+                for (int r = 0; r < group.getRowCount(); r++) {
+                    readNames.add(group.value(2, r));
+                    assertThat(group.value(3, r)).isEqualTo("I10");
+                    assertThat(group.value(4, r)).isEqualTo(LocalDate.of(2020, 5, 1));
+                    assertThat(group.value(5, r)).isEqualTo(true);
+                    assertThat(group.value(6, r)).isNull();
+                    // Stored with the microsecond precision of PostgreSQL timestamps
+                    assertThat(group.value(7, r)).isEqualTo(Instant.parse("2024-01-02T03:04:05.123456Z"));
+                }
+            }
+            assertThat(groupSizes).containsExactly(2, 2, 1);
+            assertThat(readNames).containsExactlyElementsOf(names);
+
+            assertThat(reader.nextTable().getName()).isEqualTo("patient_prescribers");
+            assertThat(reader.nextRowGroup()).isNull();
+            assertThat(reader.nextTable()).isNull();
+        }
+    }
+
+    @Test
+    void refusesToSkipARowGroupOfTheCurrentTable() throws IOException, SQLException {
+        byte[] file = write(List.of("Asthma"), 10);
+
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(file))) {
+            reader.nextTable();
+            assertThatThrownBy(reader::nextTable).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotTransferFiles() {
+        byte[] file = "PK\u0003\u0004 not a transfer file".getBytes();
+
+        assertThatThrownBy(() -> new ColumnarReader(new ByteArrayInputStream(file)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Not a patient transfer file");
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException, SQLException {
+        byte[] file = write(List.of("Asthma"), 10);
+        file[ColumnarWriter.MAGIC.length + 3] = (byte) (ColumnarWriter.VERSION + 1);
+
+        assertThatThrownBy(() -> new ColumnarReader(new ByteArrayInputStream(file)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Unsupported transfer file version");
+    }
+
+    @Test
+    void failsOnATruncatedFile() throws IOException, SQLException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            names.add("Condition " + i);
+        }
+        byte[] full = write(names, 500);
+        byte[] truncated = Arrays.copyOf(full, full.length / 2);
+
+        assertThatThrownBy(() -> {
+            try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(truncated))) {
+                reader.nextTable();
+                while (reader.nextRowGroup() != null) {
+                    // read to the end
+                }
+            }
+        }).isInstanceOf(EOFException.class);
+    }
+
+    private static byte[] write(List<String> conditionNames, int rowGroupSize) throws IOException, SQLException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(file, rowGroupSize)) {
+            writer.beginTable(TransferTable.CONDITIONS);
+            for (String name : conditionNames) {
+                ResultSet row = ColumnarWriterTest.conditionRow(name);
+                writer.addRow(row);
+            }
+            writer.endTable();
+            writer.beginTable(TransferTable.PRESCRIBERS);
+            writer.endTable();
+        }
+        return file.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.medhelp.pms.modules.patient_module.infrastructure.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarWriterTest {
+
+    @Test
+    void startsWithTheMagicBytesAndVersion() throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        new ColumnarWriter(file, 10).close();
+
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(file.toByteArray()));
+        byte[] magic = new byte[4];
+        header.readFully(magic);
+        assertThat(magic).isEqualTo(ColumnarWriter.MAGIC);
+        assertThat(header.readInt()).isEqualTo(ColumnarWriter.VERSION);
+    }
+
+    @Test
+    void countsTheRowsOfEachTableAcrossRowGroups() throws IOException, SQLException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(file, 2)) {
+            writer.beginTable(TransferTable.CONDITIONS);
+            for (int i = 0; i < 5; i++) {
+                writer.addRow(conditionRow("Condition " + i));
+            }
+            assertThat(writer.endTable()).isEqualTo(5);
+
+            writer.beginTable(TransferTable.PRESCRIBERS);
+            assertThat(writer.endTable()).isZero();
+        }
+    }
+
+    @Test
+    void compressesRepeatedColumnValues() throws IOException, SQLException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        ColumnarWriter writer = new ColumnarWriter(file, 1000);
+        writer.beginTable(TransferTable.CONDITIONS);
+        for (int i = 0; i < 1000; i++) {
+            writer.addRow(conditionRow("Essential hypertension"));
+        }
+        writer.endTable();
+        writer.close();
+
+        // The two random ids take 32 bytes a row; the repeated name, code and dates must nearly vanish
+        assertThat(file.size()).isLessThan(1000 * 40);
+        assertThat(writer.bytesWritten()).isEqualTo(file.size());
+    }
+
+    static ResultSet conditionRow(String conditionName) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(UUID.randomUUID());
+        when(rs.getObject(2, UUID.class)).thenReturn(UUID.randomUUID());
+        when(rs.getString(3)).thenReturn(conditionName);
+        when(rs.getString(4)).thenReturn("I10");
+        when(rs.getObject(5, LocalDate.class)).thenReturn(LocalDate.of(2020, 5, 1));
+        when(rs.getObject(6, Boolean.class)).thenReturn(true);
+        when(rs.getString(7)).thenReturn(null);
+        when(rs.getObject(8, OffsetDateTime.class))
+                .thenReturn(OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_789, ZoneOffset.UTC));
+        return rs;
+    }
+}
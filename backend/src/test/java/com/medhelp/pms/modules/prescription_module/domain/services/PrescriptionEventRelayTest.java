@@ -0,0 +1,103 @@
+package com.medhelp.pms.modules.prescription_module.domain.services;
+
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionQueuedEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository.OutboxEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrescriptionEventRelayTest {
+
+    private PrescriptionEventJdbcRepository repository;
+    private ApplicationEventPublisher eventPublisher;
+    private PrescriptionEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PrescriptionEventJdbcRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        relay = new PrescriptionEventRelay(repository, eventPublisher, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+    }
+
+    @Test
+    void publishesFillsAndRefillsOfTheClaimedEntries() {
+        UUID prescriptionId = UUID.randomUUID();
+        UUID refillId = UUID.randomUUID();
+        PrescriptionFilledEvent fill = new PrescriptionFilledEvent(prescriptionId, "RX1", UUID.randomUUID(),
+                new ArrayList<>(), null, LocalDateTime.now());
+        PrescriptionRefilledEvent refill = new PrescriptionRefilledEvent(refillId, prescriptionId, null,
+                UUID.randomUUID(), 1, "00002123401", BigDecimal.TEN, 30, LocalDate.now());
+        when(repository.claim(2)).thenReturn(List.of(new OutboxEntry(1, "filled", prescriptionId),
+                new OutboxEntry(2, "refilled", refillId)));
+        when(repository.findFills(List.of(prescriptionId))).thenReturn(List.of(fill));
+        when(repository.findRefills(List.of(refillId))).thenReturn(List.of(refill));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        verify(eventPublisher).publishEvent(fill);
+        verify(eventPublisher).publishEvent(refill);
+    }
+
+    @Test
+    void publishesQueuedPrescriptionsThatAreStillUnfilled() {
+        UUID prescriptionId = UUID.randomUUID();
+        PrescriptionQueuedEvent queued = new PrescriptionQueuedEvent(prescriptionId, UUID.randomUUID());
+        when(repository.claim(2)).thenReturn(List.of(new OutboxEntry(1, "queued", prescriptionId)));
+        when(repository.findQueued(List.of(prescriptionId))).thenReturn(List.of(queued));
+        when(repository.findFills(any())).thenReturn(List.of());
+        when(repository.findRefills(any())).thenReturn(List.of());
+
+        relay.relayBatch();
+
+        verify(eventPublisher).publishEvent(queued);
+    }
+
+    @Test
+    void claimsAnotherBatchWhileBatchesComeBackFull() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(repository.claim(2)).thenReturn(
+                List.of(new OutboxEntry(1, "refilled", first), new OutboxEntry(2, "refilled", second)),
+                List.of());
+        when(repository.findQueued(any())).thenReturn(List.of());
+        when(repository.findFills(any())).thenReturn(List.of());
+        when(repository.findRefills(any())).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(repository, times(2)).claim(2);
+    }
+
+    @Test
+    void dropsEntriesOfUnknownType() {
+        when(repository.claim(2)).thenReturn(List.of(new OutboxEntry(1, "cancelled", UUID.randomUUID())));
+        when(repository.findQueued(any())).thenReturn(List.of());
+        when(repository.findFills(any())).thenReturn(List.of());
+        when(repository.findRefills(any())).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.medhelp.pms.modules.prescription_module.infrastructure.persistence;
+
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionFilledEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionQueuedEvent;
+import com.medhelp.pms.modules.prescription_module.domain.events.PrescriptionRefilledEvent;
+import com.medhelp.pms.modules.prescription_module.infrastructure.persistence.PrescriptionEventJdbcRepository.OutboxEntry;
+import com.medhelp.pms.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrescriptionEventJdbcRepositoryTest extends PostgresRepositoryTest {
+
+    private PrescriptionEventJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PrescriptionEventJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @Test
+    void queuesANewPrescriptionUntilItIsFilled() {
+        UUID queued = insertPrescription("RX1");
+        UUID filled = insertPrescription("RX2");
+
+        List<OutboxEntry> entries = claimAll();
+        assertThat(entries).extracting(OutboxEntry::getEventType).containsExactly("queued", "queued");
+        assertThat(entries).extracting(OutboxEntry::getReferenceId).containsExactly(queued, filled);
+
+        jdbcTemplate.update("UPDATE prescription_schema.prescriptions SET filled_at = CURRENT_TIMESTAMP " +
+                "WHERE id = ?", filled);
+        assertThat(repository.findQueued(List.of(queued, filled)))
+                .extracting(PrescriptionQueuedEvent::getPrescriptionId).containsExactly(queued);
+    }
+
+    @Test
+    void queuesAFillOnceThePrescriptionIsDispensed() {
+        UUID prescriptionId = insertPrescription("RX1");
+        UUID itemId = insertItem(prescriptionId);
+        claimAll();
+
+        jdbcTemplate.update("UPDATE prescription_schema.prescription_items SET dispensed_quantity = 30 WHERE id = ?",
+                itemId);
+        jdbcTemplate.update("UPDATE prescription_schema.prescriptions SET dispensed_at = CURRENT_TIMESTAMP " +
+                "WHERE id = ?", prescriptionId);
+        jdbcTemplate.update("UPDATE prescription_schema.prescriptions SET filled_at = CURRENT_TIMESTAMP " +
+                "WHERE id = ?", prescriptionId);
+
+        List<OutboxEntry> entries = claimAll();
+        assertThat(entries).extracting(OutboxEntry::getEventType).containsExactly("filled");
+        assertThat(entries).extracting(OutboxEntry::getReferenceId).containsExactly(prescriptionId);
+
+        List<PrescriptionFilledEvent> fills = repository.findFills(List.of(prescriptionId));
+        assertThat(fills).hasSize(1);
+        assertThat(fills.get(0).getPrescriptionNumber()).isEqualTo("RX1");
+        assertThat(fills.get(0).getItems()).extracting(PrescriptionFilledEvent.FilledItem::getDispensedQuantity)
+                .usingElementComparator(BigDecimal::compareTo).containsExactly(new BigDecimal("30"));
+    }
+
+    @Test
+    void queuesEveryRefill() {
+        UUID prescriptionId = insertPrescription("RX1");
+        UUID itemId = insertItem(prescriptionId);
+        UUID refillId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescription_refills (id, prescription_id, " +
+                        "prescription_item_id, refill_number, ndc_code, quantity_dispensed, days_supply, " +
+                        "filled_date) " +
+                        "VALUES (?, ?, ?, 1, '00002123401', 30, 30, ?)",
+                refillId, prescriptionId, itemId, Date.valueOf(LocalDate.of(2026, 3, 1)));
+
+        assertThat(claimAll()).filteredOn(entry -> entry.getEventType().equals("refilled")).extracting(OutboxEntry::getReferenceId).containsExactly(refillId);
+
+        List<PrescriptionRefilledEvent> refills = repository.findRefills(List.of(refillId));
+        assertThat(refills).hasSize(1);
+        assertThat(refills.get(0).getPrescriptionItemId()).isEqualTo(itemId);
+        assertThat(refills.get(0).getFilledDate()).isEqualTo(LocalDate.of(2026, 3, 1));
+    }
+
+    @Test
+    void claimsEachEntryOnce() {
+        insertPrescription("RX1");
+        insertPrescription("RX2");
+
+        List<OutboxEntry> claimed = transactionTemplate.execute(status -> repository.claim(1));
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimAll()).extracting(OutboxEntry::getReferenceId)
+                .doesNotContain(claimed.get(0).getReferenceId()).hasSize(1);
+    }
+
+    private List<OutboxEntry> claimAll() {
+        return transactionTemplate.execute(status -> repository.claim(100));
+    }
+
+    private UUID insertPrescription(String number) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescriptions (id, prescription_number, patient_id, " +
+                        "prescriber_name, prescriber_npi, prescription_date, written_date, expiration_date, source) " +
+                        "VALUES (?, ?, ?, 'Dr. Jones', '1234567890', CURRENT_DATE, CURRENT_DATE, " +
+                        "CURRENT_DATE + 365, 'written')",
+                id, number, UUID.randomUUID());
+        return id;
+    }
+
+    private UUID insertItem(UUID prescriptionId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO prescription_schema.prescription_items (id, prescription_id, " +
+                        "written_medication_name, quantity, quantity_unit, days_supply, sig) " +
+                        "VALUES (?, ?, 'Amoxicillin 500 mg', 30, 'capsule', 30, 'Take one daily')",
+                id, prescriptionId);
+        return id;
+    }
+}
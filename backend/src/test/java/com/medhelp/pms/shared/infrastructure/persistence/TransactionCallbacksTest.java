@@ -0,0 +1,59 @@
+package com.medhelp.pms.shared.infrastructure.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCallbacksTest {
+
+    private final List<String> ran = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void runsCommitActionsOnlyOnCommit() {
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ran).containsExactly("commit");
+    }
+
+    @Test
+    void runsRollbackActionsOnRollbackAndUnknownOutcome() {
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(TransactionSynchronization.STATUS_UNKNOWN);
+
+        assertThat(ran).containsExactly("rollback", "rollback");
+    }
+
+    @Test
+    void refusesToRegisterOutsideATransaction() {
+        assertThatThrownBy(() -> TransactionCallbacks.afterCommit(() -> ran.add("commit")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(ran).isEmpty();
+    }
+
+    private void complete(int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCommit(() -> ran.add("commit"));
+        TransactionCallbacks.afterRollback(() -> ran.add("rollback"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
@@ -0,0 +1,88 @@
+package com.medhelp.pms.support;
+
+import com.medhelp.pms.shared.infrastructure.security.SecurityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Base class for repository tests that run the JDBC repositories against a real
+ * PostgreSQL with the Flyway migrations applied.
+ * <p>
+ * One container is shared by all test classes (see TestDatabase); each test starts
+ * from empty tables.
+ * Tests are skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresRepositoryTest {
+
+    private static final String[] SCHEMAS = {
+            "notification_schema", "billing_schema", "inventory_schema", "prescription_schema", "patient_schema",
+            "user_schema"
+    };
+
+    protected JdbcTemplate jdbcTemplate;
+    protected PlatformTransactionManager transactionManager;
+    protected TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUpDatabase() {
+        DataSource shared = TestDatabase.dataSource();
+        jdbcTemplate = new JdbcTemplate(shared);
+        transactionManager = new DataSourceTransactionManager(shared);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        truncateAll();
+    }
+
+    protected DataSource dataSource() {
+        return TestDatabase.dataSource();
+    }
+
+    private void truncateAll() {
+        StringBuilder tables = new StringBuilder();
+        for (String schema : SCHEMAS) {
+            for (String table : jdbcTemplate.queryForList(
+                    "SELECT tablename FROM pg_tables WHERE schemaname = ?", String.class, schema)) {
+                if (tables.length() > 0) {
+                    tables.append(", ");
+                }
+                tables.append(schema).append('.').append(table);
+            }
+        }
+        if (tables.length() > 0) {
+            jdbcTemplate.execute("TRUNCATE " + tables + " CASCADE");
+        }
+        jdbcTemplate.update("INSERT INTO user_schema.users (id, username, email, password_hash, first_name, last_name, " +
+                        "role, is_active) VALUES (?, 'system', 'system@medhelp.local', '!', 'System', 'Process', 'SYSTEM', false)",
+                SecurityUtils.SYSTEM_USER_ID);
+    }
+
+    protected UUID insertUser(String username) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO user_schema.users (id, username, email, password_hash, first_name, last_name, role) " +
+                        "VALUES (?, ?, ?, 'x', 'Test', 'User', 'PHARMACIST')",
+                id, username, username + "@example.com");
+        return id;
+    }
+
+    protected UUID insertInventoryItem(String ndc, String quantityOnHand) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_schema.inventory_items " +
+                        "(id, medication_id, ndc_code, quantity_on_hand, quantity_unit, reorder_point, reorder_quantity) " +
+                        "VALUES (?, ?, ?, ?::numeric, 'tablet', 10, 100)",
+                id, UUID.randomUUID(), ndc, quantityOnHand);
+        return id;
+    }
+
+    protected static Timestamp timestamp(LocalDateTime value) {
+        return Timestamp.valueOf(value);
+    }
+}
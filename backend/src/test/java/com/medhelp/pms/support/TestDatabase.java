@@ -0,0 +1,38 @@
+package com.medhelp.pms.support;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * A PostgreSQL container with the Flyway migrations from backend/migrations applied,
+ * started once per JVM and shared by repository tests and benchmarks.
+ */
+public final class TestDatabase {
+
+    private static PostgreSQLContainer postgres;
+    private static DataSource dataSource;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized DataSource dataSource() {
+        if (dataSource == null) {
+            postgres = new PostgreSQLContainer("postgres:16-alpine");
+            postgres.start();
+            // Some early migrations alter user_schema tables without qualifying the schema
+            String url = postgres.getJdbcUrl() + (postgres.getJdbcUrl().contains("?") ? "&" : "?")
+                    + "currentSchema=public,user_schema";
+            dataSource = new SimpleDriverDataSource(new org.postgresql.Driver(), url,
+                    postgres.getUsername(), postgres.getPassword());
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("filesystem:migrations")
+                    .load()
+                    .migrate();
+        }
+        return dataSource;
+    }
+}